@@ -0,0 +1,207 @@
+package com.modernbank.account.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.modernbank.account.archive.ColumnarArchive.Column;
+import com.modernbank.account.archive.ColumnarArchive.ColumnType;
+import com.modernbank.account.archive.TransactionHistoryPartitionManager.PartitionSnapshot;
+import com.modernbank.account.domain.entity.TransactionHistory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 거래이력 월 파티션 관리와 콜드 이력 아카이브.
+ * - 이번 달부터 months-ahead 개월 뒤까지의 파티션을 미리 만든다.
+ * - retention-months 개월보다 오래된(닫힌) 파티션은 컬럼 단위 압축 파일로 내려쓴 뒤 운영 DB에서 삭제한다.
+ *   운영 테이블에는 최근 파티션만 남으므로 파티션별 인덱스가 작게 유지된다.
+ * - 아카이브 디렉터리(history.archive.dir)는 모든 인스턴스가 함께 읽는 영구 공유 스토리지(공유 볼륨 마운트)여야 한다.
+ *   설정되지 않았거나 마운트되어 있지 않으면 파티션을 삭제하지 않는다. 파일을 다시 읽어 행 수를 확인한 뒤에만 삭제한다.
+ * - 아카이브 파일은 거래내역 조회 시 운영 테이블 결과와 합쳐서 반환한다. 조회는 최근 query-months 개월의 파일만 읽는다.
+ *   (전체 기간은 거래내역 내보내기(StatementExporter)가 기간을 지정해 읽는다)
+ */
+@Component
+public class TransactionHistoryArchiver {
+
+    static final List<Column> COLUMNS = List.of(
+            new Column("ACNT_NO", ColumnType.STRING),
+            new Column("SEQ", ColumnType.INT),
+            new Column("DIV_CD", ColumnType.STRING),
+            new Column("STS_CD", ColumnType.STRING),
+            new Column("TRNS_AMT", ColumnType.LONG),
+            new Column("ACNT_BLNC", ColumnType.LONG),
+            new Column("TRNS_BRNCH", ColumnType.STRING),
+            new Column("TRNS_DTM", ColumnType.TIMESTAMP));
+
+    private final Logger LOGGER = LoggerFactory.getLogger(TransactionHistoryArchiver.class);
+
+    @Autowired
+    TransactionHistoryPartitionManager partitionManager;
+
+    @Value("${history.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${history.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${history.archive.row-group-size:4096}")
+    private int rowGroupSize;
+
+    @Value("${history.archive.query-months:12}")
+    private int queryMonths;
+
+    // 설정되지 않았으면 null (아카이브하지 않는다)
+    private final Path archiveRoot;
+    private final Path archiveDir;
+
+    // 아카이브 파일 목록과 그때의 디렉터리 수정 시각
+    private volatile ArchiveFileList archiveFiles;
+
+    public TransactionHistoryArchiver(@Value("${history.archive.dir:}") String archiveDir) {
+        this.archiveRoot = archiveDir.isBlank() ? null : Paths.get(archiveDir);
+        this.archiveDir = archiveRoot == null ? null : archiveRoot.resolve("TB_TRNS_HST");
+    }
+
+    @Scheduled(fixedDelayString = "${history.archive.interval-ms:3600000}")
+    public void maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now();
+
+        try {
+            List<YearMonth> months = new ArrayList<>();
+            for (int i = 0; i <= monthsAhead; i++)
+                months.add(currentMonth.plusMonths(i));
+            partitionManager.createPartitions(months);
+        } catch (Exception e) {
+            LOGGER.error("Unable to create transaction history partitions due to : " + e.getMessage(), e);
+        }
+
+        // 로컬 디스크(임시 디렉터리 등)에 쓰고 지우면 재시작이나 다른 인스턴스에서 이력이 사라진다.
+        if (archiveRoot == null || !Files.isDirectory(archiveRoot)) {
+            LOGGER.warn("Transaction history archive directory (history.archive.dir) is not configured or not mounted: " + archiveRoot
+                    + ", keeping closed partitions");
+            return;
+        }
+
+        try {
+            for (YearMonth month : partitionManager.selectClosedPartitionMonths(currentMonth.minusMonths(retentionMonths))) {
+                if (!archivePartition(month))
+                    break;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Unable to archive transaction history partitions due to : " + e.getMessage(), e);
+        }
+    }
+
+    private boolean archivePartition(YearMonth month) throws Exception {
+        Path archiveFile = archiveFile(month);
+        ColumnarArchive.Writer writer = ColumnarArchive.writer(archiveFile, COLUMNS, rowGroupSize);
+
+        PartitionSnapshot snapshot;
+        try {
+            snapshot = partitionManager.exportPartition(month, writer);
+            writer.close();
+        } catch (Exception e) {
+            writer.abort();
+            throw e;
+        }
+
+        // 파티션을 지우기 전에 파일 전체를 다시 읽어 기록한 행이 모두 있는지 확인한다.
+        long verified = ColumnarArchive.verify(archiveFile);
+        if (verified != snapshot.getRowCount())
+            throw new IllegalStateException("Archive " + archiveFile + " has " + verified + " rows, expected " + snapshot.getRowCount());
+
+        LOGGER.info("Archived " + snapshot.getRowCount() + " transaction history rows to " + archiveFile
+                + " (" + Files.size(archiveFile) + " bytes)");
+        return partitionManager.dropArchivedPartition(month, snapshot);
+    }
+
+    /**
+     * 최근 query-months 개월(0이면 전체)의 아카이브 파일에서 계좌의 거래내역을 찾는다. (운영 테이블에 남아 있는 행도 포함될 수 있다)
+     */
+    public List<TransactionHistory> findArchivedTransactionHistoryList(String acntNo) throws IOException {
+        YearMonth fromMonth = queryMonths > 0 ? YearMonth.now().minusMonths(queryMonths) : null;
+        List<TransactionHistory> transactionHistoryList = new ArrayList<>();
+        for (Path archiveFile : findArchiveFiles(fromMonth, null))
+            transactionHistoryList.addAll(readArchiveFile(archiveFile, acntNo));
+        return transactionHistoryList;
+    }
+
+    /**
+     * 기간(월, 양끝 포함)에 해당하는 아카이브 파일을 오래된 순으로 반환한다. null이면 제한하지 않는다.
+     */
+    public List<Path> findArchiveFiles(YearMonth fromMonth, YearMonth toMonth) throws IOException {
+        List<Path> files = listArchiveFiles();
+        if (files.isEmpty())
+            return files;
+
+        String from = fromMonth == null ? null : archiveFile(fromMonth).getFileName().toString();
+        String to = toMonth == null ? null : archiveFile(toMonth).getFileName().toString();
+        return files.stream()
+                .filter(file -> from == null || file.getFileName().toString().compareTo(from) >= 0)
+                .filter(file -> to == null || file.getFileName().toString().compareTo(to) <= 0)
+                .toList();
+    }
+
+    // 조회마다 디렉터리를 나열하지 않고, 디렉터리 수정 시각이 바뀌었을 때만(어느 인스턴스든 파일을 만들거나 바꾸면) 다시 나열한다.
+    private List<Path> listArchiveFiles() throws IOException {
+        if (archiveDir == null || !Files.isDirectory(archiveDir))
+            return new ArrayList<>();
+
+        long modifiedAt = Files.getLastModifiedTime(archiveDir).toMillis();
+        ArchiveFileList cached = archiveFiles;
+        if (cached != null && cached.modifiedAt == modifiedAt)
+            return cached.files;
+
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            cached = new ArchiveFileList(modifiedAt, files.filter(file -> file.toString().endsWith(ColumnarArchive.FILE_EXTENSION)).sorted().toList());
+        }
+        archiveFiles = cached;
+        return cached.files;
+    }
+
+    /**
+     * 아카이브 파일 하나에서 계좌의 거래내역을 순번 순으로 읽는다.
+     */
+    public List<TransactionHistory> readArchiveFile(Path archiveFile, String acntNo) throws IOException {
+        List<TransactionHistory> transactionHistoryList = new ArrayList<>();
+        for (Object[] row : ColumnarArchive.read(archiveFile, acntNo)) {
+            transactionHistoryList.add(TransactionHistory.builder()
+                    .acntNo((String) row[0])
+                    .seq((Integer) row[1])
+                    .divCd((String) row[2])
+                    .stsCd((String) row[3])
+                    .trnsAmt((Long) row[4])
+                    .acntBlnc((Long) row[5])
+                    .trnsBrnch((String) row[6])
+                    .trnsDtm(((LocalDateTime) row[7]).format(TransactionHistoryPartitionManager.TRNS_DTM_FORMAT))
+                    .build());
+        }
+        return transactionHistoryList;
+    }
+
+    private Path archiveFile(YearMonth month) {
+        return archiveDir.resolve(TransactionHistoryPartitionManager.partitionName(month) + ColumnarArchive.FILE_EXTENSION);
+    }
+
+    private static final class ArchiveFileList {
+        private final long modifiedAt;
+        private final List<Path> files;
+
+        private ArchiveFileList(long modifiedAt, List<Path> files) {
+            this.modifiedAt = modifiedAt;
+            this.files = files;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.modernbank.account.bulkhead;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import com.modernbank.account.deadline.Deadline;
+import com.modernbank.account.exception.SystemException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+/**
+ * 호출 대상 서비스별 스레드 풀 격리(bulkhead).
+ * 원격 호출은 대상별 풀(resilience4j.thread-pool-bulkhead.instances.<이름>)에서 실행되고, 요청 스레드는 결과만 기다린다.
+ * 풀과 대기열이 모두 차면 BulkheadFullException으로 바로 실패하므로, 느린 서비스 하나가 톰캣 스레드 전체를 붙잡지 못한다.
+ * 요청 기한(Deadline)과 트레이스 컨텍스트는 풀 스레드로 넘긴다.
+ * 요청 속성(RequestAttributes)은 넘기지 않는다. 요청이 끝난 뒤에도 풀 스레드가 쓸 수 있으므로, 쿠키 헤더 등 필요한 값은 제출 전에 꺼내 둔다.
+ * 풀 크기, 대기열 깊이 등은 resilience4j.bulkhead.* 메트릭으로 인스턴스별로 보고된다.
+ */
+@Component
+public class DownstreamBulkheads {
+
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    @Autowired
+    private ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+
+    public <T> T execute(String name, Supplier<T> call) {
+        ThreadPoolBulkhead bulkhead = threadPoolBulkheadRegistry.bulkhead(name);
+
+        Long deadline = Deadline.capture();
+        ContextSnapshot contextSnapshot = CONTEXT_SNAPSHOTS.captureAll();
+        try {
+            return bulkhead.executeSupplier(() -> {
+                Deadline.restore(deadline);
+                try (ContextSnapshot.Scope scope = contextSnapshot.setThreadLocals()) {
+                    return call.get();
+                } finally {
+                    Deadline.clear();
+                }
+            }).toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (cause instanceof Error error)
+                throw error;
+            throw new SystemException(String.valueOf(cause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for " + name);
+        }
+    }
+}
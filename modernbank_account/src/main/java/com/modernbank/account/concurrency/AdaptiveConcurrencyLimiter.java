@@ -0,0 +1,90 @@
+package com.modernbank.account.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 응답 시간 기울기(gradient) 기반 동시 처리 한도.
+ * 평소 응답 시간(long RTT, 지수 이동 평균)과 최근 응답 시간(short RTT)의 비율로 한도를 조절한다.
+ * - 최근 응답이 평소의 tolerance배 이내이면 한도를 queue 여유(sqrt(limit))만큼 늘린다.
+ * - 그보다 느려지면(대기열이 쌓이기 시작하면) 비율(최소 0.5)만큼 줄인다.
+ * - 5xx 응답(풀 대기 시간 초과 등)은 과부하 신호로 보고 한도를 dropFactor만큼 줄인다.
+ * 요청이 한도의 절반도 쓰지 않을 때는 늘리지 않아 부하가 없는 동안 한도가 무한히 커지지 않게 한다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+    private static final double SHORT_RTT_ALPHA = 2.0 / (10 + 1);
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getAdmissionShare()));
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= allowed)
+                return false;
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // 받은 요청이 끝나면 반드시 호출한다. (응답 시간과 5xx 여부로 한도를 조절)
+    public void release(long rttNanos, boolean dropped) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        update(rttNanos, dropped, inflightAtCompletion);
+    }
+
+    private synchronized void update(long rttNanos, boolean dropped, int inflightAtCompletion) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * DROP_FACTOR;
+        } else {
+            shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + SHORT_RTT_ALPHA * (rttNanos - shortRttNanos);
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + LONG_RTT_ALPHA * (rttNanos - longRttNanos);
+
+            // 부하가 줄어 평소보다 훨씬 빨라졌으면 평소 값을 빨리 따라 내려가게 한다.
+            if (longRttNanos / shortRttNanos > 2)
+                longRttNanos *= 0.95;
+
+            // 한도의 절반도 쓰지 않는 동안은 응답 시간이 한도를 판단할 근거가 되지 못한다.
+            if (inflightAtCompletion < estimatedLimit / 2)
+                return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * gradient + queueSize;
+        }
+
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
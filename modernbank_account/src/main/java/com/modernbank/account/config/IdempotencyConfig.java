@@ -0,0 +1,21 @@
+package com.modernbank.account.config;
+
+import com.modernbank.account.idempotency.IdempotencyFilter;
+import com.modernbank.account.idempotency.IdempotencyKeyStore;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyKeyStore idempotencyKeyStore) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyKeyStore));
+        registration.addUrlPatterns("/deposits/", "/withdrawals/", "/withdrawals/bulk/", "/withdrawals/confirm/", "/transactions/bulk/");
+        return registration;
+    }
+}
@@ -0,0 +1,59 @@
+package com.modernbank.account.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+/**
+ * 이 서비스가 발행하는 토픽을 선언한다.
+ * 모든 이벤트는 집계 ID(acntNo, cstmId)를 키로 발행되므로 같은 집계의 이벤트는 항상 같은 파티션에 순서대로 쌓이고,
+ * Consumer는 파티션 수만큼 병렬로 처리할 수 있다.
+ * 기동 시 토픽이 없으면 만들고, 파티션 수가 설정보다 적으면 늘린다. (파티션을 늘리면 키-파티션 매핑이 바뀌므로 유입이 없을 때 늘린다)
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value(value = "${kafka.bootstrapAddress}")
+    private String bootstrapAddress;
+
+    @Value(value = "${kafka.topic.partitions:6}")
+    private int partitions;
+
+    @Value(value = "${kafka.topic.replicas:1}")
+    private short replicas;
+
+    @Value(value = "${creating.account.topic.name}")
+    private String creatingAccountTopicName;
+
+    @Value(value = "${updating.account.balance.topic.name}")
+    private String updatingAccountBalanceTopicName;
+
+    @Value(value = "${transaction.topic.name}")
+    private String transactionTopicName;
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        return new KafkaAdmin(props);
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics eventTopics() {
+        return new KafkaAdmin.NewTopics(
+                topic(creatingAccountTopicName),
+                topic(updatingAccountBalanceTopicName),
+                topic(transactionTopicName));
+    }
+
+    private NewTopic topic(String name) {
+        return TopicBuilder.name(name).partitions(partitions).replicas(replicas).build();
+    }
+}
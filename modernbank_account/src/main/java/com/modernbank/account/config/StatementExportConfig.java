@@ -0,0 +1,30 @@
+package com.modernbank.account.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class StatementExportConfig {
+
+    @Value("${statement.export.executor.pool-size:2}")
+    private int poolSize;
+
+    @Value("${statement.export.executor.queue-capacity:10}")
+    private int queueCapacity;
+
+    // 거래내역 내보내기용. 작업마다 DB 커넥션을 하나씩 오래 잡으므로 동시 실행 수를 커넥션 풀보다 충분히 작게 제한하고,
+    // 대기열이 가득 차면 접수를 거절한다.
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor statementExportExecutor() {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("statement-export-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,62 @@
+package com.modernbank.account.consistency;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * gRPC 원장 호출의 일관성 토큰.
+ * 호출마다 토큰을 만들어 핸들러가 실행되는 동안 스레드에 묶고, 응답 trailer(x-consistency-token)로 돌려준다.
+ * Transfer Service는 이 토큰을 자기 응답의 토큰에 합쳐 이체 후 CQRS 잔액 조회가 출금/입금 반영을 기다리게 한다.
+ */
+public class ConsistencyTokenGrpcInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> TOKEN_KEY = Metadata.Key.of("x-consistency-token", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ConsistencyTokenTracker consistencyTokenTracker;
+
+    public ConsistencyTokenGrpcInterceptor(ConsistencyTokenTracker consistencyTokenTracker) {
+        this.consistencyTokenTracker = consistencyTokenTracker;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        ConsistencyToken token = new ConsistencyToken();
+        ServerCall<ReqT, RespT> tokenCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                String encoded = token.encode();
+                if (encoded != null)
+                    trailers.put(TOKEN_KEY, encoded);
+                super.close(status, trailers);
+            }
+        };
+
+        // 단건 호출은 onHalfClose에서, 스트리밍 호출은 onMessage에서 핸들러가 실행된다.
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(tokenCall, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                consistencyTokenTracker.bind(token);
+                try {
+                    super.onMessage(message);
+                } finally {
+                    consistencyTokenTracker.unbind();
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                consistencyTokenTracker.bind(token);
+                try {
+                    super.onHalfClose();
+                } finally {
+                    consistencyTokenTracker.unbind();
+                }
+            }
+        };
+    }
+}
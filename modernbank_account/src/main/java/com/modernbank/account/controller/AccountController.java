@@ -1,28 +1,48 @@
 package com.modernbank.account.controller;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import com.modernbank.account.concurrency.ConcurrencyLimited;
+import com.modernbank.account.concurrency.Priority;
 import com.modernbank.account.domain.entity.Account;
+import com.modernbank.account.domain.entity.BulkTransactionResult;
+import com.modernbank.account.domain.entity.StatementExport;
 import com.modernbank.account.domain.entity.TransactionHistory;
 import com.modernbank.account.domain.entity.TransactionResult;
+import com.modernbank.account.idempotency.IdempotencyClaim;
+import com.modernbank.account.idempotency.IdempotencyKeyStore;
 import com.modernbank.account.service.AccountService;
+import com.modernbank.account.service.StatementExportService;
+import com.modernbank.account.singleflight.SingleFlight;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
+@ConcurrencyLimited
 public class AccountController {
 
     @Autowired
     @Resource(name = "accountService")
     private AccountService accountService;
+
+    @Resource(name = "statementExportService")
+    private StatementExportService statementExportService;
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
     
     @Operation(summary = "Account Inquiry", method = "GET", description = "Retrieve account information")
     @GetMapping("/{acntNo}")
@@ -38,20 +58,23 @@ public class AccountController {
 
     @Operation(summary = "Account List Inquiry", method = "GET", description = "Retrieve list of accounts for a customer")
     @GetMapping("/customer/{cstmId}/accounts")
+    @ConcurrencyLimited(Priority.LOW)
     public List<Account> retrieveAccountList(@PathVariable(name = "cstmId") String cstmId) throws Exception {
         return accountService.retrieveAccountList(cstmId);
     }
 
     @Operation(summary = "Account Balance Inquiry", method = "GET", description = "Retrieve account balance")
     @GetMapping("/{acntNo}/balance")
+    @SingleFlight("account.balance")
     public Long retrieveAccountBalance(@PathVariable(name = "acntNo") String acntNo) throws Exception {
         return accountService.retrieveAccountBalance(acntNo);
     }
 
     @Operation(summary = "Deposit", method = "POST", description = "Make a deposit")
     @PostMapping("/deposits/")
+    @ConcurrencyLimited(Priority.CRITICAL)
     public TransactionResult deposit(@RequestBody TransactionHistory input) throws Exception {
-        return accountService.deposit(input);
+        return ledger(() -> accountService.deposit(input));
     }
 
     @Operation(
@@ -68,18 +91,108 @@ public class AccountController {
         method = "POST"
     )
     @PostMapping("/withdrawals/")
+    @ConcurrencyLimited(Priority.CRITICAL)
     public TransactionResult withdrawal(@RequestBody TransactionHistory input) throws Exception {
         System.out.println("==> AccountController.withdrawal()");
         System.out.println("DivCD: " + input.getDivCd() + ", StatusCD: " + input.getStsCd()); 
         //DivCd 정의할 것
-        return accountService.withdrawOwnBankOrTransferOtherBank(input);
+        return ledger(() -> accountService.withdrawOwnBankOrTransferOtherBank(input));
+    }
+
+    @Operation(
+        summary = "Post bulk transactions",
+        description = """
+            Post many deposits (divCd "D") and withdrawals (divCd "W") across accounts in one request.
+            Entries are grouped by account and applied in request order with running balances.
+            A failed entry does not stop the others; the result of every entry is returned in request order.
+            With atomic=true, nothing is posted if any entry fails.
+        """,
+        method = "POST"
+    )
+    @PostMapping("/transactions/bulk/")
+    @ConcurrencyLimited(Priority.CRITICAL)
+    public List<BulkTransactionResult> postTransactionsInBulk(@RequestBody List<TransactionHistory> inputs,
+            @RequestParam(name = "atomic", defaultValue = "false") boolean atomic) throws Exception {
+        return ledger(() -> accountService.postTransactionsInBulk(inputs, atomic));
     }
 
-    // TODO
+    @Operation(
+        summary = "Process bulk withdrawals",
+        description = """
+            Process many withdrawals in one request (e.g. bulk other bank transfers).
+            Each item follows the same status code rules as /withdrawals/.
+            A failed item does not stop the others; the result of every item is returned in request order.
+        """,
+        method = "POST"
+    )
+    @PostMapping("/withdrawals/bulk/")
+    @ConcurrencyLimited(Priority.CRITICAL)
+    public List<BulkTransactionResult> bulkWithdrawal(@RequestBody List<TransactionHistory> inputs) throws Exception {
+        return ledger(() -> accountService.withdrawInBulk(inputs));
+    }
+
+    @Operation(
+        summary = "Confirm or cancel other bank transfer withdrawal",
+        description = """
+            Apply the result of an other bank transfer to the pending withdrawal.
+            
+            Required status codes (stsCd):
+            - "1": the other bank completed the transfer, confirm the withdrawal
+            - "2": the other bank rejected the transfer, cancel the withdrawal
+        """,
+        method = "POST"
+    )
+    @PostMapping("/withdrawals/confirm/")
+    @ConcurrencyLimited(Priority.CRITICAL)
+    public Integer confirmWithdrawal(@RequestBody TransactionHistory input) throws Exception {
+        return ledger(() -> accountService.processExternalTransferConfirmation(input));
+    }
     
     @Operation(summary = "Transaction History Inquiry", method = "GET", description = "Retrieve transaction history")
     @GetMapping("/{acntNo}/transactions")
+    @ConcurrencyLimited(Priority.LOW)
     public List<TransactionHistory> retrieveTransactionHistory(@PathVariable(name = "acntNo") String acntNo) throws Exception {
         return accountService.retrieveTransactionHistoryList(acntNo);
     }
+
+    @Operation(
+        summary = "Request transaction statement export",
+        description = """
+            Export the full transaction history of an account (including archived months) to a gzip file.
+            The export runs asynchronously; poll the returned exportId and download the file when status is COMPLETED.
+            format: csv | ndjson, fromDt/toDt: yyyy-MM-dd (inclusive, optional)
+        """,
+        method = "POST"
+    )
+    @PostMapping("/{acntNo}/statements")
+    @ConcurrencyLimited(Priority.LOW)
+    public ResponseEntity<StatementExport> exportStatement(@PathVariable(name = "acntNo") String acntNo,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "fromDt", required = false) String fromDt,
+            @RequestParam(name = "toDt", required = false) String toDt) throws Exception {
+        return ResponseEntity.accepted().body(statementExportService.submitStatementExport(acntNo, format, fromDt, toDt));
+    }
+
+    @Operation(summary = "Transaction Statement Export Status", method = "GET", description = "Retrieve the status of a statement export")
+    @GetMapping("/{acntNo}/statements/{exportId}")
+    @ConcurrencyLimited(Priority.LOW)
+    public StatementExport retrieveStatementExport(@PathVariable(name = "acntNo") String acntNo,
+            @PathVariable(name = "exportId") String exportId) throws Exception {
+        return statementExportService.retrieveStatementExport(acntNo, exportId);
+    }
+
+    @Operation(summary = "Download Transaction Statement", method = "GET", description = "Download a completed statement export (gzip)")
+    @GetMapping("/{acntNo}/statements/{exportId}/file")
+    @ConcurrencyLimited(Priority.LOW)
+    public void downloadStatement(@PathVariable(name = "acntNo") String acntNo,
+            @PathVariable(name = "exportId") String exportId,
+            HttpServletRequest request, HttpServletResponse response) throws Exception {
+        statementExportService.sendStatementFile(acntNo, exportId, request, response);
+    }
+
+    // Idempotency-Key로 선점된 요청이면 원장 거래와 키 완료 상태를 한 트랜잭션으로 커밋한다. (IdempotencyFilter)
+    private <T> T ledger(Callable<T> call) throws Exception {
+        IdempotencyClaim claim = IdempotencyClaim.current();
+        return claim == null ? call.call() : idempotencyKeyStore.execute(claim, call);
+    }
 }
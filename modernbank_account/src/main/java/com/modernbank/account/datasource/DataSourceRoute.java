@@ -0,0 +1,20 @@
+package com.modernbank.account.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메소드(매퍼 메소드 포함) 실행 동안 조회를 보낼 풀을 지정한다.
+ * - REPLICA: 트랜잭션 밖이거나 읽기 전용 트랜잭션일 때 복제본으로 보낸다 (지연/read-your-writes 시 primary로 대체)
+ * - PRIMARY: 바깥에서 지정하면 안쪽의 REPLICA 지정보다 우선한다 (한도 검증 등 최신 값이 필요한 조회)
+ * 쓰기 트랜잭션 안의 조회는 지정과 관계없이 항상 primary를 쓴다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DataSourceRoute {
+    Route value();
+}
@@ -0,0 +1,79 @@
+package com.modernbank.account.deadline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * X-Request-Timeout-Ms 헤더의 남은 시간으로 요청 기한을 정한다. (헤더가 없으면 default-budget-ms, 0이면 기한 없음)
+ * 도착했을 때 이미 시간이 남지 않은 요청은 호출한 쪽이 결과를 기다리지 않으므로 처리하지 않고 504로 응답한다.
+ * 기한은 이 요청에서 나가는 호출(DeadlineRequestFactory, gRPC deadline)의 타임아웃 상한이 된다.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    private final long defaultBudgetMs;
+
+    public DeadlineFilter(long defaultBudgetMs) {
+        this.defaultBudgetMs = defaultBudgetMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Long budgetMs = budget(request.getHeader(Deadline.TIMEOUT_HEADER));
+        if (budgetMs == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (budgetMs <= 0) {
+            LOGGER.warn("Rejected " + request.getMethod() + " " + request.getRequestURI() + ": caller deadline already exceeded");
+            writeError(response, HttpStatus.GATEWAY_TIMEOUT, "The request deadline was exceeded before processing started.");
+            return;
+        }
+
+        Deadline.startIn(budgetMs);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    private Long budget(String header) {
+        if (header != null) {
+            try {
+                return Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignored malformed " + Deadline.TIMEOUT_HEADER + " header: " + header);
+            }
+        }
+        return defaultBudgetMs > 0 ? defaultBudgetMs : null;
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus httpStatus, String message) throws IOException {
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("message", "[Notice]\n" + message);
+        result.put("httpStatus", httpStatus.value());
+
+        response.setStatus(httpStatus.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(new Gson().toJson(result));
+    }
+}
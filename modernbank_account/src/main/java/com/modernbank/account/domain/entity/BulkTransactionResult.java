@@ -0,0 +1,34 @@
+package com.modernbank.account.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class BulkTransactionResult {
+	private int index; // Position of the item in the bulk request
+	private String acntNo;
+	private int seq;
+	private String divCd;
+	private String stsCd;
+	private Long formerBlnc;
+	private Long trnsAmt;
+	private Long acntBlnc;
+	private boolean success;
+	private String message; // Failure reason when success is false
+
+	@Builder
+	public BulkTransactionResult(int index, String acntNo, int seq, String divCd, String stsCd, Long formerBlnc, Long trnsAmt, Long acntBlnc, boolean success, String message) {
+		this.index = index;
+		this.acntNo = acntNo;
+		this.seq = seq;
+		this.divCd = divCd;
+		this.stsCd = stsCd;
+		this.formerBlnc = formerBlnc;
+		this.trnsAmt = trnsAmt;
+		this.acntBlnc = acntBlnc;
+		this.success = success;
+		this.message = message;
+	}
+}
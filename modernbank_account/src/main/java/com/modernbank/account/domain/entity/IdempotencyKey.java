@@ -0,0 +1,29 @@
+package com.modernbank.account.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class IdempotencyKey {
+    public static final String IN_PROGRESS = "P";
+    public static final String COMPLETED = "C";
+
+    private String idmpKey;   // Request path + client supplied Idempotency-Key
+    private String stsCd;     // P:In Progress, C:Completed
+    private String rqstHash;  // Transport + ":" + SHA-256 of the request
+    private String clmTkn;    // Token of the request that currently holds the key
+    private int rspnStatus;   // Stored HTTP status
+    private String rspnBody;  // Stored response body
+
+    @Builder
+    public IdempotencyKey(String idmpKey, String stsCd, String rqstHash, String clmTkn, int rspnStatus, String rspnBody) {
+        this.idmpKey = idmpKey;
+        this.stsCd = stsCd;
+        this.rqstHash = rqstHash;
+        this.clmTkn = clmTkn;
+        this.rspnStatus = rspnStatus;
+        this.rspnBody = rspnBody;
+    }
+}
@@ -0,0 +1,28 @@
+package com.modernbank.account.domain.entity;
+
+import java.sql.Timestamp;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class OutboxEvent {
+    private Long evntSeq;     // Outbox sequence (publish order)
+    private String topicNm;   // Kafka topic name
+    private String evntKey;   // Kafka message key
+    private byte[] payload;   // Serialized message (binary or JSON)
+    private String trcCtx;    // W3C traceparent of the writing request (null if not traced)
+    private Timestamp crtDtm; // Time the event was written (sent as the committed-at header)
+
+    @Builder
+    public OutboxEvent(Long evntSeq, String topicNm, String evntKey, byte[] payload, String trcCtx, Timestamp crtDtm) {
+        this.evntSeq = evntSeq;
+        this.topicNm = topicNm;
+        this.evntKey = evntKey;
+        this.payload = payload;
+        this.trcCtx = trcCtx;
+        this.crtDtm = crtDtm;
+    }
+}
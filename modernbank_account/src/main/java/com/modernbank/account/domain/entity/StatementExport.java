@@ -0,0 +1,35 @@
+package com.modernbank.account.domain.entity;
+
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class StatementExport {
+    // 내보내기 상태 (RECEIVED: 접수, PROCESSING: 파일 생성 중, COMPLETED: 다운로드 가능, FAILED: 실패)
+    public static final String RECEIVED = "RECEIVED";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    // 파일 형식 (gzip 압축)
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private String exportId;
+    private String acntNo;
+    private String format;
+    private String fromDt; // 조회 시작일 (yyyy-MM-dd, 포함)
+    private String toDt; // 조회 종료일 (yyyy-MM-dd, 포함)
+    private String reqDtm;
+    private volatile String status;
+    private volatile String message;
+    private volatile long rowCount;
+    private volatile long fileSize;
+    @JsonIgnore
+    private volatile Path file;
+}
@@ -3,7 +3,11 @@ package com.modernbank.account.domain.repository;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import com.modernbank.account.datasource.DataSourceRoute;
+import com.modernbank.account.datasource.Route;
 import com.modernbank.account.domain.entity.Account;
 import com.modernbank.account.domain.entity.TransactionHistory;
 
@@ -11,10 +15,16 @@ import com.modernbank.account.domain.entity.TransactionHistory;
 public interface AccountRepository {
     int insertAccount(Account account) throws Exception;
     Account selectAccount(Account account) throws Exception;
+    @DataSourceRoute(Route.REPLICA)
     List<Account> selectAccountList(Account account) throws Exception;
     int insertTransactionHistoryData(TransactionHistory transactionHistory) throws Exception;
+    int insertTransactionHistory(TransactionHistory transactionHistory) throws Exception;
+    List<Integer> selectNextTransactionSeqList(int count) throws Exception;
+    @DataSourceRoute(Route.REPLICA)
     List<TransactionHistory> selectTransactionHistoryList(TransactionHistory transactionHistory) throws Exception;
+    Cursor<TransactionHistory> selectTransactionHistoryCursor(@Param("acntNo") String acntNo, @Param("fromDt") String fromDt, @Param("toDt") String toDt) throws Exception;
     Long selectCurrentAccountBalance(TransactionHistory transactionHistory) throws Exception;
+    List<TransactionHistory> selectCurrentAccountBalanceList(List<String> acntNoList) throws Exception;
     int updateTransactionHistory(TransactionHistory transactionHistory) throws Exception;
     int selectMaxSeq(TransactionHistory transactionHistory) throws Exception;
 }
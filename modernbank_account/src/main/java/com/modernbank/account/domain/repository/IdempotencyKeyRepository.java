@@ -0,0 +1,16 @@
+package com.modernbank.account.domain.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.modernbank.account.domain.entity.IdempotencyKey;
+
+@Mapper
+public interface IdempotencyKeyRepository {
+    int insertIdempotencyKey(@Param("idmpKey") String idmpKey, @Param("rqstHash") String rqstHash, @Param("clmTkn") String clmTkn, @Param("staleSeconds") int staleSeconds) throws Exception;
+    IdempotencyKey selectIdempotencyKey(@Param("idmpKey") String idmpKey) throws Exception;
+    String selectClaimedIdempotencyKeyForUpdate(@Param("idmpKey") String idmpKey, @Param("clmTkn") String clmTkn) throws Exception;
+    int updateIdempotencyKeyResult(IdempotencyKey idempotencyKey) throws Exception;
+    int deleteIdempotencyKey(@Param("idmpKey") String idmpKey, @Param("clmTkn") String clmTkn) throws Exception;
+    int deleteExpiredIdempotencyKeys(@Param("retentionHours") int retentionHours) throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.modernbank.account.domain.repository;
+
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * ExecutorType.BATCH 세션으로 다건 행을 쓰는 쓰기 도구.
+ * 같은 매핑 구문을 연속 호출하면 PreparedStatement 하나에 addBatch로 쌓였다가 flush-size 단위로 한 번에 전송된다.
+ * (reWriteBatchedInserts가 켜져 있으면 드라이버가 INSERT 배치를 다건 VALUES 구문으로 다시 써서 보낸다)
+ *
+ * 세션은 SqlSessionFactory에서 직접 열기 때문에 현재 스레드의 SqlSessionTemplate(SIMPLE) 세션과 섞이지 않고,
+ * SpringManagedTransaction이 DataSourceUtils로 커넥션을 얻으므로 진행 중인 @Transactional 트랜잭션에 그대로 참여한다.
+ * 행 순서대로 실행되므로 같은 키에 대한 마지막 행이 최종 값이 된다.
+ */
+@Component
+public class MyBatisBatchWriter {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Value("${mybatis.batch.flush-size:1000}")
+    private int flushSize;
+
+    @FunctionalInterface
+    public interface BatchStatement<M, T> {
+        void write(M mapper, T row) throws Exception;
+    }
+
+    /**
+     * rows 각각에 대해 statement를 호출하고 flush-size마다, 마지막에 한 번 더 전송한다.
+     * @return 영향받은 행 수 (드라이버가 건수를 알려주지 않는 구문은 1건으로 센다)
+     */
+    public <M, T> int write(Class<M> mapperType, List<T> rows, BatchStatement<M, T> statement) throws Exception {
+        if (rows == null || rows.isEmpty())
+            return 0;
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            M mapper = sqlSession.getMapper(mapperType);
+            int pending = 0;
+            int count = 0;
+
+            for (T row : rows) {
+                statement.write(mapper, row);
+                if (++pending >= flushSize) {
+                    count += affectedRows(sqlSession.flushStatements());
+                    pending = 0;
+                }
+            }
+            count += affectedRows(sqlSession.flushStatements());
+
+            // 스프링 트랜잭션 안에서는 커밋하지 않고(트랜잭션 매니저가 커밋), 트랜잭션 밖에서만 커밋된다.
+            sqlSession.commit();
+            return count;
+        }
+    }
+
+    private static int affectedRows(List<BatchResult> batchResults) {
+        int count = 0;
+        for (BatchResult batchResult : batchResults) {
+            for (int updateCount : batchResult.getUpdateCounts())
+                count += updateCount == Statement.SUCCESS_NO_INFO ? 1 : Math.max(updateCount, 0);
+        }
+        return count;
+    }
+}
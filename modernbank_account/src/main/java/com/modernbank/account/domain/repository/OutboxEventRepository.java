@@ -0,0 +1,20 @@
+package com.modernbank.account.domain.repository;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.modernbank.account.domain.entity.OutboxEvent;
+
+@Mapper
+public interface OutboxEventRepository {
+    int insertOutboxEventList(List<OutboxEvent> outboxEvents) throws Exception;
+    boolean tryOutboxRelayLock(@Param("lockId") long lockId) throws Exception;
+    List<OutboxEvent> selectOutboxEventList(@Param("batchSize") int batchSize) throws Exception;
+    int deleteOutboxEventList(List<Long> evntSeqs) throws Exception;
+    long selectOldestRunningXid() throws Exception;
+    long selectNextXid() throws Exception;
+    Long selectLastRelayedSeq(@Param("lockId") long lockId) throws Exception;
+    int upsertLastRelayedSeq(@Param("lockId") long lockId, @Param("evntSeq") long evntSeq) throws Exception;
+}
@@ -0,0 +1,28 @@
+package com.modernbank.account.domain.repository;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import com.modernbank.account.domain.entity.TransactionHistory;
+
+@Mapper
+public interface TransactionHistoryPartitionRepository {
+    boolean tryHistoryArchiveLock(@Param("lockId") long lockId) throws Exception;
+    List<String> selectPartitionNameList() throws Exception;
+    int detachDefaultPartition() throws Exception;
+    int attachDefaultPartition() throws Exception;
+    int createPartition(@Param("partitionNm") String partitionNm, @Param("fromDtm") String fromDtm, @Param("toDtm") String toDtm) throws Exception;
+    int createPartitionSeqIndex(@Param("partitionNm") String partitionNm) throws Exception;
+    int insertPartitionRowsFromDefault(@Param("partitionNm") String partitionNm, @Param("fromDtm") String fromDtm, @Param("toDtm") String toDtm) throws Exception;
+    int deleteDefaultPartitionRows(@Param("fromDtm") String fromDtm, @Param("toDtm") String toDtm) throws Exception;
+    Cursor<TransactionHistory> selectPartitionTransactionHistoryCursor(@Param("partitionNm") String partitionNm) throws Exception;
+    long selectPartitionRowCount(@Param("partitionNm") String partitionNm) throws Exception;
+    long selectPartitionPendingCount(@Param("partitionNm") String partitionNm) throws Exception;
+    int detachPartition(@Param("partitionNm") String partitionNm) throws Exception;
+    long selectPartitionSeqConflictCount(@Param("partitionNm") String partitionNm) throws Exception;
+    int insertCarryOverRows(@Param("partitionNm") String partitionNm) throws Exception;
+    int dropPartition(@Param("partitionNm") String partitionNm) throws Exception;
+}
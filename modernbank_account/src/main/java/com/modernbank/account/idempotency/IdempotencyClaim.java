@@ -0,0 +1,65 @@
+package com.modernbank.account.idempotency;
+
+import java.util.UUID;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 선점한 Idempotency-Key. 선점할 때마다 새 토큰을 쓰므로, 오래 방치된 키를 다른 요청이 다시 선점하면 앞선 요청의 토큰은 더 이상 맞지 않는다.
+ * IdempotencyFilter가 요청 속성으로 넘기고, 컨트롤러는 IdempotencyKeyStore.execute로 원장 거래와 키 완료를 한 트랜잭션으로 처리한다.
+ */
+public class IdempotencyClaim {
+
+    static final String ATTRIBUTE = IdempotencyClaim.class.getName();
+
+    private final String idmpKey;
+    private final String rqstHash;
+    private final String clmTkn;
+    private volatile boolean started;
+    private volatile boolean completed;
+
+    public IdempotencyClaim(String idmpKey, String rqstHash) {
+        this.idmpKey = idmpKey;
+        this.rqstHash = rqstHash;
+        this.clmTkn = UUID.randomUUID().toString();
+    }
+
+    // 현재 요청이 선점한 키 (Idempotency-Key가 없는 요청이면 null)
+    public static IdempotencyClaim current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+            return null;
+        return (IdempotencyClaim) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public String getIdmpKey() {
+        return idmpKey;
+    }
+
+    public String getRqstHash() {
+        return rqstHash;
+    }
+
+    public String getClmTkn() {
+        return clmTkn;
+    }
+
+    // 원장 거래를 시작했으면 true. 이후에는 키를 반납하지 않는다.
+    public boolean isStarted() {
+        return started;
+    }
+
+    // 원장 거래와 함께 완료 상태가 커밋됐으면 true
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    void markStarted() {
+        started = true;
+    }
+
+    void markCompleted() {
+        completed = true;
+    }
+}
@@ -0,0 +1,191 @@
+package com.modernbank.account.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.modernbank.account.domain.entity.IdempotencyKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Idempotency-Key 헤더가 있는 POST 요청을 한 번만 처리한다.
+ * - 처음 보는 키: 처리 후 응답(2xx, 업무 오류)을 저장
+ * - 완료된 키: 저장된 응답을 그대로 반환 (Idempotent-Replayed: true)
+ * - 처리 중인 키: 409 Conflict와 Retry-After (호출자는 기다렸다가 같은 키로 다시 요청한다)
+ * - 같은 키에 다른 요청(쿼리 문자열 + 본문의 해시가 다름): 422 Unprocessable Entity
+ * 성공 응답은 컨트롤러가 IdempotencyKeyStore.execute로 원장 거래와 같은 트랜잭션에서 저장하고, 업무 오류는 응답 후 저장한다.
+ * 원장 거래를 시작하기 전에 끝난 요청만 키를 반납한다. 거래를 시작한 뒤 시스템 오류로 끝난 키는 처리 중(P)으로 남아
+ * in-progress-timeout-seconds가 지나면 다시 선점할 수 있다. (완료 상태와 거래가 함께 커밋되므로 P로 남은 요청은 반영되지 않은 요청이다)
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 150;
+    private static final int IN_PROGRESS_RETRY_AFTER_SECONDS = 1;
+
+    private final IdempotencyKeyStore idempotencyKeyStore;
+
+    public IdempotencyFilter(IdempotencyKeyStore idempotencyKeyStore) {
+        this.idempotencyKeyStore = idempotencyKeyStore;
+    }
+
+    // 현재 처리 중인 요청의 Idempotency-Key (하위 서비스 호출 키를 파생할 때 사용)
+    public static String currentIdempotencyKey() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return null;
+        return attributes.getRequest().getHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!"POST".equalsIgnoreCase(request.getMethod()) || key == null || key.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+
+        String idmpKey = request.getServletPath() + ":" + key;
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String rqstHash = IdempotencyKeyStore.requestHash(IdempotencyKeyStore.REST_TRANSPORT, request.getQueryString(), cachedRequest.body);
+        IdempotencyClaim claim = new IdempotencyClaim(idmpKey, rqstHash);
+
+        IdempotencyKey stored;
+        try {
+            stored = idempotencyKeyStore.claim(claim);
+        } catch (Exception e) {
+            throw new ServletException("Failed to claim idempotency key", e);
+        }
+
+        if (stored != null) {
+            if (!IdempotencyKeyStore.isSameRequest(stored, rqstHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request.");
+            } else if (IdempotencyKey.COMPLETED.equals(stored.getStsCd())) {
+                response.setStatus(stored.getRspnStatus());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+                if (stored.getRspnBody() != null)
+                    response.getWriter().write(stored.getRspnBody());
+            } else {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(IN_PROGRESS_RETRY_AFTER_SECONDS));
+                writeError(response, HttpStatus.CONFLICT, "A request with the same Idempotency-Key is already in progress.");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        cachedRequest.setAttribute(IdempotencyClaim.ATTRIBUTE, claim);
+        try {
+            filterChain.doFilter(cachedRequest, responseWrapper);
+
+            // 업무 오류(재시도해도 결과가 같은 응답)는 거래가 롤백된 뒤라 따로 저장한다.
+            if (!claim.isCompleted() && responseWrapper.getStatus() == HttpStatus.EXPECTATION_FAILED.value())
+                idempotencyKeyStore.complete(claim, responseWrapper.getStatus(), new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8));
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException("Failed to store idempotency key result", e);
+        } finally {
+            if (!claim.isStarted())
+                releaseQuietly(claim);
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void releaseQuietly(IdempotencyClaim claim) {
+        try {
+            idempotencyKeyStore.release(claim);
+        } catch (Exception e) {
+            LOGGER.error("Failed to release idempotency key: " + claim.getIdmpKey(), e);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus httpStatus, String message) throws IOException {
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("message", "[Notice]\n" + message);
+        result.put("httpStatus", httpStatus.value());
+
+        response.setStatus(httpStatus.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(new Gson().toJson(result));
+    }
+
+    // 요청 해시를 만들려고 먼저 읽은 본문을 컨트롤러가 다시 읽을 수 있게 한다.
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.modernbank.account.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.modernbank.account.domain.entity.IdempotencyKey;
+import com.modernbank.account.domain.repository.IdempotencyKeyRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Idempotency-Key 저장소.
+ * 완료된 키의 응답은 로컬 LRU에 두고, 키 선점/완료 상태는 TB_IDMP_KEY 테이블로 인스턴스 간에 공유한다.
+ * 키와 함께 요청 해시를 저장하여, 같은 키로 다른 요청이 오면 저장된 응답을 돌려주지 않는다.
+ * 해시는 전송 방식(REST/gRPC)별로 만들므로 전송 방식이 다른 재요청은 해시를 비교하지 않는다.
+ * 원장 거래의 완료 상태는 execute로 거래와 같은 트랜잭션에서 기록하므로, 처리 중(P)으로 남은 키는 원장 거래도 커밋되지 않은 키다.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    public static final String REST_TRANSPORT = "R";
+    public static final String GRPC_TRANSPORT = "G";
+
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.in-progress-timeout-seconds:60}")
+    private int inProgressTimeoutSeconds;
+
+    @Value("${idempotency.retention-hours:24}")
+    private int retentionHours;
+
+    private final Map<String, IdempotencyKey> completedKeys;
+
+    public IdempotencyKeyStore(@Value("${idempotency.cache.max-entries:10000}") int maxEntries) {
+        this.completedKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 키를 선점한다.
+     * 처리 중(P)으로 in-progress-timeout-seconds 넘게 방치된 키는 다시 선점한다. 원장 거래와 완료 상태가 함께 커밋되므로
+     * P로 남은 키는 원장에 반영되지 않은 요청이고, 아직 실행 중인 거래는 키 행을 잠그고 있어 선점이 거래가 끝날 때까지 기다린다.
+     *
+     * @return 선점에 성공하면 null, 이미 처리 중(P)이거나 완료(C)된 키면 저장된 상태 (isSameRequest로 같은 요청인지 확인한다)
+     */
+    public IdempotencyKey claim(IdempotencyClaim claim) throws Exception {
+        String idmpKey = claim.getIdmpKey();
+        String rqstHash = claim.getRqstHash();
+        IdempotencyKey cached = getCompleted(idmpKey);
+        if (cached != null)
+            return cached;
+
+        if (idempotencyKeyRepository.insertIdempotencyKey(idmpKey, rqstHash, claim.getClmTkn(), inProgressTimeoutSeconds) == 1)
+            return null;
+
+        IdempotencyKey stored = idempotencyKeyRepository.selectIdempotencyKey(idmpKey);
+        if (stored == null)
+            return IdempotencyKey.builder().idmpKey(idmpKey).stsCd(IdempotencyKey.IN_PROGRESS).rqstHash(rqstHash).build();
+
+        if (IdempotencyKey.COMPLETED.equals(stored.getStsCd()))
+            putCompleted(stored);
+
+        return stored;
+    }
+
+    /**
+     * 원장 거래를 실행하고, 결과(응답 JSON)를 같은 트랜잭션에서 키의 완료 상태로 기록한다.
+     * 먼저 선점한 키 행을 잠가, 그 사이 다른 요청이 키를 다시 선점했으면 거래를 실행하지 않는다.
+     * call은 이 트랜잭션에 참여해야 한다. (AccountService의 @Transactional 메서드)
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public <T> T execute(IdempotencyClaim claim, Callable<T> call) throws Exception {
+        if (idempotencyKeyRepository.selectClaimedIdempotencyKeyForUpdate(claim.getIdmpKey(), claim.getClmTkn()) == null)
+            throw new IllegalStateException("Idempotency key was claimed by another request: " + claim.getIdmpKey());
+
+        claim.markStarted();
+        T result = call.call();
+
+        IdempotencyKey completed = completedKey(claim, HttpStatus.OK.value(), objectMapper.writeValueAsString(result));
+        if (idempotencyKeyRepository.updateIdempotencyKeyResult(completed) != 1)
+            throw new IllegalStateException("Idempotency key was claimed by another request: " + claim.getIdmpKey());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claim.markCompleted();
+                putCompleted(completed);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 원장 거래 없이 끝난(롤백된) 요청의 응답을 기록한다. (업무 오류)
+     */
+    public void complete(IdempotencyClaim claim, int rspnStatus, String rspnBody) throws Exception {
+        IdempotencyKey completed = completedKey(claim, rspnStatus, rspnBody);
+        if (idempotencyKeyRepository.updateIdempotencyKeyResult(completed) == 1) {
+            claim.markCompleted();
+            putCompleted(completed);
+        }
+    }
+
+    // 원장 거래를 시작하기 전에 끝난 키만 지워서 같은 키로 다시 요청할 수 있게 한다.
+    public void release(IdempotencyClaim claim) throws Exception {
+        if (claim.isStarted())
+            throw new IllegalStateException("Idempotency key cannot be released after the request was handled: " + claim.getIdmpKey());
+        idempotencyKeyRepository.deleteIdempotencyKey(claim.getIdmpKey(), claim.getClmTkn());
+    }
+
+    private IdempotencyKey completedKey(IdempotencyClaim claim, int rspnStatus, String rspnBody) {
+        return IdempotencyKey.builder()
+                .idmpKey(claim.getIdmpKey())
+                .stsCd(IdempotencyKey.COMPLETED)
+                .rqstHash(claim.getRqstHash())
+                .clmTkn(claim.getClmTkn())
+                .rspnStatus(rspnStatus)
+                .rspnBody(rspnBody)
+                .build();
+    }
+
+    /**
+     * 요청 해시: 전송 방식 + ":" + SHA-256(쿼리 문자열 + 본문)
+     */
+    public static String requestHash(String transport, String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null)
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return transport + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 저장된 해시가 없거나(이전 버전에서 선점한 키) 전송 방식이 다르면 비교하지 않는다.
+    public static boolean isSameRequest(IdempotencyKey stored, String rqstHash) {
+        String storedHash = stored.getRqstHash();
+        if (storedHash == null || rqstHash == null || !storedHash.regionMatches(0, rqstHash, 0, 2))
+            return true;
+        return storedHash.equals(rqstHash);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        try {
+            int deleted = idempotencyKeyRepository.deleteExpiredIdempotencyKeys(retentionHours);
+            LOGGER.info("Purged [" + deleted + "] expired idempotency keys");
+        } catch (Exception e) {
+            LOGGER.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    private synchronized IdempotencyKey getCompleted(String idmpKey) {
+        return completedKeys.get(idmpKey);
+    }
+
+    private synchronized void putCompleted(IdempotencyKey idempotencyKey) {
+        completedKeys.put(idempotencyKey.getIdmpKey(), idempotencyKey);
+    }
+}
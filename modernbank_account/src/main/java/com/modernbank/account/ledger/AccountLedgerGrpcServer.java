@@ -0,0 +1,114 @@
+package com.modernbank.account.ledger;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.modernbank.account.consistency.ConsistencyTokenGrpcInterceptor;
+import com.modernbank.account.consistency.ConsistencyTokenTracker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * 원장 거래 gRPC 서버 (HTTP/2, REST API와 별도 포트).
+ * 컨텍스트가 모두 준비된 뒤 열고, 종료 시 진행 중인 호출을 shutdown-grace-seconds만큼 기다린다.
+ * 호출은 고정 크기 스레드 풀에서 처리하여 DB 커넥션 풀보다 훨씬 많은 요청이 동시에 대기하지 않게 한다.
+ * 호출마다 server span을 만들며, Transfer Service가 메타데이터로 보낸 트레이스 컨텍스트를 이어받는다.
+ * 호출이 커밋한 이벤트의 일관성 토큰은 응답 trailer로 돌려준다.
+ * 내부 호출 전용이므로 Ingress로 노출하지 않는다.
+ * 열지 여부(account.ledger.grpc.enabled)는 실행 시점 값으로 판단한다. (@ConditionalOnProperty는 AOT 빌드에서 빌드 시점 값으로 고정된다)
+ */
+@Component
+public class AccountLedgerGrpcServer implements SmartLifecycle {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(AccountLedgerGrpcServer.class);
+
+    @Autowired
+    private AccountLedgerGrpcService accountLedgerGrpcService;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private ConsistencyTokenTracker consistencyTokenTracker;
+
+    @Value("${account.ledger.grpc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.ledger.grpc.port:9081}")
+    private int port;
+
+    @Value("${account.ledger.grpc.executor-threads:32}")
+    private int executorThreads;
+
+    @Value("${account.ledger.grpc.max-inbound-message-size:16777216}")
+    private int maxInboundMessageSize;
+
+    @Value("${account.ledger.grpc.shutdown-grace-seconds:10}")
+    private int shutdownGraceSeconds;
+
+    private ExecutorService executor;
+    private Server server;
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled)
+            return;
+        executor = Executors.newFixedThreadPool(executorThreads, new CustomizableThreadFactory("ledger-grpc-"));
+        try {
+            server = ServerBuilder.forPort(port)
+                    .addService(accountLedgerGrpcService)
+                    .intercept(new ConsistencyTokenGrpcInterceptor(consistencyTokenTracker))
+                    .intercept(new ObservationGrpcServerInterceptor(observationRegistry))
+                    .executor(executor)
+                    .maxInboundMessageSize(maxInboundMessageSize)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Failed to start account ledger gRPC server on port " + port, e);
+        }
+        LOGGER.info("Account ledger gRPC server started on port " + port);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null)
+            return;
+
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS))
+                server.shutdownNow();
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            server = null;
+        }
+        LOGGER.info("Account ledger gRPC server stopped");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null && !server.isShutdown();
+    }
+}
@@ -0,0 +1,288 @@
+package com.modernbank.account.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.account.domain.entity.Account;
+import com.modernbank.account.domain.entity.BulkTransactionResult;
+import com.modernbank.account.domain.entity.IdempotencyKey;
+import com.modernbank.account.domain.entity.TransactionHistory;
+import com.modernbank.account.domain.entity.TransactionResult;
+import com.modernbank.account.exception.BusinessException;
+import com.modernbank.account.idempotency.IdempotencyClaim;
+import com.modernbank.account.idempotency.IdempotencyKeyStore;
+import com.modernbank.account.ledger.grpc.AccountLedgerGrpc;
+import com.modernbank.account.ledger.grpc.AccountReply;
+import com.modernbank.account.ledger.grpc.AccountRequest;
+import com.modernbank.account.ledger.grpc.BulkTransactionReply;
+import com.modernbank.account.ledger.grpc.BulkTransactionRequest;
+import com.modernbank.account.ledger.grpc.ConfirmReply;
+import com.modernbank.account.ledger.grpc.Transaction;
+import com.modernbank.account.ledger.grpc.TransactionReply;
+import com.modernbank.account.ledger.grpc.TransactionRequest;
+import com.modernbank.account.service.AccountService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.Resource;
+
+/**
+ * Transfer Service가 호출하는 원장 거래 gRPC 서비스. AccountController의 원장 API와 같은 AccountService 메서드를 호출한다.
+ * - idempotency_key는 IdempotencyFilter와 같은 키(서블릿 경로 + ":" + 키)와 같은 응답 JSON으로 선점/완료 처리하므로,
+ *   같은 키로 REST와 gRPC를 섞어 재시도해도 한 번만 반영된다. (요청 해시는 전송 방식이 같은 요청끼리만 비교한다)
+ * - BusinessException은 FAILED_PRECONDITION, 처리 중인 키는 ABORTED(호출자가 기다렸다가 같은 키로 다시 요청), 그 밖의 오류는 INTERNAL로 돌려준다.
+ * - 호출자의 deadline이 이미 지났거나 취소된 요청은 DB에 접근하지 않고 끝낸다.
+ */
+@Component
+public class AccountLedgerGrpcService extends AccountLedgerGrpc.AccountLedgerImplBase {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(AccountLedgerGrpcService.class);
+
+    private static final int MAX_KEY_LENGTH = 150;
+    private static final String NOTICE_PREFIX = "[Notice]\n";
+
+    @Resource(name = "accountService")
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void getAccount(AccountRequest request, StreamObserver<AccountReply> responseObserver) {
+        unary(responseObserver, () -> toAccountReply(accountService.retrieveAccount(request.getAcntNo())));
+    }
+
+    @Override
+    public void withdraw(TransactionRequest request, StreamObserver<TransactionReply> responseObserver) {
+        unary(responseObserver, () -> toTransactionReply(idempotent("/withdrawals/", request.getIdempotencyKey(), requestHash(request), type(TransactionResult.class),
+                () -> accountService.withdrawOwnBankOrTransferOtherBank(toTransactionHistory(request.getTransaction())))));
+    }
+
+    @Override
+    public void deposit(TransactionRequest request, StreamObserver<TransactionReply> responseObserver) {
+        unary(responseObserver, () -> toTransactionReply(idempotent("/deposits/", request.getIdempotencyKey(), requestHash(request), type(TransactionResult.class),
+                () -> accountService.deposit(toTransactionHistory(request.getTransaction())))));
+    }
+
+    @Override
+    public void confirmWithdrawal(TransactionRequest request, StreamObserver<ConfirmReply> responseObserver) {
+        unary(responseObserver, () -> {
+            Integer updated = idempotent("/withdrawals/confirm/", request.getIdempotencyKey(), requestHash(request), type(Integer.class),
+                    () -> accountService.processExternalTransferConfirmation(toTransactionHistory(request.getTransaction())));
+            return ConfirmReply.newBuilder().setUpdated(updated == null ? 0 : updated).build();
+        });
+    }
+
+    @Override
+    public void postTransactions(BulkTransactionRequest request, StreamObserver<BulkTransactionReply> responseObserver) {
+        unary(responseObserver, () -> postTransactions(request));
+    }
+
+    /**
+     * 요청 메시지를 받는 대로 하나씩 처리하고 결과를 같은 순서로 보낸다. (메시지마다 별도 트랜잭션)
+     * 클라이언트는 앞 메시지가 처리되는 동안 다음 메시지를 직렬화해 보내므로, 한 번에 보내는 것보다 첫 처리가 빨리 시작된다.
+     * 한 메시지가 실패하면 스트림을 오류로 끝내며, 이미 처리된 메시지의 결과는 그대로 유지된다.
+     */
+    @Override
+    public StreamObserver<BulkTransactionRequest> streamTransactions(StreamObserver<BulkTransactionReply> responseObserver) {
+        return new StreamObserver<BulkTransactionRequest>() {
+            private boolean failed;
+
+            @Override
+            public void onNext(BulkTransactionRequest request) {
+                if (failed)
+                    return;
+                try {
+                    checkNotCancelled();
+                    responseObserver.onNext(postTransactions(request));
+                } catch (Exception e) {
+                    failed = true;
+                    responseObserver.onError(toStatusException(e));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                LOGGER.warn("Ledger transaction stream closed by client: " + Status.fromThrowable(t));
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed)
+                    responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private BulkTransactionReply postTransactions(BulkTransactionRequest request) throws Exception {
+        List<TransactionHistory> transactionHistories = new ArrayList<>(request.getTransactionsCount());
+        for (Transaction transaction : request.getTransactionsList())
+            transactionHistories.add(toTransactionHistory(transaction));
+
+        JavaType resultType = objectMapper.getTypeFactory().constructCollectionType(List.class, BulkTransactionResult.class);
+        String rqstHash = IdempotencyKeyStore.requestHash(IdempotencyKeyStore.GRPC_TRANSPORT, null, request.toBuilder().clearIdempotencyKey().build().toByteArray());
+        List<BulkTransactionResult> results = request.getOperation() == BulkTransactionRequest.Operation.WITHDRAW
+                ? idempotent("/withdrawals/bulk/", request.getIdempotencyKey(), rqstHash, resultType, () -> accountService.withdrawInBulk(transactionHistories))
+                : idempotent("/transactions/bulk/", request.getIdempotencyKey(), rqstHash, resultType, () -> accountService.postTransactionsInBulk(transactionHistories, request.getAtomic()));
+
+        BulkTransactionReply.Builder reply = BulkTransactionReply.newBuilder();
+        for (BulkTransactionResult result : results)
+            reply.addResults(toBulkTransactionResult(result));
+        return reply.build();
+    }
+
+    private <T> void unary(StreamObserver<T> responseObserver, Callable<T> call) {
+        try {
+            checkNotCancelled();
+            responseObserver.onNext(call.call());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(toStatusException(e));
+        }
+    }
+
+    /**
+     * IdempotencyFilter와 같은 규칙으로 한 번만 처리한다.
+     * 성공 결과는 원장 거래와 같은 트랜잭션에서(IdempotencyKeyStore.execute), 업무 오류(417)는 롤백 뒤에 저장한다.
+     * 원장 거래를 시작하기 전에 끝난 경우에만 키를 반납한다. (그 뒤의 오류는 처리 중으로 남아 in-progress-timeout-seconds 후 다시 선점할 수 있다)
+     * 같은 키에 다른 요청이 오면 422 업무 오류(FAILED_PRECONDITION)로 돌려준다.
+     */
+    private <T> T idempotent(String path, String key, String rqstHash, JavaType resultType, Callable<T> call) throws Exception {
+        if (key == null || key.isBlank())
+            return call.call();
+        if (key.length() > MAX_KEY_LENGTH)
+            throw Status.INVALID_ARGUMENT.withDescription("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters.").asRuntimeException();
+
+        IdempotencyClaim claim = new IdempotencyClaim(path + ":" + key, rqstHash);
+        IdempotencyKey stored = idempotencyKeyStore.claim(claim);
+        if (stored != null) {
+            if (!IdempotencyKeyStore.isSameRequest(stored, rqstHash))
+                throw new BusinessException("Idempotency-Key was already used for a different request.", HttpStatus.UNPROCESSABLE_ENTITY);
+            if (!IdempotencyKey.COMPLETED.equals(stored.getStsCd()))
+                throw Status.ABORTED.withDescription("A request with the same Idempotency-Key is already in progress.").asRuntimeException();
+            if (stored.getRspnStatus() == HttpStatus.EXPECTATION_FAILED.value())
+                throw new BusinessException(storedErrorMessage(stored.getRspnBody()));
+            return objectMapper.readValue(stored.getRspnBody(), resultType);
+        }
+
+        try {
+            return idempotencyKeyStore.execute(claim, call);
+        } catch (BusinessException e) {
+            if (e.getHttpStatus() == HttpStatus.EXPECTATION_FAILED)
+                idempotencyKeyStore.complete(claim, e.getHttpStatus().value(), errorBody(e));
+            throw e;
+        } finally {
+            if (!claim.isStarted())
+                releaseQuietly(claim);
+        }
+    }
+
+    // 요청 해시는 idempotency_key를 뺀 요청 메시지로 만든다.
+    private static String requestHash(TransactionRequest request) {
+        return IdempotencyKeyStore.requestHash(IdempotencyKeyStore.GRPC_TRANSPORT, null, request.toBuilder().clearIdempotencyKey().build().toByteArray());
+    }
+
+    private JavaType type(Class<?> resultClass) {
+        return objectMapper.getTypeFactory().constructType(resultClass);
+    }
+
+    // DefaultExceptionAdvice가 만드는 응답과 같은 형식 (REST로 재요청해도 같은 응답이 나간다)
+    private String errorBody(BusinessException e) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("message", NOTICE_PREFIX + e.getMessage(), "httpStatus", e.getHttpStatus().value()));
+    }
+
+    private String storedErrorMessage(String rspnBody) throws Exception {
+        String message = objectMapper.readTree(rspnBody).path("message").asText();
+        return message.startsWith(NOTICE_PREFIX) ? message.substring(NOTICE_PREFIX.length()) : message;
+    }
+
+    private void releaseQuietly(IdempotencyClaim claim) {
+        try {
+            idempotencyKeyStore.release(claim);
+        } catch (Exception e) {
+            LOGGER.error("Failed to release idempotency key: " + claim.getIdmpKey(), e);
+        }
+    }
+
+    private static void checkNotCancelled() {
+        Context context = Context.current();
+        if (!context.isCancelled())
+            return;
+        Deadline deadline = context.getDeadline();
+        if (deadline != null && deadline.isExpired())
+            throw Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded before the ledger call started.").asRuntimeException();
+        throw Status.CANCELLED.withDescription("Ledger call cancelled by client.").asRuntimeException();
+    }
+
+    private StatusRuntimeException toStatusException(Exception e) {
+        if (e instanceof StatusRuntimeException statusException)
+            return statusException;
+        if (e instanceof BusinessException)
+            return Status.FAILED_PRECONDITION.withDescription(e.getMessage()).asRuntimeException();
+
+        LOGGER.error(e.getMessage(), e);
+        return Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException();
+    }
+
+    private static TransactionHistory toTransactionHistory(Transaction transaction) {
+        return TransactionHistory.builder()
+                .acntNo(transaction.hasAcntNo() ? transaction.getAcntNo() : null)
+                .seq(transaction.getSeq())
+                .divCd(transaction.hasDivCd() ? transaction.getDivCd() : null)
+                .stsCd(transaction.hasStsCd() ? transaction.getStsCd() : null)
+                .trnsAmt(transaction.hasTrnsAmt() ? transaction.getTrnsAmt() : null)
+                .trnsBrnch(transaction.hasTrnsBrnch() ? transaction.getTrnsBrnch() : null)
+                .build();
+    }
+
+    private static AccountReply toAccountReply(Account account) {
+        AccountReply.Builder reply = AccountReply.newBuilder();
+        if (account.getAcntNo() != null) reply.setAcntNo(account.getAcntNo());
+        if (account.getCstmId() != null) reply.setCstmId(account.getCstmId());
+        if (account.getCstmNm() != null) reply.setCstmNm(account.getCstmNm());
+        if (account.getAcntNm() != null) reply.setAcntNm(account.getAcntNm());
+        if (account.getNewDtm() != null) reply.setNewDtm(account.getNewDtm());
+        if (account.getAcntBlnc() != null) reply.setAcntBlnc(account.getAcntBlnc());
+        return reply.build();
+    }
+
+    private static TransactionReply toTransactionReply(TransactionResult result) {
+        TransactionReply.Builder reply = TransactionReply.newBuilder().setSeq(result.getSeq());
+        if (result.getAcntNo() != null) reply.setAcntNo(result.getAcntNo());
+        if (result.getFormerBlnc() != null) reply.setFormerBlnc(result.getFormerBlnc());
+        if (result.getTrnsAmt() != null) reply.setTrnsAmt(result.getTrnsAmt());
+        if (result.getAcntBlnc() != null) reply.setAcntBlnc(result.getAcntBlnc());
+        return reply.build();
+    }
+
+    private static com.modernbank.account.ledger.grpc.BulkTransactionResult toBulkTransactionResult(BulkTransactionResult result) {
+        com.modernbank.account.ledger.grpc.BulkTransactionResult.Builder reply = com.modernbank.account.ledger.grpc.BulkTransactionResult.newBuilder()
+                .setIndex(result.getIndex())
+                .setSeq(result.getSeq())
+                .setSuccess(result.isSuccess());
+        if (result.getAcntNo() != null) reply.setAcntNo(result.getAcntNo());
+        if (result.getDivCd() != null) reply.setDivCd(result.getDivCd());
+        if (result.getStsCd() != null) reply.setStsCd(result.getStsCd());
+        if (result.getFormerBlnc() != null) reply.setFormerBlnc(result.getFormerBlnc());
+        if (result.getTrnsAmt() != null) reply.setTrnsAmt(result.getTrnsAmt());
+        if (result.getAcntBlnc() != null) reply.setAcntBlnc(result.getAcntBlnc());
+        if (result.getMessage() != null) reply.setMessage(result.getMessage());
+        return reply.build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.modernbank.account.outbox;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.account.codec.EventCodec;
+import com.modernbank.account.consistency.ConsistencyTokenTracker;
+import com.modernbank.account.domain.entity.OutboxEvent;
+import com.modernbank.account.domain.repository.OutboxEventRepository;
+import com.modernbank.account.exception.SystemException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * 발행할 이벤트를 TB_EVNT_OTBX에 기록한다.
+ * 호출한 서비스의 트랜잭션에 참여하므로 업무 데이터와 함께 커밋/롤백되며, 실제 Kafka 발행은 OutboxRelay가 한다.
+ * 이벤트는 kafka.producer.value-format에 따라 바이너리 또는 JSON으로 직렬화해 두고, 릴레이는 바이트 그대로 보낸다.
+ * 기록하는 요청의 트레이스 컨텍스트(traceparent)를 함께 저장해, 나중에 릴레이가 발행할 때 같은 트레이스로 이어지게 한다.
+ * 기록 시각(CRT_DTM)은 릴레이가 committed-at 헤더로 보내는 값(지연 측정용)이고,
+ * INSERT할 때 채번된 순번(EVNT_SEQ)은 outbox-seq 헤더로 보내는 값이며 요청의 일관성 토큰에도 담는다.
+ */
+@Component
+public class OutboxEventWriter {
+
+    // Rows per multi-row insert
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    // JsonSerializer와 같은 설정으로 직렬화하여 Consumer 쪽 역직렬화 결과가 달라지지 않게 한다.
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    EventCodec eventCodec;
+
+    @Autowired
+    private ConsistencyTokenTracker consistencyTokenTracker;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private Propagator propagator;
+
+    @Value(value = "${kafka.producer.value-format:json}")
+    private String valueFormat;
+
+    public void append(String topicNm, String evntKey, Object event) {
+        OutboxEvent outboxEvent = toOutboxEvent(topicNm, evntKey, event, traceContext(), System.currentTimeMillis());
+        insert(Collections.singletonList(outboxEvent));
+        consistencyTokenTracker.recordOnCommit(topicNm, Collections.singletonList(evntKey), Collections.singletonList(outboxEvent.getEvntSeq()));
+    }
+
+    public <T> void appendAll(String topicNm, List<T> events, Function<T, String> keyMapper) {
+        if (events.isEmpty())
+            return;
+
+        String trcCtx = traceContext();
+        long committedAt = System.currentTimeMillis();
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        List<String> evntKeys = new ArrayList<>(events.size());
+        for (T event : events) {
+            String evntKey = keyMapper.apply(event);
+            outboxEvents.add(toOutboxEvent(topicNm, evntKey, event, trcCtx, committedAt));
+            evntKeys.add(evntKey);
+        }
+
+        for (int from = 0; from < outboxEvents.size(); from += INSERT_CHUNK_SIZE)
+            insert(outboxEvents.subList(from, Math.min(from + INSERT_CHUNK_SIZE, outboxEvents.size())));
+
+        List<Long> evntSeqs = new ArrayList<>(outboxEvents.size());
+        for (OutboxEvent outboxEvent : outboxEvents)
+            evntSeqs.add(outboxEvent.getEvntSeq());
+        consistencyTokenTracker.recordOnCommit(topicNm, evntKeys, evntSeqs);
+    }
+
+    private OutboxEvent toOutboxEvent(String topicNm, String evntKey, Object event, String trcCtx, long committedAt) {
+        try {
+            return OutboxEvent.builder()
+                    .topicNm(topicNm)
+                    .evntKey(evntKey)
+                    .payload("binary".equals(valueFormat) ? eventCodec.encode(topicNm, event) : objectMapper.writeValueAsBytes(event))
+                    .trcCtx(trcCtx)
+                    .crtDtm(new Timestamp(committedAt))
+                    .build();
+        } catch (Exception e) {
+            throw new SystemException("Failed to serialize event for topic " + topicNm + ": " + e.getMessage());
+        }
+    }
+
+    private String traceContext() {
+        Span span = tracer.currentSpan();
+        if (span == null)
+            return null;
+        Map<String, String> carrier = new HashMap<>(4);
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(OutboxRelay.TRACEPARENT);
+    }
+
+    private void insert(List<OutboxEvent> outboxEvents) {
+        try {
+            outboxEventRepository.insertOutboxEventList(outboxEvents);
+        } catch (Exception e) {
+            throw new SystemException("Failed to store outbox events: " + e.getMessage());
+        }
+    }
+}
@@ -1,29 +1,25 @@
 package com.modernbank.account.publisher;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
 
 import com.modernbank.account.domain.entity.Account;
 import com.modernbank.account.domain.entity.TransactionHistory;
-import com.modernbank.account.exception.SystemException;
+import com.modernbank.account.outbox.OutboxEventWriter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+/**
+ * 계좌 이벤트 발행.
+ * 메시지는 호출한 트랜잭션 안에서 Outbox에 기록되고 커밋 후 OutboxRelay가 Kafka로 발행한다.
+ * 계좌번호를 키로 사용하여 같은 계좌의 이벤트는 발생 순서대로 전달된다.
+ */
 @Component
 public class AccountProducer {
 
-    private final Logger LOGGER = LoggerFactory.getLogger(AccountProducer.class);
-	
     @Autowired
-    private KafkaTemplate<String, Account> accountKafkaTemplate;
-    
-    @Autowired
-    private KafkaTemplate<String, TransactionHistory> transactionKafkaTemplate;
+    private OutboxEventWriter outboxEventWriter;
     
     @Value(value = "${creating.account.topic.name}")
     private String creatingAccountTopicName;
@@ -35,45 +31,23 @@ public class AccountProducer {
     private String transactionTopicName;
     
     public void sendCreatingAccountMessage(Account account) {
-        CompletableFuture<SendResult<String, Account>> future = accountKafkaTemplate.send(creatingAccountTopicName, account);
-
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                Account g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getAcntNo() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
-            } else {
-                LOGGER.error("Unable to send message=[" + account.getAcntNo() + "] due to : " + ex.getMessage());
-                throw new SystemException("Kafka data transmission error");
-            }
-        });
+        outboxEventWriter.append(creatingAccountTopicName, account.getAcntNo(), account);
     }
     
     public void sendUpdatingAccountBalanceMessage(Account account) {
-        CompletableFuture<SendResult<String, Account>> future = accountKafkaTemplate.send(updatingAccountBalanceTopicName, account);
+        outboxEventWriter.append(updatingAccountBalanceTopicName, account.getAcntNo(), account);
+    }
 
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                Account g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getAcntNo() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
-            } else {
-                LOGGER.error("Unable to send message=[" + account.getAcntNo() + "] due to : " + ex.getMessage());
-                throw new SystemException("Kafka data transmission error");
-            }
-        });
+    public void sendUpdatingAccountBalanceMessages(List<Account> accounts) {
+        outboxEventWriter.appendAll(updatingAccountBalanceTopicName, accounts, Account::getAcntNo);
     }
     
     public void sendTransactionMessage(TransactionHistory transaction) {
-        CompletableFuture<SendResult<String, TransactionHistory>> future = transactionKafkaTemplate.send(transactionTopicName, transaction);
+        outboxEventWriter.append(transactionTopicName, transaction.getAcntNo(), transaction);
+    }
 
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                TransactionHistory g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getAcntNo() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
-            } else {
-                LOGGER.error("Unable to send message=[" + transaction.getAcntNo() + "] due to : " + ex.getMessage());
-                throw new SystemException("Kafka data transmission error");
-            }
-        });
+    public void sendTransactionMessages(List<TransactionHistory> transactions) {
+        outboxEventWriter.appendAll(transactionTopicName, transactions, TransactionHistory::getAcntNo);
     }
 
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.modernbank.account.rest.customer;
 
+import com.modernbank.account.bulkhead.DownstreamBulkheads;
+import com.modernbank.account.exception.BusinessException;
 import com.modernbank.account.exception.SystemException;
 import com.modernbank.account.rest.customer.entity.Customer;
 
@@ -7,39 +9,57 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+
+/**
+ * Customer Service 호출에 재시도와 서킷 브레이커를 적용한다.
+ * 어노테이션은 스프링 프록시를 거치는 public 메서드에만 적용되므로, 호출하는 서비스와 분리된 이 빈에 둔다.
+ * Retry가 CircuitBreaker 바깥에서 동작하므로 fallback은 Retry에 둔다. 호출은 customerService bulkhead 풀에서 실행한다.
+ */
 @Service("customerComposite")
 public class CustomerComposite {
 
     private static Logger LOGGER = LoggerFactory.getLogger(CustomerComposite.class);
+
+    private static final String CUSTOMER_SERVICE = "customerService";
 	
     @Value("${customer.api.url}")
     private String CUSTOMER_API_URL;
     
     @Autowired
     private final RestTemplate restTemplate;
+
+    @Autowired
+    private DownstreamBulkheads downstreamBulkheads;
     
     public CustomerComposite(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
-    public Customer retrieveCustomer(String cstmId) throws SystemException {
-        String apiUrl =  "/{cstmId}";
-        Customer customer = null;
-        try {
-            customer = this.restTemplate.getForObject(CUSTOMER_API_URL + apiUrl, Customer.class, cstmId);
-        } catch (Exception e) {
-            throw new SystemException("There is an issue with the RESTful call to Customer Service for retrieving customer information while creating a new account in Account Service." + e.getMessage());
-        }
-
-        return customer;
+    @CircuitBreaker(name = CUSTOMER_SERVICE)
+    @Retry(name = CUSTOMER_SERVICE, fallbackMethod = "fallbackRetrieveCustomer")
+    public Customer retrieveCustomer(String cstmId) {
+        return downstreamBulkheads.execute(CUSTOMER_SERVICE, () -> this.restTemplate.getForObject(CUSTOMER_API_URL + "/{cstmId}", Customer.class, cstmId));
     }
 
-    public Customer fallbackRetriveCustomer(String cstmId, Throwable t) throws Exception {
-        String msg = "There is a problem calling the customer information retrieval service for " + cstmId + " using restTemplate.";
-        LOGGER.error(msg, t);
-        throw new Exception();
+    // 고객 서비스 장애로 재시도를 모두 소진하거나 차단되면 고객명 없이 계좌를 만든다. 업무 오류(4xx)와 bulkhead 포화는 그대로 실패시킨다.
+    private Customer fallbackRetrieveCustomer(String cstmId, Exception e) {
+        if (e instanceof BulkheadFullException)
+            throw new SystemException("Account Service has too many calls to Customer Service in progress. Please retry shortly.", HttpStatus.SERVICE_UNAVAILABLE);
+        if (e instanceof BusinessException || e instanceof HttpClientErrorException)
+            throw new SystemException("There is an issue with the RESTful call to Customer Service for retrieving customer information while creating a new account in Account Service." + e.getMessage());
+
+        LOGGER.error("Failed to retrieve customer information. Using fallback for customer ID: " + cstmId, e);
+        return Customer.builder()
+                .cstmId(cstmId)
+                .cstmNm("Unknown Customer")
+                .build();
     }
-}
\ No newline at end of file
+}
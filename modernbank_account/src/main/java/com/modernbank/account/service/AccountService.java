@@ -1,35 +1,40 @@
 package com.modernbank.account.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import com.modernbank.account.archive.TransactionHistoryArchiver;
 import com.modernbank.account.domain.entity.Account;
+import com.modernbank.account.domain.entity.BulkTransactionResult;
 import com.modernbank.account.domain.entity.TransactionHistory;
 import com.modernbank.account.domain.entity.TransactionResult;
 import com.modernbank.account.domain.repository.AccountRepository;
+import com.modernbank.account.domain.repository.MyBatisBatchWriter;
 import com.modernbank.account.exception.BusinessException;
 import com.modernbank.account.publisher.AccountProducer;
 import com.modernbank.account.rest.customer.CustomerComposite;
 import com.modernbank.account.rest.customer.entity.Customer;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 @Service("accountService")
 public class AccountService {
 
-    private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
-
     @Autowired private AccountRepository accountRepository;
+    @Autowired private MyBatisBatchWriter batchWriter;
     @Autowired private AccountProducer accountProducer;
     @Autowired private CustomerComposite customerComposite;
+    @Autowired private TransactionHistoryArchiver transactionHistoryArchiver;
 
     public Account retrieveAccount(String acntNo) throws Exception {
         Account account = accountRepository.selectAccount(Account.ofAcntNo(acntNo));
@@ -58,7 +63,7 @@ public class AccountService {
             throw new BusinessException("Account number already exists.");
 
         // 2) Retrieve customer information (to store 'customer name' in the account table)
-        Customer customer = retrieveCustomerWithResilience(account.getCstmId());
+        Customer customer = customerComposite.retrieveCustomer(account.getCstmId());
         account.setCstmNm(customer.getCstmNm());
         
         // 3) Create account
@@ -78,20 +83,6 @@ public class AccountService {
         return result;
     }
 
-    @CircuitBreaker(name = "customerService", fallbackMethod = "fallbackRetrieveCustomer")
-    @Retry(name = "customerService")
-    private Customer retrieveCustomerWithResilience(String cstmId) throws Exception {
-        return customerComposite.retrieveCustomer(cstmId);
-    }
-
-    private Customer fallbackRetrieveCustomer(String cstmId, Exception e) {
-        logger.error("Failed to retrieve customer information. Using fallback for customer ID: " + cstmId, e);
-        return Customer.builder()
-                .cstmId(cstmId)
-                .cstmNm("Unknown Customer")
-                .build();
-    }
-
     public List<Account> retrieveAccountList(String cstmId) throws Exception {
         return accountRepository.selectAccountList(Account.ofCstmId(cstmId));
     }
@@ -114,7 +105,15 @@ public class AccountService {
     }
 
     public List<TransactionHistory> retrieveTransactionHistoryList(String acntNo) throws Exception {
-        return accountRepository.selectTransactionHistoryList(TransactionHistory.ofAcntNo(acntNo));
+        // 아카이브된 월의 거래내역과 운영 테이블의 거래내역을 순번 순으로 합친다.
+        // 아카이브 후 운영 테이블로 옮겨진 행(진행 중 거래, 마지막 잔액)은 운영 테이블 쪽이 최신이다.
+        Map<Integer, TransactionHistory> transactionHistoryMap = new TreeMap<>();
+        for (TransactionHistory transactionHistory : transactionHistoryArchiver.findArchivedTransactionHistoryList(acntNo))
+            transactionHistoryMap.put(transactionHistory.getSeq(), transactionHistory);
+        for (TransactionHistory transactionHistory : accountRepository.selectTransactionHistoryList(TransactionHistory.ofAcntNo(acntNo)))
+            transactionHistoryMap.put(transactionHistory.getSeq(), transactionHistory);
+
+        return new ArrayList<>(transactionHistoryMap.values());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -189,13 +188,159 @@ public class AccountService {
     }
 
 
+    @Transactional(rollbackFor = Exception.class)
+    public List<BulkTransactionResult> withdrawInBulk(List<TransactionHistory> transactionHistories) throws Exception {
+        if (transactionHistories != null)
+            transactionHistories.forEach(transactionHistory -> transactionHistory.setDivCd("W"));
+
+        return postTransactionsInBulk(transactionHistories, false);
+    }
+
+    /**
+     * Post many deposits/withdrawals across accounts in one transaction.
+     * Entries are grouped by account; each account's balance is read once and running balances are computed in memory,
+     * then all entries are stored in one JDBC batch using sequence numbers prefetched in a single query.
+     * A failed entry (validation, insufficient balance) does not stop the others unless atomic is set,
+     * in which case nothing is posted if any entry fails (e.g. both legs of an internal transfer).
+     * Results are returned in request order.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<BulkTransactionResult> postTransactionsInBulk(List<TransactionHistory> transactionHistories, boolean atomic) throws Exception {
+        if (transactionHistories == null || transactionHistories.isEmpty())
+            throw new BusinessException("No transactions requested.");
+
+        int size = transactionHistories.size();
+        BulkTransactionResult[] results = new BulkTransactionResult[size];
+        long[] formerBalances = new long[size];
+
+        // 1) Validate entries and group them by account (request order is kept within an account)
+        Map<String, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            TransactionHistory transactionHistory = transactionHistories.get(i);
+            String divCd = transactionHistory.getDivCd();
+
+            if (transactionHistory.getAcntNo() == null || transactionHistory.getTrnsAmt() == null || transactionHistory.getTrnsAmt() <= 0)
+                results[i] = failedBulkTransactionResult(i, transactionHistory, "Account number and a positive transaction amount are required.");
+            else if (!"D".equals(divCd) && !"W".equals(divCd))
+                results[i] = failedBulkTransactionResult(i, transactionHistory, "Division code must be 'D'(deposit) or 'W'(withdrawal).");
+            else
+                indexesByAccount.computeIfAbsent(transactionHistory.getAcntNo(), k -> new ArrayList<>()).add(i);
+        }
+
+        if (indexesByAccount.isEmpty()) {
+            if (atomic)
+                throw new BusinessException(results[0].getMessage());
+            return Arrays.asList(results);
+        }
+
+        // 2) Retrieve current balances of all accounts at once
+        Map<String, Long> balances = new HashMap<>();
+        for (TransactionHistory balance : accountRepository.selectCurrentAccountBalanceList(new ArrayList<>(indexesByAccount.keySet())))
+            balances.put(balance.getAcntNo(), balance.getAcntBlnc());
+
+        // 3) Compute running balances per account
+        List<Integer> postedIndexes = new ArrayList<>(size);
+        Map<String, Long> postedBalances = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : indexesByAccount.entrySet()) {
+            String acntNo = entry.getKey();
+            long acntBlnc = balances.getOrDefault(acntNo, 0L);
+            boolean posted = false;
+
+            for (int i : entry.getValue()) {
+                TransactionHistory transactionHistory = transactionHistories.get(i);
+                long trnsAmt = transactionHistory.getTrnsAmt();
+                formerBalances[i] = acntBlnc;
+
+                if ("D".equals(transactionHistory.getDivCd())) {
+                    acntBlnc += trnsAmt;
+                    transactionHistory.setStsCd("1");
+                    transactionHistory.setAcntBlnc(acntBlnc);
+                } else {
+                    if (acntBlnc < trnsAmt) {
+                        results[i] = failedBulkTransactionResult(i, transactionHistory, "Insufficient account balance.");
+                        continue;
+                    }
+                    // A pending(0) withdrawal for other bank transfer also holds its amount, so later entries of the batch
+                    // cannot spend it again (the same balance withdrawOwnBankOrTransferOtherBank records for a pending withdrawal)
+                    acntBlnc -= trnsAmt;
+                    transactionHistory.setAcntBlnc(acntBlnc);
+                }
+
+                postedIndexes.add(i);
+                posted = true;
+            }
+
+            if (posted)
+                postedBalances.put(acntNo, acntBlnc);
+        }
+
+        if (atomic) {
+            for (BulkTransactionResult result : results) {
+                if (result != null && !result.isSuccess())
+                    throw new BusinessException(result.getMessage());
+            }
+        }
+
+        if (postedIndexes.isEmpty())
+            return Arrays.asList(results);
+
+        // 4) Prefetch sequence numbers and store all entries with a batch insert
+        List<Integer> seqs = accountRepository.selectNextTransactionSeqList(postedIndexes.size());
+        List<TransactionHistory> postedTransactions = new ArrayList<>(postedIndexes.size());
+        for (int n = 0; n < postedIndexes.size(); n++) {
+            int i = postedIndexes.get(n);
+            TransactionHistory transactionHistory = transactionHistories.get(i);
+            transactionHistory.setSeq(seqs.get(n));
+            postedTransactions.add(transactionHistory);
+
+            results[i] = BulkTransactionResult.builder()
+                    .index(i)
+                    .acntNo(transactionHistory.getAcntNo())
+                    .seq(transactionHistory.getSeq())
+                    .divCd(transactionHistory.getDivCd())
+                    .stsCd(transactionHistory.getStsCd())
+                    .formerBlnc(formerBalances[i])
+                    .trnsAmt(transactionHistory.getTrnsAmt())
+                    .acntBlnc(transactionHistory.getAcntBlnc())
+                    .success(true)
+                    .build();
+        }
+
+        batchWriter.write(AccountRepository.class, postedTransactions, AccountRepository::insertTransactionHistory);
+
+        // 5) Send transaction history messages, and one updated balance message per account
+        List<Account> postedAccounts = new ArrayList<>(postedBalances.size());
+        postedBalances.forEach((acntNo, acntBlnc) -> postedAccounts.add(Account.of(acntNo, acntBlnc)));
+        accountProducer.sendTransactionMessages(postedTransactions);
+        accountProducer.sendUpdatingAccountBalanceMessages(postedAccounts);
+
+        return Arrays.asList(results);
+    }
+
+    private BulkTransactionResult failedBulkTransactionResult(int index, TransactionHistory transactionHistory, String message) {
+        return BulkTransactionResult.builder()
+                .index(index)
+                .acntNo(transactionHistory.getAcntNo())
+                .divCd(transactionHistory.getDivCd())
+                .stsCd(transactionHistory.getStsCd())
+                .trnsAmt(transactionHistory.getTrnsAmt())
+                .success(false)
+                .message(message)
+                .build();
+    }
+
     @Transactional(rollbackFor = Exception.class)
     public int processExternalTransferConfirmation(TransactionHistory transactionHistory) throws Exception {
+        String stsCd = transactionHistory.getStsCd();
+        if (!"1".equals(stsCd) && !"2".equals(stsCd))
+            throw new BusinessException("Status code must be '1'(confirm) or '2'(cancel).");
+
         // 1) Update transaction history to withdrawal success status
         int result = accountRepository.updateTransactionHistory(transactionHistory);
 
         // 2) Retrieve account balance after withdrawal success
         Long acntBlnc = retrieveAccountBalance(transactionHistory.getAcntNo());
+        transactionHistory.setAcntBlnc(acntBlnc);
 
         // 3) Send withdrawal success transaction history message
         accountProducer.sendTransactionMessage(transactionHistory);
@@ -0,0 +1,232 @@
+package com.modernbank.account.service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import com.modernbank.account.domain.entity.Account;
+import com.modernbank.account.domain.entity.StatementExport;
+import com.modernbank.account.domain.repository.AccountRepository;
+import com.modernbank.account.exception.BusinessException;
+import com.modernbank.account.statement.StatementExporter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 거래내역 내보내기(비동기).
+ * 접수 즉시 내보내기 ID를 반환하고, 전용 스레드 풀에서 gzip 파일을 만든다.
+ * 완료된 파일은 다운로드 시 FileChannel에서 소켓으로 복사 없이(sendfile) 보낸다.
+ * 최근 작업만 메모리에 유지하며(LRU), 보관 기간이 지난 파일은 삭제한다.
+ */
+@Service("statementExportService")
+public class StatementExportService {
+
+    // Tomcat NIO 커넥터의 sendfile 요청 속성
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final DateTimeFormatter REQ_DTM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Logger LOGGER = LoggerFactory.getLogger(StatementExportService.class);
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    StatementExporter statementExporter;
+
+    @Resource(name = "statementExportExecutor")
+    ThreadPoolExecutor statementExportExecutor;
+
+    @Value("${statement.export.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Path exportDir;
+    private final Map<String, StatementExport> statementExports;
+
+    public StatementExportService(@Value("${statement.export.dir}") String exportDir,
+            @Value("${statement.export.registry.max-exports:100}") int maxExports) {
+        this.exportDir = Paths.get(exportDir);
+        this.statementExports = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StatementExport> eldest) {
+                if (size() <= maxExports)
+                    return false;
+                deleteFile(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public StatementExport submitStatementExport(String acntNo, String format, String fromDt, String toDt) throws Exception {
+        if (!StatementExport.CSV.equals(format) && !StatementExport.NDJSON.equals(format))
+            throw new BusinessException("Unsupported statement format. (csv, ndjson)");
+        validateDate(fromDt);
+        validateDate(toDt);
+        if (fromDt != null && toDt != null && fromDt.compareTo(toDt) > 0)
+            throw new BusinessException("fromDt must not be after toDt.");
+
+        Account account = new Account();
+        account.setAcntNo(acntNo);
+        if (accountRepository.selectAccount(account) == null)
+            throw new BusinessException("Account does not exist.", HttpStatus.NOT_FOUND);
+
+        StatementExport statementExport = new StatementExport();
+        statementExport.setExportId(UUID.randomUUID().toString());
+        statementExport.setAcntNo(acntNo);
+        statementExport.setFormat(format);
+        statementExport.setFromDt(fromDt);
+        statementExport.setToDt(toDt);
+        statementExport.setReqDtm(LocalDateTime.now().format(REQ_DTM_FORMAT));
+        statementExport.setStatus(StatementExport.RECEIVED);
+
+        synchronized (statementExports) {
+            statementExports.put(statementExport.getExportId(), statementExport);
+        }
+
+        try {
+            statementExportExecutor.execute(() -> processStatementExport(statementExport));
+        } catch (RejectedExecutionException e) {
+            synchronized (statementExports) {
+                statementExports.remove(statementExport.getExportId());
+            }
+            throw new BusinessException("Too many statement exports are in progress. Please try again later.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return statementExport;
+    }
+
+    public StatementExport retrieveStatementExport(String acntNo, String exportId) throws Exception {
+        StatementExport statementExport;
+        synchronized (statementExports) {
+            statementExport = statementExports.get(exportId);
+        }
+        if (statementExport == null || !statementExport.getAcntNo().equals(acntNo))
+            throw new BusinessException("Statement export does not exist.", HttpStatus.NOT_FOUND);
+        return statementExport;
+    }
+
+    /**
+     * 완료된 내보내기 파일을 그대로(gzip) 응답으로 보낸다.
+     * Tomcat이 sendfile을 지원하면 파일 경로만 넘겨 커널이 페이지 캐시에서 소켓으로 직접 보내게 하고,
+     * 아니면 FileChannel.transferTo로 응답 스트림에 쓴다.
+     */
+    public void sendStatementFile(String acntNo, String exportId, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        StatementExport statementExport = retrieveStatementExport(acntNo, exportId);
+        Path file = statementExport.getFile();
+        if (!StatementExport.COMPLETED.equals(statementExport.getStatus()) || file == null || !Files.exists(file))
+            throw new BusinessException("Statement export is not ready. (status: " + statementExport.getStatus() + ")", HttpStatus.CONFLICT);
+
+        long size = Files.size(file);
+        response.setContentType("application/gzip");
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"statement-" + acntNo + "-" + exportId + "." + statementExport.getFormat() + ".gz\"");
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size)
+                position += channel.transferTo(position, size - position, out);
+        }
+    }
+
+    private void processStatementExport(StatementExport statementExport) {
+        statementExport.setStatus(StatementExport.PROCESSING);
+        Path file = exportDir.resolve(statementExport.getExportId() + "." + statementExport.getFormat() + ".gz");
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.createDirectories(exportDir);
+            long rowCount = statementExporter.export(statementExport, tempFile);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            statementExport.setFile(file);
+            statementExport.setRowCount(rowCount);
+            statementExport.setFileSize(Files.size(file));
+            statementExport.setStatus(StatementExport.COMPLETED);
+            LOGGER.info("Exported statement [" + statementExport.getExportId() + "] for account " + statementExport.getAcntNo()
+                    + ": " + rowCount + " rows, " + statementExport.getFileSize() + " bytes");
+        } catch (Exception e) {
+            LOGGER.error("Failed to export statement [" + statementExport.getExportId() + "] for account " + statementExport.getAcntNo(), e);
+            statementExport.setMessage(e.getMessage());
+            statementExport.setStatus(StatementExport.FAILED);
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignore) {
+                // 정리 작업에서 다시 지운다.
+            }
+        }
+    }
+
+    // 보관 기간이 지난 내보내기 파일과 작업 정보를 삭제한다.
+    @Scheduled(fixedDelayString = "${statement.export.purge-interval-ms:600000}")
+    public void purgeExpiredStatementExports() {
+        String expiredDtm = LocalDateTime.now().minusMinutes(retentionMinutes).format(REQ_DTM_FORMAT);
+        synchronized (statementExports) {
+            statementExports.values().removeIf(statementExport -> {
+                boolean finished = StatementExport.COMPLETED.equals(statementExport.getStatus())
+                        || StatementExport.FAILED.equals(statementExport.getStatus());
+                if (!finished || statementExport.getReqDtm().compareTo(expiredDtm) >= 0)
+                    return false;
+                deleteFile(statementExport);
+                return true;
+            });
+        }
+    }
+
+    private void deleteFile(StatementExport statementExport) {
+        Path file = statementExport.getFile();
+        if (file == null)
+            return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete statement file " + file + " due to : " + e.getMessage());
+        }
+    }
+
+    private static void validateDate(String date) {
+        if (date == null)
+            return;
+        try {
+            LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Invalid date: " + date + " (yyyy-MM-dd)");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.modernbank.account.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 인자로 동시에 들어온 호출을 하나로 합쳐 한 번만 실행하고 결과(또는 예외)를 함께 돌려받는다.
+ * 키는 value + 메소드 인자이다. 결과 객체는 호출자들이 공유하므로 변경하지 않는 조회에만 붙인다.
+ * 트랜잭션 안의 호출과 방금 쓰기를 한 세션(read-your-writes)의 호출은 합치지 않는다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+    // 메트릭 태그(name)와 키 접두어로 쓰는 호출 지점 이름
+    String value();
+}
@@ -0,0 +1,118 @@
+package com.modernbank.account.statement;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.account.archive.TransactionHistoryArchiver;
+import com.modernbank.account.archive.TransactionHistoryPartitionManager;
+import com.modernbank.account.domain.entity.StatementExport;
+import com.modernbank.account.domain.entity.TransactionHistory;
+import com.modernbank.account.domain.repository.AccountRepository;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 계좌의 거래내역을 순번(= 거래 순서) 순으로 파일에 쓴다.
+ * 아카이브된 월은 월 파일 단위로, 운영 테이블은 서버 측 커서로 읽으며 두 흐름을 순번으로 병합한다.
+ * 아카이브 후 운영 테이블로 옮겨진 행은 양쪽에 모두 있으므로 운영 테이블 쪽만 쓴다.
+ */
+@Component
+public class StatementExporter {
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    TransactionHistoryArchiver transactionHistoryArchiver;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * 내보내는 동안 한 스냅샷으로 읽도록 REPEATABLE READ 읽기 전용 트랜잭션에서 커서를 연다.
+     *
+     * @return 기록한 행 수
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ, rollbackFor = Exception.class)
+    public long export(StatementExport statementExport, Path file) throws Exception {
+        String acntNo = statementExport.getAcntNo();
+        LocalDate fromDt = statementExport.getFromDt() == null ? null : LocalDate.parse(statementExport.getFromDt());
+        LocalDate toDt = statementExport.getToDt() == null ? null : LocalDate.parse(statementExport.getToDt());
+
+        ArchivedRows archived = new ArchivedRows(acntNo, fromDt, toDt);
+
+        try (StatementWriter writer = new StatementWriter(file, statementExport.getFormat(), objectMapper);
+             Cursor<TransactionHistory> cursor = accountRepository.selectTransactionHistoryCursor(acntNo, statementExport.getFromDt(), statementExport.getToDt())) {
+
+            for (TransactionHistory current : cursor) {
+                while (archived.hasNext() && archived.peek().getSeq() < current.getSeq())
+                    writer.write(archived.next());
+                if (archived.hasNext() && archived.peek().getSeq() == current.getSeq())
+                    archived.next();
+                writer.write(current);
+            }
+            while (archived.hasNext())
+                writer.write(archived.next());
+
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * 기간에 해당하는 아카이브 파일을 오래된 순으로 하나씩 읽는다. (한 번에 한 달치 한 계좌분만 메모리에 둔다)
+     */
+    private class ArchivedRows {
+        private final String acntNo;
+        private final String fromDtm;
+        private final String toDtm;
+        private final Iterator<Path> files;
+        private Iterator<TransactionHistory> rows = Collections.emptyIterator();
+        private TransactionHistory next;
+
+        ArchivedRows(String acntNo, LocalDate fromDt, LocalDate toDt) throws IOException {
+            this.acntNo = acntNo;
+            this.fromDtm = fromDt == null ? null : fromDt.atStartOfDay().format(TransactionHistoryPartitionManager.TRNS_DTM_FORMAT);
+            this.toDtm = toDt == null ? null : toDt.plusDays(1).atStartOfDay().format(TransactionHistoryPartitionManager.TRNS_DTM_FORMAT);
+
+            List<Path> archiveFiles = transactionHistoryArchiver.findArchiveFiles(
+                    fromDt == null ? null : YearMonth.from(fromDt), toDt == null ? null : YearMonth.from(toDt));
+            this.files = archiveFiles.iterator();
+        }
+
+        boolean hasNext() throws IOException {
+            while (next == null) {
+                if (rows.hasNext()) {
+                    TransactionHistory row = rows.next();
+                    if ((fromDtm == null || row.getTrnsDtm().compareTo(fromDtm) >= 0)
+                            && (toDtm == null || row.getTrnsDtm().compareTo(toDtm) < 0))
+                        next = row;
+                } else if (files.hasNext()) {
+                    rows = transactionHistoryArchiver.readArchiveFile(files.next(), acntNo).iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        TransactionHistory peek() {
+            return next;
+        }
+
+        TransactionHistory next() {
+            TransactionHistory row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.modernbank.account.statement;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.account.domain.entity.StatementExport;
+import com.modernbank.account.domain.entity.TransactionHistory;
+
+/**
+ * 거래내역을 한 행씩 gzip 압축 파일로 쓴다. 행을 모아두지 않으므로 건수와 관계없이 메모리 사용량이 일정하다.
+ * - csv: 헤더 + 한 줄에 한 거래 (RFC 4180 인용)
+ * - ndjson: 한 줄에 한 거래의 JSON 객체
+ */
+public class StatementWriter implements Closeable {
+
+    static final String[] CSV_COLUMNS = { "acntNo", "seq", "divCd", "stsCd", "trnsAmt", "acntBlnc", "trnsBrnch", "trnsDtm" };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String format;
+    private final OutputStream out;
+    private final Writer writer;
+    private final JsonGenerator jsonGenerator;
+    private long rowCount;
+
+    public StatementWriter(Path file, String format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE);
+
+        if (StatementExport.NDJSON.equals(format)) {
+            this.writer = null;
+            this.jsonGenerator = objectMapper.getFactory().createGenerator(out);
+            this.jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            this.jsonGenerator = null;
+            writeCsvLine((Object[]) CSV_COLUMNS);
+        }
+    }
+
+    public void write(TransactionHistory history) throws IOException {
+        if (jsonGenerator != null) {
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeStringField("acntNo", history.getAcntNo());
+            jsonGenerator.writeNumberField("seq", history.getSeq());
+            jsonGenerator.writeStringField("divCd", history.getDivCd());
+            jsonGenerator.writeStringField("stsCd", history.getStsCd());
+            writeNumberField("trnsAmt", history.getTrnsAmt());
+            writeNumberField("acntBlnc", history.getAcntBlnc());
+            jsonGenerator.writeStringField("trnsBrnch", history.getTrnsBrnch());
+            jsonGenerator.writeStringField("trnsDtm", history.getTrnsDtm());
+            jsonGenerator.writeEndObject();
+            jsonGenerator.writeRaw('\n');
+        } else {
+            writeCsvLine(history.getAcntNo(), history.getSeq(), history.getDivCd(), history.getStsCd(),
+                    history.getTrnsAmt(), history.getAcntBlnc(), history.getTrnsBrnch(), history.getTrnsDtm());
+        }
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    private void writeNumberField(String name, Long value) throws IOException {
+        if (value == null)
+            jsonGenerator.writeNullField(name);
+        else
+            jsonGenerator.writeNumberField(name, value);
+    }
+
+    private void writeCsvLine(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            if (values[i] != null)
+                writer.write(escapeCsv(values[i].toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (jsonGenerator != null)
+                jsonGenerator.close();
+            if (writer != null)
+                writer.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -1,3 +1,7 @@
+DROP TABLE IF EXISTS TB_EVNT_OTBX;
+DROP TABLE IF EXISTS TB_EVNT_OTBX_RLY;
+DROP SEQUENCE IF EXISTS SEQ_EVENT_OUTBOX;
+DROP TABLE IF EXISTS TB_IDMP_KEY;
 DROP TABLE IF EXISTS TB_ACNT;
 DROP TABLE IF EXISTS TB_TRNS_HST;
 DROP SEQUENCE IF EXISTS SEQ_ACCOUNT_TRANSACTION_HISTORY;
@@ -36,8 +40,9 @@ CREATE TABLE TB_TRNS_HST
   TRNS_AMT	BIGINT DEFAULT 0,
   ACNT_BLNC	BIGINT DEFAULT 0,
   TRNS_BRNCH	VARCHAR(20) NOT NULL,
-  TRNS_DTM	VARCHAR(20) NOT NULL
+  TRNS_DTM	TIMESTAMP(0) NOT NULL DEFAULT LOCALTIMESTAMP(0)
 )
+PARTITION BY RANGE (TRNS_DTM)
 ;
 COMMENT ON TABLE TB_TRNS_HST
   IS 'Transaction History';
@@ -58,6 +63,92 @@ COMMENT ON COLUMN TB_TRNS_HST.TRNS_BRNCH
 COMMENT ON COLUMN TB_TRNS_HST.TRNS_DTM
   IS 'Transaction Date and Time';
 ALTER TABLE TB_TRNS_HST
-  ADD CONSTRAINT TB_TRNS_HST_PK PRIMARY KEY (ACNT_NO,SEQ);
+  ADD CONSTRAINT TB_TRNS_HST_PK PRIMARY KEY (ACNT_NO,SEQ,TRNS_DTM);
 
-CREATE SEQUENCE SEQ_ACCOUNT_TRANSACTION_HISTORY;
\ No newline at end of file
+-- Monthly partitions (TB_TRNS_HST_YYYYMM) are created ahead of time by TransactionHistoryArchiver.
+-- The default partition holds rows outside them: seed data and rows carried over from archived months.
+CREATE TABLE TB_TRNS_HST_DFLT PARTITION OF TB_TRNS_HST DEFAULT;
+-- A partitioned primary key must include the partition key, so (ACNT_NO, SEQ) is unique only within each partition:
+-- every partition gets a unique index on it, SEQ comes from SEQ_ACCOUNT_TRANSACTION_HISTORY,
+-- and the archiver refuses to drop a month whose (ACNT_NO, SEQ) also exists in another partition.
+CREATE UNIQUE INDEX TB_TRNS_HST_DFLT_UK ON TB_TRNS_HST_DFLT (ACNT_NO, SEQ);
+COMMENT ON TABLE TB_TRNS_HST_DFLT
+  IS 'Transaction History (Default Partition)';
+
+CREATE SEQUENCE SEQ_ACCOUNT_TRANSACTION_HISTORY;
+CREATE TABLE TB_IDMP_KEY
+(
+  IDMP_KEY	VARCHAR(200) NOT NULL,
+  STS_CD	VARCHAR(1) NOT NULL,
+  RQST_HASH	VARCHAR(70),
+  CLM_TKN	VARCHAR(36),
+  RSPN_STATUS	INTEGER,
+  RSPN_BODY	TEXT,
+  CRT_DTM	TIMESTAMP NOT NULL,
+  UPD_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_IDMP_KEY
+  IS 'Idempotency Key';
+COMMENT ON COLUMN TB_IDMP_KEY.IDMP_KEY
+  IS 'Request Path and Idempotency Key';
+COMMENT ON COLUMN TB_IDMP_KEY.STS_CD
+  IS 'Status Code';
+COMMENT ON COLUMN TB_IDMP_KEY.RQST_HASH
+  IS 'Request Hash';
+COMMENT ON COLUMN TB_IDMP_KEY.CLM_TKN
+  IS 'Claim Token';
+COMMENT ON COLUMN TB_IDMP_KEY.RSPN_STATUS
+  IS 'Response HTTP Status';
+COMMENT ON COLUMN TB_IDMP_KEY.RSPN_BODY
+  IS 'Response Body';
+COMMENT ON COLUMN TB_IDMP_KEY.CRT_DTM
+  IS 'Creation Date and Time';
+COMMENT ON COLUMN TB_IDMP_KEY.UPD_DTM
+  IS 'Update Date and Time';
+ALTER TABLE TB_IDMP_KEY
+  ADD CONSTRAINT TB_IDMP_KEY_PK PRIMARY KEY (IDMP_KEY);
+CREATE TABLE TB_EVNT_OTBX
+(
+  EVNT_SEQ	BIGINT NOT NULL,
+  TOPIC_NM	VARCHAR(100) NOT NULL,
+  EVNT_KEY	VARCHAR(100),
+  PAYLOAD	BYTEA NOT NULL,
+  TRC_CTX	VARCHAR(100),
+  CRT_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_EVNT_OTBX
+  IS 'Event Outbox';
+COMMENT ON COLUMN TB_EVNT_OTBX.EVNT_SEQ
+  IS 'Event Sequence Number';
+COMMENT ON COLUMN TB_EVNT_OTBX.TOPIC_NM
+  IS 'Topic Name';
+COMMENT ON COLUMN TB_EVNT_OTBX.EVNT_KEY
+  IS 'Event Key';
+COMMENT ON COLUMN TB_EVNT_OTBX.PAYLOAD
+  IS 'Event Payload';
+COMMENT ON COLUMN TB_EVNT_OTBX.TRC_CTX
+  IS 'Trace Context (W3C traceparent)';
+COMMENT ON COLUMN TB_EVNT_OTBX.CRT_DTM
+  IS 'Creation Date and Time';
+ALTER TABLE TB_EVNT_OTBX
+  ADD CONSTRAINT TB_EVNT_OTBX_PK PRIMARY KEY (EVNT_SEQ);
+CREATE SEQUENCE SEQ_EVENT_OUTBOX;
+CREATE TABLE TB_EVNT_OTBX_RLY
+(
+  LOCK_ID	BIGINT NOT NULL,
+  LAST_EVNT_SEQ	BIGINT NOT NULL,
+  UPD_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_EVNT_OTBX_RLY
+  IS 'Event Outbox Relay Position';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.LOCK_ID
+  IS 'Relay Lock ID';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.LAST_EVNT_SEQ
+  IS 'Last Relayed Event Sequence Number';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.UPD_DTM
+  IS 'Update Date and Time';
+ALTER TABLE TB_EVNT_OTBX_RLY
+  ADD CONSTRAINT TB_EVNT_OTBX_RLY_PK PRIMARY KEY (LOCK_ID);
@@ -0,0 +1,166 @@
+package com.modernbank.account.domain.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.modernbank.account.domain.entity.TransactionHistory;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 거래내역 N건 저장 처리량(rows/sec) 비교. MODERNBANK_ACCOUNT_DDL.sql이 적용된 PostgreSQL이 필요하다.
+ *
+ *   ./gradlew test --tests '*TransactionHistoryWriteBenchmark' -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/account
+ *   (선택) -Dbenchmark.db.user=postgres -Dbenchmark.db.password=admin1234 -Dbenchmark.rows=10000
+ *
+ * - selectKey per row      : 변경 전 insertTransactionHistoryData (행마다 NEXTVAL 조회 + INSERT, 2 round trip/행)
+ * - generated key per row  : 변경 후 insertTransactionHistoryData (INSERT ... RETURNING seq, 1 round trip/행)
+ * - batch + prefetched seq : 순번 일괄 채번 1회 + MyBatisBatchWriter (flush-size 단위 1 round trip)
+ */
+@EnabledIfSystemProperty(named = "benchmark.db.url", matches = ".+")
+public class TransactionHistoryWriteBenchmark {
+
+    private static final String ACNT_NO_PREFIX = "BENCH-";
+    private static final int ACCOUNT_COUNT = 100;
+
+    private static SqlSessionFactory sqlSessionFactory;
+    private static MyBatisBatchWriter batchWriter;
+    private static int rows;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Properties driverProperties = new Properties();
+        driverProperties.setProperty("user", System.getProperty("benchmark.db.user", "postgres"));
+        driverProperties.setProperty("password", System.getProperty("benchmark.db.password", "admin1234"));
+        driverProperties.setProperty("reWriteBatchedInserts", "true");
+        PooledDataSource dataSource = new PooledDataSource("org.postgresql.Driver", System.getProperty("benchmark.db.url"), driverProperties);
+
+        Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        try (InputStream mapper = Resources.getResourceAsStream("sql/account.xml")) {
+            new XMLMapperBuilder(mapper, configuration, "sql/account.xml", configuration.getSqlFragments()).parse();
+        }
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+        batchWriter = new MyBatisBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "sqlSessionFactory", sqlSessionFactory);
+        ReflectionTestUtils.setField(batchWriter, "flushSize", 1000);
+
+        rows = Integer.getInteger("benchmark.rows", 10000);
+        deleteBenchmarkRows();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        deleteBenchmarkRows();
+    }
+
+    @Test
+    void compareTransactionHistoryWriteThroughput() throws Exception {
+        // 첫 실행의 커넥션/구문 준비 비용이 비교에 섞이지 않도록 한 번씩 미리 돌린다.
+        writeWithSelectKeyPerRow(transactions(100));
+        writeWithGeneratedKeyPerRow(transactions(100));
+        writeWithBatch(transactions(100));
+        deleteBenchmarkRows();
+
+        double selectKey = measure("selectKey per row (before)", () -> writeWithSelectKeyPerRow(transactions(rows)));
+        double generatedKey = measure("generated key per row", () -> writeWithGeneratedKeyPerRow(transactions(rows)));
+        double batch = measure("batch + prefetched seq (after)", () -> writeWithBatch(transactions(rows)));
+
+        System.out.println(String.format("TB_TRNS_HST write x%.1f (batch vs selectKey per row), x%.1f (generated key vs selectKey per row)",
+                batch / selectKey, generatedKey / selectKey));
+    }
+
+    private static void writeWithSelectKeyPerRow(List<TransactionHistory> transactionHistories) throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            AccountRepository accountRepository = sqlSession.getMapper(AccountRepository.class);
+            for (TransactionHistory transactionHistory : transactionHistories) {
+                transactionHistory.setSeq(accountRepository.selectNextTransactionSeqList(1).get(0));
+                accountRepository.insertTransactionHistory(transactionHistory);
+            }
+            sqlSession.commit();
+        }
+    }
+
+    private static void writeWithGeneratedKeyPerRow(List<TransactionHistory> transactionHistories) throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            AccountRepository accountRepository = sqlSession.getMapper(AccountRepository.class);
+            for (TransactionHistory transactionHistory : transactionHistories)
+                accountRepository.insertTransactionHistoryData(transactionHistory);
+            sqlSession.commit();
+        }
+        assertTrue(transactionHistories.get(transactionHistories.size() - 1).getSeq() > 0);
+    }
+
+    private static void writeWithBatch(List<TransactionHistory> transactionHistories) throws Exception {
+        List<Integer> seqs;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            seqs = sqlSession.getMapper(AccountRepository.class).selectNextTransactionSeqList(transactionHistories.size());
+        }
+        for (int i = 0; i < transactionHistories.size(); i++)
+            transactionHistories.get(i).setSeq(seqs.get(i));
+
+        int written = batchWriter.write(AccountRepository.class, transactionHistories, AccountRepository::insertTransactionHistory);
+        assertEquals(transactionHistories.size(), written);
+    }
+
+    private static double measure(String name, BenchmarkRun run) throws Exception {
+        long start = System.nanoTime();
+        run.run();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        deleteBenchmarkRows();
+
+        double rowsPerSecond = rows / seconds;
+        System.out.println(String.format("%-32s %8d rows %10.3f s %12.0f rows/sec", name, rows, seconds, rowsPerSecond));
+        return rowsPerSecond;
+    }
+
+    private static List<TransactionHistory> transactions(int count) {
+        List<TransactionHistory> transactionHistories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactionHistories.add(TransactionHistory.builder()
+                    .acntNo(ACNT_NO_PREFIX + (i % ACCOUNT_COUNT))
+                    .divCd("D")
+                    .stsCd("1")
+                    .trnsAmt(1000L)
+                    .acntBlnc(1000L * (i / ACCOUNT_COUNT + 1))
+                    .trnsBrnch("Benchmark")
+                    .build());
+        }
+        return transactionHistories;
+    }
+
+    private static void deleteBenchmarkRows() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            Connection connection = sqlSession.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM TB_TRNS_HST WHERE ACNT_NO LIKE ?")) {
+                statement.setString(1, ACNT_NO_PREFIX + "%");
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BenchmarkRun {
+        void run() throws Exception;
+    }
+}
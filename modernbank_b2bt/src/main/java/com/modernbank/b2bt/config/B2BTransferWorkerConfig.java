@@ -0,0 +1,29 @@
+package com.modernbank.b2bt.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class B2BTransferWorkerConfig {
+
+    @Value("${b2b.transfer.worker.pool-size:64}")
+    private int poolSize;
+
+    @Value("${b2b.transfer.worker.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // 타행 호출 워커 풀. 큐가 가득 차면 리스너 스레드가 직접 처리하여 자연스럽게 poll 속도를 늦춘다.
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor b2bTransferWorkerExecutor() {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("b2bt-worker-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
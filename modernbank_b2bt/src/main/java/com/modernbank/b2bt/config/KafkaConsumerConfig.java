@@ -3,10 +3,18 @@ package com.modernbank.b2bt.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.modernbank.b2bt.codec.EventCodec;
+import com.modernbank.b2bt.codec.EventDeserializer;
 import com.modernbank.b2bt.domain.TransferHistory;
+import com.modernbank.b2bt.publisher.KafkaTopicRouter;
+import com.modernbank.b2bt.tracing.KafkaBatchTracing;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,11 +22,14 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.util.backoff.FixedBackOff;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 @EnableKafka
 @Configuration
@@ -27,42 +38,113 @@ public class KafkaConsumerConfig {
     @Value(value = "${kafka.bootstrapAddress}")
     private String bootstrapAddress;
 
+    // 바이너리/JSON 겸용 역직렬화 (스키마 기반 바이너리 전환 기간 동안 두 형식을 모두 읽는다)
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Autowired
+    private KafkaBatchTracing kafkaBatchTracing;
+
+    @Value(value = "${b2b.transfer.topic.name}")
+    private String b2bTransferTopicName;
+
+    // b2b-transfer 토픽의 파티션 수를 조회하지 못했을 때 쓰는 컨슈머 스레드 수
+    @Value(value = "${b2b.transfer.listener.concurrency:6}")
+    private int listenerConcurrency;
+
+    @Value(value = "${b2b.transfer.listener.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value(value = "${b2b.transfer.retry.listener.concurrency:1}")
+    private int retryListenerConcurrency;
+
+    @Value(value = "${b2b.transfer.dlt.topic.name}")
+    private String b2bTransferDltTopicName;
+
+    @Value(value = "${b2b.transfer.error.max-retries:3}")
+    private int errorMaxRetries;
+
+    @Value(value = "${b2b.transfer.error.initial-interval-ms:500}")
+    private long errorInitialIntervalMs;
+
+    @Value(value = "${b2b.transfer.error.max-interval-ms:5000}")
+    private long errorMaxIntervalMs;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
     public ConsumerFactory<String, TransferHistory> b2bTransferConsumerFactory() {
+        return b2bTransferConsumerFactory("b2bTransfer");
+    }
+
+    public ConsumerFactory<String, TransferHistory> b2bTransferRetryConsumerFactory() {
+        return b2bTransferConsumerFactory("b2bTransferRetry");
+    }
+
+    private ConsumerFactory<String, TransferHistory> b2bTransferConsumerFactory(String groupId) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "b2bTransfer");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,"false");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(TransferHistory.class, false));
+        // 역직렬화 실패 레코드가 파티션을 막지 않도록 감싸서 DLT로 보낸다.
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new EventDeserializer<>(TransferHistory.class, eventCodec)));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TransferHistory> b2bTransferKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, TransferHistory> b2bTransferKafkaListenerContainerFactory(KafkaTopicRouter kafkaTopicRouter, KafkaAdmin kafkaAdmin) {
         ConcurrentKafkaListenerContainerFactory<String, TransferHistory> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(b2bTransferConsumerFactory());
         factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
+        // poll 단위 배치로 받아 파티션(컨슈머 스레드)별로 병렬 처리한다. 스레드 수는 토픽 파티션 수에 맞춘다.
+        // 이체 이벤트는 출금계좌번호를 키로 발행되므로 같은 계좌의 이체는 한 스레드에서 순서대로 처리된다.
+        // 오래된 레코드도 버리지 않고 처리하며, 적체 시에는 B2BTransferService가 오래된 순으로 우선 처리한다.
+        factory.setBatchListener(true);
+        // 배치 리스너는 레코드별 consumer span을 BatchInterceptor로 연다.
+        factory.setBatchInterceptor(kafkaBatchTracing.interceptor());
+        factory.setConcurrency(partitionConcurrency(kafkaAdmin, b2bTransferTopicName));
+        factory.setCommonErrorHandler(b2bTransferErrorHandler(kafkaTopicRouter));
+        
+        return factory;
+    }
 
-        factory.setRecordFilterStrategy(consumerRecord -> {
-            long currentTimestamp = System.currentTimeMillis();
-            long messageTimestamp = consumerRecord.timestamp();
-            // 발행된지 3초가 지난 토픽은 리스너가 무시하도록 설정한다.(for 데모용)
-            // Fault Injection Service로 B2BT Service down 시키는 것 대응
-            boolean isOld = (currentTimestamp - messageTimestamp > 3000);
-            if (isOld) {
-                System.out.println("@@@@@@@@@@ Filtering out old message: " + consumerRecord.value());
-            }
-            return isOld;
-        });
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransferHistory> b2bTransferRetryKafkaListenerContainerFactory(KafkaTopicRouter kafkaTopicRouter) {
+        ConcurrentKafkaListenerContainerFactory<String, TransferHistory> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(b2bTransferRetryConsumerFactory());
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(retryListenerConcurrency);
+        // 레코드 헤더(traceparent)의 트레이스를 이어받아 consumer span 안에서 처리한다.
+        factory.getContainerProperties().setObservationEnabled(true);
+        factory.setCommonErrorHandler(b2bTransferErrorHandler(kafkaTopicRouter));
 
-        
-        // Set up new error handler
-        CommonErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 2));
-        factory.setCommonErrorHandler(errorHandler);
-        
         return factory;
     }
 
+    // 파티션보다 많은 스레드는 할당받을 파티션이 없어 놀게 되므로 파티션 수를 넘기지 않는다.
+    private int partitionConcurrency(KafkaAdmin kafkaAdmin, String topic) {
+        try {
+            return kafkaAdmin.describeTopics(topic).get(topic).partitions().size();
+        } catch (Exception e) {
+            LOGGER.warn("Could not describe topic " + topic + ", using concurrency " + listenerConcurrency, e);
+            return listenerConcurrency;
+        }
+    }
+
+    // 처리 자체가 실패한 레코드(결과 발행 실패, 역직렬화 실패 등)는 지수 백오프로 재시도한 뒤 DLT로 보낸다.
+    private CommonErrorHandler b2bTransferErrorHandler(KafkaTopicRouter kafkaTopicRouter) {
+        // 역직렬화에 실패한 원본(byte[])도 공용 Producer의 타입별 직렬화기로 그대로 보낸다.
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTopicRouter.templateFor(b2bTransferDltTopicName),
+                (consumerRecord, ex) -> new TopicPartition(b2bTransferDltTopicName, -1));
+
+        ExponentialBackOff backOff = new ExponentialBackOffWithMaxRetries(errorMaxRetries);
+        backOff.setInitialInterval(errorInitialIntervalMs);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(errorMaxIntervalMs);
 
-}
\ No newline at end of file
+        return new DefaultErrorHandler(recoverer, backOff);
+    }
+}
@@ -0,0 +1,21 @@
+package com.modernbank.b2bt.external;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+
+/**
+ * 타행(외부 은행) 이체 연동 인터페이스.
+ * 실제 타행 연동 구현체 또는 부하 테스트용 시뮬레이터로 교체할 수 있다.
+ */
+public interface ExternalBankClient {
+
+    enum Result { COMPLETED, REJECTED, DUPLICATE }
+
+    /**
+     * 타행으로 이체를 요청한다.
+     * 같은 이체는 재전달/재시도되어도 항상 같은 idempotencyKey로 요청하며,
+     * 타행은 이미 처리한 키의 이체를 다시 수행하지 않고 DUPLICATE(이미 완료) 또는 처음 결과(REJECTED)로 응답한다.
+     *
+     * @return 타행에서 이체가 완료되면 COMPLETED, 거절되면 REJECTED, 같은 키로 이미 완료된 이체면 DUPLICATE
+     */
+    Result transfer(TransferHistory transfer, String idempotencyKey) throws Exception;
+}
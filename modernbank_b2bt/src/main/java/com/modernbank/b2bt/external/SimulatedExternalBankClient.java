@@ -0,0 +1,89 @@
+package com.modernbank.b2bt.external;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 타행 응답을 흉내내는 시뮬레이터.
+ * 응답 지연(latency + jitter), 거절 비율, 일시 장애(예외) 비율을 설정하여 부하 테스트에 사용한다.
+ * 실제 타행처럼 처리한 idempotency key의 결과를 최근 idempotency-keys개까지 기억해, 같은 키의 재요청은 다시 처리하지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "b2b.external.bank.client", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedExternalBankClient implements ExternalBankClient {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(SimulatedExternalBankClient.class);
+
+    // 요청 단계에서 이미 실패(2)로 접수된 이체는 타행 장애 상황으로 간주한다.
+    private static final String REQUESTED_FAILURE = "2";
+
+    @Value("${b2b.external.bank.simulated.latency-ms:20}")
+    private long latencyMs;
+
+    @Value("${b2b.external.bank.simulated.jitter-ms:10}")
+    private long jitterMs;
+
+    @Value("${b2b.external.bank.simulated.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${b2b.external.bank.simulated.error-rate:0.0}")
+    private double errorRate;
+
+    // idempotency key -> 처리 결과 (true: 완료, false: 거절)
+    private final Map<String, Boolean> processed;
+
+    public SimulatedExternalBankClient(@Value("${b2b.external.bank.simulated.idempotency-keys:100000}") int idempotencyKeys) {
+        this.processed = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > idempotencyKeys;
+            }
+        };
+    }
+
+    @Override
+    public Result transfer(TransferHistory transfer, String idempotencyKey) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0)
+            Thread.sleep(delay);
+
+        synchronized (processed) {
+            Boolean previous = processed.get(idempotencyKey);
+            if (previous != null)
+                return previous ? Result.DUPLICATE : Result.REJECTED;
+        }
+
+        if (REQUESTED_FAILURE.equals(transfer.getStsCd()))
+            return remember(idempotencyKey, false);
+
+        if (random.nextDouble() < errorRate)
+            throw new IllegalStateException("Simulated external bank outage");
+
+        boolean completed = random.nextDouble() >= failureRate;
+        if (!completed)
+            LOGGER.info("Simulated external bank rejected transfer: wthdAcntNo=[" + transfer.getWthdAcntNo() + "], seq=[" + transfer.getSeq() + "]");
+
+        return remember(idempotencyKey, completed);
+    }
+
+    private Result remember(String idempotencyKey, boolean completed) {
+        synchronized (processed) {
+            // 같은 키가 동시에 처리됐으면 먼저 기록된 결과를 따른다.
+            Boolean previous = processed.putIfAbsent(idempotencyKey, completed);
+            if (previous != null)
+                return previous ? Result.DUPLICATE : Result.REJECTED;
+        }
+        return completed ? Result.COMPLETED : Result.REJECTED;
+    }
+}
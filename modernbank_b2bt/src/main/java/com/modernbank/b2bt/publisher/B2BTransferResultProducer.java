@@ -1,15 +1,18 @@
 package com.modernbank.b2bt.publisher;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.modernbank.b2bt.domain.TransferHistory;
+import com.modernbank.b2bt.tracing.KafkaBatchTracing;
 import com.modernbank.b2bt.utils.ObjectToJsonConverter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
@@ -19,24 +22,56 @@ public class B2BTransferResultProducer {
     private final Logger LOGGER = LoggerFactory.getLogger(B2BTransferResultProducer.class);
     
     @Autowired
-    private KafkaTemplate<String, TransferHistory> transferResultKafkaTemplate;
+    private KafkaTopicRouter kafkaTopicRouter;
+
+    @Autowired
+    private KafkaBatchTracing kafkaBatchTracing;
 
     @Value(value = "${b2b.transfer.result.topic.name}")
     private String b2bTransferResultTopicName;
 
+    @Value(value = "${b2b.transfer.result.send.timeout-ms:10000}")
+    private long sendTimeoutMs;
+
     public void sendB2BTransferResultMessage(TransferHistory transferResult) {
         System.out.println("====> Start sendB2BTransferResultMessage at B2BT Service: \n" + ObjectToJsonConverter.convertSettersToJson(transferResult) + "\n");
-        CompletableFuture<SendResult<String, TransferHistory>> future = 
-            transferResultKafkaTemplate.send(b2bTransferResultTopicName, transferResult);
+        CompletableFuture<SendResult<String, Object>> future = 
+            kafkaTopicRouter.send(b2bTransferResultTopicName, transferResult.getWthdAcntNo(), transferResult);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
-                TransferHistory g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getWthdAcntNo() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
+                LOGGER.info("Sent message=[" + result.getProducerRecord().key() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
             } else {
                 // needed to do compensation transaction.
                 LOGGER.error("Unable to send message=[" + transferResult.getWthdAcntNo() + "] due to : " + ex.getMessage(), ex);
             }
         });
     }
+
+    /**
+     * 처리 결과를 출금 계좌번호 키로 한꺼번에 발행하고 브로커 응답을 모두 기다린다.
+     * 하나라도 실패하면 예외를 던져 호출 측(리스너)이 커밋하지 않도록 한다.
+     */
+    public void sendB2BTransferResultMessages(List<TransferHistory> transferResults) throws Exception {
+        if (transferResults.isEmpty())
+            return;
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(transferResults.size());
+        // 같은 출금 계좌 키로 받은 이체 레코드의 트레이스로 이어서 발행한다.
+        for (TransferHistory transferResult : transferResults)
+            futures.add(kafkaBatchTracing.withRecordSpan(transferResult.getWthdAcntNo(),
+                    () -> kafkaTopicRouter.send(b2bTransferResultTopicName, transferResult.getWthdAcntNo(), transferResult)));
+
+        kafkaTopicRouter.flush();
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // needed to do compensation transaction.
+            LOGGER.error("Unable to send [" + transferResults.size() + "] transfer result messages due to : " + e.getMessage(), e);
+            throw e;
+        }
+
+        LOGGER.info("Sent [" + transferResults.size() + "] transfer result messages");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.modernbank.b2bt.publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+import com.modernbank.b2bt.tracing.KafkaBatchTracing;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+/**
+ * 타행 호출이 일시적으로 실패한 이체를 지연(retry) 토픽으로 보낸다.
+ * 재시도 회차마다 토픽을 따로 쓰므로(<retry.topic.name>-<회차>) 한 토픽의 레코드는 모두 같은 간격만큼 미뤄지고,
+ * 파티션 앞쪽 레코드가 항상 먼저 재처리 시각이 된다. 재처리 간격은 회차에 따라 지수적으로 늘어난다.
+ * 재시도 횟수와 재처리 가능 시각은 헤더로 함께 보낸다.
+ * 재시도를 다 쓰고도 타행 결과를 알 수 없는 이체는 DLT로 보내 타행 idempotency key(b2b:<cstmId>:<seq>)로 결과를 확인하는 대사에 넘긴다.
+ */
+@Component
+public class B2BTransferRetryProducer {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(B2BTransferRetryProducer.class);
+
+    public static final String RETRY_ATTEMPT_HEADER = "b2b-retry-attempt";
+    public static final String RETRY_DUE_AT_HEADER = "b2b-retry-due-at";
+    // DLT에서 처리 실패 레코드와 구분하기 위한 헤더 (값: 결과를 알 수 없는 이유)
+    public static final String UNRESOLVED_HEADER = "b2b-unresolved";
+
+    @Autowired
+    private KafkaTopicRouter kafkaTopicRouter;
+
+    @Autowired
+    private KafkaBatchTracing kafkaBatchTracing;
+
+    @Value(value = "${b2b.transfer.retry.topic.name}")
+    private String b2bTransferRetryTopicName;
+
+    @Value(value = "${b2b.transfer.dlt.topic.name}")
+    private String b2bTransferDltTopicName;
+
+    @Value(value = "${b2b.transfer.retry.initial-interval-ms:1000}")
+    private long initialIntervalMs;
+
+    @Value(value = "${b2b.transfer.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value(value = "${b2b.transfer.retry.max-interval-ms:60000}")
+    private long maxIntervalMs;
+
+    @Value(value = "${b2b.transfer.result.send.timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * @param attempt 이번에 예약하는 재시도 회차 (1부터 시작)
+     */
+    public void sendB2BTransferRetryMessages(List<TransferHistory> transfers, int attempt) throws Exception {
+        if (transfers.isEmpty())
+            return;
+
+        long dueAt = System.currentTimeMillis() + retryDelayMs(attempt);
+
+        List<ProducerRecord<String, Object>> records = new ArrayList<>(transfers.size());
+        for (TransferHistory transfer : transfers) {
+            ProducerRecord<String, Object> record = new ProducerRecord<>(retryTopic(b2bTransferRetryTopicName, attempt), transfer.getWthdAcntNo(), transfer);
+            record.headers().add(RETRY_ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+            record.headers().add(RETRY_DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+            records.add(record);
+        }
+
+        try {
+            send(records);
+        } catch (Exception e) {
+            LOGGER.error("Unable to schedule [" + transfers.size() + "] transfers for retry due to : " + e.getMessage(), e);
+            throw e;
+        }
+
+        LOGGER.info("Scheduled [" + transfers.size() + "] transfers for retry: attempt=[" + attempt + "], dueAt=[" + dueAt + "]");
+    }
+
+    /**
+     * 재시도를 다 쓰고도 결과를 알 수 없는 이체를 DLT로 보낸다. 출금 대기 거래는 대사로 결과가 확정될 때까지 유지된다.
+     *
+     * @param attempt 마지막으로 시도한 재시도 회차
+     */
+    public void sendB2BTransferUnresolvedMessages(List<TransferHistory> transfers, int attempt) throws Exception {
+        if (transfers.isEmpty())
+            return;
+
+        List<ProducerRecord<String, Object>> records = new ArrayList<>(transfers.size());
+        for (TransferHistory transfer : transfers) {
+            ProducerRecord<String, Object> record = new ProducerRecord<>(b2bTransferDltTopicName, transfer.getWthdAcntNo(), transfer);
+            record.headers().add(RETRY_ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+            record.headers().add(UNRESOLVED_HEADER, "retries-exhausted".getBytes(StandardCharsets.UTF_8));
+            records.add(record);
+        }
+
+        try {
+            send(records);
+        } catch (Exception e) {
+            LOGGER.error("Unable to send [" + transfers.size() + "] unresolved transfers to DLT due to : " + e.getMessage(), e);
+            throw e;
+        }
+
+        LOGGER.warn("Sent [" + transfers.size() + "] transfers with unknown external bank outcome to DLT for reconciliation: attempt=[" + attempt + "]");
+    }
+
+    private void send(List<ProducerRecord<String, Object>> records) throws Exception {
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(records.size());
+        for (ProducerRecord<String, Object> record : records)
+            futures.add(kafkaBatchTracing.withRecordSpan(record.key(), () -> kafkaTopicRouter.send(record)));
+
+        kafkaTopicRouter.flush();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // 재시도 회차(1부터)의 지연 토픽
+    public static String retryTopic(String retryTopicName, int attempt) {
+        return retryTopicName + "-" + attempt;
+    }
+
+    long retryDelayMs(int attempt) {
+        double delay = initialIntervalMs * Math.pow(multiplier, attempt - 1);
+        return (long) Math.min(delay, maxIntervalMs);
+    }
+}
@@ -0,0 +1,19 @@
+package com.modernbank.b2bt.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+
+import lombok.Getter;
+
+/**
+ * 타행 이체 처리 결과 묶음.
+ * 처리가 끝난(완료/실패) 이체, 일시 장애로 재시도가 필요한 이체, 재시도를 다 쓰고도 타행 결과를 알 수 없는 이체를 구분해 담는다.
+ */
+@Getter
+public class B2BTransferResults {
+    private final List<TransferHistory> results = new ArrayList<>();
+    private final List<TransferHistory> retries = new ArrayList<>();
+    private final List<TransferHistory> unresolved = new ArrayList<>();
+}
@@ -0,0 +1,244 @@
+package com.modernbank.b2bt.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+import com.modernbank.b2bt.external.ExternalBankClient;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service("b2bTransferService")
+public class B2BTransferService {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(B2BTransferService.class);
+
+    // 타행 이체 처리 결과 상태 코드 (2: 실패, 3: 완료)
+    private static final String TRANSFER_FAILED = "2";
+    private static final String TRANSFER_COMPLETED = "3";
+
+    private enum Outcome { COMPLETED, REJECTED, RETRY }
+
+    @Autowired
+    ExternalBankClient externalBankClient;
+
+    @Autowired
+    ThreadPoolExecutor b2bTransferWorkerExecutor;
+
+    @Value("${b2b.transfer.worker.timeout-ms:30000}")
+    private long workerTimeoutMs;
+
+    @Value("${b2b.transfer.backlog.max-lag-ms:3000}")
+    private long backlogMaxLagMs;
+
+    @Value("${b2b.transfer.retry.max-attempts:5}")
+    private int retryMaxAttempts;
+
+    @Value("${b2b.transfer.retry.deferred-accounts:10000}")
+    private int retryDeferredAccounts;
+
+    // 재시도 회차 + 출금 계좌번호 -> 그 회차에서 계좌의 이체를 다음 회차로 미룬 시각 (삽입 순, retry.deferred-accounts개까지)
+    private final Map<String, Long> deferredAccounts = new LinkedHashMap<>();
+
+    /**
+     * 폴링된 타행 이체 묶음을 처리한다.
+     * 출금 계좌번호별로 묶어 계좌 내에서는 순서대로, 계좌 간에는 워커 풀에서 병렬로 처리한다.
+     * 계좌 묶음은 처음 재시도가 필요한 이체에서 멈추고, 그 이체와 뒤의 이체를 순서대로 지연 토픽으로 넘긴다. (뒤의 이체가 먼저 끝나지 않는다)
+     * 한 번 poll한 묶음 안에서만 가장 오래 기다린 계좌 묶음부터 워커에 배정한다. (poll 간, 파티션 간 적체 우선순위는 없다)
+     * worker.timeout-ms 안에 끝나지 않은 계좌 묶음은 워커를 중단하고, 아직 결과가 없는 이체를 지연 토픽으로 넘긴다.
+     * 끝난 이체의 결과는 그대로 발행하므로 배치가 재전달되지 않는다. (다시 보내더라도 타행 idempotency key로 중복 이체는 막힌다)
+     */
+    public B2BTransferResults processTransfers(List<ConsumerRecord<String, TransferHistory>> records) throws Exception {
+        long now = System.currentTimeMillis();
+        long maxLag = 0;
+        int staleCount = 0;
+
+        Map<String, List<ConsumerRecord<String, TransferHistory>>> recordsByAccount = new LinkedHashMap<>();
+        for (ConsumerRecord<String, TransferHistory> record : records) {
+            long lag = now - record.timestamp();
+            maxLag = Math.max(maxLag, lag);
+            if (lag > backlogMaxLagMs)
+                staleCount++;
+            recordsByAccount.computeIfAbsent(record.value().getWthdAcntNo(), k -> new ArrayList<>()).add(record);
+        }
+
+        if (staleCount > 0)
+            LOGGER.warn("B2B transfer backlog detected: stale=[" + staleCount + "/" + records.size() + "], maxLag=[" + maxLag + "ms]");
+
+        // 같은 계좌는 같은 파티션에 순서대로 쌓이므로 묶음의 첫 레코드가 가장 오래된 레코드다.
+        List<List<ConsumerRecord<String, TransferHistory>>> accountGroups = new ArrayList<>(recordsByAccount.values());
+        accountGroups.sort(Comparator.comparingLong(group -> group.get(0).timestamp()));
+
+        List<AccountBatch> batches = new ArrayList<>(accountGroups.size());
+        List<Future<?>> futures = new ArrayList<>(accountGroups.size());
+        for (List<ConsumerRecord<String, TransferHistory>> accountRecords : accountGroups) {
+            AccountBatch batch = new AccountBatch(accountRecords);
+            batches.add(batch);
+            futures.add(b2bTransferWorkerExecutor.submit(() -> processAccountTransfers(batch)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(workerTimeoutMs);
+        B2BTransferResults transferResults = new B2BTransferResults();
+        int unfinished = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<?> future = futures.get(i);
+            try {
+                future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                unfinished++;
+            } catch (ExecutionException e) {
+                // 끝나지 못한 나머지 이체는 지연 토픽에서 다시 처리한다.
+                LOGGER.error("B2B transfer worker failed: wthdAcntNo=[" + batches.get(i).wthdAcntNo() + "] due to : " + e.getCause());
+            }
+            batches.get(i).drainTo(transferResults);
+        }
+
+        if (unfinished > 0)
+            LOGGER.warn("B2B transfer workers timed out: accounts=[" + unfinished + "/" + batches.size() + "], retries=[" + transferResults.getRetries().size() + "]");
+
+        return transferResults;
+    }
+
+    /**
+     * 지연 토픽에서 꺼낸 이체를 다시 처리한다.
+     * 재시도는 타행 호출이 예외(타임아웃 등)로 끝난 경우라 타행이 이미 입금했을 수 있다.
+     * 최대 재시도 횟수를 넘겨도 실패로 확정(출금 대기 거래 취소)하지 않고, 결과를 알 수 없는 이체로 넘겨 DLT에서 대사하게 한다.
+     * 출금 취소는 타행이 거절(REJECTED)로 답한 경우에만 한다.
+     * 같은 회차에서 같은 계좌의 앞선 이체가 다음 회차로 미뤄졌으면, 이 이체는 타행을 호출하지 않고 그 뒤를 따라 같이 미룬다.
+     *
+     * @param scheduledAt 이 회차 토픽에 기록된 시각 (앞선 이체를 미룬 시각 이전이면 그 뒤에 있던 이체다)
+     */
+    public B2BTransferResults retryTransfer(TransferHistory transfer, int attempt, long scheduledAt) {
+        B2BTransferResults transferResults = new B2BTransferResults();
+        String tierAccount = attempt + ":" + transfer.getWthdAcntNo();
+        Outcome outcome = isDeferred(tierAccount, scheduledAt) ? Outcome.RETRY : requestExternalTransfer(transfer);
+        if (outcome == Outcome.RETRY)
+            defer(tierAccount);
+
+        if (outcome == Outcome.RETRY && attempt >= retryMaxAttempts) {
+            LOGGER.warn("External bank retries exhausted, outcome unknown: wthdAcntNo=[" + transfer.getWthdAcntNo() + "], seq=[" + transfer.getSeq() + "], attempt=[" + attempt + "]");
+            transferResults.getUnresolved().add(transfer);
+            return transferResults;
+        }
+
+        collect(transferResults, transfer, outcome);
+        return transferResults;
+    }
+
+    private void processAccountTransfers(AccountBatch batch) {
+        for (int i = 0; i < batch.records.size(); i++) {
+            TransferHistory transfer = batch.records.get(i).value();
+            Outcome outcome = requestExternalTransfer(transfer);
+            // 재시도가 필요하면 멈춘다. 남은 이체는 drainTo에서 이 이체 뒤에 재시도로 붙는다.
+            if (!batch.complete(i, outcome) || outcome == Outcome.RETRY)
+                return;
+        }
+    }
+
+    private synchronized boolean isDeferred(String tierAccount, long scheduledAt) {
+        Long deferredAt = deferredAccounts.get(tierAccount);
+        return deferredAt != null && scheduledAt <= deferredAt;
+    }
+
+    private synchronized void defer(String tierAccount) {
+        deferredAccounts.remove(tierAccount);
+        deferredAccounts.put(tierAccount, System.currentTimeMillis());
+        if (deferredAccounts.size() > retryDeferredAccounts) {
+            Iterator<String> eldest = deferredAccounts.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void collect(B2BTransferResults transferResults, TransferHistory transfer, Outcome outcome) {
+        if (outcome == Outcome.RETRY) {
+            transferResults.getRetries().add(transfer);
+        } else {
+            transfer.setStsCd(outcome == Outcome.COMPLETED ? TRANSFER_COMPLETED : TRANSFER_FAILED);
+            transferResults.getResults().add(transfer);
+        }
+    }
+
+    private Outcome requestExternalTransfer(TransferHistory transfer) {
+        try {
+            switch (externalBankClient.transfer(transfer, externalIdempotencyKey(transfer))) {
+                case COMPLETED:
+                    return Outcome.COMPLETED;
+                case DUPLICATE:
+                    // 재전달/재시도로 같은 이체를 다시 보낸 경우. 타행이 이미 완료했으므로 완료로 본다.
+                    LOGGER.info("External bank already completed transfer: wthdAcntNo=[" + transfer.getWthdAcntNo() + "], seq=[" + transfer.getSeq() + "]");
+                    return Outcome.COMPLETED;
+                default:
+                    return Outcome.REJECTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling external bank", e);
+        } catch (Exception e) {
+            // 타행 장애는 일시적인 것으로 보고 지연 토픽을 통해 재시도한다.
+            LOGGER.error("External bank transfer failed: wthdAcntNo=[" + transfer.getWthdAcntNo() + "], seq=[" + transfer.getSeq() + "] due to : " + e.getMessage());
+            return Outcome.RETRY;
+        }
+    }
+
+    /**
+     * 한 출금 계좌의 이체 묶음과 처리 결과.
+     * 워커는 이체를 하나 끝낼 때마다 결과를 기록하고, 리스너 스레드는 기한이 지나면 묶음을 닫고 결과를 가져간다.
+     * 닫힌 뒤에 끝난 이체는 이미 재시도로 넘어갔으므로 결과를 버린다.
+     */
+    private final class AccountBatch {
+        private final List<ConsumerRecord<String, TransferHistory>> records;
+        private final B2BTransferResults results = new B2BTransferResults();
+        private int completed;
+        private boolean closed;
+
+        private AccountBatch(List<ConsumerRecord<String, TransferHistory>> records) {
+            this.records = records;
+        }
+
+        private String wthdAcntNo() {
+            return records.get(0).value().getWthdAcntNo();
+        }
+
+        // 닫힌 묶음이면 false (워커는 멈춘다)
+        private synchronized boolean complete(int index, Outcome outcome) {
+            if (closed)
+                return false;
+            collect(results, records.get(index).value(), outcome);
+            completed = index + 1;
+            return true;
+        }
+
+        // 묶음을 닫고, 끝난 이체의 결과와 아직 결과가 없는 이체(재시도)를 넘긴다.
+        private synchronized void drainTo(B2BTransferResults transferResults) {
+            closed = true;
+            transferResults.getResults().addAll(results.getResults());
+            transferResults.getRetries().addAll(results.getRetries());
+            for (int i = completed; i < records.size(); i++)
+                transferResults.getRetries().add(records.get(i).value());
+        }
+    }
+
+    /**
+     * 타행 호출에 쓰는 Idempotency key. 이체 이력의 키(고객 ID + 순번)로 만들어
+     * 배치 재전달, 리밸런스 후 재처리, 지연 토픽 재시도가 모두 같은 키로 요청하게 한다.
+     */
+    private static String externalIdempotencyKey(TransferHistory transfer) {
+        return "b2b:" + transfer.getCstmId() + ":" + transfer.getSeq();
+    }
+}
@@ -1,24 +1,101 @@
 package com.modernbank.b2bt.subscriber;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
 import com.modernbank.b2bt.domain.TransferHistory;
 import com.modernbank.b2bt.publisher.B2BTransferResultProducer;
+import com.modernbank.b2bt.publisher.B2BTransferRetryProducer;
+import com.modernbank.b2bt.service.B2BTransferResults;
+import com.modernbank.b2bt.service.B2BTransferService;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.Resource;
+
 @Component
 public class B2BTransferConsumer {
     private final Logger LOGGER = LoggerFactory.getLogger(B2BTransferConsumer.class);
 
     @Autowired
     B2BTransferResultProducer b2btransferResultProducer;
+
+    @Autowired
+    B2BTransferRetryProducer b2bTransferRetryProducer;
+
+    @Resource(name = "b2bTransferService")
+    private B2BTransferService b2bTransferService;
+
+    @Value("${b2b.transfer.retry.max-pause-ms:5000}")
+    private long retryMaxPauseMs;
     
     @KafkaListener(topics = "${b2b.transfer.topic.name}", containerFactory = "b2bTransferKafkaListenerContainerFactory")
-    public void b2bTransferListener(TransferHistory transfer, Acknowledgment ack) {
-        // TODO
+    public void b2bTransferListener(List<ConsumerRecord<String, TransferHistory>> records, Acknowledgment ack) throws Exception {
+        long startTime = System.currentTimeMillis();
+
+        // 역직렬화에 실패한 레코드가 있으면 그 앞까지만 처리하고, 해당 레코드는 에러 핸들러를 통해 DLT로 보낸다.
+        int failedIndex = -1;
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).value() == null) {
+                failedIndex = i;
+                break;
+            }
+        }
+        List<ConsumerRecord<String, TransferHistory>> transferRecords = failedIndex < 0 ? records : records.subList(0, failedIndex);
+
+        // 처리 결과와 재시도 예약이 모두 발행된 뒤에만 커밋한다. 실패 시 배치 전체가 에러 핸들러에 의해 재처리된다.
+        if (!transferRecords.isEmpty()) {
+            B2BTransferResults transferResults = b2bTransferService.processTransfers(transferRecords);
+            b2btransferResultProducer.sendB2BTransferResultMessages(transferResults.getResults());
+            b2bTransferRetryProducer.sendB2BTransferRetryMessages(transferResults.getRetries(), 1);
+        }
+
+        if (failedIndex >= 0)
+            throw new BatchListenerFailedException("Failed to deserialize b2b transfer message", records.get(failedIndex));
+
+        ack.acknowledge();
+
+        LOGGER.info("Processed b2b transfer batch: size=[" + records.size() + "], elapsed=[" + (System.currentTimeMillis() - startTime) + "ms]");
+    }
+
+    /**
+     * 재시도 회차별 지연 토픽의 리스너. 회차마다 컨테이너가 따로 있다. (B2BTransferRetryListeners)
+     */
+    public void b2bTransferRetryListener(ConsumerRecord<String, TransferHistory> record, Acknowledgment ack) throws Exception {
+        // 재처리 시각이 되지 않았으면 이 회차의 컨슈머를 잠시 멈췄다가 같은 레코드부터 다시 읽는다.
+        // 같은 토픽의 뒤쪽 레코드는 재처리 시각이 더 늦으므로 함께 기다려도 늦어지지 않는다.
+        long waitMs = headerAsLong(record, B2BTransferRetryProducer.RETRY_DUE_AT_HEADER, 0L) - System.currentTimeMillis();
+        if (waitMs > 0) {
+            ack.nack(Duration.ofMillis(Math.min(waitMs, retryMaxPauseMs)));
+            return;
+        }
+
+        TransferHistory transfer = record.value();
+        if (transfer == null)
+            throw new IllegalStateException("Failed to deserialize b2b transfer retry message");
+
+        int attempt = (int) headerAsLong(record, B2BTransferRetryProducer.RETRY_ATTEMPT_HEADER, 1L);
+        B2BTransferResults transferResults = b2bTransferService.retryTransfer(transfer, attempt, record.timestamp());
+        b2btransferResultProducer.sendB2BTransferResultMessages(transferResults.getResults());
+        b2bTransferRetryProducer.sendB2BTransferRetryMessages(transferResults.getRetries(), attempt + 1);
+        b2bTransferRetryProducer.sendB2BTransferUnresolvedMessages(transferResults.getUnresolved(), attempt);
+        ack.acknowledge();
+    }
+
+    private long headerAsLong(ConsumerRecord<String, TransferHistory> record, String name, long defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        if (header == null)
+            return defaultValue;
+        return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.modernbank.b2bt.subscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.modernbank.b2bt.domain.TransferHistory;
+import com.modernbank.b2bt.publisher.B2BTransferRetryProducer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+
+/**
+ * 재시도 회차별 지연 토픽마다 리스너 컨테이너(컨슈머 그룹)를 따로 띄운다.
+ * 재처리 시각이 안 된 레코드는 nack으로 컨슈머 전체를 잠시 멈추므로, 한 컨테이너가 여러 회차를 읽으면
+ * 간격이 긴 회차의 레코드가 간격이 짧은 회차의 레코드까지 붙잡는다. 회차를 나누면 각 컨테이너는 자기 토픽의 맨 앞 레코드만 기다린다.
+ */
+@Component
+public class B2BTransferRetryListeners implements SmartLifecycle {
+
+    @Autowired
+    B2BTransferConsumer b2bTransferConsumer;
+
+    @Resource(name = "b2bTransferRetryKafkaListenerContainerFactory")
+    private ConcurrentKafkaListenerContainerFactory<String, TransferHistory> b2bTransferRetryKafkaListenerContainerFactory;
+
+    @Value("${b2b.transfer.retry.topic.name}")
+    private String b2bTransferRetryTopicName;
+
+    @Value("${b2b.transfer.retry.max-attempts:5}")
+    private int retryMaxAttempts;
+
+    private final List<ConcurrentMessageListenerContainer<String, TransferHistory>> containers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    void createContainers() {
+        for (int attempt = 1; attempt <= retryMaxAttempts; attempt++) {
+            ConcurrentMessageListenerContainer<String, TransferHistory> container =
+                    b2bTransferRetryKafkaListenerContainerFactory.createContainer(B2BTransferRetryProducer.retryTopic(b2bTransferRetryTopicName, attempt));
+            container.setBeanName("b2bTransferRetry-" + attempt);
+            container.getContainerProperties().setGroupId("b2bTransferRetry-" + attempt);
+            container.setupMessageListener((AcknowledgingMessageListener<String, TransferHistory>) (record, ack) -> {
+                try {
+                    b2bTransferConsumer.b2bTransferRetryListener(record, ack);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to process b2b transfer retry message", e);
+                }
+            });
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public void start() {
+        for (ConcurrentMessageListenerContainer<String, TransferHistory> container : containers)
+            container.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        for (ConcurrentMessageListenerContainer<String, TransferHistory> container : containers)
+            container.stop();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // @KafkaListener 컨테이너와 같은 단계에서 시작/종료한다.
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,123 @@
+package com.modernbank.b2bt.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * 배치 리스너의 레코드별 consumer span.
+ * spring-kafka의 리스너 관측은 레코드 리스너에만 적용되므로, 배치 리스너는 BatchInterceptor로 레코드마다
+ * 헤더(traceparent)의 트레이스를 이어받은 span을 열고 배치 처리가 끝나면 함께 닫는다.
+ * 트레이스 컨텍스트가 없는 레코드는 span을 만들지 않는다.
+ * 배치 처리 중 레코드 키로 해당 span을 현재 span으로 지정할 수 있어(withRecordSpan), 처리 결과 발행이 원래 이체의 트레이스로 이어진다.
+ */
+@Component
+public class KafkaBatchTracing {
+
+    private static final Propagator.Getter<ConsumerRecord<?, ?>> HEADER_GETTER = (record, key) -> {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    };
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private Propagator propagator;
+
+    // 컨슈머 스레드별 진행 중인 배치의 span
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+    public <V> BatchInterceptor<String, V> interceptor() {
+        return new BatchInterceptor<>() {
+            @Override
+            public ConsumerRecords<String, V> intercept(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                start(records);
+                return records;
+            }
+
+            @Override
+            public void success(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                end(null);
+            }
+
+            @Override
+            public void failure(ConsumerRecords<String, V> records, Exception exception, Consumer<String, V> consumer) {
+                end(exception);
+            }
+        };
+    }
+
+    /**
+     * 진행 중인 배치에서 key로 받은 레코드의 span을 현재 span으로 두고 실행한다. (없으면 그냥 실행)
+     */
+    public <T> T withRecordSpan(String key, Supplier<T> call) {
+        Batch batch = currentBatch.get();
+        Span span = batch == null ? null : batch.byKey.get(key);
+        if (span == null)
+            return call.get();
+
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return call.get();
+        }
+    }
+
+    private void start(ConsumerRecords<String, ?> records) {
+        end(null); // 이전 배치가 success/failure 없이 끝난 경우
+
+        Batch batch = new Batch();
+        for (ConsumerRecord<String, ?> record : records) {
+            if (HEADER_GETTER.get(record, "traceparent") == null)
+                continue;
+
+            Span span = propagator.extract(record, HEADER_GETTER)
+                    .name(record.topic() + " receive")
+                    .kind(Span.Kind.CONSUMER)
+                    .remoteServiceName("kafka")
+                    .tag("messaging.system", "kafka")
+                    .tag("messaging.destination.name", record.topic())
+                    .tag("messaging.kafka.partition", String.valueOf(record.partition()))
+                    .tag("messaging.kafka.offset", String.valueOf(record.offset()))
+                    .tag("messaging.batch.size", String.valueOf(records.count()))
+                    .start();
+            batch.spans.add(span);
+            if (record.key() != null)
+                batch.byKey.put(record.key(), span);
+        }
+        if (!batch.spans.isEmpty())
+            currentBatch.set(batch);
+    }
+
+    private void end(Exception exception) {
+        Batch batch = currentBatch.get();
+        if (batch == null)
+            return;
+
+        currentBatch.remove();
+        for (Span span : batch.spans) {
+            if (exception != null)
+                span.error(exception);
+            span.end();
+        }
+    }
+
+    private static final class Batch {
+        private final List<Span> spans = new ArrayList<>();
+        private final Map<String, Span> byKey = new HashMap<>();
+    }
+}
@@ -0,0 +1,150 @@
+package com.modernbank.cqrs.codec;
+
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 이벤트 바이너리 인코딩의 스키마.
+ * 클래스의 인스턴스 필드(이름순)와 타입으로 정해지며, 정규형 문자열의 64비트 Rabin fingerprint를 스키마 ID로 쓴다.
+ * 모든 필드는 null을 허용하므로 필드 추가/삭제는 양방향 호환되고, 같은 이름 필드의 타입 변경만 비호환이다.
+ */
+public final class EventSchema {
+
+    public enum FieldType { STRING, INT, LONG, BOOLEAN, DOUBLE, JSON }
+
+    public record Field(String name, FieldType type) {}
+
+    private static final long FINGERPRINT_EMPTY = 0xc15d213aa4d7a795L;
+    private static final long[] FINGERPRINT_TABLE = new long[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            long fp = i;
+            for (int j = 0; j < 8; j++)
+                fp = (fp >>> 1) ^ (FINGERPRINT_EMPTY & -(fp & 1L));
+            FINGERPRINT_TABLE[i] = fp;
+        }
+    }
+
+    private final String name;
+    private final List<Field> fields;
+    private final String canonicalForm;
+    private final long fingerprint;
+
+    private EventSchema(String name, List<Field> fields) {
+        this.name = name;
+        this.fields = Collections.unmodifiableList(fields);
+
+        StringBuilder sb = new StringBuilder(name).append('{');
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(fields.get(i).name()).append(':').append(fields.get(i).type());
+        }
+        this.canonicalForm = sb.append('}').toString();
+        this.fingerprint = fingerprint(canonicalForm.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventSchema of(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (java.lang.reflect.Field field : eventFields(type))
+            fields.add(new Field(field.getName(), fieldType(field.getType())));
+        return new EventSchema(type.getSimpleName(), fields);
+    }
+
+    public static EventSchema parse(String canonicalForm) {
+        int open = canonicalForm.indexOf('{');
+        if (open < 0 || !canonicalForm.endsWith("}"))
+            throw new IllegalArgumentException("Invalid event schema: " + canonicalForm);
+
+        List<Field> fields = new ArrayList<>();
+        String body = canonicalForm.substring(open + 1, canonicalForm.length() - 1);
+        if (!body.isEmpty()) {
+            for (String field : body.split(",")) {
+                int colon = field.indexOf(':');
+                fields.add(new Field(field.substring(0, colon), FieldType.valueOf(field.substring(colon + 1))));
+            }
+        }
+        return new EventSchema(canonicalForm.substring(0, open), fields);
+    }
+
+    // static, transient 필드는 제외하고 이름순으로 정렬한다. (JVM의 필드 순서와 무관하게 같은 클래스는 같은 스키마가 된다)
+    static List<java.lang.reflect.Field> eventFields(Class<?> type) {
+        List<java.lang.reflect.Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (java.lang.reflect.Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic())
+                    continue;
+                fields.add(field);
+            }
+        }
+        fields.sort(Comparator.comparing(java.lang.reflect.Field::getName));
+        return fields;
+    }
+
+    static FieldType fieldType(Class<?> type) {
+        if (type == String.class)
+            return FieldType.STRING;
+        if (type == int.class || type == Integer.class)
+            return FieldType.INT;
+        if (type == long.class || type == Long.class)
+            return FieldType.LONG;
+        if (type == boolean.class || type == Boolean.class)
+            return FieldType.BOOLEAN;
+        if (type == double.class || type == Double.class)
+            return FieldType.DOUBLE;
+        return FieldType.JSON;
+    }
+
+    /**
+     * 이 스키마를 이전 스키마 다음 버전으로 등록할 수 있는지 검사한다.
+     * @return 비호환 사유 목록 (비어 있으면 호환)
+     */
+    public List<String> incompatibilities(EventSchema previous) {
+        Map<String, FieldType> previousTypes = new HashMap<>();
+        for (Field field : previous.fields)
+            previousTypes.put(field.name(), field.type());
+
+        List<String> incompatibilities = new ArrayList<>();
+        for (Field field : fields) {
+            FieldType previousType = previousTypes.get(field.name());
+            if (previousType != null && previousType != field.type())
+                incompatibilities.add("Field '" + field.name() + "' changed from " + previousType + " to " + field.type());
+        }
+        return incompatibilities;
+    }
+
+    static long fingerprint(byte[] bytes) {
+        long fp = FINGERPRINT_EMPTY;
+        for (byte b : bytes)
+            fp = (fp >>> 8) ^ FINGERPRINT_TABLE[(int) (fp ^ b) & 0xff];
+        return fp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public String getCanonicalForm() {
+        return canonicalForm;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return canonicalForm;
+    }
+}
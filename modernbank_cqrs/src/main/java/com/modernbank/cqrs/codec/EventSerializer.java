@@ -0,0 +1,22 @@
+package com.modernbank.cqrs.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * 이벤트를 스키마 기반 바이너리로 직렬화한다. 토픽 이름을 스키마 레지스트리의 subject로 쓴다.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventSerializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null)
+            return null;
+        return eventCodec.encode(topic, data);
+    }
+}
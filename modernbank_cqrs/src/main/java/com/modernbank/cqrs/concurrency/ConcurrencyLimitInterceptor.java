@@ -0,0 +1,107 @@
+package com.modernbank.cqrs.concurrency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @ConcurrencyLimited 컨트롤러 요청을 서비스 전체의 적응형 한도(AdaptiveConcurrencyLimiter) 안에서만 처리한다.
+ * 한도를 넘는 요청은 톰캣 스레드와 커넥션 풀을 기다리게 두지 않고 바로 503 + Retry-After로 돌려보낸다.
+ * 한도는 엔드포인트별이 아닌 서비스 하나로 둔다. (모든 엔드포인트가 같은 톰캣 스레드와 Hikari 풀을 나눠 쓰므로)
+ *
+ * 메트릭: concurrency.limit, concurrency.inflight, concurrency.rejected{priority}
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                       @Value("${concurrency.limit.enabled:true}") boolean enabled,
+                                       @Value("${concurrency.limit.initial:20}") int initialLimit,
+                                       @Value("${concurrency.limit.min:5}") int minLimit,
+                                       @Value("${concurrency.limit.max:200}") int maxLimit,
+                                       @Value("${concurrency.limit.rtt-tolerance:1.5}") double tolerance,
+                                       @Value("${concurrency.limit.smoothing:0.2}") double smoothing,
+                                       @Value("${concurrency.limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, smoothing);
+        this.meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Adaptive concurrent request limit")
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                    .description("Requests being processed under the concurrency limit")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod))
+            return true;
+
+        ConcurrencyLimited limited = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), ConcurrencyLimited.class);
+        if (limited == null)
+            limited = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), ConcurrencyLimited.class);
+        if (limited == null)
+            return true;
+
+        if (!limiter.tryAcquire(limited.value())) {
+            if (meterRegistry != null)
+                meterRegistry.counter("concurrency.rejected", "priority", limited.value().name()).increment();
+            reject(response);
+            return false;
+        }
+
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null)
+            return;
+
+        request.removeAttribute(START_ATTRIBUTE);
+        limiter.release(System.nanoTime() - (Long) start, ex != null || response.getStatus() >= 500);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("message", "[Notice]\nThe service is busy. Please retry after " + retryAfterSeconds + " second(s).");
+        result.put("httpStatus", HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(new Gson().toJson(result));
+    }
+}
@@ -3,20 +3,40 @@ package com.modernbank.cqrs.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.CompositeBatchInterceptor;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.modernbank.cqrs.codec.EventCodec;
+import com.modernbank.cqrs.codec.EventDeserializer;
+import com.modernbank.cqrs.consistency.ProjectionProgress;
 import com.modernbank.cqrs.domain.entity.Account;
 import com.modernbank.cqrs.domain.entity.Customer;
+import com.modernbank.cqrs.projection.ProjectionLagMonitor;
+import com.modernbank.cqrs.tracing.KafkaBatchTracing;
 
 @EnableKafka
 @Configuration
@@ -25,6 +45,109 @@ public class KafkaConsumerConfig {
     @Value(value = "${kafka.bootstrapAddress}")
     private String bootstrapAddress;
 
+    // 바이너리/JSON 겸용 역직렬화 (스키마 기반 바이너리 전환 기간 동안 두 형식을 모두 읽는다)
+    @Autowired
+    private EventCodec eventCodec;
+
+    // 배치 리스너의 레코드별 consumer span (발행한 요청의 트레이스를 이어받는다)
+    @Autowired
+    private KafkaBatchTracing kafkaBatchTracing;
+
+    // 원장 커밋부터 프로젝션 반영까지의 지연과 파티션별 컨슈머 lag
+    @Autowired
+    private ProjectionLagMonitor projectionLagMonitor;
+
+    // 키별 반영 시각 (일관성 토큰을 넘긴 조회가 기다린다)
+    @Autowired
+    private ProjectionProgress projectionProgress;
+
+    @Value(value = "${creating.customer.topic.name}")
+    private String creatingCustomerTopicName;
+
+    @Value(value = "${creating.account.topic.name}")
+    private String creatingAccountTopicName;
+
+    @Value(value = "${updating.account.balance.topic.name}")
+    private String updatingAccountBalanceTopicName;
+
+    @Value(value = "${updating.transfer.limit.topic.name}")
+    private String updatingTransferLimitTopicName;
+
+    // 토픽 파티션 수를 조회하지 못했을 때(토픽 미생성 등) 쓰는 컨슈머 스레드 수
+    @Value(value = "${kafka.topic.partitions:6}")
+    private int defaultConcurrency;
+
+    // 한 번의 poll(= 한 번의 JDBC 배치)로 가져오는 최대 이벤트 수
+    @Value(value = "${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // 건별 반영도 실패한 이벤트: 지수 백오프로 재시도한 뒤 <토픽>-dlt로 보내고 다음 이벤트부터 진행한다.
+    @Value(value = "${kafka.consumer.error.max-retries:3}")
+    private int errorMaxRetries;
+
+    @Value(value = "${kafka.consumer.error.initial-interval-ms:500}")
+    private long errorInitialIntervalMs;
+
+    @Value(value = "${kafka.consumer.error.max-interval-ms:5000}")
+    private long errorMaxIntervalMs;
+
+    @Value(value = "${kafka.consumer.error.dlt-suffix:-dlt}")
+    private String dltSuffix;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        return new KafkaAdmin(props);
+    }
+
+    /**
+     * 프로젝션에 반영하지 못한 이벤트를 DLT로 보낸다. 역직렬화된 값을 JSON으로 기록한다.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    // 리스너가 BatchListenerFailedException으로 실패한 레코드를 알려 주면 그 앞까지 커밋하고, 해당 레코드부터 재시도한다.
+    // 재시도를 모두 실패한 레코드는 DLT로 보낸 뒤 건너뛴다.
+    private CommonErrorHandler projectionErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate(),
+                (consumerRecord, ex) -> new TopicPartition(consumerRecord.topic() + dltSuffix, -1));
+
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(errorMaxRetries);
+        backOff.setInitialInterval(errorInitialIntervalMs);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(errorMaxIntervalMs);
+
+        return new DefaultErrorHandler(recoverer, backOff);
+    }
+
+    /**
+     * 구독 토픽의 파티션 수만큼 컨슈머 스레드를 띄운다.
+     * 이벤트는 집계 ID(acntNo, cstmId)를 키로 발행되므로 파티션별로 병렬 처리해도 같은 집계의 순서는 유지된다.
+     * 파티션보다 많은 스레드는 할당받을 파티션이 없어 놀게 되므로 파티션 수를 넘기지 않는다.
+     */
+    private int partitionConcurrency(KafkaAdmin kafkaAdmin, String... topics) {
+        try {
+            return kafkaAdmin.describeTopics(topics).values().stream()
+                    .mapToInt(description -> description.partitions().size())
+                    .max()
+                    .orElse(defaultConcurrency);
+        } catch (Exception e) {
+            LOGGER.warn("Could not describe topics " + String.join(",", topics) + ", using concurrency " + defaultConcurrency, e);
+            return defaultConcurrency;
+        }
+    }
+
     public ConsumerFactory<String, Customer> customerConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
@@ -33,16 +156,23 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,"false");  
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,"earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(Customer.class, false));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(Customer.class, eventCodec));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Customer> customerKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Customer> customerKafkaListenerContainerFactory(KafkaAdmin kafkaAdmin) {
         ConcurrentKafkaListenerContainerFactory<String, Customer> factory = new ConcurrentKafkaListenerContainerFactory<>();
         // Listener의 AckMode를 수동으로 지정
         factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
         factory.setConsumerFactory(customerConsumerFactory());
+        // poll 단위로 받아 프로젝션을 한 번의 JDBC 배치로 반영
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new CompositeBatchInterceptor<>(kafkaBatchTracing.interceptor(), projectionLagMonitor.interceptor(), projectionProgress.interceptor()));
+        factory.getContainerProperties().setConsumerRebalanceListener(projectionLagMonitor.rebalanceListener());
+        factory.setCommonErrorHandler(projectionErrorHandler());
+        factory.setConcurrency(partitionConcurrency(kafkaAdmin, creatingCustomerTopicName));
         return factory;
     }
     
@@ -54,16 +184,23 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);                
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,"false"); 
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,"earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(Account.class, false));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(Account.class, eventCodec));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Account> accountKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Account> accountKafkaListenerContainerFactory(KafkaAdmin kafkaAdmin) {
         ConcurrentKafkaListenerContainerFactory<String, Account> factory = new ConcurrentKafkaListenerContainerFactory<>();
         // Listener의 AckMode를 수동으로 지정
         factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
         factory.setConsumerFactory(accountConsumerFactory());
+        // poll 단위로 받아 프로젝션을 한 번의 JDBC 배치로 반영
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new CompositeBatchInterceptor<>(kafkaBatchTracing.interceptor(), projectionLagMonitor.interceptor(), projectionProgress.interceptor()));
+        factory.getContainerProperties().setConsumerRebalanceListener(projectionLagMonitor.rebalanceListener());
+        factory.setCommonErrorHandler(projectionErrorHandler());
+        factory.setConcurrency(partitionConcurrency(kafkaAdmin, creatingAccountTopicName, updatingAccountBalanceTopicName));
         return factory;
     }
     
@@ -80,8 +217,9 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,"false");  
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,"earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(Customer.class, false));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(Customer.class, eventCodec));
     }
 
     /**
@@ -89,11 +227,17 @@ public class KafkaConsumerConfig {
      * @return
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Customer> transferLimitKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Customer> transferLimitKafkaListenerContainerFactory(KafkaAdmin kafkaAdmin) {
         ConcurrentKafkaListenerContainerFactory<String, Customer> factory = new ConcurrentKafkaListenerContainerFactory<>();
         // Listener의 AckMode를 수동으로 지정
         factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
         factory.setConsumerFactory(transferLimitConsumerFactory());
+        // poll 단위로 받아 프로젝션을 한 번의 JDBC 배치로 반영
+        factory.setBatchListener(true);
+        factory.setBatchInterceptor(new CompositeBatchInterceptor<>(kafkaBatchTracing.interceptor(), projectionLagMonitor.interceptor(), projectionProgress.interceptor()));
+        factory.getContainerProperties().setConsumerRebalanceListener(projectionLagMonitor.rebalanceListener());
+        factory.setCommonErrorHandler(projectionErrorHandler());
+        factory.setConcurrency(partitionConcurrency(kafkaAdmin, updatingTransferLimitTopicName));
         return factory;
     }
 }
\ No newline at end of file
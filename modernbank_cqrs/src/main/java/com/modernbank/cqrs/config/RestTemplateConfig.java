@@ -0,0 +1,27 @@
+package com.modernbank.cqrs.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.observation.ObservationRegistry;
+
+@Configuration
+public class RestTemplateConfig {
+
+    // 일관성 토큰의 쓰기가 제때 반영되지 않았을 때 쓰기 쪽(Customer Service)에서 읽는 호출용. 짧게 끊고 프로젝션 결과로 응답한다.
+    // 호출마다 client span을 만들고 traceparent 헤더로 트레이스 컨텍스트를 넘긴다.
+    @Bean
+    public RestTemplate restTemplate(ObservationRegistry observationRegistry,
+                                     @Value("${rest.client.connect-timeout-ms:1000}") int connectTimeout,
+                                     @Value("${rest.client.read-timeout-ms:2000}") int readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setObservationRegistry(observationRegistry);
+        return restTemplate;
+    }
+}
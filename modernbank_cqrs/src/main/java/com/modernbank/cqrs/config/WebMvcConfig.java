@@ -1,5 +1,6 @@
 package com.modernbank.cqrs.config;
 
+import com.modernbank.cqrs.concurrency.ConcurrencyLimitInterceptor;
 import com.modernbank.cqrs.utils.RequestLoggingInterceptor;
 
 import org.springframework.context.annotation.Configuration;
@@ -10,14 +11,18 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
     private final RequestLoggingInterceptor loggingInterceptor;
 
-    public WebMvcConfig(RequestLoggingInterceptor loggingInterceptor) {
+    public WebMvcConfig(ConcurrencyLimitInterceptor concurrencyLimitInterceptor, RequestLoggingInterceptor loggingInterceptor) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
         this.loggingInterceptor = loggingInterceptor;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 한도를 넘는 요청은 다른 인터셉터를 거치기 전에 바로 거절한다.
+        registry.addInterceptor(concurrencyLimitInterceptor);
         registry.addInterceptor(loggingInterceptor);
     }
 
@@ -0,0 +1,53 @@
+package com.modernbank.cqrs.consistency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.modernbank.cqrs.exception.BusinessException;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 쓰기 서비스(Account/Transfer/Customer)가 응답 헤더 X-Consistency-Token으로 돌려준 읽기 일관성 토큰.
+ * (토픽, 키)별로 그 요청이 커밋한 이벤트의 위치를 담는다.
+ * 위치는 Outbox로 발행한 이벤트면 Outbox 순번(outbox-seq 헤더), 바로 발행한 이벤트(Customer)면 레코드 오프셋이며, 같은 키 안에서 발행 순서대로 커진다.
+ * 인코딩: "토픽\t키\t위치" 줄들을 URL-safe Base64로 묶는다.
+ */
+public class ConsistencyToken {
+
+    public static final String HEADER = "X-Consistency-Token";
+
+    private final Map<String, Long> positions;
+
+    private ConsistencyToken(Map<String, Long> positions) {
+        this.positions = positions;
+    }
+
+    public static ConsistencyToken decode(String encoded) {
+        Map<String, Long> positions = new HashMap<>();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            for (String line : decoded.split("\n")) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3)
+                    throw new IllegalArgumentException("Malformed consistency token entry");
+                positions.merge(entryKey(fields[0], fields[1]), Long.parseLong(fields[2]), Math::max);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid consistency token.", HttpStatus.BAD_REQUEST);
+        }
+        return new ConsistencyToken(positions);
+    }
+
+    static String entryKey(String topic, String key) {
+        return topic + '\t' + key;
+    }
+
+    // entryKey(토픽, 키) -> 위치
+    Map<String, Long> entries() {
+        return Collections.unmodifiableMap(positions);
+    }
+}
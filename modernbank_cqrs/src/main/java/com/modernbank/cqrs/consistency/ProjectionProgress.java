@@ -0,0 +1,130 @@
+package com.modernbank.cqrs.consistency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * read-your-writes: 프로젝션이 (토픽, 키)별로 어느 위치의 이벤트까지 반영했는지 기억하고,
+ * 일관성 토큰의 쓰기가 모두 반영될 때까지 조회를 잠시(consistency.token.max-wait-ms) 기다리게 한다.
+ * - 위치는 outbox-seq 헤더(Outbox 순번), 헤더가 없으면 레코드 오프셋이다. 둘 다 쓰는 쪽 시계가 아니라 발행 순서로 정해진다.
+ * - 같은 키의 이벤트는 같은 파티션에 위치가 커지는 순서로 들어오므로, 키별 최신 위치가 토큰 값 이상이면 그 쓰기는 반영된 것이다.
+ * - 배치 리스너가 처리를 끝내면(BatchInterceptor.success) 반영으로 보고 기다리는 조회를 깨운다.
+ * - 최근 반영한 키만 tracked-keys개까지 기억한다. 잊은 키의 토큰은 기다린 뒤 쓰기 쪽 조회로 넘어간다.
+ * 결과는 consistency.token.wait{result=applied|timeout} 타이머로 남긴다.
+ */
+@Component
+public class ProjectionProgress {
+
+    static final String OUTBOX_SEQ_HEADER = "outbox-seq";
+
+    private final Map<String, Long> appliedPositions;
+
+    private final long maxWaitNanos;
+
+    private final Timer appliedTimer;
+
+    private final Timer timeoutTimer;
+
+    public ProjectionProgress(MeterRegistry meterRegistry,
+            @Value("${consistency.token.max-wait-ms:500}") long maxWaitMs,
+            @Value("${consistency.token.tracked-keys:100000}") int trackedKeys) {
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.appliedPositions = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > trackedKeys;
+            }
+        };
+        this.appliedTimer = meterRegistry.timer("consistency.token.wait", "result", "applied");
+        this.timeoutTimer = meterRegistry.timer("consistency.token.wait", "result", "timeout");
+    }
+
+    public <V> BatchInterceptor<String, V> interceptor() {
+        return new BatchInterceptor<>() {
+            @Override
+            public ConsumerRecords<String, V> intercept(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                return records;
+            }
+
+            @Override
+            public void success(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                applied(records);
+            }
+        };
+    }
+
+    /**
+     * 토큰의 쓰기가 모두 반영될 때까지 최대 max-wait-ms 기다린다. 기한 안에 반영되지 않으면 false
+     */
+    public boolean awaitApplied(ConsistencyToken token) {
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        synchronized (appliedPositions) {
+            try {
+                while (!isApplied(token)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(appliedPositions, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        appliedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    private boolean isApplied(ConsistencyToken token) {
+        for (Map.Entry<String, Long> entry : token.entries().entrySet()) {
+            Long applied = appliedPositions.get(entry.getKey());
+            if (applied == null || applied < entry.getValue())
+                return false;
+        }
+        return true;
+    }
+
+    private void applied(ConsumerRecords<String, ?> records) {
+        synchronized (appliedPositions) {
+            for (ConsumerRecord<String, ?> record : records) {
+                long position = position(record);
+                if (position < 0 || record.key() == null)
+                    continue;
+
+                // 다시 넣어 최근 반영한 키가 마지막에 오게 한다. (오래된 키부터 잊는다)
+                String entryKey = ConsistencyToken.entryKey(record.topic(), record.key());
+                Long previous = appliedPositions.remove(entryKey);
+                appliedPositions.put(entryKey, previous == null ? position : Math.max(previous, position));
+            }
+            appliedPositions.notifyAll();
+        }
+    }
+
+    // Outbox로 발행된 레코드는 Outbox 순번, 그 밖의 레코드는 오프셋 (헤더를 읽을 수 없으면 -1)
+    private static long position(ConsumerRecord<String, ?> record) {
+        Header header = record.headers().lastHeader(OUTBOX_SEQ_HEADER);
+        if (header == null)
+            return record.offset();
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.modernbank.cqrs.controller;
 
+import com.modernbank.cqrs.concurrency.ConcurrencyLimited;
+import com.modernbank.cqrs.consistency.ConsistencyToken;
+import com.modernbank.cqrs.consistency.ProjectionProgress;
 import com.modernbank.cqrs.domain.entity.Customer;
+import com.modernbank.cqrs.rest.customer.CustomerServiceClient;
 import com.modernbank.cqrs.service.CQRSService;
 import com.modernbank.cqrs.service.CustomerService;
+import com.modernbank.cqrs.singleflight.SingleFlight;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,11 +16,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
 
 @RestController
+@ConcurrencyLimited
 public class CQRSController {
     private final CQRSService cqrsService;
 
@@ -23,9 +30,26 @@ public class CQRSController {
         this.cqrsService = cqrsService;
     }
     
-    @Operation(summary = "Retrieve customer details", method = "GET", description = "Get detailed information about a specific customer")
+    @Autowired
+    private ProjectionProgress projectionProgress;
+
+    @Autowired
+    private CustomerServiceClient customerServiceClient;
+
+    /**
+     * X-Consistency-Token(쓰기 응답 헤더)을 넘기면 그 쓰기가 프로젝션에 반영될 때까지 잠시 기다렸다가 읽는다.
+     * 기한 안에 반영되지 않으면 쓰기 쪽(Customer Service)에서 읽으므로, 쓰기 직후 잔액을 보려고 폴링할 필요가 없다.
+     */
+    @Operation(summary = "Retrieve customer details", method = "GET", description = "Get detailed information about a specific customer. Pass the X-Consistency-Token returned by a write to read your own writes")
     @GetMapping("/customers/{cstmId}/details")
-    public Customer retrieveCustomerDetail(@PathVariable("cstmId") String cstmId) throws Exception {
+    @SingleFlight("cqrs.customer-details")
+    public Customer retrieveCustomerDetail(@PathVariable("cstmId") String cstmId,
+            @RequestHeader(value = ConsistencyToken.HEADER, required = false) String consistencyToken) throws Exception {
+        if (consistencyToken != null && !projectionProgress.awaitApplied(ConsistencyToken.decode(consistencyToken))) {
+            Customer customer = customerServiceClient.retrieveCustomerDetail(cstmId);
+            if (customer != null)
+                return customer;
+        }
         return cqrsService.retrieveCustomerDetail(cstmId);
     }
 
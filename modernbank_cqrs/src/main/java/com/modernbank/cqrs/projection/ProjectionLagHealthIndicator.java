@@ -0,0 +1,36 @@
+package com.modernbank.cqrs.projection;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * 프로젝션 지연 health. (/actuator/health의 projectionLag)
+ * 어느 토픽이든 현재 프로젝션 지연이 SLO(cqrs.projection.lag.slo-ms)를 넘으면 DEGRADED를 보고한다.
+ * 조회는 계속 가능하되 잔액이 오래되었음을 알리는 상태이므로 HTTP 200으로 응답한다. (management.endpoint.health.status.*)
+ */
+@Component
+public class ProjectionLagHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "CQRS projection lag exceeds the SLO");
+
+    @Autowired
+    private ProjectionLagMonitor projectionLagMonitor;
+
+    @Override
+    public Health health() {
+        Map<String, Long> lagMs = projectionLagMonitor.currentLagMs(System.currentTimeMillis());
+        long sloMs = projectionLagMonitor.getSlo().toMillis();
+        boolean degraded = lagMs.values().stream().anyMatch(lag -> lag > sloMs);
+
+        return (degraded ? Health.status(DEGRADED) : Health.up())
+                .withDetail("sloMs", sloMs)
+                .withDetail("lagMs", lagMs)
+                .withDetail("backlog", projectionLagMonitor.backlog())
+                .build();
+    }
+}
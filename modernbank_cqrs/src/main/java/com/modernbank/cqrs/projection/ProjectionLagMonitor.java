@@ -0,0 +1,197 @@
+package com.modernbank.cqrs.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * CQRS 프로젝션 지연 측정.
+ * - cqrs.projection.lag{topic}: 원장 커밋(레코드의 committed-at 헤더)부터 프로젝션 반영(배치 리스너 처리 완료)까지의 시간
+ * - cqrs.projection.consumer.lag{topic,partition}: 반영 후 파티션에 남은 미처리 레코드 수
+ * 배치 리스너의 BatchInterceptor로 붙어 배치가 성공하면 기록한다. 실패한 배치는 컨슈머 lag만 갱신한다.
+ * 리밸런스로 다른 인스턴스에 넘어간 파티션은 rebalanceListener로 정리한다.
+ * 커밋 시각은 발행 서비스의 시계이므로 서버 간 시계 차이만큼 오차가 있다. (음수는 0으로 기록)
+ */
+@Component
+public class ProjectionLagMonitor {
+
+    static final String COMMITTED_AT_HEADER = "committed-at";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration slo;
+
+    // 이 시간보다 오래된 반영 지연은 현재 지연으로 보지 않는다. (유휴 토픽이 과거 지연을 계속 보고하지 않게)
+    private final long windowMs;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<TopicPartition, PartitionLag> partitions = new ConcurrentHashMap<>();
+
+    public ProjectionLagMonitor(MeterRegistry meterRegistry,
+            @Value("${cqrs.projection.lag.slo-ms:5000}") long sloMs,
+            @Value("${cqrs.projection.lag.window-ms:60000}") long windowMs) {
+        this.meterRegistry = meterRegistry;
+        this.slo = Duration.ofMillis(sloMs);
+        this.windowMs = windowMs;
+    }
+
+    public <V> BatchInterceptor<String, V> interceptor() {
+        return new BatchInterceptor<>() {
+            @Override
+            public ConsumerRecords<String, V> intercept(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                return records;
+            }
+
+            @Override
+            public void success(ConsumerRecords<String, V> records, Consumer<String, V> consumer) {
+                applied(records, consumer, System.currentTimeMillis());
+            }
+
+            @Override
+            public void failure(ConsumerRecords<String, V> records, Exception exception, Consumer<String, V> consumer) {
+                for (TopicPartition topicPartition : records.partitions())
+                    updateBacklog(partition(topicPartition), consumer, topicPartition);
+            }
+        };
+    }
+
+    public ConsumerAwareRebalanceListener rebalanceListener() {
+        return new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+                revoked.forEach(ProjectionLagMonitor.this::remove);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+                lost.forEach(ProjectionLagMonitor.this::remove);
+            }
+        };
+    }
+
+    public Duration getSlo() {
+        return slo;
+    }
+
+    /**
+     * 토픽별 현재 프로젝션 지연(ms). 파티션 중 가장 큰 값을 쓴다.
+     * - 최근 window 안에 반영된 배치의 최대 커밋-반영 지연
+     * - 반영 후 남은 레코드가 있으면, 마지막으로 반영한 이벤트의 커밋 이후 지난 시간 (컨슈머가 멈추거나 밀리면 계속 커진다)
+     */
+    public Map<String, Long> currentLagMs(long now) {
+        Map<String, Long> lagByTopic = new TreeMap<>();
+        partitions.forEach((topicPartition, partition) -> {
+            long lagMs = 0;
+            if (now - partition.appliedAt <= windowMs)
+                lagMs = partition.applyLagMs;
+            if (partition.backlog > 0 && partition.committedAt > 0)
+                lagMs = Math.max(lagMs, now - partition.committedAt);
+            lagByTopic.merge(topicPartition.topic(), lagMs, Math::max);
+        });
+        return lagByTopic;
+    }
+
+    // 토픽별 미처리 레코드 수 (파티션 합)
+    public Map<String, Long> backlog() {
+        Map<String, Long> backlogByTopic = new TreeMap<>();
+        partitions.forEach((topicPartition, partition) -> backlogByTopic.merge(topicPartition.topic(), partition.backlog, Long::sum));
+        return backlogByTopic;
+    }
+
+    private void applied(ConsumerRecords<String, ?> records, Consumer<String, ?> consumer, long now) {
+        for (TopicPartition topicPartition : records.partitions()) {
+            PartitionLag partition = partition(topicPartition);
+            Timer timer = timers.computeIfAbsent(topicPartition.topic(), this::timer);
+
+            long maxLagMs = -1;
+            long lastCommittedAt = 0;
+            for (ConsumerRecord<String, ?> record : records.records(topicPartition)) {
+                long committedAt = committedAt(record);
+                if (committedAt <= 0)
+                    continue;
+                long lagMs = Math.max(0, now - committedAt);
+                timer.record(lagMs, TimeUnit.MILLISECONDS);
+                maxLagMs = Math.max(maxLagMs, lagMs);
+                lastCommittedAt = Math.max(lastCommittedAt, committedAt);
+            }
+
+            if (maxLagMs >= 0) {
+                partition.applyLagMs = maxLagMs;
+                partition.appliedAt = now;
+                partition.committedAt = lastCommittedAt;
+            }
+            updateBacklog(partition, consumer, topicPartition);
+        }
+    }
+
+    private void updateBacklog(PartitionLag partition, Consumer<String, ?> consumer, TopicPartition topicPartition) {
+        OptionalLong lag = consumer.currentLag(topicPartition);
+        if (lag.isPresent())
+            partition.backlog = lag.getAsLong();
+    }
+
+    // committed-at 헤더가 없거나(이전 버전 발행자) 읽을 수 없으면 0
+    public static long committedAt(ConsumerRecord<String, ?> record) {
+        Header header = record.headers().lastHeader(COMMITTED_AT_HEADER);
+        if (header == null)
+            return 0;
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private PartitionLag partition(TopicPartition topicPartition) {
+        return partitions.computeIfAbsent(topicPartition, key -> {
+            PartitionLag partition = new PartitionLag();
+            partition.gauge = Gauge.builder("cqrs.projection.consumer.lag", partition, p -> p.backlog)
+                    .tags("topic", key.topic(), "partition", String.valueOf(key.partition()))
+                    .register(meterRegistry);
+            return partition;
+        });
+    }
+
+    private void remove(TopicPartition topicPartition) {
+        PartitionLag partition = partitions.remove(topicPartition);
+        if (partition != null)
+            meterRegistry.remove(partition.gauge);
+    }
+
+    private Timer timer(String topic) {
+        return Timer.builder("cqrs.projection.lag")
+                .tag("topic", topic)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry);
+    }
+
+    // 파티션별 상태는 그 파티션을 할당받은 컨슈머 스레드만 갱신하고, health/gauge가 읽는다.
+    private static final class PartitionLag {
+        private volatile long applyLagMs;
+        private volatile long appliedAt;
+        private volatile long committedAt;
+        private volatile long backlog;
+        private Gauge gauge;
+    }
+}
@@ -0,0 +1,52 @@
+package com.modernbank.cqrs.rest.customer;
+
+import com.modernbank.cqrs.domain.entity.Customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * 쓰기 쪽 고객 상세 조회 (Customer Service: 고객/이체한도 + Account Service 계좌 목록).
+ * 일관성 토큰의 쓰기가 기다리는 동안 프로젝션에 반영되지 않았을 때만 쓴다.
+ * 호출한 요청의 쿠키(jwt_token)를 그대로 넘겨 쓰기 쪽의 read-your-writes(primary 고정)도 같은 세션으로 적용되게 한다.
+ */
+@Component
+public class CustomerServiceClient {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(CustomerServiceClient.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${customer.api.url}")
+    private String customerServiceUrl;
+
+    // 실패하면 null (호출한 쪽이 프로젝션 결과로 응답한다)
+    public Customer retrieveCustomerDetail(String cstmId) {
+        HttpHeaders headers = new HttpHeaders();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            String cookie = ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.COOKIE);
+            if (cookie != null)
+                headers.add(HttpHeaders.COOKIE, cookie);
+        }
+
+        try {
+            return restTemplate.exchange(customerServiceUrl + "/{cstmId}/details", HttpMethod.GET, new HttpEntity<>(headers), Customer.class, cstmId).getBody();
+        } catch (RestClientException e) {
+            LOGGER.warn("Failed to read customer details from Customer Service, using the projection: " + e.getMessage());
+            return null;
+        }
+    }
+}
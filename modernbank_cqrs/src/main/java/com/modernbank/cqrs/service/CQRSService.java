@@ -1,5 +1,7 @@
 package com.modernbank.cqrs.service;
 
+import java.util.List;
+
 import com.modernbank.cqrs.domain.entity.Account;
 import com.modernbank.cqrs.domain.entity.Customer;
 
@@ -9,5 +11,9 @@ public interface CQRSService {
     public int createAccount(Account account) throws Exception;
     public int updateTransferLimit(Customer customer) throws Exception;
     public int updateAccountBalance(Account account) throws Exception;
+    public int createCustomers(List<Customer> customers) throws Exception;
+    public int createAccounts(List<Account> accounts) throws Exception;
+    public int updateTransferLimits(List<Customer> customers) throws Exception;
+    public int updateAccountBalances(List<Account> accounts) throws Exception;
 
 }
@@ -5,11 +5,13 @@ import java.util.List;
 import com.modernbank.cqrs.domain.entity.Account;
 import com.modernbank.cqrs.domain.entity.Customer;
 import com.modernbank.cqrs.domain.repository.CQRSRepository;
+import com.modernbank.cqrs.domain.repository.MyBatisBatchWriter;
 import com.modernbank.cqrs.exception.BusinessException;
 import com.modernbank.cqrs.exception.SystemException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service("cqrsService")
 public class CQRSServiceImpl implements CQRSService{
@@ -17,6 +19,9 @@ public class CQRSServiceImpl implements CQRSService{
     @Autowired
     CQRSRepository cqrsRepository;
 
+    @Autowired
+    MyBatisBatchWriter batchWriter;
+
     @Override
     public Customer retrieveCustomerDetail(String cstmId) throws Exception {
         Customer customer = null;
@@ -83,5 +88,42 @@ public class CQRSServiceImpl implements CQRSService{
     public int updateAccountBalance(Account account) throws Exception {
         return cqrsRepository.updateAccountBalance(account);
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Creates user information for a batch of events in one JDBC batch.
+     * Events are applied in the given (partition) order, so the last event for a customer wins.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int createCustomers(List<Customer> customers) throws Exception {
+        return batchWriter.write(CQRSRepository.class, customers, CQRSRepository::insertCustomer);
+    }
+
+    /**
+     * Creates account information for a batch of events in one JDBC batch.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int createAccounts(List<Account> accounts) throws Exception {
+        return batchWriter.write(CQRSRepository.class, accounts, CQRSRepository::insertAccount);
+    }
+
+    /**
+     * Updates transfer limits for a batch of events in one JDBC batch.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int updateTransferLimits(List<Customer> customers) throws Exception {
+        return batchWriter.write(CQRSRepository.class, customers, CQRSRepository::updateTransferLimit);
+    }
+
+    /**
+     * Updates account balances for a batch of events in one JDBC batch.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int updateAccountBalances(List<Account> accounts) throws Exception {
+        return batchWriter.write(CQRSRepository.class, accounts, CQRSRepository::updateAccountBalance);
+    }
+
+}
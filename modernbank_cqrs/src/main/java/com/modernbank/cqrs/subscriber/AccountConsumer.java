@@ -1,5 +1,9 @@
 package com.modernbank.cqrs.subscriber;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import com.modernbank.cqrs.domain.entity.Account;
 import com.modernbank.cqrs.exception.SystemException;
 import com.modernbank.cqrs.service.CQRSService;
@@ -7,11 +11,16 @@ import com.modernbank.cqrs.service.CQRSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
 
+/**
+ * 계좌 프로젝션 구독. poll 단위로 받은 이벤트를 한 번의 JDBC 배치로 반영하고,
+ * 배치가 실패하면(중복 계좌 등) 건별로 다시 반영하고, 건별로도 실패한 이벤트는 재시도 후 DLT로 보낸다.
+ */
 @Component
 public class AccountConsumer {
     @Resource(name = "cqrsService")
@@ -20,37 +29,61 @@ public class AccountConsumer {
 
     
     @KafkaListener(topics = "${creating.account.topic.name}", containerFactory = "accountKafkaListenerContainerFactory")
-    public void creatingAccountListener(Account account, Acknowledgment ack) {
-        LOGGER.info("Received creating account message: " + account.getAcntNo());
+    public void creatingAccountListener(List<Account> accounts, Acknowledgment ack) {
+        List<Account> accountList = accounts.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        LOGGER.info("Received creating account messages: " + accountList.size());
   
         try {
             /* Customer detail inquiry: Register account data */
-            cqrsService.createAccount(account);
- 
-            ack.acknowledge();  // Commit on success
-            
+            cqrsService.createAccounts(accountList);
         } catch(Exception e) {
-            String msg = " A problem occurred while registering account data or account history data.";
-            LOGGER.error(account.getAcntNo() + msg, e);
-        } 
+            LOGGER.warn("Batch account registration failed, retrying one by one.", e);
+            // 건별로도 반영하지 못한 이벤트는 커밋하지 않는다. 에러 핸들러가 그 이벤트부터 재시도하고, 끝내 실패하면 DLT로 보낸다.
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                if (account == null)
+                    continue;
+                try {
+                    cqrsService.createAccount(account);
+                } catch(Exception ex) {
+                    String msg = " A problem occurred while registering account data or account history data.";
+                    LOGGER.error(account.getAcntNo() + msg, ex);
+                    throw new BatchListenerFailedException(account.getAcntNo() + msg, ex, i);
+                }
+            }
+        }
+        ack.acknowledge();  // Commit on success
     }
     
     /**
      * Update account balance
-     * @param account
+     * @param accounts
      * @throws SystemException
      */
     @KafkaListener(topics = "${updating.account.balance.topic.name}", containerFactory = "accountKafkaListenerContainerFactory")
-    public void updatingAccountBalanceListener(Account account, Acknowledgment ack) {
-        LOGGER.info("Received updating account balance message: " + account.getAcntNo());
+    public void updatingAccountBalanceListener(List<Account> accounts, Acknowledgment ack) {
+        List<Account> accountList = accounts.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        LOGGER.info("Received updating account balance messages: " + accountList.size());
         
         try {
-            cqrsService.updateAccountBalance(account);
-            ack.acknowledge();
+            cqrsService.updateAccountBalances(accountList);
         } catch(Exception e) {
-            String msg = " A problem occurred while updating the account balance.";
-            LOGGER.error(account.getAcntNo() + msg, e);
-        } 
+            LOGGER.warn("Batch account balance update failed, retrying one by one.", e);
+            // 건별로도 반영하지 못한 이벤트는 커밋하지 않는다. 에러 핸들러가 그 이벤트부터 재시도하고, 끝내 실패하면 DLT로 보낸다.
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                if (account == null)
+                    continue;
+                try {
+                    cqrsService.updateAccountBalance(account);
+                } catch(Exception ex) {
+                    String msg = " A problem occurred while updating the account balance.";
+                    LOGGER.error(account.getAcntNo() + msg, ex);
+                    throw new BatchListenerFailedException(account.getAcntNo() + msg, ex, i);
+                }
+            }
+        }
+        ack.acknowledge();
     }
     
-}
\ No newline at end of file
+}
@@ -1,5 +1,9 @@
 package com.modernbank.cqrs.subscriber;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import com.modernbank.cqrs.domain.entity.Customer;
 import com.modernbank.cqrs.exception.SystemException;
 import com.modernbank.cqrs.service.CQRSService;
@@ -7,6 +11,7 @@ import com.modernbank.cqrs.service.CQRSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
@@ -21,22 +26,35 @@ public class CustomerConsumer {
     
     /**
      * Create customer data and customer history data
-     * @param customer
+     * (one JDBC batch per poll, falling back to one by one if the batch fails;
+     * a record that still fails is retried and then sent to the dead-letter topic)
+     * @param customers
      * @throws SystemException
      */
     @KafkaListener(topics = "${creating.customer.topic.name}", containerFactory = "customerKafkaListenerContainerFactory")
-    public void creatingCustomerListener(Customer customer, Acknowledgment ack) {
-        LOGGER.info("Received creating customer message: " + customer.getCstmId());
+    public void creatingCustomerListener(List<Customer> customers, Acknowledgment ack) {
+        List<Customer> customerList = customers.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        LOGGER.info("Received creating customer messages: " + customerList.size());
         try {
             /* Customer detail inquiry: Register customer data */
-            cqrsService.createCustomer(customer);
-
-            ack.acknowledge();
-            
+            cqrsService.createCustomers(customerList);
         } catch(Exception e) {
-            String msg = " A problem occurred while creating customer data or customer history.";
-            LOGGER.error(customer.getCstmId() + msg, e);
-        } 
+            LOGGER.warn("Batch customer registration failed, retrying one by one.", e);
+            // 건별로도 반영하지 못한 이벤트는 커밋하지 않는다. 에러 핸들러가 그 이벤트부터 재시도하고, 끝내 실패하면 DLT로 보낸다.
+            for (int i = 0; i < customers.size(); i++) {
+                Customer customer = customers.get(i);
+                if (customer == null)
+                    continue;
+                try {
+                    cqrsService.createCustomer(customer);
+                } catch(Exception ex) {
+                    String msg = " A problem occurred while creating customer data or customer history.";
+                    LOGGER.error(customer.getCstmId() + msg, ex);
+                    throw new BatchListenerFailedException(customer.getCstmId() + msg, ex, i);
+                }
+            }
+        }
+        ack.acknowledge();
     }
     
-}
\ No newline at end of file
+}
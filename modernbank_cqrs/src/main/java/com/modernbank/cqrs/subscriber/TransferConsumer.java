@@ -1,5 +1,9 @@
 package com.modernbank.cqrs.subscriber;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import com.modernbank.cqrs.domain.entity.Customer;
 import com.modernbank.cqrs.exception.SystemException;
 import com.modernbank.cqrs.service.CQRSService;
@@ -7,6 +11,7 @@ import com.modernbank.cqrs.service.CQRSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
@@ -21,20 +26,33 @@ public class TransferConsumer {
     
     /**
      * Updates the transfer information.
-     * @param customer
+     * (one JDBC batch per poll, falling back to one by one if the batch fails;
+     * a record that still fails is retried and then sent to the dead-letter topic)
+     * @param customers
      * @throws SystemException
      */
     @KafkaListener(topics = "${updating.transfer.limit.topic.name}", containerFactory = "transferLimitKafkaListenerContainerFactory")
-    public void updatingTransferLimitListener(Customer customer, Acknowledgment ack) {
-        LOGGER.info("Received updating transfer limit message: " + customer.getCstmId());
+    public void updatingTransferLimitListener(List<Customer> customers, Acknowledgment ack) {
+        List<Customer> customerList = customers.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        LOGGER.info("Received updating transfer limit messages: " + customerList.size());
         try {
-            System.out.println("============> The transfer limit listener is being triggered.");        
-            cqrsService.updateTransferLimit(customer);
-            
-            ack.acknowledge();
+            cqrsService.updateTransferLimits(customerList);
         } catch(Exception e) {
-            String msg = " A problem occurred while saving the transfer information.";
-            LOGGER.error(customer.getCstmId() + msg, e);
-        } 
+            LOGGER.warn("Batch transfer limit update failed, retrying one by one.", e);
+            // 건별로도 반영하지 못한 이벤트는 커밋하지 않는다. 에러 핸들러가 그 이벤트부터 재시도하고, 끝내 실패하면 DLT로 보낸다.
+            for (int i = 0; i < customers.size(); i++) {
+                Customer customer = customers.get(i);
+                if (customer == null)
+                    continue;
+                try {
+                    cqrsService.updateTransferLimit(customer);
+                } catch(Exception ex) {
+                    String msg = " A problem occurred while saving the transfer information.";
+                    LOGGER.error(customer.getCstmId() + msg, ex);
+                    throw new BatchListenerFailedException(customer.getCstmId() + msg, ex, i);
+                }
+            }
+        }
+        ack.acknowledge();
     }
-}
\ No newline at end of file
+}
@@ -10,9 +10,16 @@ IMAGE_TAG="latest"
 ECR_REPO="${AWS_ACCOUNT_ID}.dkr.ecr.${AWS_REGION}.amazonaws.com"
 
 # Build application
-./gradlew clean build
+# FAST_STARTUP=true ./containerize.sh builds the Spring AOT + AppCDS image (Dockerfile.faststartup)
+if [ "$FAST_STARTUP" = "true" ]; then
+    ./gradlew clean build -PfastStartup
+    DOCKERFILE="Dockerfile.faststartup"
+else
+    ./gradlew clean build
+    DOCKERFILE="Dockerfile"
+fi
 
 # Build and push docker image
-docker build -t ${IMAGE_NAME}:${IMAGE_TAG} .
+docker build -f ${DOCKERFILE} -t ${IMAGE_NAME}:${IMAGE_TAG} .
 docker tag ${IMAGE_NAME}:${IMAGE_TAG} ${ECR_REPO}/${IMAGE_NAME}:${IMAGE_TAG}
 docker push ${ECR_REPO}/${IMAGE_NAME}:${IMAGE_TAG}
\ No newline at end of file
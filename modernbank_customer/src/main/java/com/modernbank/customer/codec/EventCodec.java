@@ -0,0 +1,345 @@
+package com.modernbank.customer.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.customer.codec.EventSchema.FieldType;
+
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스키마 기반 이벤트 바이너리 인코딩.
+ * [0x00][스키마 ID 8 bytes][null 비트맵][필드 값...]
+ * 필드 이름은 메시지에 싣지 않고 스키마 ID로 찾은 작성 스키마(writer schema)의 순서대로 값만 쓴다.
+ * 읽을 때는 작성 스키마와 읽는 클래스의 필드를 이름으로 맞추며, 읽는 쪽에 없는 필드는 건너뛰고 작성 스키마에 없는 필드는 기본값으로 둔다.
+ * 문자열과 숫자는 길이 접두/zigzag varint로 쓰고, 그 밖의 타입(List 등)은 JSON으로 넣는다.
+ * 클래스별 필드 접근자와 (작성 스키마, 읽는 클래스) 쌍의 매핑은 한 번만 만들어 캐시한다.
+ */
+@Component
+public class EventCodec {
+
+    public static final byte MAGIC_BYTE = 0x0;
+    private static final int HEADER_SIZE = 1 + Long.BYTES;
+
+    private final SchemaRegistry schemaRegistry;
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    private final Map<Class<?>, EventWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<Long, EventReader<?>>> readers = new ConcurrentHashMap<>();
+
+    public EventCodec(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    // JSON 텍스트는 0x00으로 시작할 수 없으므로 첫 바이트로 바이너리/JSON을 구분한다.
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE && data[0] == MAGIC_BYTE;
+    }
+
+    public byte[] encode(String subject, Object event) {
+        EventWriter writer = writers.computeIfAbsent(event.getClass(), EventWriter::new);
+        long schemaId = schemaRegistry.register(subject, writer.schema);
+
+        Output out = new Output(128);
+        out.writeByte(MAGIC_BYTE);
+        out.writeFixedLong(schemaId);
+        writer.write(event, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 읽을 타입의 스키마를 레지스트리에 알려 둔다.
+     * 작성 쪽 클래스와 필드 구성이 같으면 레지스트리 디렉터리를 공유하지 않아도 스키마를 찾을 수 있다.
+     */
+    public void registerReaderType(Class<?> type) {
+        try {
+            schemaRegistry.store(EventSchema.of(type));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to store event schema for " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (!isEncoded(data))
+            throw new IllegalArgumentException("Not a binary encoded event");
+
+        Input in = new Input(data, 1);
+        long schemaId = in.readFixedLong();
+        EventReader<T> reader = (EventReader<T>) readers
+                .computeIfAbsent(type, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(schemaId, id -> new EventReader<>(schemaRegistry.lookup(id), type));
+        return reader.read(in);
+    }
+
+    private final class EventWriter {
+        private final EventSchema schema;
+        private final Field[] fields;
+        private final FieldType[] types;
+
+        EventWriter(Class<?> type) {
+            this.schema = EventSchema.of(type);
+            List<Field> eventFields = EventSchema.eventFields(type);
+            this.fields = eventFields.toArray(new Field[0]);
+            this.types = new FieldType[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].setAccessible(true);
+                types[i] = schema.getFields().get(i).type();
+            }
+        }
+
+        void write(Object event, Output out) {
+            Object[] values = new Object[fields.length];
+            byte[] nullBitmap = new byte[(fields.length + 7) / 8];
+            for (int i = 0; i < fields.length; i++) {
+                try {
+                    values[i] = fields[i].get(event);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Failed to read field " + fields[i].getName(), e);
+                }
+                if (values[i] != null)
+                    nullBitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+
+            out.writeBytes(nullBitmap);
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != null)
+                    writeValue(types[i], values[i], out);
+            }
+        }
+
+        private void writeValue(FieldType type, Object value, Output out) {
+            switch (type) {
+                case STRING -> out.writeString((String) value);
+                case INT -> out.writeVarLong((Integer) value);
+                case LONG -> out.writeVarLong((Long) value);
+                case BOOLEAN -> out.writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+                case DOUBLE -> out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+                case JSON -> {
+                    try {
+                        out.writeLengthPrefixed(objectMapper.writeValueAsBytes(value));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to encode field as JSON", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class EventReader<T> {
+        private final Constructor<T> constructor;
+        private final FieldType[] writerTypes;
+        private final Field[] targets;
+        private final JavaType[] jsonTypes;
+
+        EventReader(EventSchema writerSchema, Class<T> type) {
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(type.getName() + " requires a no-args constructor", e);
+            }
+
+            Map<String, Field> readerFields = new HashMap<>();
+            for (Field field : EventSchema.eventFields(type))
+                readerFields.put(field.getName(), field);
+
+            List<EventSchema.Field> writerFields = writerSchema.getFields();
+            this.writerTypes = new FieldType[writerFields.size()];
+            this.targets = new Field[writerFields.size()];
+            this.jsonTypes = new JavaType[writerFields.size()];
+            for (int i = 0; i < writerFields.size(); i++) {
+                writerTypes[i] = writerFields.get(i).type();
+                Field target = readerFields.get(writerFields.get(i).name());
+                if (target == null || !canRead(writerTypes[i], EventSchema.fieldType(target.getType())))
+                    continue;
+                target.setAccessible(true);
+                targets[i] = target;
+                if (writerTypes[i] == FieldType.JSON)
+                    jsonTypes[i] = objectMapper.constructType(target.getGenericType());
+            }
+        }
+
+        // 같은 타입이거나 int → long 확장만 허용한다.
+        private boolean canRead(FieldType writerType, FieldType readerType) {
+            return writerType == readerType || (writerType == FieldType.INT && readerType == FieldType.LONG);
+        }
+
+        T read(Input in) {
+            T event;
+            try {
+                event = constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to instantiate " + constructor.getDeclaringClass().getName(), e);
+            }
+
+            byte[] nullBitmap = in.readBytes((writerTypes.length + 7) / 8);
+            for (int i = 0; i < writerTypes.length; i++) {
+                if ((nullBitmap[i >>> 3] & (1 << (i & 7))) == 0)
+                    continue;
+
+                Object value = readValue(i, in);
+                if (targets[i] == null)
+                    continue;
+                try {
+                    targets[i].set(event, value);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Failed to set field " + targets[i].getName(), e);
+                }
+            }
+            return event;
+        }
+
+        private Object readValue(int i, Input in) {
+            switch (writerTypes[i]) {
+                case STRING:
+                    return in.readString();
+                case INT:
+                    int intValue = (int) in.readVarLong();
+                    return targets[i] != null && EventSchema.fieldType(targets[i].getType()) == FieldType.LONG ? (Object) (long) intValue : (Object) intValue;
+                case LONG:
+                    return in.readVarLong();
+                case BOOLEAN:
+                    return in.readByte() != 0;
+                case DOUBLE:
+                    return Double.longBitsToDouble(in.readFixedLong());
+                default:
+                    byte[] json = in.readLengthPrefixed();
+                    if (targets[i] == null)
+                        return null;
+                    try {
+                        return objectMapper.readValue(json, jsonTypes[i]);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to decode JSON field " + targets[i].getName(), e);
+                    }
+            }
+        }
+    }
+
+    static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(byte b) {
+            ensureCapacity(1);
+            buffer[size++] = b;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeFixedLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                buffer[size++] = (byte) (value >>> shift);
+        }
+
+        // zigzag varint: 작은 절댓값일수록 짧게 쓴다.
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[size++] = (byte) v;
+        }
+
+        void writeLengthPrefixed(byte[] bytes) {
+            writeVarLong(bytes.length);
+            writeBytes(bytes);
+        }
+
+        void writeString(String value) {
+            writeLengthPrefixed(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+
+    static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            checkRemaining(1);
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            checkRemaining(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readFixedLong() {
+            checkRemaining(Long.BYTES);
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++)
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            return value;
+        }
+
+        long readVarLong() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return (v >>> 1) ^ -(v & 1);
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        byte[] readLengthPrefixed() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position)
+                throw new IllegalStateException("Malformed length: " + length);
+            return readBytes((int) length);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position)
+                throw new IllegalStateException("Malformed length: " + length);
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private void checkRemaining(int length) {
+            if (length > buffer.length - position)
+                throw new IllegalStateException("Truncated event");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.modernbank.customer.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러(클래스) 또는 핸들러 메소드를 서비스 전체의 적응형 동시 처리 한도 아래에 둔다.
+ * 메소드에 붙인 값이 클래스에 붙인 값보다 우선한다.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+    Priority value() default Priority.NORMAL;
+}
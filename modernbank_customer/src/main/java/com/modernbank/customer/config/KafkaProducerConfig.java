@@ -1,38 +1,113 @@
 package com.modernbank.customer.config;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.modernbank.customer.codec.EventCodec;
+import com.modernbank.customer.codec.EventSerializer;
+
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import com.modernbank.customer.domain.entity.Customer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 
+/**
+ * 서비스 공용 Kafka Producer.
+ * 값 타입별로 Producer를 만들지 않고 프로파일별로 하나의 Producer(스레드, 버퍼, 커넥션)를 공유한다.
+ * - latency: 이체 처리 경로의 토픽. 모으지 않고 바로 보낸다.
+ * - throughput: CQRS 프로젝션 등 나머지 토픽. 크게 모아서 압축해 보낸다.
+ * 토픽별 프로파일은 KafkaTopicRouter가 고른다. Producer는 첫 발행 시점에 만들어지므로 쓰지 않는 프로파일은 비용이 없다.
+ * Producer 지표(batch-size, record-queue-time, request-latency 등)는 Micrometer로 노출된다. (/actuator/metrics/kafka.producer.*)
+ */
 @Configuration
 public class KafkaProducerConfig {
 
+    public static final String LATENCY_PROFILE = "latency";
+    public static final String THROUGHPUT_PROFILE = "throughput";
+
     @Value(value = "${kafka.bootstrapAddress}")
     private String bootstrapAddress;
 
+    @Value(value = "${spring.application.name}")
+    private String applicationName;
+
+    // json | binary (스키마 기반 바이너리, Consumer는 두 형식을 모두 읽는다)
+    @Value(value = "${kafka.producer.value-format:json}")
+    private String valueFormat;
+
+    @Autowired
+    private EventCodec eventCodec;
+
     @Bean
-    public ProducerFactory<String, Customer> customerProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public ProducerFactory<String, Object> latencyProducerFactory(MeterRegistry meterRegistry,
+            @Value("${kafka.producer.latency.linger-ms:0}") int lingerMs,
+            @Value("${kafka.producer.latency.batch-size:16384}") int batchSize,
+            @Value("${kafka.producer.latency.compression-type:none}") String compressionType) {
+        return producerFactory(LATENCY_PROFILE, lingerMs, batchSize, compressionType, meterRegistry);
     }
 
     @Bean
-    public KafkaTemplate<String, Customer> customerKafkaTemplate() {
-        return new KafkaTemplate<>(customerProducerFactory());
+    public ProducerFactory<String, Object> throughputProducerFactory(MeterRegistry meterRegistry,
+            @Value("${kafka.producer.throughput.linger-ms:20}") int lingerMs,
+            @Value("${kafka.producer.throughput.batch-size:262144}") int batchSize,
+            @Value("${kafka.producer.throughput.compression-type:lz4}") String compressionType) {
+        return producerFactory(THROUGHPUT_PROFILE, lingerMs, batchSize, compressionType, meterRegistry);
     }
 
-}
\ No newline at end of file
+    @Bean
+    public KafkaTemplate<String, Object> latencyKafkaTemplate(ProducerFactory<String, Object> latencyProducerFactory) {
+        return observed(new KafkaTemplate<>(latencyProducerFactory));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> throughputKafkaTemplate(ProducerFactory<String, Object> throughputProducerFactory) {
+        return observed(new KafkaTemplate<>(throughputProducerFactory));
+    }
+
+    // 발행마다 producer span을 만들고 트레이스 컨텍스트를 레코드 헤더(traceparent)로 넘긴다.
+    private static KafkaTemplate<String, Object> observed(KafkaTemplate<String, Object> kafkaTemplate) {
+        kafkaTemplate.setObservationEnabled(true);
+        return kafkaTemplate;
+    }
+
+    private ProducerFactory<String, Object> producerFactory(String profile, int lingerMs, int batchSize, String compressionType, MeterRegistry meterRegistry) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-" + profile);
+        // 재전송 시에도 파티션 내 순서가 바뀌거나 중복되지 않게 한다.
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer());
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("profile", profile))));
+        return producerFactory;
+    }
+
+    // 이미 직렬화된 값(byte[], String)은 그대로, 나머지 객체는 value-format에 따라 바이너리 또는 JSON으로 보낸다.
+    private Serializer<Object> valueSerializer() {
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(String.class, new StringSerializer());
+        valueSerializers.put(Object.class, "binary".equals(valueFormat) ? new EventSerializer(eventCodec) : new JsonSerializer<>());
+        return new DelegatingByTypeSerializer(valueSerializers, true);
+    }
+}
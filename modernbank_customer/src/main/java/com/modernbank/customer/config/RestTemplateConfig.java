@@ -1,13 +1,29 @@
 package com.modernbank.customer.config;
 
+import com.modernbank.customer.deadline.DeadlineRequestFactory;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class RestTemplateConfig {
+
+    // 요청 기한(Deadline)이 있으면 타임아웃을 남은 시간으로 줄이고 X-Request-Timeout-Ms 헤더로 넘긴다.
+    // 호출마다 client span을 만들고 traceparent 헤더로 트레이스 컨텍스트를 넘긴다. (CookieBaker 헤더와 함께 전송)
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    } 
+    public RestTemplate restTemplate(ObservationRegistry observationRegistry,
+                                     @Value("${rest.client.connect-timeout-ms:1000}") int connectTimeout,
+                                     @Value("${rest.client.read-timeout-ms:3000}") int readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new DeadlineRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setObservationRegistry(observationRegistry);
+        return restTemplate;
+    }
 }
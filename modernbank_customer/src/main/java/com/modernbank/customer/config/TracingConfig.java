@@ -0,0 +1,16 @@
+package com.modernbank.customer.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.observation.ObservationPredicate;
+
+@Configuration
+public class TracingConfig {
+
+    // 주기 실행(복제 지연 확인 등)마다 새 트레이스가 생기지 않게 한다.
+    @Bean
+    public ObservationPredicate skipScheduledTaskObservations() {
+        return (name, context) -> !"tasks.scheduled.execution".equals(name);
+    }
+}
@@ -1,5 +1,8 @@
 package com.modernbank.customer.config;
 
+import com.modernbank.customer.concurrency.ConcurrencyLimitInterceptor;
+import com.modernbank.customer.consistency.ConsistencyToken;
+import com.modernbank.customer.datasource.ReadYourWritesTracker;
 import com.modernbank.customer.logging.LoggingInterceptor;
 
 import org.springframework.context.annotation.Configuration;
@@ -10,22 +13,31 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
     private final LoggingInterceptor loggingInterceptor;
+    private final ReadYourWritesTracker readYourWritesTracker;
 
-    public WebMvcConfig(LoggingInterceptor loggingInterceptor) {
+    public WebMvcConfig(ConcurrencyLimitInterceptor concurrencyLimitInterceptor, LoggingInterceptor loggingInterceptor, ReadYourWritesTracker readYourWritesTracker) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
         this.loggingInterceptor = loggingInterceptor;
+        this.readYourWritesTracker = readYourWritesTracker;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 한도를 넘는 요청은 다른 인터셉터를 거치기 전에 바로 거절한다.
+        registry.addInterceptor(concurrencyLimitInterceptor);
         registry.addInterceptor(loggingInterceptor);
+        registry.addInterceptor(readYourWritesTracker);
     }
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
             .allowedOriginPatterns("*")
-            .allowCredentials(true);
+            .allowCredentials(true)
+            // 브라우저 클라이언트가 CQRS 조회에 넘길 수 있도록 일관성 토큰 헤더를 노출한다.
+            .exposedHeaders(ConsistencyToken.HEADER);
     }
     
 }
@@ -0,0 +1,59 @@
+package com.modernbank.customer.consistency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 읽기 일관성 토큰 (X-Consistency-Token).
+ * 요청이 커밋한 이벤트의 (토픽, 키)별 위치를 담는다. Customer Service는 Outbox 없이 바로 발행하므로 위치는 레코드의 오프셋이다.
+ * 같은 키의 레코드는 한 파티션에 오프셋 순서로 쌓이므로, CQRS는 같은 키에서 이 오프셋 이상의 레코드까지 반영했는지로
+ * 읽기 가능 여부를 판단한다. (쓰는 인스턴스의 시계와 무관)
+ * 인코딩: "토픽\t키\t위치" 줄들을 URL-safe Base64로 묶는다.
+ */
+public class ConsistencyToken {
+
+    public static final String HEADER = "X-Consistency-Token";
+
+    // 이보다 많은 이벤트를 커밋한 요청(대량 거래)은 토큰을 돌려주지 않는다. (헤더 크기 제한)
+    static final int MAX_ENTRIES = 100;
+
+    private final Map<String, Long> positions = new LinkedHashMap<>();
+
+    // 일부 이벤트를 담지 못한 토큰은 일관성을 보장할 수 없으므로 돌려주지 않는다.
+    private boolean incomplete;
+
+    // 위치를 알 수 없는 이벤트(null)가 있으면 토큰을 돌려주지 않는다.
+    public synchronized void add(String topic, String key, Long position) {
+        if (incomplete)
+            return;
+        if (key == null || position == null || !encodable(topic) || !encodable(key)) {
+            incomplete = true;
+            return;
+        }
+        positions.merge(topic + '\t' + key, position, Math::max);
+        if (positions.size() > MAX_ENTRIES) {
+            incomplete = true;
+            positions.clear();
+        }
+    }
+
+    // 담긴 이벤트가 없거나 불완전하면 null
+    public synchronized String encode() {
+        if (incomplete || positions.isEmpty())
+            return null;
+
+        StringBuilder lines = new StringBuilder();
+        positions.forEach((topicKey, position) -> {
+            if (lines.length() > 0)
+                lines.append('\n');
+            lines.append(topicKey).append('\t').append(position);
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean encodable(String value) {
+        return value.indexOf('\t') < 0 && value.indexOf('\n') < 0;
+    }
+}
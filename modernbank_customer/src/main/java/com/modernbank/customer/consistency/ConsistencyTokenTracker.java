@@ -0,0 +1,92 @@
+package com.modernbank.customer.consistency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 쓰기 요청이 커밋한 이벤트를 ConsistencyToken으로 모아 응답 헤더(X-Consistency-Token)로 돌려준다.
+ * 클라이언트가 이 토큰을 CQRS 조회에 넘기면 프로젝션이 해당 이벤트를 반영할 때까지 잠시 기다렸다가 읽는다. (폴링 불필요)
+ * - 이벤트는 트랜잭션이 커밋된 뒤에만 토큰에 담는다.
+ * - 토큰은 요청 속성에 둔다. 요청 속성은 bulkhead/헤지 스레드로 넘기지 않으므로 요청 스레드에서 기록한다.
+ */
+@ControllerAdvice
+public class ConsistencyTokenTracker implements ResponseBodyAdvice<Object> {
+
+    private static final String REQUEST_ATTRIBUTE = ConsistencyTokenTracker.class.getName() + ".TOKEN";
+
+    @Value("${consistency.token.send-wait-ms:1000}")
+    private long sendWaitMs;
+
+    /**
+     * 현재 트랜잭션이 커밋되면 발행한 레코드의 오프셋을 요청의 토큰에 담는다. (웹 요청이 아니면 무시)
+     * 발행 결과를 send-wait-ms 안에 받지 못하면 토큰을 돌려주지 않는다.
+     */
+    public void recordOnCommit(String topic, String key, CompletableFuture<Long> offset) {
+        ConsistencyToken token = current();
+        if (token == null)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            token.add(topic, key, await(offset));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                token.add(topic, key, await(offset));
+            }
+        });
+    }
+
+    private Long await(CompletableFuture<Long> offset) {
+        try {
+            return offset.get(sendWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        ConsistencyToken token = attributes == null ? null : (ConsistencyToken) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String encoded = token == null ? null : token.encode();
+        if (encoded != null)
+            response.getHeaders().set(ConsistencyToken.HEADER, encoded);
+        return body;
+    }
+
+    private ConsistencyToken current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+            return null;
+        ConsistencyToken token = (ConsistencyToken) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (token == null) {
+            token = new ConsistencyToken();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+        }
+        return token;
+    }
+}
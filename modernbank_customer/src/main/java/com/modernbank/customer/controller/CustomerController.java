@@ -1,6 +1,7 @@
 package com.modernbank.customer.controller;
 
 
+import com.modernbank.customer.concurrency.ConcurrencyLimited;
 import com.modernbank.customer.domain.entity.Customer;
 import com.modernbank.customer.service.CustomerService;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +13,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Resource;
 
 @RestController
+@ConcurrencyLimited
 public class CustomerController {
 
     @Resource(name = "customerService")
@@ -0,0 +1,111 @@
+package com.modernbank.customer.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 읽기 전용 조회를 복제본 풀로, 나머지를 primary 풀로 보내는 라우팅 DataSource.
+ * LazyConnectionDataSourceProxy 뒤에 두어 트랜잭션 속성(readOnly)이 정해진 뒤 첫 구문 실행 시점에 경로를 고른다.
+ *
+ * 복제본으로 보내는 경우: 읽기 전용 트랜잭션, 또는 @DataSourceRoute(REPLICA)로 지정된 트랜잭션 밖의 호출.
+ * 다음 경우에는 primary로 대체한다.
+ * - 복제본이 설정되지 않았거나, ReplicaLagMonitor가 지연 초과/접속 불가로 판단한 경우 (reason=lag)
+ * - 같은 세션에서 방금 쓰기를 커밋해 복제본에 아직 반영되지 않았을 수 있는 경우 (reason=read-your-writes)
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private final DataSource replicaDataSource;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Counter lagFallbackCounter;
+    private final Counter readYourWritesFallbackCounter;
+    private volatile boolean replicaAvailable;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+            ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.replicaDataSource = replicaDataSource;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.lagFallbackCounter = fallbackCounter(meterRegistry, "lag");
+        this.readYourWritesFallbackCounter = fallbackCounter(meterRegistry, "read-your-writes");
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(Route.PRIMARY, primaryDataSource);
+        if (replicaDataSource != null)
+            targetDataSources.put(Route.REPLICA, replicaDataSource);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    static Route currentRoute() {
+        return ROUTE.get();
+    }
+
+    static void setRoute(Route route) {
+        if (route == null)
+            ROUTE.remove();
+        else
+            ROUTE.set(route);
+    }
+
+    public DataSource getReplicaDataSource() {
+        return replicaDataSource;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    /**
+     * 복제본 풀은 빈으로 등록하지 않으므로 라우팅 DataSource가 종료될 때 함께 닫는다.
+     */
+    public void close() throws Exception {
+        if (replicaDataSource instanceof AutoCloseable)
+            ((AutoCloseable) replicaDataSource).close();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnlyTransaction = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        // 쓰기 트랜잭션은 항상 primary. 커밋되면 같은 세션의 이후 조회를 primary에 고정한다.
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !readOnlyTransaction) {
+            readYourWritesTracker.recordWriteOnCommit();
+            return Route.PRIMARY;
+        }
+
+        Route route = ROUTE.get();
+        boolean replicaRequested = route == Route.REPLICA || (route == null && readOnlyTransaction);
+        if (!replicaRequested || replicaDataSource == null)
+            return Route.PRIMARY;
+
+        if (!replicaAvailable) {
+            lagFallbackCounter.increment();
+            return Route.PRIMARY;
+        }
+        if (readYourWritesTracker.isPinned()) {
+            readYourWritesFallbackCounter.increment();
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("datasource.replica.fallback")
+                .description("Replica reads routed to the primary instead")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,9 @@
+package com.modernbank.customer.datasource;
+
+/**
+ * 조회를 보낼 커넥션 풀
+ */
+public enum Route {
+    PRIMARY,
+    REPLICA
+}
@@ -2,14 +2,15 @@ package com.modernbank.customer.publisher;
 
 import java.util.concurrent.CompletableFuture;
 
+import com.modernbank.customer.consistency.ConsistencyTokenTracker;
 import com.modernbank.customer.domain.entity.Customer;
 import com.modernbank.customer.exception.SystemException;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
@@ -18,18 +19,24 @@ public class CustomerProducer {
     private static final Logger LOGGER = LoggerFactory.getLogger(CustomerProducer.class);
 
     @Autowired
-    private KafkaTemplate<String, Customer> customerKafkaTemplate;
+    private KafkaTopicRouter kafkaTopicRouter;
+
+    @Autowired
+    private ConsistencyTokenTracker consistencyTokenTracker;
 
     @Value(value = "${creating.customer.topic.name}")
     private String creatingCustomerTopicName;
 
+    // 발행한 레코드의 오프셋을 요청의 일관성 토큰에 넣는다. (토큰은 트랜잭션 커밋 후에 담긴다)
     public void sendCreatingCustomerMessage(Customer customer) {
-        CompletableFuture<SendResult<String, Customer>> future = customerKafkaTemplate.send(creatingCustomerTopicName, customer);
+        ProducerRecord<String, Object> record = new ProducerRecord<>(creatingCustomerTopicName, customer.getCstmId(), customer);
+        CompletableFuture<SendResult<String, Object>> future = kafkaTopicRouter.send(record);
+        consistencyTokenTracker.recordOnCommit(creatingCustomerTopicName, customer.getCstmId(),
+                future.thenApply(result -> result.getRecordMetadata().offset()));
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
-                Customer g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getCstmId() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
+                LOGGER.info("Sent message=[" + result.getProducerRecord().key() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
             } else {
                 LOGGER.error("Unable to send message=[" + customer.getCstmId() + "] due to : " + ex.getMessage());
                 throw new SystemException("Kafka data transmission error");
@@ -0,0 +1,66 @@
+package com.modernbank.customer.publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.Resource;
+
+/**
+ * 토픽별로 Producer 프로파일(latency/throughput)을 골라 발행한다.
+ * kafka.producer.latency-topics에 없는 토픽은 throughput 프로파일로 보낸다.
+ * 파티션 내 순서를 보장하기 위해 모든 메시지는 키를 지정해서 보낸다.
+ * 모든 메시지에 원장 커밋 시각(committed-at, epoch ms) 헤더를 붙여 CQRS가 커밋부터 프로젝션 반영까지의 지연을 잰다.
+ * Outbox 릴레이는 기록 시각을 직접 넣고, 그 외에는 발행 시각으로 채운다.
+ */
+@Component
+public class KafkaTopicRouter {
+
+    public static final String COMMITTED_AT_HEADER = "committed-at";
+
+    @Resource(name = "latencyKafkaTemplate")
+    private KafkaTemplate<String, Object> latencyKafkaTemplate;
+
+    @Resource(name = "throughputKafkaTemplate")
+    private KafkaTemplate<String, Object> throughputKafkaTemplate;
+
+    private final Set<String> latencyTopics;
+
+    public KafkaTopicRouter(@Value("${kafka.producer.latency-topics:}") List<String> latencyTopics) {
+        this.latencyTopics = new HashSet<>(latencyTopics);
+    }
+
+    public KafkaTemplate<String, Object> templateFor(String topic) {
+        return latencyTopics.contains(topic) ? latencyKafkaTemplate : throughputKafkaTemplate;
+    }
+
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object value) {
+        return send(new ProducerRecord<>(topic, key, value));
+    }
+
+    public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> record) {
+        if (record.key() == null)
+            throw new IllegalArgumentException("Kafka message key is required: topic=" + record.topic());
+        if (record.headers().lastHeader(COMMITTED_AT_HEADER) == null)
+            stampCommittedAt(record, System.currentTimeMillis());
+        return templateFor(record.topic()).send(record);
+    }
+
+    public static void stampCommittedAt(ProducerRecord<String, Object> record, long epochMillis) {
+        record.headers().add(COMMITTED_AT_HEADER, Long.toString(epochMillis).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 배치 발행 후 모아둔 레코드를 바로 전송한다.
+    public void flush() {
+        latencyKafkaTemplate.flush();
+        throughputKafkaTemplate.flush();
+    }
+}
@@ -0,0 +1,77 @@
+package com.modernbank.customer.rest.account;
+
+import java.util.List;
+
+import com.modernbank.customer.bulkhead.DownstreamBulkheads;
+import com.modernbank.customer.exception.BusinessException;
+import com.modernbank.customer.hedging.RequestHedger;
+import com.modernbank.customer.rest.account.entity.Account;
+import com.modernbank.customer.security.CookieBaker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+
+/**
+ * Account Service 호출에 재시도와 서킷 브레이커를 적용한다.
+ * 어노테이션은 스프링 프록시를 거치는 public 메서드에만 적용되므로, 호출하는 서비스와 분리된 빈으로 둔다.
+ * 호출은 accountService bulkhead 풀에서 실행한다.
+ */
+@Service("accountComposite")
+public class AccountComposite {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AccountComposite.class);
+
+    private static final String ACCOUNT_SERVICE = "accountService";
+
+    @Value("${account.api.url}")
+    private String accountServiceUrl;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private DownstreamBulkheads downstreamBulkheads;
+
+    @CircuitBreaker(name = ACCOUNT_SERVICE)
+    @Retry(name = ACCOUNT_SERVICE, fallbackMethod = "fallbackGetAccountList")
+    public List<Account> getAccountList(String cstmId) {
+        HttpHeaders headers = CookieBaker.buildCookieHeader();
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        // 멱등 조회이므로 느린 응답에 헤지 호출을 보낼 수 있다. (호출은 대상 서비스별 bulkhead 풀에서 실행)
+        ResponseEntity<List<Account>> response = requestHedger.execute("account.list", () -> downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> restTemplate.exchange(
+            accountServiceUrl + "/customer/{cstmId}/accounts",
+            HttpMethod.GET,
+            requestEntity,
+            new ParameterizedTypeReference<List<Account>>() {},
+            cstmId
+        )));
+
+        List<Account> accountList = response.getBody();
+        if (accountList == null)
+            throw new BusinessException("A failure occurred when Customer Service attempted to retrieve account id by customer id(" + cstmId + ")  from Account Service Service using RESTful communication.");
+
+        return accountList;
+    }
+
+    private List<Account> fallbackGetAccountList(String cstmId, Exception e) {
+        LOGGER.error("Circuit breaker fallback: Failed to get account list for customer: " + cstmId, e);
+        // Return an empty list or a default account
+        return List.of();
+    }
+}
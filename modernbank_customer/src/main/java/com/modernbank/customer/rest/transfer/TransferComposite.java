@@ -0,0 +1,107 @@
+package com.modernbank.customer.rest.transfer;
+
+import com.modernbank.customer.bulkhead.DownstreamBulkheads;
+import com.modernbank.customer.exception.BusinessException;
+import com.modernbank.customer.exception.SystemException;
+import com.modernbank.customer.hedging.RequestHedger;
+import com.modernbank.customer.rest.transfer.entity.TransferLimit;
+import com.modernbank.customer.security.CookieBaker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+
+/**
+ * Transfer Service 호출에 재시도와 서킷 브레이커를 적용한다.
+ * 어노테이션은 스프링 프록시를 거치는 public 메서드에만 적용되므로, 호출하는 서비스와 분리된 빈으로 둔다.
+ * Retry가 CircuitBreaker 바깥에서 동작하므로 fallback은 Retry에 둔다. 호출은 transferService bulkhead 풀에서 실행한다.
+ * 쿠키 헤더는 요청 스레드에서 만들어 둔다. (풀 스레드에는 요청 속성이 없다)
+ */
+@Service("transferComposite")
+public class TransferComposite {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(TransferComposite.class);
+
+    private static final String TRANSFER_SERVICE = "transferService";
+
+    @Value("${transfer.api.url}")
+    private String transferServiceUrl;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private DownstreamBulkheads downstreamBulkheads;
+
+    @CircuitBreaker(name = TRANSFER_SERVICE)
+    @Retry(name = TRANSFER_SERVICE, fallbackMethod = "fallbackSetTransferLimits")
+    public void setTransferLimits(TransferLimit transferLimit) {
+        HttpEntity<TransferLimit> requestEntity = new HttpEntity<>(transferLimit, CookieBaker.buildCookieHeader());
+
+        downstreamBulkheads.execute(TRANSFER_SERVICE, () -> restTemplate.exchange(
+            transferServiceUrl + "/limits",
+            HttpMethod.POST,
+            requestEntity,
+            Integer.class
+        ));
+    }
+
+    @CircuitBreaker(name = TRANSFER_SERVICE)
+    @Retry(name = TRANSFER_SERVICE, fallbackMethod = "fallbackGetTransferLimits")
+    public TransferLimit getTransferLimits(String cstmId) {
+        HttpHeaders headers = CookieBaker.buildCookieHeader();
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+
+        // 멱등 조회이므로 느린 응답에 헤지 호출을 보낼 수 있다. (호출은 대상 서비스별 bulkhead 풀에서 실행)
+        ResponseEntity<TransferLimit> response = requestHedger.execute("transfer.limits", () -> downstreamBulkheads.execute(TRANSFER_SERVICE, () -> restTemplate.exchange(
+            transferServiceUrl + "/limits/{cstmId}",
+            HttpMethod.GET,
+            requestEntity,
+            TransferLimit.class,
+            cstmId
+        )));
+
+        TransferLimit transferLimit = response.getBody();
+        if (transferLimit == null)
+            throw new BusinessException("A failure occurred when Customer Service attempted to retrieve transfer limits from Transfer Service using RESTful communication.");
+
+        return transferLimit;
+    }
+
+    // 고객 등록은 한도 설정이 실패하면 취소되어야 하므로 예외를 그대로 던진다.
+    private void fallbackSetTransferLimits(TransferLimit transferLimit, Exception e) {
+        if (e instanceof BusinessException || e instanceof HttpClientErrorException)
+            throw (RuntimeException) e;
+        if (e instanceof BulkheadFullException)
+            throw new SystemException("Customer Service has too many calls to Transfer Service in progress. Please retry shortly.", HttpStatus.SERVICE_UNAVAILABLE);
+
+        LOGGER.error("Circuit breaker fallback: Failed to set transfer limits for customer: " + transferLimit.getCstmId(), e);
+        throw new SystemException("The following issue occurred while Customer Service was calling Transfer Service to set transfer limits.\n" + e.getMessage());
+    }
+
+    private TransferLimit fallbackGetTransferLimits(String cstmId, Exception e) {
+        LOGGER.error("Circuit breaker fallback: Failed to get transfer limits for customer: " + cstmId, e);
+        // Return default transfer limits
+        return TransferLimit.builder()
+            .cstmId(cstmId)
+            .oneDyTrnfLmt(100000000L)
+            .oneTmTrnfLmt(100000000L)
+            .build();
+    }
+}
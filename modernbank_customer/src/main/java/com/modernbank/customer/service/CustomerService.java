@@ -6,25 +6,19 @@ import com.modernbank.customer.domain.entity.Customer;
 import com.modernbank.customer.domain.repository.CustomerRepository;
 import com.modernbank.customer.exception.BusinessException;
 import com.modernbank.customer.publisher.CustomerProducer;
+import com.modernbank.customer.rest.account.AccountComposite;
 import com.modernbank.customer.rest.account.entity.Account;
+import com.modernbank.customer.rest.transfer.TransferComposite;
 import com.modernbank.customer.rest.transfer.entity.TransferLimit;
-import com.modernbank.customer.security.CookieBaker;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.Resource;
 
 @Service("customerService")
 public class CustomerService {
@@ -36,14 +30,11 @@ public class CustomerService {
     @Autowired
     CustomerProducer customerProducer;
 
-    @Autowired
-    RestTemplate restTemplate;
-
-    @Value("${transfer.api.url}")
-    private String transferServiceUrl;
+    @Resource(name = "transferComposite")
+    private TransferComposite transferComposite;
 
-    @Value("${account.api.url}")
-    private String accountServiceUrl;
+    @Resource(name = "accountComposite")
+    private AccountComposite accountComposite;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -71,30 +62,12 @@ public class CustomerService {
         return result;
     }
 
-    @CircuitBreaker(name = "transferService", fallbackMethod = "fallbackSetTransferLimits")
-    @Retry(name = "transferService", fallbackMethod = "fallbackSetTransferLimits")
     private void setTransferLimits(Customer customer) {
-        HttpHeaders headers = CookieBaker.buildCookieHeader();
-        HttpEntity<TransferLimit> requestEntity = new HttpEntity<>(
-            TransferLimit.builder()
-                .cstmId(customer.getCstmId())
-                .oneDyTrnfLmt(500000000L)
-                .oneTmTrnfLmt(500000000L)
-                .build(),
-            headers
-        );
-
-        restTemplate.exchange(
-            transferServiceUrl + "/limits",
-            HttpMethod.POST,
-            requestEntity,
-            Integer.class
-        );
-    }
-
-    private void fallbackSetTransferLimits(Customer customer, Exception e) {
-        logger.error("Circuit breaker fallback: Failed to set transfer limits for customer: " + customer.getCstmId(), e);
-        // Implement fallback logic here, e.g., set default limits or queue for later retry
+        transferComposite.setTransferLimits(TransferLimit.builder()
+            .cstmId(customer.getCstmId())
+            .oneDyTrnfLmt(500000000L)
+            .oneTmTrnfLmt(500000000L)
+            .build());
     }
 
     public Customer retrieveCustomer(String cstmId) throws Exception {
@@ -124,7 +97,7 @@ public class CustomerService {
             throw new BusinessException("Failed to retrieve customer data.");
 
         try {
-            TransferLimit transferLimit = getTransferLimits(cstmId);
+            TransferLimit transferLimit = transferComposite.getTransferLimits(cstmId);
             customer.setOneDyTrnfLmt(transferLimit.getOneDyTrnfLmt());
             customer.setOneTmTrnfLmt(transferLimit.getOneTmTrnfLmt());
         } catch (Exception e) {
@@ -133,7 +106,7 @@ public class CustomerService {
         }
 
         try {
-            List<Account> accountList = getAccountList(cstmId);
+            List<Account> accountList = accountComposite.getAccountList(cstmId);
             customer.addAllAccounts(accountList);
         } catch (Exception e) {
             logger.error("Failed to retrieve account list: " + e.getMessage());
@@ -143,64 +116,6 @@ public class CustomerService {
         return customer;
     }
 
-    @CircuitBreaker(name = "transferService", fallbackMethod = "fallbackGetTransferLimits")
-    @Retry(name = "transferService", fallbackMethod = "fallbackGetTransferLimits")
-    private TransferLimit getTransferLimits(String cstmId) {
-        HttpHeaders headers = CookieBaker.buildCookieHeader();
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-
-        ResponseEntity<TransferLimit> response = restTemplate.exchange(
-            transferServiceUrl + "/limits/{cstmId}",
-            HttpMethod.GET,
-            requestEntity,
-            TransferLimit.class,
-            cstmId
-        );
-
-        TransferLimit transferLimit = response.getBody();
-        if (transferLimit == null) 
-            throw new BusinessException("A failure occurred when Customer Service attempted to retrieve transfer limits from Transfer Service using RESTful communication.");
-
-        return transferLimit;
-    }
-
-    private TransferLimit fallbackGetTransferLimits(String cstmId, Exception e) {
-        logger.error("Circuit breaker fallback: Failed to get transfer limits for customer: " + cstmId, e);
-        // Return default transfer limits
-        return TransferLimit.builder()
-            .cstmId(cstmId)
-            .oneDyTrnfLmt(100000000L)
-            .oneTmTrnfLmt(100000000L)
-            .build();
-    }
-
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackGetAccountList")
-    @Retry(name = "accountService", fallbackMethod = "fallbackGetAccountList")
-    private List<Account> getAccountList(String cstmId) {
-        HttpHeaders headers = CookieBaker.buildCookieHeader();
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-
-        ResponseEntity<List<Account>> response = restTemplate.exchange(
-            accountServiceUrl + "/customer/{cstmId}/accounts",
-            HttpMethod.GET,
-            requestEntity,
-            new ParameterizedTypeReference<List<Account>>() {},
-            cstmId
-        );
-
-        List<Account> accountList = response.getBody();
-        if (accountList == null) 
-            throw new BusinessException("A failure occurred when Customer Service attempted to retrieve account id by customer id(" + cstmId + ")  from Account Service Service using RESTful communication.");
-
-        return accountList;
-    }
-
-    private List<Account> fallbackGetAccountList(String cstmId, Exception e) {
-        logger.error("Circuit breaker fallback: Failed to get account list for customer: " + cstmId, e);
-        // Return an empty list or a default account
-        return List.of();
-    }
-
     public boolean existsCustomerId(String cstmId) throws Exception {
         boolean ret = false;
         Customer customer = new Customer();
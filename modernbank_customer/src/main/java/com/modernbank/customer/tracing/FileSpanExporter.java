@@ -0,0 +1,108 @@
+package com.modernbank.customer.tracing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+import com.google.gson.Gson;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * 오프라인 분석용 span exporter. 끝난 span을 한 줄에 하나씩 JSON(NDJSON)으로 <tracing.export.dir>/<spring.application.name>.ndjson에 덧붙인다.
+ * tracing.export.dir(TRACING_EXPORT_DIR)이 비어 있으면 아무것도 쓰지 않는다.
+ * Transfer Service와 같은 디렉터리(공유 볼륨)에 쓰면 Transfer Service의 /actuator/traces/{traceId}가 이 서비스 구간까지 합쳐 임계 경로를 계산한다.
+ * 파일이 max-file-size-mb를 넘으면 .1로 옮기고 새로 쓴다. (백업은 하나만 둔다)
+ * SpanExporter 빈은 모두 BatchSpanProcessor에 연결되므로 OTLP exporter(management.otlp.tracing.endpoint)와 함께 쓸 수 있다.
+ */
+@Component
+public class FileSpanExporter implements SpanExporter {
+
+    private static final String SUFFIX = ".ndjson";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final Gson gson = new Gson();
+    private final Path dir;
+    private final Path file;
+    private final Path backup;
+    private final long maxFileBytes;
+
+    private BufferedWriter writer;
+
+    public FileSpanExporter(@Value("${tracing.export.dir:}") String dir,
+                            @Value("${tracing.export.max-file-size-mb:100}") long maxFileSizeMb,
+                            @Value("${spring.application.name}") String applicationName) {
+        this.dir = dir.isBlank() ? null : Paths.get(dir);
+        this.file = this.dir == null ? null : this.dir.resolve(applicationName + SUFFIX);
+        this.backup = this.dir == null ? null : this.dir.resolve(applicationName + SUFFIX + ".1");
+        this.maxFileBytes = maxFileSizeMb * 1024 * 1024;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (file == null)
+            return CompletableResultCode.ofSuccess();
+
+        try {
+            BufferedWriter out = writer();
+            for (SpanData span : spans) {
+                out.write(gson.toJson(RecordedSpan.from(span)));
+                out.newLine();
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write " + spans.size() + " spans to " + file + ": " + e.getMessage());
+            closeWriter();
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private BufferedWriter writer() throws IOException {
+        if (writer != null && Files.size(file) < maxFileBytes)
+            return writer;
+
+        closeWriter();
+        Files.createDirectories(dir);
+        if (Files.exists(file) && Files.size(file) >= maxFileBytes)
+            Files.move(file, backup, StandardCopyOption.REPLACE_EXISTING);
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return writer;
+    }
+
+    private void closeWriter() {
+        if (writer == null)
+            return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // 다음 export에서 다시 연다.
+        }
+        writer = null;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        closeWriter();
+        return CompletableResultCode.ofSuccess();
+    }
+}
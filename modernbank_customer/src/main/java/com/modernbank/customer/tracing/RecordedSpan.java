@@ -0,0 +1,53 @@
+package com.modernbank.customer.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 끝난 span 한 건. NDJSON 파일 한 줄과 같은 구조이다.
+ */
+@NoArgsConstructor
+@Data
+public class RecordedSpan {
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;      // null if root or parent unknown
+    private String service;           // spring.application.name of the recording service
+    private String name;
+    private String kind;              // SERVER, CLIENT, PRODUCER, CONSUMER, INTERNAL
+    private long startEpochNanos;
+    private long endEpochNanos;
+    private boolean error;
+    private Map<String, String> attributes;
+
+    public static RecordedSpan from(SpanData spanData) {
+        RecordedSpan span = new RecordedSpan();
+        span.traceId = spanData.getTraceId();
+        span.spanId = spanData.getSpanId();
+        span.parentSpanId = spanData.getParentSpanContext().isValid() ? spanData.getParentSpanId() : null;
+        span.service = spanData.getResource().getAttribute(SERVICE_NAME);
+        span.name = spanData.getName();
+        span.kind = spanData.getKind().name();
+        span.startEpochNanos = spanData.getStartEpochNanos();
+        span.endEpochNanos = spanData.getEndEpochNanos();
+        span.error = spanData.getStatus().getStatusCode() == StatusCode.ERROR;
+
+        Map<String, String> attributes = new LinkedHashMap<>();
+        spanData.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        span.attributes = attributes;
+        return span;
+    }
+
+    public long durationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.modernbank.product.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 기동 시간 단축: 요청 처리에 필요 없는 빈(API 문서화: springdoc, SwaggerConfig)은 처음 사용할 때 생성한다.
+ * startup.lazy-init.enabled=true 일 때만 적용된다 (Dockerfile.faststartup 이미지에서 켠다).
+ * 스케줄러, Kafka 리스너처럼 빈이 만들어져야 동작하는 것들이 빠지지 않도록 전체 지연 초기화
+ * (spring.main.lazy-initialization) 대신 startup.lazy-init.packages에 해당하는 빈만 지연시킨다.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor nonCriticalBeanLazyInitializer(Environment environment) {
+        return beanFactory -> {
+            if (!environment.getProperty("startup.lazy-init.enabled", Boolean.class, false))
+                return;
+
+            String[] packages = environment.getProperty("startup.lazy-init.packages", String[].class, new String[0]);
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                String beanClassName = declaringClassName(beanFactory, beanDefinition);
+                if (beanClassName == null)
+                    continue;
+
+                for (String prefix : packages) {
+                    if (beanClassName.startsWith(prefix.trim())) {
+                        beanDefinition.setLazyInit(true);
+                        break;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 빈 클래스 이름. @Bean 메소드로 등록된 빈은 메소드를 선언한 설정 클래스 이름을 쓴다.
+     */
+    private static String declaringClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition beanDefinition) {
+        String factoryBeanName = beanDefinition.getFactoryBeanName();
+        if (factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName))
+            return beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+        return beanDefinition.getBeanClassName();
+    }
+}
@@ -0,0 +1,462 @@
+package com.modernbank.transfer.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 이력 아카이브 파일 포맷 (컬럼 단위, gzip 압축).
+ *
+ * <pre>
+ * [MBCA][version]
+ * [row group 1] ... [row group n]   각 그룹은 독립적으로 gzip 압축된 컬럼 블록
+ * [footer][footer length:int][MBCA]
+ * </pre>
+ *
+ * 행은 첫 번째 컬럼(키: 계좌번호/고객ID) 순으로 정렬되어 들어와야 한다.
+ * footer에 그룹별 키 범위(min/max)를 기록하므로 조회 시 해당 키가 들어 있는 그룹만 읽어 푼다.
+ * 컬럼 블록은 null bitmap 뒤에 값을 이어 쓰며, 정수는 직전 값과의 차이를 zigzag varint로,
+ * 문자열은 직전 값과 같으면 0 한 바이트로 기록한다.
+ */
+public final class ColumnarArchive {
+
+    public enum ColumnType { STRING, INT, LONG, TIMESTAMP }
+
+    public static final String FILE_EXTENSION = ".mbca";
+
+    private static final byte[] MAGIC = { 'M', 'B', 'C', 'A' };
+    private static final byte VERSION = 1;
+
+    private static final Map<Path, Footer> FOOTER_CACHE = new ConcurrentHashMap<>();
+
+    private ColumnarArchive() {
+    }
+
+    public static final class Column {
+        private final String name;
+        private final ColumnType type;
+
+        public Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * 임시 파일에 쓰고 close 시점에 디스크에 동기화(fsync)한 뒤 대상 경로로 원자적으로 옮긴다.
+     * 중간에 실패하면 abort로 임시 파일을 지운다.
+     */
+    public static Writer writer(Path target, List<Column> columns, int rowGroupSize) throws IOException {
+        return new Writer(target, columns, rowGroupSize);
+    }
+
+    /**
+     * 키(첫 번째 컬럼)가 일치하는 행을 반환한다.
+     */
+    public static List<Object[]> read(Path file, String key) throws IOException {
+        Footer footer = footer(file);
+        List<Object[]> rows = new ArrayList<>();
+
+        // 키 범위에 드는 그룹이 없으면 파일을 열지 않는다.
+        List<RowGroup> groups = new ArrayList<>();
+        for (RowGroup group : footer.groups)
+            if (key.compareTo(group.minKey) >= 0 && key.compareTo(group.maxKey) <= 0)
+                groups.add(group);
+        if (groups.isEmpty())
+            return rows;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (RowGroup group : groups) {
+                ByteBuffer buffer = ByteBuffer.allocate(group.length);
+                readFully(channel, buffer, group.offset);
+                Object[][] columns = decodeGroup(footer.columns, buffer.array(), group.rowCount);
+
+                for (int row = 0; row < group.rowCount; row++) {
+                    if (!key.equals(columns[0][row]))
+                        continue;
+                    Object[] values = new Object[footer.columns.size()];
+                    for (int c = 0; c < values.length; c++)
+                        values[c] = columns[c][row];
+                    rows.add(values);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 모든 그룹을 읽어 풀어 보고 행 수를 반환한다. 원본을 지우기 전에 파일이 온전한지 확인하는 용도
+     */
+    public static long verify(Path file) throws IOException {
+        Footer footer = footer(file);
+        long rowCount = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (RowGroup group : footer.groups) {
+                ByteBuffer buffer = ByteBuffer.allocate(group.length);
+                readFully(channel, buffer, group.offset);
+                Object[][] columns = decodeGroup(footer.columns, buffer.array(), group.rowCount);
+                if (!group.minKey.equals(columns[0][0]) || !group.maxKey.equals(columns[0][group.rowCount - 1]))
+                    throw new IOException("Row group key range does not match footer: " + file);
+                rowCount += group.rowCount;
+            }
+        }
+        return rowCount;
+    }
+
+    public static long rowCount(Path file) throws IOException {
+        long rowCount = 0;
+        for (RowGroup group : footer(file).groups)
+            rowCount += group.rowCount;
+        return rowCount;
+    }
+
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final Path tempFile;
+        private final List<Column> columns;
+        private final int rowGroupSize;
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final List<Object[]> buffer;
+        private final List<RowGroup> groups = new ArrayList<>();
+        private long position;
+        private long rowCount;
+        private String lastKey;
+        private boolean closed;
+
+        private Writer(Path target, List<Column> columns, int rowGroupSize) throws IOException {
+            if (columns.isEmpty() || columns.get(0).getType() != ColumnType.STRING)
+                throw new IllegalArgumentException("First column must be a STRING key column");
+
+            Files.createDirectories(target.getParent());
+            this.target = target;
+            this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+            this.columns = columns;
+            this.rowGroupSize = rowGroupSize;
+            this.buffer = new ArrayList<>(rowGroupSize);
+            this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = Channels.newOutputStream(channel);
+
+            out.write(MAGIC);
+            out.write(VERSION);
+            position = MAGIC.length + 1;
+        }
+
+        public void append(Object[] row) throws IOException {
+            String key = (String) row[0];
+            if (key == null)
+                throw new IllegalArgumentException("Key column must not be null");
+            if (lastKey != null && key.compareTo(lastKey) < 0)
+                throw new IllegalArgumentException("Rows must be sorted by key: " + key + " after " + lastKey);
+
+            lastKey = key;
+            buffer.add(row);
+            rowCount++;
+            if (buffer.size() >= rowGroupSize)
+                flushGroup();
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        private void flushGroup() throws IOException {
+            if (buffer.isEmpty())
+                return;
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                DataOutputStream data = new DataOutputStream(gzip);
+                for (int c = 0; c < columns.size(); c++)
+                    encodeColumn(data, columns.get(c).getType(), buffer, c);
+                data.flush();
+            }
+
+            byte[] bytes = compressed.toByteArray();
+            out.write(bytes);
+            groups.add(new RowGroup(position, bytes.length, buffer.size(),
+                    (String) buffer.get(0)[0], (String) buffer.get(buffer.size() - 1)[0]));
+            position += bytes.length;
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+
+            try {
+                flushGroup();
+
+                ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+                DataOutputStream footer = new DataOutputStream(footerBytes);
+                footer.writeInt(columns.size());
+                for (Column column : columns) {
+                    footer.writeUTF(column.getName());
+                    footer.writeByte(column.getType().ordinal());
+                }
+                footer.writeInt(groups.size());
+                for (RowGroup group : groups) {
+                    footer.writeLong(group.offset);
+                    footer.writeInt(group.length);
+                    footer.writeInt(group.rowCount);
+                    footer.writeUTF(group.minKey);
+                    footer.writeUTF(group.maxKey);
+                }
+                footer.flush();
+
+                out.write(footerBytes.toByteArray());
+                DataOutputStream trailer = new DataOutputStream(out);
+                trailer.writeInt(footerBytes.size());
+                trailer.write(MAGIC);
+                trailer.flush();
+                channel.force(true);
+                out.close();
+
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                FOOTER_CACHE.remove(target);
+            } catch (IOException | RuntimeException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        public void abort() {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException ignore) {
+                // 임시 파일 정리가 목적이므로 무시한다.
+            }
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignore) {
+                // 다음 실행에서 덮어쓴다.
+            }
+        }
+    }
+
+    private static void encodeColumn(DataOutputStream out, ColumnType type, List<Object[]> rows, int column) throws IOException {
+        byte[] nulls = new byte[(rows.size() + 7) / 8];
+        for (int row = 0; row < rows.size(); row++)
+            if (rows.get(row)[column] == null)
+                nulls[row >>> 3] |= (byte) (1 << (row & 7));
+        out.write(nulls);
+
+        long previous = 0;
+        String previousString = null;
+        for (Object[] row : rows) {
+            Object value = row[column];
+            if (value == null)
+                continue;
+
+            switch (type) {
+                case STRING:
+                    String string = (String) value;
+                    if (string.equals(previousString)) {
+                        writeVarLong(out, 0);
+                    } else {
+                        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                        writeVarLong(out, bytes.length + 1L);
+                        out.write(bytes);
+                        previousString = string;
+                    }
+                    break;
+                case INT:
+                case LONG:
+                case TIMESTAMP:
+                    long number = toLong(type, value);
+                    writeVarLong(out, zigZag(number - previous));
+                    previous = number;
+                    break;
+            }
+        }
+    }
+
+    private static Object[][] decodeGroup(List<Column> columns, byte[] bytes, int rowCount) throws IOException {
+        Object[][] values = new Object[columns.size()][rowCount];
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            DataInputStream data = new DataInputStream(in);
+            for (int c = 0; c < columns.size(); c++) {
+                ColumnType type = columns.get(c).getType();
+                byte[] nulls = new byte[(rowCount + 7) / 8];
+                data.readFully(nulls);
+
+                long previous = 0;
+                String previousString = null;
+                for (int row = 0; row < rowCount; row++) {
+                    if ((nulls[row >>> 3] & (1 << (row & 7))) != 0)
+                        continue;
+
+                    switch (type) {
+                        case STRING:
+                            int length = (int) readVarLong(data);
+                            if (length > 0) {
+                                byte[] string = new byte[length - 1];
+                                data.readFully(string);
+                                previousString = new String(string, StandardCharsets.UTF_8);
+                            }
+                            values[c][row] = previousString;
+                            break;
+                        case INT:
+                        case LONG:
+                        case TIMESTAMP:
+                            previous += unZigZag(readVarLong(data));
+                            values[c][row] = fromLong(type, previous);
+                            break;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Footer footer(Path file) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        Footer cached = FOOTER_CACHE.get(file);
+        if (cached != null && cached.lastModified == lastModified)
+            return cached;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer trailer = ByteBuffer.allocate(4 + MAGIC.length);
+            readFully(channel, trailer, size - trailer.capacity());
+            int footerLength = trailer.getInt(0);
+            if (!Arrays.equals(Arrays.copyOfRange(trailer.array(), 4, 4 + MAGIC.length), MAGIC))
+                throw new IOException("Not an archive file: " + file);
+
+            ByteBuffer footerBytes = ByteBuffer.allocate(footerLength);
+            readFully(channel, footerBytes, size - trailer.capacity() - footerLength);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(footerBytes.array()));
+
+            int columnCount = in.readInt();
+            List<Column> columns = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++)
+                columns.add(new Column(in.readUTF(), ColumnType.values()[in.readByte()]));
+
+            int groupCount = in.readInt();
+            List<RowGroup> groups = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++)
+                groups.add(new RowGroup(in.readLong(), in.readInt(), in.readInt(), in.readUTF(), in.readUTF()));
+
+            Footer footer = new Footer(lastModified, Collections.unmodifiableList(columns), Collections.unmodifiableList(groups));
+            FOOTER_CACHE.put(file, footer);
+            return footer;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new EOFException();
+        }
+    }
+
+    private static long toLong(ColumnType type, Object value) {
+        if (type == ColumnType.TIMESTAMP)
+            return ((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC);
+        return ((Number) value).longValue();
+    }
+
+    private static Object fromLong(ColumnType type, long value) {
+        switch (type) {
+            case INT:
+                return (int) value;
+            case TIMESTAMP:
+                return LocalDateTime.ofEpochSecond(value, 0, ZoneOffset.UTC);
+            default:
+                return value;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static final class RowGroup {
+        private final long offset;
+        private final int length;
+        private final int rowCount;
+        private final String minKey;
+        private final String maxKey;
+
+        private RowGroup(long offset, int length, int rowCount, String minKey, String maxKey) {
+            this.offset = offset;
+            this.length = length;
+            this.rowCount = rowCount;
+            this.minKey = Objects.requireNonNull(minKey);
+            this.maxKey = Objects.requireNonNull(maxKey);
+        }
+    }
+
+    private static final class Footer {
+        private final long lastModified;
+        private final List<Column> columns;
+        private final List<RowGroup> groups;
+
+        private Footer(long lastModified, List<Column> columns, List<RowGroup> groups) {
+            this.lastModified = lastModified;
+            this.columns = columns;
+            this.groups = groups;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.modernbank.transfer.archive;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.modernbank.transfer.datasource.DataSourceRoute;
+import com.modernbank.transfer.datasource.Route;
+import com.modernbank.transfer.domain.entity.TransferHistory;
+import com.modernbank.transfer.domain.repository.TransferHistoryPartitionRepository;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * TB_TRNF_HST 월 파티션(TB_TRNF_HST_YYYYMM)의 생성/분리를 트랜잭션 단위로 수행한다.
+ * 여러 인스턴스 중 advisory lock을 잡은 하나만 파티션 구조를 바꾼다.
+ */
+@Component
+public class TransferHistoryPartitionManager {
+
+    public static final DateTimeFormatter TRNF_DTM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("TB_TRNF_HST_(\\d{6})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final Logger LOGGER = LoggerFactory.getLogger(TransferHistoryPartitionManager.class);
+
+    @Autowired
+    TransferHistoryPartitionRepository partitionRepository;
+
+    @Value("${history.archive.lock-id:7102}")
+    private long lockId;
+
+    public static String partitionName(YearMonth month) {
+        return "TB_TRNF_HST_" + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * 없는 월 파티션을 만든다. 기본 파티션에 먼저 들어간 해당 월 이체는 새 파티션으로 옮긴다.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void createPartitions(List<YearMonth> months) throws Exception {
+        if (!partitionRepository.tryHistoryArchiveLock(lockId))
+            return;
+
+        List<String> existing = partitionRepository.selectPartitionNameList();
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth month : months)
+            if (!existing.contains(partitionName(month)))
+                missing.add(month);
+        if (missing.isEmpty())
+            return;
+
+        partitionRepository.detachDefaultPartition();
+        for (YearMonth month : missing) {
+            String fromDtm = month.atDay(1).atStartOfDay().format(TRNF_DTM_FORMAT);
+            String toDtm = month.plusMonths(1).atDay(1).atStartOfDay().format(TRNF_DTM_FORMAT);
+
+            partitionRepository.createPartition(partitionName(month), fromDtm, toDtm);
+            partitionRepository.createPartitionSeqIndex(partitionName(month));
+            int moved = partitionRepository.insertPartitionRowsFromDefault(partitionName(month), fromDtm, toDtm);
+            partitionRepository.deleteDefaultPartitionRows(fromDtm, toDtm);
+            LOGGER.info("Created transfer history partition [" + partitionName(month) + "], moved " + moved + " rows from default partition");
+        }
+        partitionRepository.attachDefaultPartition();
+    }
+
+    /**
+     * 기준 월보다 이전의 월 파티션을 오래된 순으로 반환한다.
+     */
+    @DataSourceRoute(Route.PRIMARY)
+    @Transactional(readOnly = true)
+    public List<YearMonth> selectClosedPartitionMonths(YearMonth before) throws Exception {
+        List<YearMonth> months = new ArrayList<>();
+        for (String partitionNm : partitionRepository.selectPartitionNameList()) {
+            Matcher matcher = PARTITION_NAME.matcher(partitionNm);
+            if (!matcher.matches())
+                continue;
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_SUFFIX);
+            if (month.isBefore(before))
+                months.add(month);
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * 파티션 전체를 고객ID, 순번 순으로 아카이브 파일에 쓴다.
+     * 삭제 단계에서 primary의 행 수와 비교하므로 복제본이 아닌 primary에서 읽는다.
+     *
+     * @return 기록한 행 수와 그 시점의 처리 중(0) 이체 수
+     */
+    @DataSourceRoute(Route.PRIMARY)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ, rollbackFor = Exception.class)
+    public PartitionSnapshot exportPartition(YearMonth month, ColumnarArchive.Writer writer) throws Exception {
+        String partitionNm = partitionName(month);
+        long pendingCount = partitionRepository.selectPartitionPendingCount(partitionNm);
+
+        try (Cursor<TransferHistory> cursor = partitionRepository.selectPartitionTransferHistoryCursor(partitionNm)) {
+            for (TransferHistory history : cursor) {
+                writer.append(new Object[] {
+                        history.getCstmId(), history.getSeq(), history.getDivCd(), history.getStsCd(),
+                        history.getDpstAcntNo(), history.getWthdAcntNo(), history.getSndMm(), history.getRcvMm(),
+                        history.getRcvCstmNm(), history.getTrnfAmt(),
+                        LocalDateTime.parse(history.getTrnfDtm(), TRNF_DTM_FORMAT) });
+            }
+        }
+        return new PartitionSnapshot(writer.getRowCount(), pendingCount);
+    }
+
+    /**
+     * 아카이브가 끝난 파티션을 떼어내고, 운영 테이블에 남겨야 하는 행을 기본 파티션으로 옮긴 뒤 삭제한다.
+     * 떼어낸 파티션의 (고객ID, 순번)이 다른 파티션에도 있으면 롤백한다. 조회는 순번으로 합치므로 그대로 지우면 한쪽이 가려진다.
+     * 아카이브 이후 파티션 내용이 바뀌었으면(행 수, 처리 중 이체 수) 롤백하고 다음 주기에 다시 아카이브한다.
+     *
+     * @return 다른 인스턴스가 파티션을 관리 중이면 false
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean dropArchivedPartition(YearMonth month, PartitionSnapshot snapshot) throws Exception {
+        if (!partitionRepository.tryHistoryArchiveLock(lockId))
+            return false;
+
+        String partitionNm = partitionName(month);
+        partitionRepository.detachPartition(partitionNm);
+
+        if (partitionRepository.selectPartitionRowCount(partitionNm) != snapshot.getRowCount()
+                || partitionRepository.selectPartitionPendingCount(partitionNm) != snapshot.getPendingCount()) {
+            throw new IllegalStateException("Partition [" + partitionNm + "] changed while being archived");
+        }
+        long conflicts = partitionRepository.selectPartitionSeqConflictCount(partitionNm);
+        if (conflicts > 0)
+            throw new IllegalStateException("Partition [" + partitionNm + "] has " + conflicts + " rows whose sequence also exists in another partition");
+
+        int carried = partitionRepository.insertCarryOverRows(partitionNm);
+        partitionRepository.dropPartition(partitionNm);
+        LOGGER.info("Dropped archived partition [" + partitionNm + "], " + snapshot.getRowCount() + " rows archived, " + carried + " rows carried over");
+        return true;
+    }
+
+    public static class PartitionSnapshot {
+        private final long rowCount;
+        private final long pendingCount;
+
+        public PartitionSnapshot(long rowCount, long pendingCount) {
+            this.rowCount = rowCount;
+            this.pendingCount = pendingCount;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getPendingCount() {
+            return pendingCount;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.modernbank.transfer.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * 바이너리 전환 기간 동안 두 형식을 모두 읽는 Deserializer.
+ * 첫 바이트가 0x00이면 스키마 기반 바이너리로, 아니면 기존 JSON으로 읽는다.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+    private final Class<T> type;
+    private final EventCodec eventCodec;
+    private final JsonDeserializer<T> jsonDeserializer;
+
+    public EventDeserializer(Class<T> type, EventCodec eventCodec) {
+        this.type = type;
+        this.eventCodec = eventCodec;
+        this.jsonDeserializer = new JsonDeserializer<>(type, false);
+        eventCodec.registerReaderType(type);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null)
+            return null;
+        if (EventCodec.isEncoded(data))
+            return eventCodec.decode(data, type);
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,143 @@
+package com.modernbank.transfer.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 파일 기반 스키마 레지스트리 (로컬 실행용 스키마 레지스트리 대용).
+ * - schemas/{fingerprint}.schema : 스키마 정규형
+ * - subjects/{topic}.versions    : 토픽에 등록된 스키마 ID 목록 (추가만 가능)
+ * 여러 서비스가 같은 디렉터리(event.schema.registry.dir)를 공유해야 다른 서비스가 쓴 스키마를 읽을 수 있다.
+ * 새 버전은 해당 토픽의 모든 이전 버전과 호환될 때만 등록된다.
+ */
+@Component
+public class SchemaRegistry {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(SchemaRegistry.class);
+
+    private final Path schemaDir;
+    private final Path subjectDir;
+
+    private final Map<Long, EventSchema> schemasById = new ConcurrentHashMap<>();
+    private final Set<String> registrations = ConcurrentHashMap.newKeySet();
+
+    public SchemaRegistry(@Value("${event.schema.registry.dir:${java.io.tmpdir}/modernbank-schema-registry}") String registryDir) throws IOException {
+        this.schemaDir = Paths.get(registryDir, "schemas");
+        this.subjectDir = Paths.get(registryDir, "subjects");
+        Files.createDirectories(schemaDir);
+        Files.createDirectories(subjectDir);
+    }
+
+    /**
+     * 토픽(subject)에 스키마를 등록하고 스키마 ID를 반환한다.
+     * @throws IllegalStateException 이전 버전과 호환되지 않는 경우
+     */
+    public long register(String subject, EventSchema schema) {
+        long id = schema.getFingerprint();
+        String registration = subject + ":" + id;
+        if (registrations.contains(registration))
+            return id;
+
+        synchronized (this) {
+            if (registrations.contains(registration))
+                return id;
+
+            try {
+                store(schema);
+
+                // 다른 프로세스와 동시에 등록하지 않도록 파일 잠금을 잡고 검사 후 추가한다.
+                try (FileChannel channel = FileChannel.open(subjectDir.resolve(subject + ".versions"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                     FileLock lock = channel.lock()) {
+                    List<Long> versions = readVersions(channel);
+                    if (!versions.contains(id)) {
+                        for (long version : versions) {
+                            List<String> incompatibilities = schema.incompatibilities(lookup(version));
+                            if (!incompatibilities.isEmpty())
+                                throw new IllegalStateException("Schema " + schema + " is not compatible with version " + Long.toHexString(version)
+                                        + " of subject " + subject + ": " + incompatibilities);
+                        }
+                        channel.write(ByteBuffer.wrap((Long.toHexString(id) + "\n").getBytes(StandardCharsets.UTF_8)), channel.size());
+                        LOGGER.info("Registered schema [" + Long.toHexString(id) + "] " + schema + " for subject [" + subject + "]");
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to register schema for subject " + subject, e);
+            }
+
+            registrations.add(registration);
+        }
+        return id;
+    }
+
+    /**
+     * 스키마를 토픽과 무관하게 저장한다. (Consumer가 자신이 읽을 타입의 스키마를 미리 알려 둘 때 사용)
+     */
+    public void store(EventSchema schema) throws IOException {
+        long id = schema.getFingerprint();
+        if (schemasById.containsKey(id))
+            return;
+
+        Path schemaFile = schemaDir.resolve(Long.toHexString(id) + ".schema");
+        if (!Files.exists(schemaFile)) {
+            Path tempFile = Files.createTempFile(schemaDir, "schema-", ".tmp");
+            Files.writeString(tempFile, schema.getCanonicalForm(), StandardCharsets.UTF_8);
+            Files.move(tempFile, schemaFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        schemasById.put(id, schema);
+    }
+
+    public EventSchema lookup(long id) {
+        EventSchema schema = schemasById.get(id);
+        if (schema != null)
+            return schema;
+
+        Path schemaFile = schemaDir.resolve(Long.toHexString(id) + ".schema");
+        try {
+            if (!Files.exists(schemaFile))
+                throw new IllegalStateException("Unknown event schema: " + Long.toHexString(id));
+
+            schema = EventSchema.parse(Files.readString(schemaFile, StandardCharsets.UTF_8));
+            if (schema.getFingerprint() != id)
+                throw new IllegalStateException("Corrupted event schema file: " + schemaFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read event schema: " + Long.toHexString(id), e);
+        }
+
+        schemasById.put(id, schema);
+        return schema;
+    }
+
+    private List<Long> readVersions(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0)
+                break;
+        }
+
+        List<Long> versions = new ArrayList<>();
+        for (String line : new String(buffer.array(), StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank())
+                versions.add(Long.parseUnsignedLong(line.trim(), 16));
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,25 @@
+package com.modernbank.transfer.concurrency;
+
+/**
+ * 과부하 시 요청을 받는 순서.
+ * 각 등급은 동시 처리 한도(limit)의 admissionShare 비율까지만 받으므로, 한도에 가까워지면 LOW부터 거절된다.
+ */
+public enum Priority {
+
+    // 원장 쓰기(입출금, 이체): 한도 전체를 쓸 수 있다.
+    CRITICAL(1.0),
+    // 일반 조회와 등록
+    NORMAL(0.9),
+    // 이력/목록 조회, 내보내기: 가장 먼저 거절된다.
+    LOW(0.7);
+
+    private final double admissionShare;
+
+    Priority(double admissionShare) {
+        this.admissionShare = admissionShare;
+    }
+
+    public double getAdmissionShare() {
+        return admissionShare;
+    }
+}
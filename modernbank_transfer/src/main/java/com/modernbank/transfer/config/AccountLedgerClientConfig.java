@@ -0,0 +1,27 @@
+package com.modernbank.transfer.config;
+
+import com.modernbank.transfer.rest.account.AccountLedgerClient;
+import com.modernbank.transfer.rest.account.GrpcAccountLedgerClient;
+import com.modernbank.transfer.rest.account.RestAccountLedgerClient;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AccountLedgerClientConfig {
+
+    // 전송 방식은 실행 시점 값으로 고른다. @ConditionalOnProperty는 AOT 빌드(-PfastStartup)에서 빌드 시점 값으로 고정되어 ACCOUNT_LEDGER_TRANSPORT가 무시된다.
+    @Bean
+    public AccountLedgerClient accountLedgerClient(@Value("${account.ledger.transport:rest}") String transport, AutowireCapableBeanFactory beanFactory) {
+        switch (transport) {
+            case "rest":
+                return beanFactory.createBean(RestAccountLedgerClient.class);
+            case "grpc":
+                return beanFactory.createBean(GrpcAccountLedgerClient.class);
+            default:
+                throw new IllegalStateException("Unknown account.ledger.transport: " + transport + " (rest or grpc)");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.modernbank.transfer.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class BulkTransferConfig {
+
+    @Value("${transfer.bulk.executor.pool-size:2}")
+    private int poolSize;
+
+    @Value("${transfer.bulk.executor.queue-capacity:20}")
+    private int queueCapacity;
+
+    // 대량 이체 배치 처리용. 대기열이 가득 차면 접수를 거절한다.
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor bulkTransferExecutor() {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("bulk-transfer-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
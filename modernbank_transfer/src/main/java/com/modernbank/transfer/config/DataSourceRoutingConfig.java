@@ -0,0 +1,61 @@
+package com.modernbank.transfer.config;
+
+import javax.sql.DataSource;
+
+import com.modernbank.transfer.datasource.ReadYourWritesTracker;
+import com.modernbank.transfer.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * primary / 복제본 커넥션 풀 구성.
+ * MyBatis와 트랜잭션 매니저는 @Primary인 LazyConnectionDataSourceProxy를 쓰고,
+ * 실제 커넥션은 첫 구문 실행 시점에 ReplicaRoutingDataSource가 고른 풀에서 얻는다.
+ * datasource.replica.url이 비어 있으면 모든 조회가 primary로 간다.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Value("${datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${datasource.replica.maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+            ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        HikariDataSource replicaDataSource = null;
+        if (StringUtils.hasText(replicaUrl)) {
+            replicaDataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(replicaUrl).build();
+            replicaDataSource.setPoolName(primaryDataSource.getPoolName() + "-replica");
+            replicaDataSource.setMaximumPoolSize(replicaMaximumPoolSize);
+            replicaDataSource.setReadOnly(true);
+            replicaDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, readYourWritesTracker, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,21 @@
+package com.modernbank.transfer.config;
+
+import com.modernbank.transfer.deadline.DeadlineFilter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class DeadlineConfig {
+
+    // 기한이 지난 요청은 멱등 키 선점이나 다른 처리 전에 거절하도록 가장 먼저 실행한다.
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(@Value("${deadline.default-budget-ms:0}") long defaultBudgetMs) {
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(new DeadlineFilter(defaultBudgetMs));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
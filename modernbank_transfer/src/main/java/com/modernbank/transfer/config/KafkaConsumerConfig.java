@@ -2,11 +2,15 @@ package com.modernbank.transfer.config;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
+import com.modernbank.transfer.codec.EventCodec;
+import com.modernbank.transfer.codec.EventDeserializer;
 import com.modernbank.transfer.domain.entity.TransferHistory;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,7 +21,6 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
 import org.springframework.kafka.listener.DefaultErrorHandler;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 
 @EnableKafka
@@ -27,6 +30,13 @@ public class KafkaConsumerConfig {
     @Value(value = "${kafka.bootstrapAddress}")
     private String bootstrapAddress;
 
+    // 바이너리/JSON 겸용 역직렬화 (스키마 기반 바이너리 전환 기간 동안 두 형식을 모두 읽는다)
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Value(value = "${b2b.transfer.result.listener.concurrency:3}")
+    private int b2bTransferResultListenerConcurrency;
+
     public ConsumerFactory<String, TransferHistory> b2bTransferResultConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
@@ -35,14 +45,18 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,"false");
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(TransferHistory.class, false));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(TransferHistory.class, eventCodec));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TransferHistory> b2bTransferResultKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, TransferHistory> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(b2bTransferResultConsumerFactory());
+        // 파티션 단위로 병렬 처리 (출금 계좌번호 키로 파티셔닝되므로 계좌별 순서는 보장된다)
+        factory.setConcurrency(b2bTransferResultListenerConcurrency);
         factory.getContainerProperties().setAckMode(AckMode.MANUAL_IMMEDIATE);
+        // 레코드 헤더(traceparent)의 트레이스를 이어받아 consumer span 안에서 처리한다.
+        factory.getContainerProperties().setObservationEnabled(true);
         
         // Set up new error handler
         CommonErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 2));
@@ -50,5 +64,28 @@ public class KafkaConsumerConfig {
         
         return factory;
     }
+
+    public ConsumerFactory<String, TransferHistory> transferVelocityConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        // 인스턴스마다 transfer 토픽의 모든 파티션을 읽어야 하므로 그룹을 공유하지 않는다.
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "transfer-velocity-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(TransferHistory.class, eventCodec));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransferHistory> transferVelocityKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TransferHistory> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(transferVelocityConsumerFactory());
+        // 리스너가 ack 하지 않으므로 오프셋을 커밋하지 않는다. (시작할 때마다 window 전 시각부터 다시 읽는다)
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        // 속도 검사용 재생이므로 처리하지 못한 레코드는 재시도 없이 건너뛴다.
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0)));
+
+        return factory;
+    }
     
 }
\ No newline at end of file
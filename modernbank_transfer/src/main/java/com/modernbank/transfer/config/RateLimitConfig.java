@@ -0,0 +1,22 @@
+package com.modernbank.transfer.config;
+
+import com.modernbank.transfer.ratelimit.CustomerRateLimitFilter;
+import com.modernbank.transfer.ratelimit.CustomerRateLimiter;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class RateLimitConfig {
+
+    // IdempotencyFilter(기본 순서 LOWEST_PRECEDENCE) 바로 앞에서 실행해, 거절된 요청이 멱등 키를 선점하지 않게 한다.
+    @Bean
+    public FilterRegistrationBean<CustomerRateLimitFilter> customerRateLimitFilter(CustomerRateLimiter customerRateLimiter) {
+        FilterRegistrationBean<CustomerRateLimitFilter> registration = new FilterRegistrationBean<>(new CustomerRateLimitFilter(customerRateLimiter));
+        registration.addUrlPatterns("/internal", "/external");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
@@ -1,13 +1,58 @@
 package com.modernbank.transfer.config;
 
+import com.modernbank.transfer.consistency.ConsistencyToken;
+import com.modernbank.transfer.consistency.ConsistencyTokenTracker;
+import com.modernbank.transfer.deadline.DeadlineRequestFactory;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class RestTemplateConfig {
+
+    // Account Service 호출은 Idempotency-Key로 중복 반영이 막히므로 짧은 타임아웃 후 재시도한다.
+    @Primary
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    } 
+    public RestTemplate restTemplate(ObservationRegistry observationRegistry, ConsistencyTokenTracker consistencyTokenTracker,
+                                     @Value("${rest.client.connect-timeout-ms:1000}") int connectTimeout,
+                                     @Value("${rest.client.read-timeout-ms:2000}") int readTimeout) {
+        return observed(requestFactory(connectTimeout, readTimeout), observationRegistry, consistencyTokenTracker);
+    }
+
+    // 대량 이체의 일괄 출금 요청은 청크 단위 처리 시간이 길어 별도 타임아웃을 쓴다.
+    @Bean
+    public RestTemplate bulkRestTemplate(ObservationRegistry observationRegistry, ConsistencyTokenTracker consistencyTokenTracker,
+                                         @Value("${rest.client.connect-timeout-ms:1000}") int connectTimeout,
+                                         @Value("${rest.client.bulk-read-timeout-ms:30000}") int readTimeout) {
+        return observed(requestFactory(connectTimeout, readTimeout), observationRegistry, consistencyTokenTracker);
+    }
+
+    // 호출마다 client span을 만들고 traceparent 헤더로 트레이스 컨텍스트를 넘긴다.
+    // 응답의 일관성 토큰(Account Service가 커밋한 잔액 이벤트)은 요청의 토큰에 합친다.
+    private static RestTemplate observed(SimpleClientHttpRequestFactory requestFactory, ObservationRegistry observationRegistry,
+                                         ConsistencyTokenTracker consistencyTokenTracker) {
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setObservationRegistry(observationRegistry);
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            ClientHttpResponse response = execution.execute(request, body);
+            consistencyTokenTracker.merge(response.getHeaders().getFirst(ConsistencyToken.HEADER));
+            return response;
+        });
+        return restTemplate;
+    }
+
+    // 요청 기한(Deadline)이 있으면 타임아웃을 남은 시간으로 줄이고 X-Request-Timeout-Ms 헤더로 넘긴다.
+    private SimpleClientHttpRequestFactory requestFactory(int connectTimeout, int readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new DeadlineRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
 }
@@ -0,0 +1,29 @@
+package com.modernbank.transfer.config;
+
+import com.modernbank.transfer.tracing.TraceIdFilter;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.Tracer;
+
+@Configuration
+public class TracingConfig {
+
+    // 주기 실행(outbox 릴레이 등)마다 새 트레이스가 생기지 않게 한다. 릴레이는 기록 시점의 트레이스를 이어서 발행한다.
+    @Bean
+    public ObservationPredicate skipScheduledTaskObservations() {
+        return (name, context) -> !"tasks.scheduled.execution".equals(name);
+    }
+
+    // 서버 요청 span을 여는 ServerHttpObservationFilter(HIGHEST_PRECEDENCE + 1) 다음에 실행한다.
+    @Bean
+    public FilterRegistrationBean<TraceIdFilter> traceIdFilter(Tracer tracer) {
+        FilterRegistrationBean<TraceIdFilter> registration = new FilterRegistrationBean<>(new TraceIdFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,77 @@
+package com.modernbank.transfer.consistency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 읽기 일관성 토큰 (X-Consistency-Token).
+ * 요청이 커밋한 이벤트의 (토픽, 키)별 위치를 담는다. 위치는 Outbox 순번(EVNT_SEQ)이며 Kafka 레코드의 outbox-seq 헤더와 같다.
+ * Outbox 릴레이는 빈 순번을 건너뛰지 않고 순번 순서대로 발행하므로, 같은 키의 이벤트는 파티션에 순번이 커지는 순서로 들어간다.
+ * 그래서 CQRS는 같은 키에서 이 순번 이상의 이벤트까지 반영했는지로 읽기 가능 여부를 판단한다. (쓰는 인스턴스의 시계와 무관)
+ * 오프셋 대신 순번을 쓰는 이유는 Outbox 릴레이가 응답 이후에 발행하여 응답 시점에는 오프셋이 정해지지 않기 때문이다.
+ * 인코딩: "토픽\t키\t위치" 줄들을 URL-safe Base64로 묶는다.
+ */
+public class ConsistencyToken {
+
+    public static final String HEADER = "X-Consistency-Token";
+
+    // 이보다 많은 이벤트를 커밋한 요청(대량 거래)은 토큰을 돌려주지 않는다. (헤더 크기 제한)
+    static final int MAX_ENTRIES = 100;
+
+    private final Map<String, Long> positions = new LinkedHashMap<>();
+
+    // 일부 이벤트를 담지 못한 토큰은 일관성을 보장할 수 없으므로 돌려주지 않는다.
+    private boolean incomplete;
+
+    public synchronized void add(String topic, String key, Long position) {
+        if (incomplete)
+            return;
+        if (key == null || position == null || !encodable(topic) || !encodable(key)) {
+            incomplete = true;
+            return;
+        }
+        positions.merge(topic + '\t' + key, position, Math::max);
+        if (positions.size() > MAX_ENTRIES) {
+            incomplete = true;
+            positions.clear();
+        }
+    }
+
+    // 하위 서비스(Account Service 등)가 돌려준 토큰을 합친다. 읽을 수 없는 토큰이면 이 토큰도 불완전해진다.
+    public synchronized void merge(String encoded) {
+        if (encoded == null || encoded.isEmpty())
+            return;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            for (String line : decoded.split("\n")) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3)
+                    throw new IllegalArgumentException("Malformed consistency token entry");
+                add(fields[0], fields[1], Long.parseLong(fields[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            incomplete = true;
+            positions.clear();
+        }
+    }
+
+    // 담긴 이벤트가 없거나 불완전하면 null
+    public synchronized String encode() {
+        if (incomplete || positions.isEmpty())
+            return null;
+
+        StringBuilder lines = new StringBuilder();
+        positions.forEach((topicKey, position) -> {
+            if (lines.length() > 0)
+                lines.append('\n');
+            lines.append(topicKey).append('\t').append(position);
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean encodable(String value) {
+        return value.indexOf('\t') < 0 && value.indexOf('\n') < 0;
+    }
+}
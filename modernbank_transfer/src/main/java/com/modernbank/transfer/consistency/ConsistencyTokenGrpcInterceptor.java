@@ -0,0 +1,47 @@
+package com.modernbank.transfer.consistency;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Account Service가 gRPC 응답 trailer(x-consistency-token)로 돌려준 토큰을 호출한 요청의 토큰에 합친다.
+ * trailer는 gRPC 스레드에서 도착하므로 호출을 시작할 때 요청의 토큰을 잡아 둔다.
+ */
+public class ConsistencyTokenGrpcInterceptor implements ClientInterceptor {
+
+    static final Metadata.Key<String> TOKEN_KEY = Metadata.Key.of("x-consistency-token", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ConsistencyTokenTracker consistencyTokenTracker;
+
+    public ConsistencyTokenGrpcInterceptor(ConsistencyTokenTracker consistencyTokenTracker) {
+        this.consistencyTokenTracker = consistencyTokenTracker;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        ConsistencyToken token = consistencyTokenTracker.current();
+        ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+        if (token == null)
+            return call;
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        token.merge(trailers.get(TOKEN_KEY));
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
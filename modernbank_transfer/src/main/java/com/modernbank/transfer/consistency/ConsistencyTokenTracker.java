@@ -0,0 +1,110 @@
+package com.modernbank.transfer.consistency;
+
+import java.util.List;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 쓰기 요청이 커밋한 이벤트를 ConsistencyToken으로 모아 응답 헤더(X-Consistency-Token)로 돌려준다.
+ * 클라이언트가 이 토큰을 CQRS 조회에 넘기면 프로젝션이 해당 이벤트를 반영할 때까지 잠시 기다렸다가 읽는다. (폴링 불필요)
+ * - 이벤트는 트랜잭션이 커밋된 뒤에만 토큰에 담는다.
+ * - Account Service가 REST 응답 헤더/gRPC trailer로 돌려준 토큰(출금/입금 잔액 이벤트)도 합친다.
+ * - 토큰은 요청 속성에 둔다. bulkhead/헤지 스레드는 요청 속성을 넘겨받지 않으므로, 제출 전에 current()로 꺼낸 토큰을
+ *   풀 스레드에 bind()해 Account Service 응답의 토큰도 같은 요청의 토큰에 모은다.
+ */
+@ControllerAdvice
+public class ConsistencyTokenTracker implements ResponseBodyAdvice<Object> {
+
+    private static final String REQUEST_ATTRIBUTE = ConsistencyTokenTracker.class.getName() + ".TOKEN";
+
+    private final ThreadLocal<ConsistencyToken> boundToken = new ThreadLocal<>();
+
+    /**
+     * 현재 트랜잭션이 커밋되면 이벤트들을 요청의 토큰에 담는다. (웹 요청이 아니면 무시)
+     */
+    public void recordOnCommit(String topic, List<String> keys, List<Long> positions) {
+        ConsistencyToken token = current();
+        if (token == null)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(token, topic, keys, positions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(token, topic, keys, positions);
+            }
+        });
+    }
+
+    private static void add(ConsistencyToken token, String topic, List<String> keys, List<Long> positions) {
+        for (int i = 0; i < keys.size(); i++)
+            token.add(topic, keys.get(i), positions.get(i));
+    }
+
+    // 하위 서비스 응답의 토큰을 요청의 토큰에 합친다.
+    public void merge(String encoded) {
+        ConsistencyToken token = current();
+        if (token != null)
+            token.merge(encoded);
+    }
+
+    // 풀 스레드에서 실행하는 동안 요청 스레드의 토큰을 쓰게 한다.
+    public void bind(ConsistencyToken token) {
+        if (token == null)
+            boundToken.remove();
+        else
+            boundToken.set(token);
+    }
+
+    public void unbind() {
+        boundToken.remove();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        ConsistencyToken token = attributes == null ? null : (ConsistencyToken) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String encoded = token == null ? null : token.encode();
+        if (encoded != null)
+            response.getHeaders().set(ConsistencyToken.HEADER, encoded);
+        return body;
+    }
+
+    /**
+     * 현재 스레드에 묶인 토큰, 없으면 요청의 토큰 (웹 요청이 아니면 null)
+     */
+    public ConsistencyToken current() {
+        ConsistencyToken token = boundToken.get();
+        if (token != null)
+            return token;
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+            return null;
+        token = (ConsistencyToken) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (token == null) {
+            token = new ConsistencyToken();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+        }
+        return token;
+    }
+}
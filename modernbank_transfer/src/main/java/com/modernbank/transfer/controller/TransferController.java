@@ -2,32 +2,47 @@ package com.modernbank.transfer.controller;
 
 import java.util.List;
 
+import com.modernbank.transfer.concurrency.ConcurrencyLimited;
+import com.modernbank.transfer.concurrency.Priority;
+import com.modernbank.transfer.domain.entity.BulkTransfer;
 import com.modernbank.transfer.domain.entity.TransferHistory;
 import com.modernbank.transfer.domain.entity.TransferLimit;
+import com.modernbank.transfer.service.BulkTransferService;
 import com.modernbank.transfer.service.TransferService;
+import com.modernbank.transfer.singleflight.SingleFlight;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Resource;
 
 @RestController
+@ConcurrencyLimited
 public class TransferController {
     private final Logger LOGGER = LoggerFactory.getLogger(TransferController.class);
 
     @Autowired
     @Resource(name = "transferService")
     private TransferService transferService;
+
+    @Autowired
+    @Resource(name = "bulkTransferService")
+    private BulkTransferService bulkTransferService;
     
     @Operation(summary = "Internal Bank Transfer", method = "POST", description = "Internal Bank Transfer")
     @RequestMapping(method = RequestMethod.POST, path = "/internal")
+    @ConcurrencyLimited(Priority.CRITICAL)
     public TransferHistory transfer(@RequestBody TransferHistory input) throws Exception{
         LOGGER.info("--> call internal transfer ");
         return transferService.transfer(input);
@@ -36,12 +51,40 @@ public class TransferController {
     // Inter-bank transfer
     @Operation(summary = "Inter-Bank Transfer", method = "POST", description = "Inter-Bank Transfer")
     @RequestMapping(method = RequestMethod.POST, path = "/external")
+    @ConcurrencyLimited(Priority.CRITICAL)
     public Boolean btobTransfer(@RequestBody TransferHistory input) throws Exception{
-        // TODO
+        LOGGER.info("--> call inter-bank transfer ");
+        return transferService.interBankTransfer(input);
+    }
+
+    // Bulk inter-bank transfer (accepted asynchronously, per-item status is retrieved with the batch ID)
+    @Operation(summary = "Bulk Inter-Bank Transfer", method = "POST", description = "Bulk Inter-Bank Transfer with a JSON array of transfers")
+    @RequestMapping(method = RequestMethod.POST, path = "/external/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ConcurrencyLimited(Priority.CRITICAL)
+    public ResponseEntity<BulkTransfer> bulkBtobTransfer(@RequestBody List<TransferHistory> inputs) throws Exception{
+        LOGGER.info("--> call bulk inter-bank transfer: " + (inputs == null ? 0 : inputs.size()) + " items");
+        return ResponseEntity.accepted().body(bulkTransferService.submitBulkTransfer(inputs));
+    }
+
+    @Operation(summary = "Bulk Inter-Bank Transfer (File)", method = "POST", description = "Bulk Inter-Bank Transfer with a CSV file (cstmId,wthdAcntNo,dpstAcntNo,trnfAmt,sndMm,rcvMm)")
+    @RequestMapping(method = RequestMethod.POST, path = "/external/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ConcurrencyLimited(Priority.CRITICAL)
+    public ResponseEntity<BulkTransfer> bulkBtobTransferFile(@RequestParam(name = "file") MultipartFile file) throws Exception{
+        LOGGER.info("--> call bulk inter-bank transfer with file: " + file.getOriginalFilename());
+        List<TransferHistory> inputs = bulkTransferService.parseBulkTransferFile(file);
+        return ResponseEntity.accepted().body(bulkTransferService.submitBulkTransfer(inputs));
+    }
+
+    @Operation(summary = "Retrieve Bulk Inter-Bank Transfer Status", method = "GET", description = "Retrieve Bulk Inter-Bank Transfer Status")
+    @RequestMapping(method = RequestMethod.GET, path = "/external/bulk/{batchId}")
+    @ConcurrencyLimited(Priority.LOW)
+    public BulkTransfer retrieveBulkTransfer(@PathVariable(name = "batchId") String batchId) throws Exception{
+        return bulkTransferService.retrieveBulkTransfer(batchId);
     }
 
     @Operation(summary = "Retrieve Transfer History", method = "GET", description = "Retrieve Transfer History")
     @RequestMapping(method = RequestMethod.GET, path = "/history/{cstmId}")
+    @ConcurrencyLimited(Priority.LOW)
     public List<TransferHistory> retrieveTransferHistoryList(@PathVariable(name = "cstmId") String cstmId) throws Exception{
         List<TransferHistory> transferHistory = transferService.retrieveTransferHistoryList(cstmId);
         return transferHistory;
@@ -61,6 +104,7 @@ public class TransferController {
 
     @Operation(summary = "Retrieve Available Transfer Limit", method = "GET", description = "Retrieve Available Transfer Limit")
     @RequestMapping(method = RequestMethod.GET, path = "/limits/{cstmId}/available")
+    @SingleFlight("transfer.available-limit")
     public TransferLimit retrieveEnableTransferLimit(@PathVariable(name = "cstmId") String cstmId) throws Exception{
         return  transferService.retrieveEnableTransferLimit(cstmId);
     }
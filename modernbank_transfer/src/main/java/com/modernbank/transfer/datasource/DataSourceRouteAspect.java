@@ -0,0 +1,29 @@
+package com.modernbank.transfer.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * @DataSourceRoute가 붙은 메소드 실행 동안 ReplicaRoutingDataSource가 참고할 경로를 설정한다.
+ * 커넥션은 LazyConnectionDataSourceProxy가 첫 구문 실행 시점에 얻으므로 트랜잭션 인터셉터와의 순서는 상관없다.
+ */
+@Aspect
+@Component
+public class DataSourceRouteAspect {
+
+    @Around("@annotation(dataSourceRoute)")
+    public Object route(ProceedingJoinPoint joinPoint, DataSourceRoute dataSourceRoute) throws Throwable {
+        Route previous = ReplicaRoutingDataSource.currentRoute();
+        // 바깥에서 PRIMARY로 지정했으면 안쪽의 REPLICA 지정은 무시한다.
+        if (previous != Route.PRIMARY)
+            ReplicaRoutingDataSource.setRoute(dataSourceRoute.value());
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.setRoute(previous);
+        }
+    }
+}
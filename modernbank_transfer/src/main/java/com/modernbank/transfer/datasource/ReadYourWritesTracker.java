@@ -0,0 +1,117 @@
+package com.modernbank.transfer.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * read-your-writes: 쓰기를 커밋한 세션의 조회는 복제본 대신 primary로 보낸다.
+ * - 같은 요청 안에서는 커밋 이후 모든 조회
+ * - 같은 세션(jwt_token 쿠키)의 이후 요청은 read-your-writes-ms 동안
+ * 세션을 알 수 없는 호출(쿠키 없는 요청)은 요청 단위로만, 웹 요청이 아닌 스레드(Kafka, 스케줄러)는 고정하지 않는다.
+ */
+@Component
+public class ReadYourWritesTracker implements HandlerInterceptor {
+
+    private static final String SESSION_COOKIE_NAME = "jwt_token";
+
+    // 고정 중인 세션 수 상한 (가장 오래 쓰지 않은 세션부터 제거)
+    private static final int MAX_PINNED_SESSIONS = 10000;
+
+    private final ThreadLocal<RequestSession> requestSession = new ThreadLocal<>();
+
+    private final Map<String, Long> pinnedUntil = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_PINNED_SESSIONS;
+        }
+    };
+
+    private final long pinNanos;
+
+    public ReadYourWritesTracker(@Value("${datasource.replica.read-your-writes-ms:5000}") long pinMs) {
+        this.pinNanos = TimeUnit.MILLISECONDS.toNanos(pinMs);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        requestSession.set(new RequestSession(sessionKey(request)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        requestSession.remove();
+    }
+
+    /**
+     * 현재 쓰기 트랜잭션이 커밋되면 세션을 primary에 고정한다.
+     */
+    void recordWriteOnCommit() {
+        RequestSession session = requestSession.get();
+        if (session == null || !TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                session.wrote = true;
+                if (session.key != null) {
+                    synchronized (pinnedUntil) {
+                        pinnedUntil.put(session.key, System.nanoTime() + pinNanos);
+                    }
+                }
+            }
+        });
+    }
+
+    public boolean isPinned() {
+        RequestSession session = requestSession.get();
+        if (session == null)
+            return false;
+        if (session.wrote)
+            return true;
+        if (session.key == null)
+            return false;
+
+        synchronized (pinnedUntil) {
+            Long until = pinnedUntil.get(session.key);
+            if (until == null)
+                return false;
+            if (until - System.nanoTime() > 0)
+                return true;
+            pinnedUntil.remove(session.key);
+            return false;
+        }
+    }
+
+    private static String sessionKey(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (SESSION_COOKIE_NAME.equals(cookie.getName()) && cookie.getValue() != null && !cookie.getValue().isEmpty())
+                    return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static final class RequestSession {
+        private final String key;
+        private volatile boolean wrote;
+
+        private RequestSession(String key) {
+            this.key = key;
+        }
+    }
+}
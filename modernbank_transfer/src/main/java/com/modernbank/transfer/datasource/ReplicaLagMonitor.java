@@ -0,0 +1,75 @@
+package com.modernbank.transfer.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 복제본의 재생 지연을 주기적으로 재서 max-lag-ms를 넘거나 접속할 수 없으면 복제본 조회를 primary로 돌린다.
+ * 받은 WAL을 모두 재생했으면(primary에 새 쓰기가 없는 경우 포함) 지연은 0으로 본다.
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String REPLICA_LAG_SQL =
+            "SELECT CASE WHEN NOT PG_IS_IN_RECOVERY() OR PG_LAST_WAL_RECEIVE_LSN() = PG_LAST_WAL_REPLAY_LSN() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM (CLOCK_TIMESTAMP() - PG_LAST_XACT_REPLAY_TIMESTAMP())) * 1000, 0) END";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final long maxLagMs;
+    private volatile double lagMs = -1;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, MeterRegistry meterRegistry,
+            @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs) {
+        this.routingDataSource = routingDataSource;
+        this.maxLagMs = maxLagMs;
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMs)
+                .description("Replica replay lag (-1 when not configured or unreachable)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        DataSource replicaDataSource = routingDataSource.getReplicaDataSource();
+        if (replicaDataSource == null)
+            return;
+
+        boolean wasAvailable = routingDataSource.isReplicaAvailable();
+        boolean available;
+        try (Connection connection = replicaDataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(REPLICA_LAG_SQL)) {
+            resultSet.next();
+            lagMs = resultSet.getDouble(1);
+            available = lagMs <= maxLagMs;
+        } catch (Exception e) {
+            lagMs = -1;
+            available = false;
+            if (wasAvailable)
+                LOGGER.warn("Replica is unreachable, routing read-only queries to the primary.", e);
+        }
+
+        if (available != wasAvailable) {
+            routingDataSource.setReplicaAvailable(available);
+            if (available)
+                LOGGER.info("Replica lag " + Math.round(lagMs) + " ms, routing read-only queries to the replica.");
+            else if (lagMs >= 0)
+                LOGGER.warn("Replica lag " + Math.round(lagMs) + " ms exceeds " + maxLagMs + " ms, routing read-only queries to the primary.");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.modernbank.transfer.deadline;
+
+/**
+ * 현재 요청 스레드의 처리 기한(deadline).
+ * 호출한 서비스가 X-Request-Timeout-Ms 헤더로 보낸 남은 시간(ms)을 DeadlineFilter가 기한으로 바꿔 둔다.
+ * 남은 시간은 상대값으로 주고받으므로 서비스 사이의 시계 차이에 영향을 받지 않는다.
+ * 기한이 없으면 remainingMillis()는 Long.MAX_VALUE이다.
+ */
+public final class Deadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    public static void startIn(long timeoutMs) {
+        DEADLINE_NANOS.set(System.nanoTime() + timeoutMs * 1_000_000L);
+    }
+
+    public static boolean isSet() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    public static long remainingMillis() {
+        Long deadlineNanos = DEADLINE_NANOS.get();
+        if (deadlineNanos == null)
+            return Long.MAX_VALUE;
+        return (deadlineNanos - System.nanoTime()) / 1_000_000L;
+    }
+
+    public static boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    // 다른 스레드에서 같은 요청을 처리할 때(헤지 호출 등) 기한을 넘겨주기 위해 쓴다.
+    public static Long capture() {
+        return DEADLINE_NANOS.get();
+    }
+
+    public static void restore(Long deadlineNanos) {
+        if (deadlineNanos == null)
+            DEADLINE_NANOS.remove();
+        else
+            DEADLINE_NANOS.set(deadlineNanos);
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+}
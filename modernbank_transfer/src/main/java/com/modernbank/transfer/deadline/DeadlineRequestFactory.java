@@ -0,0 +1,33 @@
+package com.modernbank.transfer.deadline;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * 나가는 REST 호출에 요청 기한을 적용한다.
+ * 연결/읽기 타임아웃을 설정값과 남은 시간 중 작은 값으로 줄이고, 남은 시간을 X-Request-Timeout-Ms 헤더로 넘겨 호출받는 서비스도 같은 기한을 지키게 한다.
+ * 남은 시간이 없으면 호출하지 않고 타임아웃으로 실패시킨다.
+ */
+public class DeadlineRequestFactory extends SimpleClientHttpRequestFactory {
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        if (!Deadline.isSet())
+            return;
+
+        long remainingMs = Deadline.remainingMillis();
+        if (remainingMs <= 0)
+            throw new SocketTimeoutException("Request deadline exceeded before calling " + connection.getURL());
+
+        int timeoutMs = (int) Math.min(remainingMs, Integer.MAX_VALUE);
+        if (connection.getConnectTimeout() == 0 || connection.getConnectTimeout() > timeoutMs)
+            connection.setConnectTimeout(timeoutMs);
+        if (connection.getReadTimeout() == 0 || connection.getReadTimeout() > timeoutMs)
+            connection.setReadTimeout(timeoutMs);
+        connection.setRequestProperty(Deadline.TIMEOUT_HEADER, Long.toString(remainingMs));
+    }
+}
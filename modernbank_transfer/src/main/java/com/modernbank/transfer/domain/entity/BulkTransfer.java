@@ -0,0 +1,31 @@
+package com.modernbank.transfer.domain.entity;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class BulkTransfer {
+    // 배치 처리 상태 (RECEIVED: 접수, PROCESSING: 처리 중, SUBMITTED: 타행 전송 완료, FAILED: 배치 처리 실패)
+    public static final String RECEIVED = "RECEIVED";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String SUBMITTED = "SUBMITTED";
+    public static final String FAILED = "FAILED";
+
+    private String batchId;
+    private String reqDtm;
+    private int totalCount;
+    private volatile String status;
+    private volatile String message;
+    @JsonIgnore
+    private List<TransferHistory> transfers;
+    private List<BulkTransferItem> items;
+
+    public long countByStatus(String itemStatus) {
+        return items.stream().filter(item -> itemStatus.equals(item.getStatus())).count();
+    }
+}
@@ -0,0 +1,24 @@
+package com.modernbank.transfer.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class BulkTransferChunkItem {
+    private String blkKey;            // Idempotency key of the chunk's bulk withdrawal (bulk:batchId:chunk start index)
+    private int blkIdx;               // Index in the batch (bulk withdrawal request order)
+    private String cstmId;
+    private int seq;
+    private TransferHistory transfer; // Transfer history read together by the stale chunk sweep
+
+    @Builder
+    public BulkTransferChunkItem(String blkKey, int blkIdx, String cstmId, int seq, TransferHistory transfer) {
+        this.blkKey = blkKey;
+        this.blkIdx = blkIdx;
+        this.cstmId = cstmId;
+        this.seq = seq;
+        this.transfer = transfer;
+    }
+}
@@ -0,0 +1,39 @@
+package com.modernbank.transfer.domain.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class BulkTransferItem {
+    // 처리 상태 (RECEIVED: 접수, REJECTED: 한도 초과 등 검증 실패, FAILED: 출금 실패, SUBMITTED: 타행 전송, COMPLETED: 타행 이체 완료, CANCELLED: 타행 이체 실패)
+    public static final String RECEIVED = "RECEIVED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+    public static final String SUBMITTED = "SUBMITTED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private int index;
+    private String cstmId;
+    private int seq;
+    private String wthdAcntNo;
+    private String dpstAcntNo;
+    private Long trnfAmt;
+    private volatile String status;
+    private volatile String message;
+
+    public BulkTransferItem(int index, TransferHistory transfer) {
+        this.index = index;
+        this.cstmId = transfer.getCstmId();
+        this.wthdAcntNo = transfer.getWthdAcntNo();
+        this.dpstAcntNo = transfer.getDpstAcntNo();
+        this.trnfAmt = transfer.getTrnfAmt();
+        this.status = RECEIVED;
+    }
+
+    public void update(String status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+}
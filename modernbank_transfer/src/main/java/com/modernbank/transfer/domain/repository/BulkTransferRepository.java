@@ -0,0 +1,17 @@
+package com.modernbank.transfer.domain.repository;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.modernbank.transfer.domain.entity.BulkTransferChunkItem;
+
+@Mapper
+public interface BulkTransferRepository {
+    int insertBulkTransferChunkItem(BulkTransferChunkItem bulkTransferChunkItem) throws Exception;
+    List<String> selectStaleBulkTransferChunkList(@Param("staleSeconds") long staleSeconds, @Param("limit") int limit) throws Exception;
+    int claimBulkTransferChunk(@Param("blkKey") String blkKey, @Param("staleSeconds") long staleSeconds) throws Exception;
+    List<BulkTransferChunkItem> selectBulkTransferChunk(@Param("blkKey") String blkKey) throws Exception;
+    int deleteBulkTransferChunk(@Param("blkKey") String blkKey) throws Exception;
+}
@@ -0,0 +1,15 @@
+package com.modernbank.transfer.domain.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.modernbank.transfer.domain.entity.IdempotencyKey;
+
+@Mapper
+public interface IdempotencyKeyRepository {
+    int insertIdempotencyKey(@Param("idmpKey") String idmpKey, @Param("rqstHash") String rqstHash, @Param("staleSeconds") int staleSeconds) throws Exception;
+    IdempotencyKey selectIdempotencyKey(@Param("idmpKey") String idmpKey) throws Exception;
+    int updateIdempotencyKeyResult(IdempotencyKey idempotencyKey) throws Exception;
+    int deleteIdempotencyKey(@Param("idmpKey") String idmpKey) throws Exception;
+    int deleteExpiredIdempotencyKeys(@Param("retentionHours") int retentionHours) throws Exception;
+}
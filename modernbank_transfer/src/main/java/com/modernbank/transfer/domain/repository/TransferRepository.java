@@ -3,16 +3,23 @@ package com.modernbank.transfer.domain.repository;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import com.modernbank.transfer.datasource.DataSourceRoute;
+import com.modernbank.transfer.datasource.Route;
 import com.modernbank.transfer.domain.entity.TransferHistory;
 import com.modernbank.transfer.domain.entity.TransferLimit;
 
 @Mapper
 public interface TransferRepository {
     int insertTransferHistory(TransferHistory transferHistory) throws Exception;
+    int insertNewTransferHistory(TransferHistory transferHistory) throws Exception;
+    @DataSourceRoute(Route.REPLICA)
     List<TransferHistory> selectTransferHistoryList(TransferHistory transferHistory) throws Exception;
     int insertTransferLimit(TransferLimit transferLimit) throws Exception;
     TransferLimit selectTransferLimit(TransferLimit transferLimit) throws Exception;
+    @DataSourceRoute(Route.REPLICA)
     Long selectTotalTransferAmountPerDay(TransferLimit transferLimit) throws Exception;
-    int selectMaxSeq(TransferHistory transferHistory) throws Exception;
+    Integer updateLastSeq(@Param("cstmId") String cstmId, @Param("count") int count) throws Exception;
+    Integer insertLastSeq(@Param("cstmId") String cstmId, @Param("count") int count) throws Exception;
 }
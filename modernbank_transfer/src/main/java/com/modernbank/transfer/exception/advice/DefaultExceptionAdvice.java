@@ -30,7 +30,7 @@ public class DefaultExceptionAdvice {
 
         return new ResponseEntity<>(result, e.getHttpStatus());
     }
-    
+
     @ExceptionHandler(SystemException.class)
     protected ResponseEntity<Object> handleException(SystemException e) {
         Map<String, Object> result = new HashMap<String, Object>();
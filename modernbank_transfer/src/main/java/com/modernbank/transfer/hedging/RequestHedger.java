@@ -0,0 +1,244 @@
+package com.modernbank.transfer.hedging;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import com.modernbank.transfer.consistency.ConsistencyToken;
+import com.modernbank.transfer.consistency.ConsistencyTokenTracker;
+import com.modernbank.transfer.deadline.Deadline;
+import com.modernbank.transfer.exception.SystemException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 멱등 조회 호출의 헤지(hedged request).
+ * 첫 호출이 최근 응답 시간의 delay-percentile(기본 p95)이 지나도록 끝나지 않으면 같은 호출을 한 번 더 보내고 먼저 성공한 결과를 쓴다.
+ * 느린 인스턴스 하나가 꼬리 지연(p99)을 끌어올리는 경우에 효과가 있으며, 쓰기 호출에는 쓰지 않는다.
+ *
+ * 추가 부하 제한
+ * - 헤지 예산: 호출마다 budget-ratio만큼 쌓이고(최대 budget-burst) 헤지 한 번에 1을 쓰는 전역 토큰. 기본 5%이면 추가 호출은 전체의 5%를 넘지 않는다.
+ * - 스레드 풀이 가득 차면 헤지 없이 호출 스레드에서 바로 호출한다.
+ * - 요청 기한(Deadline)이 헤지 시점보다 먼저 끝나면 헤지하지 않는다.
+ * 진 호출은 취소 표시만 하고 타임아웃까지 백그라운드에서 끝난다. (HTTP 소켓 읽기는 인터럽트되지 않는다)
+ */
+@Component
+public class RequestHedger implements DisposableBean {
+
+    private static final int SAMPLE_SIZE = 256;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final boolean enabled;
+    private final int delayPercentile;
+    private final long minDelayMs;
+    private final long budgetRatioMicros;
+    private final long budgetBurstMicros;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final ConsistencyTokenTracker consistencyTokenTracker;
+
+    private final Map<String, LatencySampler> samplers = new ConcurrentHashMap<>();
+    private final AtomicLong budgetMicros = new AtomicLong();
+
+    public RequestHedger(MeterRegistry meterRegistry, ConsistencyTokenTracker consistencyTokenTracker,
+                         @Value("${hedging.enabled:false}") boolean enabled,
+                         @Value("${hedging.delay-percentile:95}") int delayPercentile,
+                         @Value("${hedging.min-delay-ms:5}") long minDelayMs,
+                         @Value("${hedging.budget-ratio:0.05}") double budgetRatio,
+                         @Value("${hedging.budget-burst:10}") int budgetBurst,
+                         @Value("${hedging.threads:32}") int threads) {
+        this.meterRegistry = meterRegistry;
+        this.consistencyTokenTracker = consistencyTokenTracker;
+        this.enabled = enabled;
+        this.delayPercentile = delayPercentile;
+        this.minDelayMs = minDelayMs;
+        this.budgetRatioMicros = Math.round(budgetRatio * 1_000_000);
+        this.budgetBurstMicros = budgetBurst * 1_000_000L;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> T execute(String operation, Supplier<T> call) {
+        if (!enabled)
+            return call.get();
+
+        LatencySampler sampler = samplers.computeIfAbsent(operation, this::newSampler);
+        depositBudget();
+
+        CompletableFuture<T> primary = submit(sampler, call);
+        if (primary == null)
+            return call.get();
+
+        long delayMs = sampler.delayMs();
+        try {
+            return primary.get(delayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 헤지 여부 판단으로 넘어간다.
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for " + operation);
+        }
+
+        CompletableFuture<T> hedge = null;
+        if (Deadline.remainingMillis() > 0 && tryAcquireBudget())
+            hedge = submit(sampler, call);
+        meterRegistry.counter("hedging.hedges", "operation", operation, "outcome", hedge != null ? "sent" : "skipped").increment();
+        if (hedge == null)
+            return await(operation, primary);
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, error) -> complete(operation, "primary", winner, failures, value, error));
+        hedge.whenComplete((value, error) -> complete(operation, "hedge", winner, failures, value, error));
+        try {
+            return await(operation, winner);
+        } finally {
+            primary.cancel(false);
+            hedge.cancel(false);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(LatencySampler sampler, Supplier<T> call) {
+        // 요청 스레드의 기한, 일관성 토큰, 트레이스 컨텍스트를 헤지 스레드에도 넘긴다.
+        // 요청 속성은 넘기지 않는다. (진 호출은 요청이 끝난 뒤에도 돌 수 있다)
+        Long deadline = Deadline.capture();
+        ConsistencyToken consistencyToken = consistencyTokenTracker.current();
+        ContextSnapshot contextSnapshot = CONTEXT_SNAPSHOTS.captureAll();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Long previousDeadline = Deadline.capture();
+                Deadline.restore(deadline);
+                consistencyTokenTracker.bind(consistencyToken);
+                long start = System.nanoTime();
+                try (ContextSnapshot.Scope scope = contextSnapshot.setThreadLocals()) {
+                    T value = call.get();
+                    sampler.record(System.nanoTime() - start);
+                    return value;
+                } finally {
+                    Deadline.restore(previousDeadline);
+                    consistencyTokenTracker.unbind();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> void complete(String operation, String source, CompletableFuture<T> winner, AtomicInteger failures, T value, Throwable error) {
+        if (error == null) {
+            if (winner.complete(value))
+                meterRegistry.counter("hedging.wins", "operation", operation, "winner", source).increment();
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private <T> T await(String operation, CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for " + operation);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException)
+            return runtimeException;
+        if (cause instanceof Error error)
+            throw error;
+        return new SystemException(String.valueOf(cause));
+    }
+
+    private void depositBudget() {
+        budgetMicros.getAndUpdate(current -> Math.min(budgetBurstMicros, current + budgetRatioMicros));
+    }
+
+    private boolean tryAcquireBudget() {
+        long current;
+        do {
+            current = budgetMicros.get();
+            if (current < 1_000_000L)
+                return false;
+        } while (!budgetMicros.compareAndSet(current, current - 1_000_000L));
+        return true;
+    }
+
+    private LatencySampler newSampler(String operation) {
+        LatencySampler sampler = new LatencySampler();
+        Gauge.builder("hedging.delay", sampler, LatencySampler::delayGauge)
+                .tag("operation", operation)
+                .description("Current hedge delay in milliseconds")
+                .register(meterRegistry);
+        return sampler;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 최근 SAMPLE_SIZE건의 응답 시간으로 헤지 지연을 구한다.
+     * 표본이 모이기 전(RECOMPUTE_EVERY건 미만)에는 헤지하지 않고, 이후 RECOMPUTE_EVERY건마다 다시 계산한다.
+     */
+    private final class LatencySampler {
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_SIZE);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long delayMs = Long.MAX_VALUE;
+
+        private void record(long latencyNanos) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % SAMPLE_SIZE), latencyNanos);
+            if ((n + 1) % RECOMPUTE_EVERY == 0)
+                recompute((int) Math.min(n + 1, SAMPLE_SIZE));
+        }
+
+        private void recompute(int size) {
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++)
+                sorted[i] = samples.get(i);
+            Arrays.sort(sorted);
+            int index = Math.min(size - 1, (int) Math.ceil(size * delayPercentile / 100.0) - 1);
+            delayMs = Math.max(minDelayMs, TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]));
+        }
+
+        private long delayMs() {
+            return delayMs;
+        }
+
+        private double delayGauge() {
+            return delayMs == Long.MAX_VALUE ? Double.NaN : delayMs;
+        }
+    }
+}
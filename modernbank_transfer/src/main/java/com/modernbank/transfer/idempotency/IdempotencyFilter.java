@@ -0,0 +1,143 @@
+package com.modernbank.transfer.idempotency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.modernbank.transfer.domain.entity.IdempotencyKey;
+import com.modernbank.transfer.utils.CachedBodyRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Idempotency-Key 헤더가 있는 POST 요청을 한 번만 처리한다.
+ * - 처음 보는 키: 처리 후 응답(2xx, 업무 오류)을 저장
+ * - 완료된 키: 저장된 응답을 그대로 반환 (Idempotent-Replayed: true)
+ * - 처리 중인 키: 409 Conflict와 Retry-After (호출자는 기다렸다가 같은 키로 다시 요청한다)
+ * - 같은 키에 다른 요청(쿼리 문자열 + 본문의 해시가 다름): 422 Unprocessable Entity
+ * 시스템 오류로 끝난 요청은 키를 반납하여 같은 키로 재시도할 수 있게 한다.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 150;
+    private static final int IN_PROGRESS_RETRY_AFTER_SECONDS = 1;
+
+    private final IdempotencyKeyStore idempotencyKeyStore;
+
+    public IdempotencyFilter(IdempotencyKeyStore idempotencyKeyStore) {
+        this.idempotencyKeyStore = idempotencyKeyStore;
+    }
+
+    // 현재 처리 중인 요청의 Idempotency-Key (하위 서비스 호출 키를 파생할 때 사용)
+    public static String currentIdempotencyKey() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return null;
+        return attributes.getRequest().getHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!"POST".equalsIgnoreCase(request.getMethod()) || key == null || key.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+
+        String idmpKey = request.getServletPath() + ":" + key;
+        CachedBodyRequest cachedRequest = CachedBodyRequest.of(request);
+        String rqstHash = IdempotencyKeyStore.requestHash(IdempotencyKeyStore.REST_TRANSPORT, request.getQueryString(), cachedRequest.getBody());
+
+        IdempotencyKey stored;
+        try {
+            stored = idempotencyKeyStore.claim(idmpKey, rqstHash);
+        } catch (Exception e) {
+            throw new ServletException("Failed to claim idempotency key", e);
+        }
+
+        if (stored != null) {
+            if (!IdempotencyKeyStore.isSameRequest(stored, rqstHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request.");
+            } else if (IdempotencyKey.COMPLETED.equals(stored.getStsCd())) {
+                response.setStatus(stored.getRspnStatus());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+                if (stored.getRspnBody() != null)
+                    response.getWriter().write(stored.getRspnBody());
+            } else {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(IN_PROGRESS_RETRY_AFTER_SECONDS));
+                writeError(response, HttpStatus.CONFLICT, "A request with the same Idempotency-Key is already in progress.");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachedRequest, responseWrapper);
+
+            int status = responseWrapper.getStatus();
+            if (isReplayable(status)) {
+                idempotencyKeyStore.complete(idmpKey, rqstHash, status, new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8));
+                completed = true;
+            }
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException("Failed to store idempotency key result", e);
+        } finally {
+            if (!completed)
+                releaseQuietly(idmpKey);
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    // 성공 응답과 업무 오류(재시도해도 결과가 같은 응답)만 저장한다.
+    private boolean isReplayable(int status) {
+        return (status >= 200 && status < 300) || status == HttpStatus.EXPECTATION_FAILED.value();
+    }
+
+    private void releaseQuietly(String idmpKey) {
+        try {
+            idempotencyKeyStore.release(idmpKey);
+        } catch (Exception e) {
+            LOGGER.error("Failed to release idempotency key: " + idmpKey, e);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus httpStatus, String message) throws IOException {
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("message", "[Notice]\n" + message);
+        result.put("httpStatus", httpStatus.value());
+
+        response.setStatus(httpStatus.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(new Gson().toJson(result));
+    }
+}
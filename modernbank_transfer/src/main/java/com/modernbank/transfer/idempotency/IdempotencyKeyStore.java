@@ -0,0 +1,135 @@
+package com.modernbank.transfer.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.modernbank.transfer.domain.entity.IdempotencyKey;
+import com.modernbank.transfer.domain.repository.IdempotencyKeyRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Idempotency-Key 저장소.
+ * 완료된 키의 응답은 로컬 LRU에 두고, 키 선점/완료 상태는 TB_IDMP_KEY 테이블로 인스턴스 간에 공유한다.
+ * 키와 함께 요청 해시를 저장하여, 같은 키로 다른 요청이 오면 저장된 응답을 돌려주지 않는다.
+ * 해시는 전송 방식(REST/gRPC)별로 만들므로 전송 방식이 다른 재요청은 해시를 비교하지 않는다.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    public static final String REST_TRANSPORT = "R";
+    public static final String GRPC_TRANSPORT = "G";
+
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${idempotency.in-progress-timeout-seconds:60}")
+    private int inProgressTimeoutSeconds;
+
+    @Value("${idempotency.retention-hours:24}")
+    private int retentionHours;
+
+    private final Map<String, IdempotencyKey> completedKeys;
+
+    public IdempotencyKeyStore(@Value("${idempotency.cache.max-entries:10000}") int maxEntries) {
+        this.completedKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 키를 선점한다.
+     *
+     * @return 선점에 성공하면 null, 이미 처리 중(P)이거나 완료(C)된 키면 저장된 상태 (isSameRequest로 같은 요청인지 확인한다)
+     */
+    public IdempotencyKey claim(String idmpKey, String rqstHash) throws Exception {
+        IdempotencyKey cached = getCompleted(idmpKey);
+        if (cached != null)
+            return cached;
+
+        if (idempotencyKeyRepository.insertIdempotencyKey(idmpKey, rqstHash, inProgressTimeoutSeconds) == 1)
+            return null;
+
+        IdempotencyKey stored = idempotencyKeyRepository.selectIdempotencyKey(idmpKey);
+        if (stored == null)
+            return IdempotencyKey.builder().idmpKey(idmpKey).stsCd(IdempotencyKey.IN_PROGRESS).rqstHash(rqstHash).build();
+
+        if (IdempotencyKey.COMPLETED.equals(stored.getStsCd()))
+            putCompleted(stored);
+
+        return stored;
+    }
+
+    public void complete(String idmpKey, String rqstHash, int rspnStatus, String rspnBody) throws Exception {
+        IdempotencyKey completed = IdempotencyKey.builder()
+                .idmpKey(idmpKey)
+                .stsCd(IdempotencyKey.COMPLETED)
+                .rqstHash(rqstHash)
+                .rspnStatus(rspnStatus)
+                .rspnBody(rspnBody)
+                .build();
+        idempotencyKeyRepository.updateIdempotencyKeyResult(completed);
+        putCompleted(completed);
+    }
+
+    // 처리에 실패한 키는 지워서 같은 키로 다시 요청할 수 있게 한다.
+    public void release(String idmpKey) throws Exception {
+        idempotencyKeyRepository.deleteIdempotencyKey(idmpKey);
+    }
+
+    /**
+     * 요청 해시: 전송 방식 + ":" + SHA-256(쿼리 문자열 + 본문)
+     */
+    public static String requestHash(String transport, String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null)
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return transport + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 저장된 해시가 없거나(이전 버전에서 선점한 키) 전송 방식이 다르면 비교하지 않는다.
+    public static boolean isSameRequest(IdempotencyKey stored, String rqstHash) {
+        String storedHash = stored.getRqstHash();
+        if (storedHash == null || rqstHash == null || !storedHash.regionMatches(0, rqstHash, 0, 2))
+            return true;
+        return storedHash.equals(rqstHash);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        try {
+            int deleted = idempotencyKeyRepository.deleteExpiredIdempotencyKeys(retentionHours);
+            LOGGER.info("Purged [" + deleted + "] expired idempotency keys");
+        } catch (Exception e) {
+            LOGGER.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    private synchronized IdempotencyKey getCompleted(String idmpKey) {
+        return completedKeys.get(idmpKey);
+    }
+
+    private synchronized void putCompleted(IdempotencyKey idempotencyKey) {
+        completedKeys.put(idempotencyKey.getIdmpKey(), idempotencyKey);
+    }
+}
@@ -0,0 +1,189 @@
+package com.modernbank.transfer.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.modernbank.transfer.domain.entity.OutboxEvent;
+import com.modernbank.transfer.domain.repository.OutboxEventRepository;
+import com.modernbank.transfer.publisher.KafkaTopicRouter;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * TB_EVNT_OTBX에 쌓인 이벤트를 Kafka로 발행한다.
+ * - 여러 인스턴스 중 advisory lock을 잡은 하나만 릴레이하며, EVNT_SEQ 순서대로 발행한다.
+ * - EVNT_SEQ는 INSERT할 때 채번되므로 커밋 순서와 다를 수 있다. (먼저 채번한 트랜잭션이 나중에 커밋)
+ *   그래서 마지막으로 발행한 순번(TB_EVNT_OTBX_RLY) 바로 다음부터 빈 순번 없이 이어지는 이벤트까지만 발행하고,
+ *   빈 순번을 만나면 그 앞에서 멈추고 다음 주기에 다시 본다. 아직 커밋되지 않은 이벤트를 건너뛰어 같은 키의 순서가 뒤집히지 않게 한다.
+ * - 롤백된 트랜잭션의 순번은 영원히 비므로, 빈 순번을 처음 본 뒤
+ *   그때 실행 중이던 트랜잭션이 모두 끝났고 gap-grace-ms가 지났거나, gap-timeout-ms가 지나면 빈 순번을 건너뛴다.
+ *   (gap-timeout-ms로 건너뛴 뒤 늦게 커밋된 이벤트는 순서와 관계없이 발행하고 경고를 남긴다)
+ * - 배치를 토픽별 Producer로 파이프라이닝한 뒤 flush하고, 앞에서부터 성공한 이벤트까지만 삭제한다.
+ *   실패 이후의 이벤트는 다음 주기에 다시 발행한다. (at-least-once)
+ * 같은 계좌의 이벤트는 같은 키로 발행되어 파티션 내 순서가 유지된다.
+ * 레코드의 committed-at 헤더에는 발행 시각이 아닌 Outbox 기록 시각을 넣어, CQRS가 재는 지연에 릴레이 대기 시간까지 포함되게 한다.
+ * 기록 시점의 트레이스 컨텍스트가 있으면 그 트레이스 아래에 릴레이 span을 열고 발행하므로, Kafka 레코드 헤더로 원래 요청의 트레이스가 이어진다.
+ */
+@Component
+public class OutboxRelay {
+
+    static final String TRACEPARENT = "traceparent";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private KafkaTopicRouter kafkaTopicRouter;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private Propagator propagator;
+
+    @Value("${outbox.relay.lock-id:7002}")
+    private long lockId;
+
+    @Value("${outbox.relay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.gap-grace-ms:200}")
+    private long gapGraceMs;
+
+    @Value("${outbox.relay.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    // 기다리고 있는 빈 순번, 처음 본 시각, 그때 다음에 발급될 트랜잭션 ID (릴레이는 한 스레드에서만 실행된다)
+    private long gapSeq = -1;
+    private long gapSeenAt;
+    private long gapNextXid;
+
+    @Transactional(rollbackFor = Exception.class)
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:100}")
+    public void relay() throws Exception {
+        if (!outboxEventRepository.tryOutboxRelayLock(lockId))
+            return;
+
+        // 이 트랜잭션이 행을 잠그기(트랜잭션 ID 발급) 전에 실행 중인 가장 오래된 트랜잭션을 본다.
+        long oldestRunningXid = outboxEventRepository.selectOldestRunningXid();
+
+        List<OutboxEvent> outboxEvents = contiguousEvents(outboxEventRepository.selectOutboxEventList(batchSize), oldestRunningXid);
+        if (outboxEvents.isEmpty())
+            return;
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(outboxEvents.size());
+        for (OutboxEvent outboxEvent : outboxEvents)
+            futures.add(send(outboxEvent));
+
+        kafkaTopicRouter.flush();
+
+        List<Long> publishedSeqs = new ArrayList<>(outboxEvents.size());
+        for (int i = 0; i < futures.size(); i++) {
+            OutboxEvent outboxEvent = outboxEvents.get(i);
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                LOGGER.error("Unable to relay outbox event=[" + outboxEvent.getEvntSeq() + "] to topic=[" + outboxEvent.getTopicNm() + "] due to : " + e.getMessage());
+                break;
+            }
+            publishedSeqs.add(outboxEvent.getEvntSeq());
+        }
+
+        if (!publishedSeqs.isEmpty()) {
+            outboxEventRepository.deleteOutboxEventList(publishedSeqs);
+            outboxEventRepository.upsertLastRelayedSeq(lockId, publishedSeqs.get(publishedSeqs.size() - 1));
+            LOGGER.info("Relayed [" + publishedSeqs.size() + "/" + outboxEvents.size() + "] outbox events");
+        }
+    }
+
+    /**
+     * 마지막으로 발행한 순번 다음부터 빈 순번 없이 이어지는 앞부분만 돌려준다.
+     * 빈 순번은 커밋되지 않은(또는 롤백된) 트랜잭션의 이벤트이므로, 그 트랜잭션이 끝났다고 볼 수 있을 때까지 기다린다.
+     */
+    private List<OutboxEvent> contiguousEvents(List<OutboxEvent> outboxEvents, long oldestRunningXid) throws Exception {
+        if (outboxEvents.isEmpty())
+            return outboxEvents;
+
+        Long lastRelayedSeq = outboxEventRepository.selectLastRelayedSeq(lockId);
+        long expectedSeq = lastRelayedSeq == null ? outboxEvents.get(0).getEvntSeq() : lastRelayedSeq + 1;
+
+        List<OutboxEvent> contiguous = new ArrayList<>(outboxEvents.size());
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            long evntSeq = outboxEvent.getEvntSeq();
+            if (evntSeq < expectedSeq) {
+                LOGGER.warn("Relaying outbox event=[" + evntSeq + "] committed after its sequence gap was skipped; it may be out of order for key=[" + outboxEvent.getEvntKey() + "]");
+            } else if (evntSeq > expectedSeq && !isGapClosed(expectedSeq, oldestRunningXid)) {
+                break;
+            }
+            contiguous.add(outboxEvent);
+            expectedSeq = Math.max(expectedSeq, evntSeq + 1);
+        }
+        return contiguous;
+    }
+
+    private boolean isGapClosed(long missingSeq, long oldestRunningXid) throws Exception {
+        long now = System.currentTimeMillis();
+        if (gapSeq != missingSeq) {
+            gapSeq = missingSeq;
+            gapSeenAt = now;
+            gapNextXid = outboxEventRepository.selectNextXid();
+            return false;
+        }
+
+        long waited = now - gapSeenAt;
+        // 빈 순번을 채번한 트랜잭션은 처음 본 시각에 이미 시작했으므로, 그때 실행 중이던 트랜잭션이 모두 끝났으면 롤백된 것이다.
+        boolean closed = (oldestRunningXid >= gapNextXid && waited >= gapGraceMs) || waited >= gapTimeoutMs;
+        if (closed)
+            LOGGER.info("Skipping outbox sequence gap at [" + missingSeq + "] after " + waited + "ms" + (waited >= gapTimeoutMs ? " (timeout)" : ""));
+        return closed;
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent outboxEvent) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(outboxEvent.getTopicNm(), outboxEvent.getEvntKey(), outboxEvent.getPayload());
+        if (outboxEvent.getCrtDtm() != null)
+            KafkaTopicRouter.stampCommittedAt(record, outboxEvent.getCrtDtm().getTime());
+        KafkaTopicRouter.stampOutboxSeq(record, outboxEvent.getEvntSeq());
+
+        if (outboxEvent.getTrcCtx() == null)
+            return kafkaTopicRouter.send(record);
+
+        Span span = propagator.extract(Map.of(TRACEPARENT, outboxEvent.getTrcCtx()), Map::get)
+                .name("outbox relay " + outboxEvent.getTopicNm())
+                .tag("outbox.seq", String.valueOf(outboxEvent.getEvntSeq()))
+                .start();
+        CompletableFuture<SendResult<String, Object>> future;
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            future = kafkaTopicRouter.send(record);
+        } catch (RuntimeException e) {
+            span.error(e);
+            span.end();
+            throw e;
+        }
+        future.whenComplete((result, ex) -> {
+            if (ex != null)
+                span.error(ex);
+            span.end();
+        });
+        return future;
+    }
+}
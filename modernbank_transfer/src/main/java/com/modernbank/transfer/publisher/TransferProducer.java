@@ -1,30 +1,24 @@
 package com.modernbank.transfer.publisher;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
 
 import com.modernbank.transfer.domain.entity.TransferHistory;
 import com.modernbank.transfer.domain.entity.TransferLimit;
-import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.outbox.OutboxEventWriter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+/**
+ * 이체 이벤트 발행.
+ * 메시지는 호출한 트랜잭션 안에서 Outbox에 기록되고 커밋 후 OutboxRelay가 Kafka로 발행한다.
+ */
 @Component
 public class TransferProducer {
-    
-    private final Logger LOGGER = LoggerFactory.getLogger(TransferProducer.class);
-    
-    @Autowired
-    private KafkaTemplate<String, TransferHistory> transferKafkaTemplate;
-    
+
     @Autowired
-    private KafkaTemplate<String, TransferLimit> transferLimitKafkaTemplate;
+    private OutboxEventWriter outboxEventWriter;
 
     @Value(value = "${b2b.transfer.topic.name}")
     private String b2bTransferTopicName;
@@ -35,43 +29,24 @@ public class TransferProducer {
     @Value(value = "${transfer.topic.name}")
     private String transferTopicName;
 
-    @Autowired
-    RestTemplate restTemplate;
-    
-    @Value("${account.api.url}")
-    private String accountServiceUrl;
-
     public void sendB2BTransferMessage(TransferHistory transfer) {
-        // TODO
+        // 출금 계좌번호를 키로 사용하여 동일 계좌의 타행 이체는 같은 파티션에서 순서대로 처리되도록 한다.
+        outboxEventWriter.append(b2bTransferTopicName, transfer.getWthdAcntNo(), transfer);
     }
     
     public void sendUpdatingTansferLimitMessage(TransferLimit transferLimit) {
-        System.out.println("start kafka send at transfer");
-        CompletableFuture<SendResult<String, TransferLimit>> future = transferLimitKafkaTemplate.send(updatingTransferLimitTopicName, transferLimit);
-        System.out.println("done kafka send at transfer");
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                TransferLimit g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getCstmId() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
-            } else {
-                LOGGER.error("Unable to send message=[" + transferLimit.getCstmId() + "] due to : " + ex.getMessage());
-                throw new SystemException("Kafka data transmission error");
-            }
-        });
-        System.out.println("done... at sendUpdateTransferLimitMessage...");
+        outboxEventWriter.append(updatingTransferLimitTopicName, transferLimit.getCstmId(), transferLimit);
     }
     
     public void sendCQRSTransferMessage(TransferHistory transfer) {
-        CompletableFuture<SendResult<String, TransferHistory>> future = transferKafkaTemplate.send(transferTopicName, transfer);
+        outboxEventWriter.append(transferTopicName, transfer.getCstmId(), transfer);
+    }
+
+    public void sendB2BTransferMessages(List<TransferHistory> transfers) {
+        outboxEventWriter.appendAll(b2bTransferTopicName, transfers, TransferHistory::getWthdAcntNo);
+    }
 
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                TransferHistory g = result.getProducerRecord().value();
-                LOGGER.info("Sent message=[" + g.getCstmId() + "] with offset=[" + result.getRecordMetadata().offset() + "]");
-            } else {
-                LOGGER.error("Unable to send message=[" + transfer.getCstmId() + "] due to : " + ex.getMessage());
-                throw new SystemException("Kafka data transmission error");
-            }
-        });
+    public void sendCQRSTransferMessages(List<TransferHistory> transfers) {
+        outboxEventWriter.appendAll(transferTopicName, transfers, TransferHistory::getCstmId);
     }
-}
\ No newline at end of file
+}
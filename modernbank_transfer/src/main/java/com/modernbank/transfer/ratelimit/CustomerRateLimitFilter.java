@@ -0,0 +1,83 @@
+package com.modernbank.transfer.ratelimit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.modernbank.transfer.utils.CachedBodyRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 이체 요청 본문(TransferHistory)의 cstmId별 속도 제한을 적용한다.
+ * IdempotencyFilter보다 먼저 실행되어, 거절된 요청은 멱등 키 선점/반납(DB 왕복)이나 채번, 원격 호출 없이 429와 Retry-After로 끝난다.
+ * 읽은 본문은 CachedBodyRequest로 넘겨 IdempotencyFilter와 컨트롤러가 다시 읽지 않고 쓴다.
+ * cstmId를 읽을 수 없는 요청은 그대로 넘겨 컨트롤러가 검증하게 한다.
+ */
+public class CustomerRateLimitFilter extends OncePerRequestFilter {
+
+    private final CustomerRateLimiter customerRateLimiter;
+
+    public CustomerRateLimitFilter(CustomerRateLimiter customerRateLimiter) {
+        this.customerRateLimiter = customerRateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!"POST".equalsIgnoreCase(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = CachedBodyRequest.of(request);
+        String cstmId = customerId(cachedRequest.getBody());
+        if (cstmId != null) {
+            long waitNanos = customerRateLimiter.tryAcquire(cstmId);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+                writeError(response, retryAfterSeconds);
+                return;
+            }
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    private static String customerId(byte[] body) {
+        try {
+            JsonElement json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+            if (!json.isJsonObject())
+                return null;
+            JsonElement cstmId = json.getAsJsonObject().get("cstmId");
+            return cstmId == null || !cstmId.isJsonPrimitive() ? null : cstmId.getAsString();
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private void writeError(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("message", "[Notice]\nToo many transfer requests. Please retry later.");
+        result.put("httpStatus", HttpStatus.TOO_MANY_REQUESTS.value());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(new Gson().toJson(result));
+    }
+}
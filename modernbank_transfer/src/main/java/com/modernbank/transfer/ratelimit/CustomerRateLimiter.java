@@ -0,0 +1,192 @@
+package com.modernbank.transfer.ratelimit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 고객(cstmId)별 이체 요청 속도 제한.
+ * 고객마다 토큰 버킷 하나를 두며, 버킷 상태는 GCRA(다음 요청 가능 시각, theoretical arrival time) long 하나로 표현해 CAS 한 번으로 판정한다. (락 없음)
+ * 초당 rate개가 채워지고 최대 burst개까지 한 번에 쓸 수 있는 토큰 버킷과 같은 결과이다.
+ *
+ * 메모리 제한
+ * - 버킷은 max-buckets개까지 만든다. 다 차면 유휴 버킷을 정리하고, 그래도 자리가 없으면 같은 등급의 공용 버킷(overflow)을 함께 쓴다.
+ * - idle-eviction-ms 동안 가득 찬(쓰지 않은) 버킷은 주기적으로 지운다. 가득 찬 버킷은 새로 만든 버킷과 같으므로 지워도 제한이 느슨해지지 않는다.
+ *
+ * 등급(tier): tiers=이름:초당 요청 수:burst,...  customer-tiers=cstmId:이름,...  (지정되지 않은 고객은 default-tier)
+ * 메트릭: transfer.rate.limit.requests{tier, result=allowed|rejected}, transfer.rate.limit.buckets
+ */
+@Component
+public class CustomerRateLimiter {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(CustomerRateLimiter.class);
+
+    private final boolean enabled;
+    private final Map<String, Tier> tiers = new HashMap<>();
+    private final Map<String, Tier> customerTiers = new HashMap<>();
+    private final Tier defaultTier;
+    private final int maxBuckets;
+    private final long idleEvictionNanos;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public CustomerRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${transfer.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${transfer.rate-limit.tiers:standard:5:10}") String tiers,
+                               @Value("${transfer.rate-limit.default-tier:standard}") String defaultTier,
+                               @Value("${transfer.rate-limit.customer-tiers:}") String customerTiers,
+                               @Value("${transfer.rate-limit.max-buckets:100000}") int maxBuckets,
+                               @Value("${transfer.rate-limit.idle-eviction-ms:60000}") long idleEvictionMs) {
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+
+        for (String spec : tiers.split(",")) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3)
+                throw new IllegalArgumentException("Invalid rate limit tier (name:ratePerSecond:burst): " + spec);
+            Tier tier = new Tier(parts[0], Double.parseDouble(parts[1]), Integer.parseInt(parts[2]), meterRegistry);
+            this.tiers.put(tier.name, tier);
+        }
+        this.defaultTier = tier(defaultTier);
+
+        for (String spec : customerTiers.split(",")) {
+            if (spec.isBlank())
+                continue;
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Invalid customer rate limit tier (cstmId:tier): " + spec);
+            this.customerTiers.put(parts[0], tier(parts[1]));
+        }
+
+        Gauge.builder("transfer.rate.limit.buckets", buckets, Map::size)
+                .description("Per-customer rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청 하나를 허용하면 0, 거절하면 다음 요청이 가능해질 때까지 남은 시간(ns)을 돌려준다.
+     */
+    public long tryAcquire(String cstmId) {
+        if (!enabled || cstmId == null)
+            return 0;
+
+        Bucket bucket = bucket(cstmId);
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0)
+            bucket.tier.allowed.increment();
+        else
+            bucket.tier.rejected.increment();
+        return waitNanos;
+    }
+
+    private Bucket bucket(String cstmId) {
+        Bucket bucket = buckets.get(cstmId);
+        if (bucket != null)
+            return bucket;
+
+        Tier tier = customerTiers.getOrDefault(cstmId, defaultTier);
+        if (buckets.size() >= maxBuckets) {
+            evictIdleBuckets();
+            if (buckets.size() >= maxBuckets)
+                return tier.overflow;
+        }
+        return buckets.computeIfAbsent(cstmId, key -> new Bucket(tier, System.nanoTime()));
+    }
+
+    // 오래 쓰지 않아 가득 찬 버킷을 지운다. 정리 중인 다른 스레드가 있으면 기다리지 않는다.
+    @Scheduled(fixedDelayString = "${transfer.rate-limit.idle-eviction-ms:60000}")
+    public void evictIdleBuckets() {
+        if (!evictionLock.tryLock())
+            return;
+        try {
+            long idleBefore = System.nanoTime() - idleEvictionNanos;
+            int evicted = 0;
+            for (Iterator<Map.Entry<String, Bucket>> it = buckets.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Bucket> entry = it.next();
+                if (entry.getValue().isIdleSince(idleBefore) && buckets.remove(entry.getKey(), entry.getValue()))
+                    evicted++;
+            }
+            if (evicted > 0)
+                LOGGER.debug("Evicted [" + evicted + "] idle rate limit buckets, [" + buckets.size() + "] remain");
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private Tier tier(String name) {
+        Tier tier = tiers.get(name.trim());
+        if (tier == null)
+            throw new IllegalArgumentException("Unknown rate limit tier: " + name);
+        return tier;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private static final class Tier {
+        private final String name;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Bucket overflow;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Tier(String name, double ratePerSecond, int burst, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            this.burstNanos = intervalNanos * burst;
+            this.overflow = new Bucket(this, System.nanoTime());
+            this.allowed = meterRegistry.counter("transfer.rate.limit.requests", "tier", name, "result", "allowed");
+            this.rejected = meterRegistry.counter("transfer.rate.limit.requests", "tier", name, "result", "rejected");
+        }
+    }
+
+    /**
+     * GCRA 버킷. tat(theoretical arrival time)는 지금까지 허용한 요청이 모두 간격대로 왔다면 다음 요청이 올 시각이다.
+     * tat가 현재 시각보다 burst 간격 이상 앞서면 버킷이 빈 것이다.
+     */
+    private static final class Bucket {
+        private static final AtomicLongFieldUpdater<Bucket> TAT = AtomicLongFieldUpdater.newUpdater(Bucket.class, "tat");
+
+        private final Tier tier;
+        private volatile long tat;
+
+        private Bucket(Tier tier, long now) {
+            this.tier = tier;
+            this.tat = now;
+        }
+
+        private long tryAcquire(long now) {
+            for (;;) {
+                long current = tat;
+                long next = Math.max(current, now) + tier.intervalNanos;
+                long excess = next - now - tier.burstNanos;
+                if (excess > 0)
+                    return excess;
+                if (TAT.compareAndSet(this, current, next))
+                    return 0;
+            }
+        }
+
+        private boolean isIdleSince(long time) {
+            return tat - time <= 0;
+        }
+    }
+}
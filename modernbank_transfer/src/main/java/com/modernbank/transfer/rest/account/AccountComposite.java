@@ -0,0 +1,119 @@
+package com.modernbank.transfer.rest.account;
+
+import java.util.List;
+
+import com.modernbank.transfer.bulkhead.DownstreamBulkheads;
+import com.modernbank.transfer.exception.BusinessException;
+import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.hedging.RequestHedger;
+import com.modernbank.transfer.rest.account.entity.Account;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+import com.modernbank.transfer.rest.account.entity.TransactionResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+
+/**
+ * Account Service 원장 거래 호출에 재시도와 서킷 브레이커를 적용한다. (전송 방식은 AccountLedgerClient 구현이 결정)
+ * Retry가 CircuitBreaker 바깥에서 동작하므로 fallback은 Retry에 두어, 재시도를 모두 소진하거나 차단된 뒤에만 SystemException으로 바꾼다.
+ * 업무 오류(BusinessException, 4xx 응답)는 재시도하지 않고 그대로 전달한다.
+ * 호출은 accountService bulkhead 풀에서 실행하고, 처리 시간이 긴 일괄 출금만 별도 풀(accountServiceBulk)을 써서 단건 이체를 막지 않게 한다.
+ * bulkhead가 가득 차면 재시도하지 않고 503으로 응답한다.
+ */
+@Service("accountComposite")
+public class AccountComposite {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AccountComposite.class);
+
+    private static final String ACCOUNT_SERVICE = "accountService";
+    private static final String ACCOUNT_SERVICE_BULK = "accountServiceBulk";
+
+    @Autowired
+    private AccountLedgerClient accountLedgerClient;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private DownstreamBulkheads downstreamBulkheads;
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackRetrieveAccount")
+    public Account retrieveAccount(String acntNo) {
+        // 계좌 조회는 멱등이므로 느린 응답에 헤지 호출을 보낼 수 있다.
+        return requestHedger.execute("account.retrieve", () -> downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> accountLedgerClient.retrieveAccount(acntNo)));
+    }
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackWithdraw")
+    public TransactionResult withdraw(TransactionHistory transaction, String idmpKey) {
+        return downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> accountLedgerClient.withdraw(transaction, idmpKey));
+    }
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackDeposit")
+    public TransactionResult deposit(TransactionHistory transaction, String idmpKey) {
+        return downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> accountLedgerClient.deposit(transaction, idmpKey));
+    }
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackConfirmWithdrawal")
+    public Integer confirmWithdrawal(TransactionHistory transaction, String idmpKey) {
+        return downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> accountLedgerClient.confirmWithdrawal(transaction, idmpKey));
+    }
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackPostTransactions")
+    public List<BulkTransactionResult> postTransactions(List<TransactionHistory> transactions, boolean atomic, String idmpKey) {
+        return downstreamBulkheads.execute(ACCOUNT_SERVICE, () -> accountLedgerClient.postTransactions(transactions, atomic, idmpKey));
+    }
+
+    @CircuitBreaker(name = "accountService")
+    @Retry(name = "accountService", fallbackMethod = "fallbackWithdrawInBulk")
+    public List<BulkTransactionResult> withdrawInBulk(List<TransactionHistory> withdrawals, String idmpKey) {
+        return downstreamBulkheads.execute(ACCOUNT_SERVICE_BULK, () -> accountLedgerClient.withdrawInBulk(withdrawals, idmpKey));
+    }
+
+    private Account fallbackRetrieveAccount(String acntNo, Exception e) {
+        throw failure("retrieve account information", "account number: " + acntNo, e);
+    }
+
+    private TransactionResult fallbackWithdraw(TransactionHistory transaction, String idmpKey, Exception e) {
+        throw failure("perform withdrawal", "account: " + transaction.getAcntNo(), e);
+    }
+
+    private TransactionResult fallbackDeposit(TransactionHistory transaction, String idmpKey, Exception e) {
+        throw failure("perform deposit", "account: " + transaction.getAcntNo(), e);
+    }
+
+    private Integer fallbackConfirmWithdrawal(TransactionHistory transaction, String idmpKey, Exception e) {
+        throw failure("confirm inter-bank transfer withdrawal", "account: " + transaction.getAcntNo() + ", seq: " + transaction.getSeq(), e);
+    }
+
+    private List<BulkTransactionResult> fallbackPostTransactions(List<TransactionHistory> transactions, boolean atomic, String idmpKey, Exception e) {
+        throw failure("post transactions", transactions.size() + " transactions", e);
+    }
+
+    private List<BulkTransactionResult> fallbackWithdrawInBulk(List<TransactionHistory> withdrawals, String idmpKey, Exception e) {
+        throw failure("perform bulk withdrawal", withdrawals.size() + " transfers", e);
+    }
+
+    private RuntimeException failure(String operation, String target, Exception e) {
+        if (e instanceof BusinessException || e instanceof HttpClientErrorException)
+            return (RuntimeException) e;
+        if (e instanceof BulkheadFullException)
+            return new SystemException("Transfer Service has too many calls to Account Service in progress. Please retry shortly.", HttpStatus.SERVICE_UNAVAILABLE);
+
+        LOGGER.error("Failed to " + operation + " for " + target, e);
+        return new SystemException("The following issue occurred while Transfer Service was calling Account Service to " + operation + ".\n" + e.getMessage());
+    }
+}
@@ -0,0 +1,28 @@
+package com.modernbank.transfer.rest.account;
+
+import java.util.List;
+
+import com.modernbank.transfer.rest.account.entity.Account;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+import com.modernbank.transfer.rest.account.entity.TransactionResult;
+
+/**
+ * Account Service 원장 거래 호출.
+ * account.ledger.transport 설정으로 REST(JSON/HTTP 1.1)와 gRPC(protobuf/HTTP 2) 구현 중 하나가 등록된다.
+ * 업무 오류는 BusinessException으로, 그 밖의 호출 오류는 각 전송 방식의 예외로 던진다. (재시도/차단은 AccountComposite가 담당)
+ */
+public interface AccountLedgerClient {
+
+    Account retrieveAccount(String acntNo);
+
+    TransactionResult withdraw(TransactionHistory transaction, String idmpKey);
+
+    TransactionResult deposit(TransactionHistory transaction, String idmpKey);
+
+    Integer confirmWithdrawal(TransactionHistory transaction, String idmpKey);
+
+    List<BulkTransactionResult> postTransactions(List<TransactionHistory> transactions, boolean atomic, String idmpKey);
+
+    List<BulkTransactionResult> withdrawInBulk(List<TransactionHistory> withdrawals, String idmpKey);
+}
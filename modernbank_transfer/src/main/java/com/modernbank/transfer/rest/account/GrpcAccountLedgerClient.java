@@ -0,0 +1,262 @@
+package com.modernbank.transfer.rest.account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.modernbank.transfer.consistency.ConsistencyTokenGrpcInterceptor;
+import com.modernbank.transfer.consistency.ConsistencyTokenTracker;
+import com.modernbank.transfer.deadline.Deadline;
+import com.modernbank.transfer.exception.BusinessException;
+import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.rest.account.entity.Account;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+import com.modernbank.transfer.rest.account.entity.TransactionResult;
+import com.modernbank.transfer.rest.account.grpc.AccountLedgerGrpc;
+import com.modernbank.transfer.rest.account.grpc.AccountReply;
+import com.modernbank.transfer.rest.account.grpc.AccountRequest;
+import com.modernbank.transfer.rest.account.grpc.BulkTransactionReply;
+import com.modernbank.transfer.rest.account.grpc.BulkTransactionRequest;
+import com.modernbank.transfer.rest.account.grpc.Transaction;
+import com.modernbank.transfer.rest.account.grpc.TransactionReply;
+import com.modernbank.transfer.rest.account.grpc.TransactionRequest;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Account Service 원장 거래 gRPC 클라이언트.
+ * 채널(HTTP/2 연결) 하나를 모든 호출이 다중화하여 쓰고, 호출마다 deadline을 걸어 Account Service에도 남은 시간이 전달된다.
+ * 호출마다 client span을 만들고 트레이스 컨텍스트를 gRPC 메타데이터(traceparent)로 넘긴다.
+ * 응답 trailer의 일관성 토큰은 요청의 토큰에 합친다.
+ * 일괄 출금은 stream-message-size 건씩 나눈 메시지를 한 스트림으로 보내고, 메시지별 결과를 요청 순서대로 합친다.
+ */
+public class GrpcAccountLedgerClient implements AccountLedgerClient, DisposableBean {
+
+    private final ManagedChannel channel;
+    private final AccountLedgerGrpc.AccountLedgerBlockingStub blockingStub;
+    private final AccountLedgerGrpc.AccountLedgerStub asyncStub;
+    private final long deadlineMs;
+    private final long bulkDeadlineMs;
+    private final int streamMessageSize;
+    private final long inProgressRetryMs;
+    private final long inProgressMaxWaitMs;
+
+    public GrpcAccountLedgerClient(@Value("${account.ledger.grpc.target}") String target,
+                                   @Value("${account.ledger.grpc.deadline-ms:2000}") long deadlineMs,
+                                   @Value("${account.ledger.grpc.bulk-deadline-ms:30000}") long bulkDeadlineMs,
+                                   @Value("${account.ledger.grpc.stream-message-size:200}") int streamMessageSize,
+                                   @Value("${account.ledger.grpc.max-inbound-message-size:16777216}") int maxInboundMessageSize,
+                                   @Value("${account.ledger.grpc.in-progress-retry-ms:500}") long inProgressRetryMs,
+                                   @Value("${account.ledger.in-progress-max-wait-ms:5000}") long inProgressMaxWaitMs,
+                                   ObservationRegistry observationRegistry,
+                                   ConsistencyTokenTracker consistencyTokenTracker) {
+        // dns:///호스트:포트 대상이면 조회된 주소 전체에 호출을 나눈다. (k8s headless 서비스)
+        this.channel = ManagedChannelBuilder.forTarget(target)
+                .usePlaintext()
+                .defaultLoadBalancingPolicy("round_robin")
+                .maxInboundMessageSize(maxInboundMessageSize)
+                .intercept(new ConsistencyTokenGrpcInterceptor(consistencyTokenTracker), new ObservationGrpcClientInterceptor(observationRegistry))
+                .build();
+        this.blockingStub = AccountLedgerGrpc.newBlockingStub(channel);
+        this.asyncStub = AccountLedgerGrpc.newStub(channel);
+        this.deadlineMs = deadlineMs;
+        this.bulkDeadlineMs = bulkDeadlineMs;
+        this.streamMessageSize = streamMessageSize;
+        this.inProgressRetryMs = inProgressRetryMs;
+        this.inProgressMaxWaitMs = inProgressMaxWaitMs;
+    }
+
+    @Override
+    public Account retrieveAccount(String acntNo) {
+        AccountReply reply = call(() -> stub(deadlineMs).getAccount(AccountRequest.newBuilder().setAcntNo(acntNo).build()));
+
+        Account account = new Account();
+        account.setAcntNo(reply.hasAcntNo() ? reply.getAcntNo() : null);
+        account.setCstmId(reply.hasCstmId() ? reply.getCstmId() : null);
+        account.setCstmNm(reply.hasCstmNm() ? reply.getCstmNm() : null);
+        account.setAcntNm(reply.hasAcntNm() ? reply.getAcntNm() : null);
+        account.setNewDtm(reply.hasNewDtm() ? reply.getNewDtm() : null);
+        account.setAcntBlnc(reply.hasAcntBlnc() ? reply.getAcntBlnc() : null);
+        return account;
+    }
+
+    @Override
+    public TransactionResult withdraw(TransactionHistory transaction, String idmpKey) {
+        return toTransactionResult(idempotentCall(() -> stub(deadlineMs).withdraw(toTransactionRequest(transaction, idmpKey))));
+    }
+
+    @Override
+    public TransactionResult deposit(TransactionHistory transaction, String idmpKey) {
+        return toTransactionResult(idempotentCall(() -> stub(deadlineMs).deposit(toTransactionRequest(transaction, idmpKey))));
+    }
+
+    @Override
+    public Integer confirmWithdrawal(TransactionHistory transaction, String idmpKey) {
+        return idempotentCall(() -> stub(deadlineMs).confirmWithdrawal(toTransactionRequest(transaction, idmpKey))).getUpdated();
+    }
+
+    @Override
+    public List<BulkTransactionResult> postTransactions(List<TransactionHistory> transactions, boolean atomic, String idmpKey) {
+        BulkTransactionReply reply = idempotentCall(() -> stub(deadlineMs).postTransactions(toBulkTransactionRequest(
+                BulkTransactionRequest.Operation.POST, transactions, atomic, idmpKey)));
+
+        List<BulkTransactionResult> results = new ArrayList<>(reply.getResultsCount());
+        for (com.modernbank.transfer.rest.account.grpc.BulkTransactionResult result : reply.getResultsList())
+            results.add(toBulkTransactionResult(result, 0));
+        return results;
+    }
+
+    /**
+     * 메시지마다 Account Service에서 별도 트랜잭션으로 처리되므로, 메시지별 Idempotency-Key(idmpKey + ":" + 순번)로
+     * 재시도 시 이미 처리된 메시지는 저장된 결과를 그대로 받는다.
+     */
+    @Override
+    public List<BulkTransactionResult> withdrawInBulk(List<TransactionHistory> withdrawals, String idmpKey) {
+        List<BulkTransactionResult> results = new ArrayList<>(withdrawals.size());
+        CompletableFuture<List<BulkTransactionResult>> completion = new CompletableFuture<>();
+
+        StreamObserver<BulkTransactionRequest> requestObserver = asyncStub.withDeadlineAfter(bulkDeadlineMs, TimeUnit.MILLISECONDS)
+                .streamTransactions(new StreamObserver<BulkTransactionReply>() {
+                    private int offset;
+
+                    @Override
+                    public void onNext(BulkTransactionReply reply) {
+                        for (com.modernbank.transfer.rest.account.grpc.BulkTransactionResult result : reply.getResultsList())
+                            results.add(toBulkTransactionResult(result, offset));
+                        offset += reply.getResultsCount();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completion.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completion.complete(results);
+                    }
+                });
+
+        try {
+            for (int from = 0, part = 0; from < withdrawals.size(); from += streamMessageSize, part++) {
+                List<TransactionHistory> message = withdrawals.subList(from, Math.min(from + streamMessageSize, withdrawals.size()));
+                requestObserver.onNext(toBulkTransactionRequest(BulkTransactionRequest.Operation.WITHDRAW, message, false,
+                        idmpKey == null ? null : idmpKey + ":" + part));
+            }
+            requestObserver.onCompleted();
+        } catch (RuntimeException e) {
+            requestObserver.onError(e);
+            throw e;
+        }
+
+        List<BulkTransactionResult> streamed = call(() -> {
+            try {
+                return completion.get();
+            } catch (ExecutionException e) {
+                throw Status.fromThrowable(e.getCause()).asRuntimeException();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Status.CANCELLED.withDescription("Interrupted while waiting for bulk withdrawal result.").asRuntimeException();
+            }
+        });
+        if (streamed.size() != withdrawals.size())
+            throw new SystemException("Bulk withdrawal result count does not match the request.");
+        return streamed;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        channel.shutdown();
+        if (!channel.awaitTermination(5, TimeUnit.SECONDS))
+            channel.shutdownNow();
+    }
+
+    // 요청 기한(Deadline)이 더 짧으면 남은 시간을 gRPC deadline으로 쓴다. (grpc-timeout 헤더로 Account Service에 전달된다)
+    private AccountLedgerGrpc.AccountLedgerBlockingStub stub(long timeoutMs) {
+        return blockingStub.withDeadlineAfter(Math.min(timeoutMs, Deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    // Account Service의 업무 오류(FAILED_PRECONDITION)는 REST의 417 응답처럼 재시도 없이 BusinessException으로 돌려준다.
+    private static <T> T call(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.FAILED_PRECONDITION)
+                throw new BusinessException(e.getStatus().getDescription());
+            throw e;
+        }
+    }
+
+    // 같은 Idempotency-Key의 요청이 처리 중이면(ABORTED) in-progress-retry-ms만큼 기다렸다가 다시 요청한다.
+    private <T> T idempotentCall(Supplier<T> call) {
+        return InProgressWait.call(() -> call(call), e -> e instanceof StatusRuntimeException statusException
+                && statusException.getStatus().getCode() == Status.Code.ABORTED ? inProgressRetryMs : -1, inProgressMaxWaitMs);
+    }
+
+    private static TransactionRequest toTransactionRequest(TransactionHistory transaction, String idmpKey) {
+        TransactionRequest.Builder request = TransactionRequest.newBuilder().setTransaction(toTransaction(transaction));
+        if (idmpKey != null)
+            request.setIdempotencyKey(idmpKey);
+        return request.build();
+    }
+
+    private static BulkTransactionRequest toBulkTransactionRequest(BulkTransactionRequest.Operation operation, List<TransactionHistory> transactions, boolean atomic, String idmpKey) {
+        BulkTransactionRequest.Builder request = BulkTransactionRequest.newBuilder()
+                .setOperation(operation)
+                .setAtomic(atomic);
+        if (idmpKey != null)
+            request.setIdempotencyKey(idmpKey);
+        for (TransactionHistory transaction : transactions)
+            request.addTransactions(toTransaction(transaction));
+        return request.build();
+    }
+
+    private static Transaction toTransaction(TransactionHistory transactionHistory) {
+        Transaction.Builder transaction = Transaction.newBuilder().setSeq(transactionHistory.getSeq());
+        if (transactionHistory.getAcntNo() != null) transaction.setAcntNo(transactionHistory.getAcntNo());
+        if (transactionHistory.getDivCd() != null) transaction.setDivCd(transactionHistory.getDivCd());
+        if (transactionHistory.getStsCd() != null) transaction.setStsCd(transactionHistory.getStsCd());
+        if (transactionHistory.getTrnsAmt() != null) transaction.setTrnsAmt(transactionHistory.getTrnsAmt());
+        if (transactionHistory.getTrnsBrnch() != null) transaction.setTrnsBrnch(transactionHistory.getTrnsBrnch());
+        return transaction.build();
+    }
+
+    private static TransactionResult toTransactionResult(TransactionReply reply) {
+        TransactionResult result = new TransactionResult();
+        result.setAcntNo(reply.hasAcntNo() ? reply.getAcntNo() : null);
+        result.setSeq(reply.getSeq());
+        result.setFormerBlnc(reply.hasFormerBlnc() ? reply.getFormerBlnc() : null);
+        result.setTrnsAmt(reply.hasTrnsAmt() ? reply.getTrnsAmt() : null);
+        result.setAcntBlnc(reply.hasAcntBlnc() ? reply.getAcntBlnc() : null);
+        return result;
+    }
+
+    // 결과의 index는 메시지 안의 위치이므로 앞선 메시지의 건수(offset)를 더해 전체 요청 기준으로 바꾼다.
+    private static BulkTransactionResult toBulkTransactionResult(com.modernbank.transfer.rest.account.grpc.BulkTransactionResult reply, int offset) {
+        BulkTransactionResult result = new BulkTransactionResult();
+        result.setIndex(offset + reply.getIndex());
+        result.setAcntNo(reply.hasAcntNo() ? reply.getAcntNo() : null);
+        result.setSeq(reply.getSeq());
+        result.setDivCd(reply.hasDivCd() ? reply.getDivCd() : null);
+        result.setStsCd(reply.hasStsCd() ? reply.getStsCd() : null);
+        result.setFormerBlnc(reply.hasFormerBlnc() ? reply.getFormerBlnc() : null);
+        result.setTrnsAmt(reply.hasTrnsAmt() ? reply.getTrnsAmt() : null);
+        result.setAcntBlnc(reply.hasAcntBlnc() ? reply.getAcntBlnc() : null);
+        result.setSuccess(reply.getSuccess());
+        result.setMessage(reply.hasMessage() ? reply.getMessage() : null);
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.modernbank.transfer.rest.account;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.modernbank.transfer.deadline.Deadline;
+import com.modernbank.transfer.exception.SystemException;
+
+/**
+ * Account Service가 같은 Idempotency-Key의 앞선 요청을 아직 처리 중이라고 답하면(REST 409 + Retry-After, gRPC ABORTED)
+ * 기다렸다가 같은 키로 다시 호출한다. 앞선 시도가 읽기 타임아웃/deadline으로 끊긴 뒤 Retry가 재호출하면 이 응답을 받는다.
+ * 최대 대기 시간(account.ledger.in-progress-max-wait-ms)이나 요청 기한(Deadline)을 넘기게 되면 SystemException으로 끝낸다.
+ */
+final class InProgressWait {
+
+    private InProgressWait() {
+    }
+
+    /**
+     * @param retryAfterMs 처리 중 응답이면 다시 호출하기 전 기다릴 시간(ms), 아니면 음수
+     */
+    static <T> T call(Supplier<T> call, ToLongFunction<RuntimeException> retryAfterMs, long maxWaitMs) {
+        long waitUntil = System.nanoTime() + maxWaitMs * 1_000_000L;
+        while (true) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                long waitMs = retryAfterMs.applyAsLong(e);
+                if (waitMs < 0)
+                    throw e;
+
+                long remainingMs = Math.min((waitUntil - System.nanoTime()) / 1_000_000L, Deadline.remainingMillis());
+                if (waitMs >= remainingMs)
+                    throw new SystemException("Account Service is still processing the same request.");
+                try {
+                    Thread.sleep(waitMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new SystemException("Interrupted while waiting for the same request to complete.");
+                }
+            }
+        }
+    }
+}
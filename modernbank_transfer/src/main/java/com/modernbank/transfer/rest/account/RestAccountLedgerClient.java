@@ -0,0 +1,100 @@
+package com.modernbank.transfer.rest.account;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.idempotency.IdempotencyFilter;
+import com.modernbank.transfer.rest.account.entity.Account;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+import com.modernbank.transfer.rest.account.entity.TransactionResult;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.Resource;
+
+public class RestAccountLedgerClient implements AccountLedgerClient {
+
+    @Autowired
+    RestTemplate restTemplate;
+
+    @Resource(name = "bulkRestTemplate")
+    private RestTemplate bulkRestTemplate;
+
+    @Value("${account.api.url}")
+    private String accountServiceUrl;
+
+    @Value("${account.ledger.in-progress-max-wait-ms:5000}")
+    private long inProgressMaxWaitMs;
+
+    @Override
+    public Account retrieveAccount(String acntNo) {
+        return restTemplate.getForObject(accountServiceUrl + "/{acntNo}", Account.class, acntNo);
+    }
+
+    @Override
+    public TransactionResult withdraw(TransactionHistory transaction, String idmpKey) {
+        return post(() -> restTemplate.postForObject(accountServiceUrl + "/withdrawals/", withIdempotencyKey(transaction, idmpKey), TransactionResult.class));
+    }
+
+    @Override
+    public TransactionResult deposit(TransactionHistory transaction, String idmpKey) {
+        return post(() -> restTemplate.postForObject(accountServiceUrl + "/deposits/", withIdempotencyKey(transaction, idmpKey), TransactionResult.class));
+    }
+
+    @Override
+    public Integer confirmWithdrawal(TransactionHistory transaction, String idmpKey) {
+        return post(() -> restTemplate.postForObject(accountServiceUrl + "/withdrawals/confirm/", withIdempotencyKey(transaction, idmpKey), Integer.class));
+    }
+
+    @Override
+    public List<BulkTransactionResult> postTransactions(List<TransactionHistory> transactions, boolean atomic, String idmpKey) {
+        return toList(post(() -> restTemplate.postForObject(accountServiceUrl + "/transactions/bulk/?atomic=" + atomic, withIdempotencyKey(transactions, idmpKey), BulkTransactionResult[].class)));
+    }
+
+    // 대량 이체의 일괄 출금 요청은 청크 단위 처리 시간이 길어 별도 타임아웃(bulkRestTemplate)을 쓴다.
+    @Override
+    public List<BulkTransactionResult> withdrawInBulk(List<TransactionHistory> withdrawals, String idmpKey) {
+        return toList(post(() -> bulkRestTemplate.postForObject(accountServiceUrl + "/withdrawals/bulk/", withIdempotencyKey(withdrawals, idmpKey), BulkTransactionResult[].class)));
+    }
+
+    // 같은 Idempotency-Key의 요청이 처리 중이면(409 + Retry-After) Retry-After만큼 기다렸다가 다시 요청한다.
+    private <T> T post(Supplier<T> call) {
+        return InProgressWait.call(call, RestAccountLedgerClient::retryAfterMillis, inProgressMaxWaitMs);
+    }
+
+    private static long retryAfterMillis(RuntimeException e) {
+        if (!(e instanceof HttpClientErrorException.Conflict conflict) || conflict.getResponseHeaders() == null)
+            return -1;
+        String retryAfter = conflict.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null)
+            return -1;
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim())) * 1000L;
+        } catch (NumberFormatException ex) {
+            return 1000L;
+        }
+    }
+
+    private static List<BulkTransactionResult> toList(BulkTransactionResult[] results) {
+        if (results == null)
+            throw new SystemException("Failed to receive bulk transaction result.");
+        return Arrays.asList(results);
+    }
+
+    private static HttpEntity<Object> withIdempotencyKey(Object body, String idmpKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (idmpKey != null)
+            headers.set(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idmpKey);
+        return new HttpEntity<>(body, headers);
+    }
+}
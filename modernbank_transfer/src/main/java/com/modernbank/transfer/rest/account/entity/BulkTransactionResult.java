@@ -0,0 +1,17 @@
+package com.modernbank.transfer.rest.account.entity;
+
+import lombok.Data;
+
+@Data
+public class BulkTransactionResult {
+	private int index;
+	private String acntNo;
+	private int seq;
+	private String divCd;
+	private String stsCd;
+	private Long formerBlnc;
+	private Long trnsAmt;
+	private Long acntBlnc;
+	private boolean success;
+	private String message;
+}
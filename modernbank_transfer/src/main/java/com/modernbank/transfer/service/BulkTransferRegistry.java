@@ -0,0 +1,62 @@
+package com.modernbank.transfer.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.modernbank.transfer.domain.entity.BulkTransfer;
+import com.modernbank.transfer.domain.entity.BulkTransferItem;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대량 이체 배치의 처리 상태를 보관한다.
+ * 최근 배치만 메모리에 유지하며(LRU), 타행 처리 결과가 도착하면 (고객ID, 이체 순번)으로 해당 항목을 찾아 상태를 갱신한다.
+ */
+@Component
+public class BulkTransferRegistry {
+
+    private final Map<String, BulkTransfer> bulkTransfers;
+    private final Map<String, BulkTransferItem> submittedItems = new ConcurrentHashMap<>();
+
+    public BulkTransferRegistry(@Value("${transfer.bulk.registry.max-batches:100}") int maxBatches) {
+        this.bulkTransfers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BulkTransfer> eldest) {
+                if (size() <= maxBatches)
+                    return false;
+                eldest.getValue().getItems().forEach(item -> submittedItems.remove(itemKey(item.getCstmId(), item.getSeq())));
+                return true;
+            }
+        };
+    }
+
+    public synchronized void register(BulkTransfer bulkTransfer) {
+        bulkTransfers.put(bulkTransfer.getBatchId(), bulkTransfer);
+    }
+
+    public synchronized void remove(String batchId) {
+        bulkTransfers.remove(batchId);
+    }
+
+    public synchronized BulkTransfer find(String batchId) {
+        return bulkTransfers.get(batchId);
+    }
+
+    public void markSubmitted(BulkTransferItem item) {
+        item.update(BulkTransferItem.SUBMITTED, null);
+        submittedItems.put(itemKey(item.getCstmId(), item.getSeq()), item);
+    }
+
+    // 타행 이체 결과 반영. 대량 이체로 접수된 건이 아니면 아무 것도 하지 않는다.
+    public void complete(String cstmId, int seq, boolean completed) {
+        BulkTransferItem item = submittedItems.remove(itemKey(cstmId, seq));
+        if (item != null)
+            item.update(completed ? BulkTransferItem.COMPLETED : BulkTransferItem.CANCELLED, null);
+    }
+
+    private static String itemKey(String cstmId, int seq) {
+        return cstmId + ":" + seq;
+    }
+}
@@ -0,0 +1,588 @@
+package com.modernbank.transfer.service;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import com.modernbank.transfer.domain.entity.BulkTransfer;
+import com.modernbank.transfer.domain.entity.BulkTransferChunkItem;
+import com.modernbank.transfer.domain.entity.BulkTransferItem;
+import com.modernbank.transfer.domain.entity.TransferHistory;
+import com.modernbank.transfer.domain.entity.TransferLimit;
+import com.modernbank.transfer.domain.repository.BulkTransferRepository;
+import com.modernbank.transfer.domain.repository.MyBatisBatchWriter;
+import com.modernbank.transfer.domain.repository.TransferRepository;
+import com.modernbank.transfer.exception.BusinessException;
+import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.publisher.TransferProducer;
+import com.modernbank.transfer.rest.account.AccountComposite;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.Resource;
+
+/**
+ * 대량 타행 이체 (급여 이체, 기업 대량 송금).
+ * 접수 즉시 배치 ID를 반환하고, 고객별 한도 검증/순번 예약/이체 이력 저장 → Account Service 일괄 출금 → 이벤트 Outbox 일괄 기록 순으로 비동기 처리한다.
+ * 항목별 처리 상태는 배치 ID로 조회한다. 처리 상태는 메모리에만 있으므로, 출금 결과 반영이 끝나지 않은 묶음은 TB_BLK_TRNF_ITEM에 남겨 DB에서 다시 찾는다.
+ */
+@Service("bulkTransferService")
+public class BulkTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransferService.class);
+
+    private static final String[] FILE_COLUMNS = {"cstmId", "wthdAcntNo", "dpstAcntNo", "trnfAmt", "sndMm", "rcvMm"};
+
+    @Resource(name = "transferService")
+    private TransferService transferService;
+
+    @Autowired
+    MyBatisBatchWriter batchWriter;
+
+    @Autowired
+    BulkTransferRepository bulkTransferRepository;
+
+    @Autowired
+    TransferProducer transferProducer;
+
+    @Resource(name = "accountComposite")
+    private AccountComposite accountComposite;
+
+    @Autowired
+    BulkTransferRegistry bulkTransferRegistry;
+
+    @Autowired
+    ThreadPoolExecutor bulkTransferExecutor;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Value("${transfer.bulk.max-items:10000}")
+    private int maxItems;
+
+    @Value("${transfer.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${transfer.bulk.withdraw-replay-attempts:2}")
+    private int withdrawReplayAttempts;
+
+    @Value("${transfer.bulk.write-attempts:3}")
+    private int writeAttempts;
+
+    @Value("${transfer.bulk.write-retry-backoff-ms:1000}")
+    private long writeRetryBackoffMs;
+
+    @Value("${transfer.bulk.sweep.stale-seconds:1800}")
+    private long sweepStaleSeconds;
+
+    @Value("${transfer.bulk.sweep.batch-size:10}")
+    private int sweepBatchSize;
+
+    public BulkTransfer submitBulkTransfer(List<TransferHistory> transfers) throws Exception {
+        if (transfers == null || transfers.isEmpty())
+            throw new BusinessException("No transfers requested.");
+        if (transfers.size() > maxItems)
+            throw new BusinessException("Too many transfers in one request. (max " + maxItems + ")");
+
+        List<BulkTransferItem> items = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++)
+            items.add(new BulkTransferItem(i, transfers.get(i)));
+
+        BulkTransfer bulkTransfer = new BulkTransfer();
+        bulkTransfer.setBatchId(UUID.randomUUID().toString());
+        bulkTransfer.setReqDtm(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        bulkTransfer.setTotalCount(transfers.size());
+        bulkTransfer.setStatus(BulkTransfer.RECEIVED);
+        bulkTransfer.setTransfers(transfers);
+        bulkTransfer.setItems(items);
+
+        // 워커가 바로 상태를 바꿀 수 있으므로 제출 전에 등록한다.
+        bulkTransferRegistry.register(bulkTransfer);
+        try {
+            bulkTransferExecutor.execute(() -> processBulkTransfer(bulkTransfer));
+        } catch (RejectedExecutionException e) {
+            bulkTransferRegistry.remove(bulkTransfer.getBatchId());
+            throw new BusinessException("Too many bulk transfers are in progress. Please try again later.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return bulkTransfer;
+    }
+
+    public BulkTransfer retrieveBulkTransfer(String batchId) throws Exception {
+        BulkTransfer bulkTransfer = bulkTransferRegistry.find(batchId);
+        if (bulkTransfer == null)
+            throw new BusinessException("Bulk transfer batch does not exist.", HttpStatus.NOT_FOUND);
+        return bulkTransfer;
+    }
+
+    /**
+     * CSV 파일(cstmId,wthdAcntNo,dpstAcntNo,trnfAmt,sndMm,rcvMm)을 이체 목록으로 변환한다.
+     * 첫 줄이 헤더이거나 '#'으로 시작하는 줄은 무시한다.
+     */
+    public List<TransferHistory> parseBulkTransferFile(MultipartFile file) throws Exception {
+        List<TransferHistory> transfers = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || (lineNo == 1 && line.startsWith(FILE_COLUMNS[0])))
+                    continue;
+
+                String[] columns = line.split(",", -1);
+                if (columns.length != FILE_COLUMNS.length)
+                    throw new BusinessException("Invalid bulk transfer file format at line " + lineNo + ". Expected columns: " + String.join(",", FILE_COLUMNS));
+
+                try {
+                    transfers.add(TransferHistory.builder()
+                            .cstmId(columns[0].trim())
+                            .wthdAcntNo(columns[1].trim())
+                            .dpstAcntNo(columns[2].trim())
+                            .trnfAmt(Long.parseLong(columns[3].trim()))
+                            .sndMm(columns[4].trim())
+                            .rcvMm(columns[5].trim())
+                            .build());
+                } catch (NumberFormatException e) {
+                    throw new BusinessException("Invalid transfer amount at line " + lineNo + ".");
+                }
+            }
+        }
+
+        return transfers;
+    }
+
+    private void processBulkTransfer(BulkTransfer bulkTransfer) {
+        bulkTransfer.setStatus(BulkTransfer.PROCESSING);
+        try {
+            // 접수한 건을 배치 안의 순서 구간(chunk-size)별 묶음으로 나눈다. 묶음 항목은 이체 이력과 함께 저장되어 있다.
+            Map<Integer, List<Integer>> chunks = new TreeMap<>();
+            for (int i : validateTransferLimits(bulkTransfer))
+                chunks.computeIfAbsent(chunkStart(i), k -> new ArrayList<>()).add(i);
+
+            for (Map.Entry<Integer, List<Integer>> chunk : chunks.entrySet()) {
+                List<Integer> indexes = chunk.getValue();
+                Collections.sort(indexes);
+                try {
+                    processChunk(bulkTransfer, chunkKey(bulkTransfer.getBatchId(), chunk.getKey()), indexes);
+                } catch (Exception e) {
+                    // 묶음 항목이 남아 있으므로 resolveStaleChunks가 같은 키로 출금 결과를 다시 받아 반영한다. 다음 묶음은 계속 처리한다.
+                    logger.error("Failed to process bulk transfer chunk: batchId=[" + bulkTransfer.getBatchId() + "], items=[" + indexes.size() + "]", e);
+                }
+            }
+
+            bulkTransfer.setStatus(BulkTransfer.SUBMITTED);
+        } catch (Exception e) {
+            logger.error("Failed to process bulk transfer: " + bulkTransfer.getBatchId(), e);
+            bulkTransfer.getItems().stream()
+                    .filter(item -> BulkTransferItem.RECEIVED.equals(item.getStatus()))
+                    .forEach(item -> item.update(BulkTransferItem.FAILED, e.getMessage()));
+            bulkTransfer.setStatus(BulkTransfer.FAILED);
+            bulkTransfer.setMessage(e.getMessage());
+        }
+
+        logger.info("Bulk transfer " + bulkTransfer.getBatchId() + " " + bulkTransfer.getStatus()
+                + ": total=[" + bulkTransfer.getTotalCount() + "], submitted=[" + bulkTransfer.countByStatus(BulkTransferItem.SUBMITTED)
+                + "], rejected=[" + bulkTransfer.countByStatus(BulkTransferItem.REJECTED) + "], failed=[" + bulkTransfer.countByStatus(BulkTransferItem.FAILED) + "]");
+    }
+
+    /**
+     * 고객별로 이체 한도를 한 번만 조회하여 배치 전체를 검증하고, 통과한 건에 이체 순번을 일괄 예약해 대기(0) 상태로 저장한다.
+     * 1회 한도를 넘거나 누적 금액이 1일 잔여 한도를 넘는 건은 거절한다.
+     * 고객마다 한 트랜잭션에서 순번 행을 잠근 뒤(TransferService.reserveSeqs) 당일 누적 금액을 읽고 이력을 저장하므로,
+     * 같은 고객의 단건 이체/다른 대량 이체와 순번이 겹치지 않고, 이후의 한도 검증은 이 배치의 대기 이력까지 합산한다.
+     */
+    private List<Integer> validateTransferLimits(BulkTransfer bulkTransfer) throws Exception {
+        List<TransferHistory> transfers = bulkTransfer.getTransfers();
+        List<BulkTransferItem> items = bulkTransfer.getItems();
+
+        Map<String, List<Integer>> indexesByCustomer = new LinkedHashMap<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferHistory transfer = transfers.get(i);
+            if (transfer.getCstmId() == null || transfer.getWthdAcntNo() == null || transfer.getDpstAcntNo() == null
+                    || transfer.getTrnfAmt() == null || transfer.getTrnfAmt() <= 0) {
+                items.get(i).update(BulkTransferItem.REJECTED, "Customer ID, account numbers and a positive transfer amount are required.");
+                continue;
+            }
+            indexesByCustomer.computeIfAbsent(transfer.getCstmId(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<Integer> acceptedIndexes = new ArrayList<>(transfers.size());
+        for (Map.Entry<String, List<Integer>> entry : indexesByCustomer.entrySet()) {
+            try {
+                acceptedIndexes.addAll(transactionTemplate.execute(status -> {
+                    try {
+                        return acceptCustomerTransfers(bulkTransfer, entry.getKey(), entry.getValue());
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new SystemException(e.getMessage());
+                    }
+                }));
+            } catch (RuntimeException e) {
+                // 트랜잭션이 롤백되어 저장된 이력이 없으므로 이 고객의 건만 실패 처리한다.
+                logger.error("Failed to accept bulk transfers: batchId=[" + bulkTransfer.getBatchId() + "], cstmId=[" + entry.getKey() + "]", e);
+                entry.getValue().stream()
+                        .map(items::get)
+                        .filter(item -> BulkTransferItem.RECEIVED.equals(item.getStatus()))
+                        .forEach(item -> item.update(BulkTransferItem.FAILED, e.getMessage()));
+            }
+        }
+
+        return acceptedIndexes;
+    }
+
+    // 고객 한 명의 이체를 검증하고, 통과한 건에 순번을 예약해 대기 이력으로 저장한다. (트랜잭션 안에서 호출)
+    private List<Integer> acceptCustomerTransfers(BulkTransfer bulkTransfer, String cstmId, List<Integer> indexes) throws Exception {
+        List<TransferHistory> transfers = bulkTransfer.getTransfers();
+        List<BulkTransferItem> items = bulkTransfer.getItems();
+
+        // 한도를 읽기 전에 고객 순번 행을 잠가 동시에 들어온 이체가 같은 잔여 한도를 쓰지 않게 한다.
+        transferService.reserveSeqs(cstmId, 0);
+
+        TransferLimit transferLimit;
+        try {
+            transferLimit = transferService.retrieveEnableTransferLimit(cstmId);
+        } catch (BusinessException e) {
+            indexes.forEach(i -> items.get(i).update(BulkTransferItem.REJECTED, e.getMessage()));
+            return List.of();
+        }
+
+        long remainingOneDayLimit = transferLimit.getOneDyTrnfLmt();
+        List<Integer> acceptedIndexes = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            long trnfAmt = transfers.get(i).getTrnfAmt();
+
+            if (trnfAmt > transferLimit.getOneTmTrnfLmt()) {
+                items.get(i).update(BulkTransferItem.REJECTED, "Exceeded one-time transfer limit.");
+            } else if (trnfAmt > remainingOneDayLimit) {
+                items.get(i).update(BulkTransferItem.REJECTED, "Exceeded one-day transfer limit.");
+            } else {
+                remainingOneDayLimit -= trnfAmt;
+                acceptedIndexes.add(i);
+            }
+        }
+        if (acceptedIndexes.isEmpty())
+            return acceptedIndexes;
+
+        int seq = transferService.reserveSeqs(cstmId, acceptedIndexes.size()) - acceptedIndexes.size();
+        List<TransferHistory> acceptedTransfers = new ArrayList<>(acceptedIndexes.size());
+        List<BulkTransferChunkItem> chunkItems = new ArrayList<>(acceptedIndexes.size());
+        for (int i : acceptedIndexes) {
+            TransferHistory transfer = transfers.get(i);
+            transfer.setSeq(++seq);
+            transfer.setDivCd(TransferService.B2B_TRANSFER_DIV_CD);
+            transfer.setStsCd(TransferService.B2B_TRANSFER_PENDING);
+            transfer.setRcvCstmNm("Amazon Web Services");
+            if (transfer.getSndMm() == null)
+                transfer.setSndMm("");
+            if (transfer.getRcvMm() == null)
+                transfer.setRcvMm("");
+            items.get(i).setSeq(seq);
+            acceptedTransfers.add(transfer);
+            chunkItems.add(BulkTransferChunkItem.builder()
+                    .blkKey(chunkKey(bulkTransfer.getBatchId(), chunkStart(i)))
+                    .blkIdx(i)
+                    .cstmId(cstmId)
+                    .seq(seq)
+                    .build());
+        }
+
+        // TB_TRNF_HST 이체 이력 일괄 저장 (대기 상태)
+        batchWriter.write(TransferRepository.class, acceptedTransfers, TransferRepository::insertNewTransferHistory);
+        // 묶음 항목 저장. 출금 결과를 이력에 반영할 때 함께 지우므로, 남아 있는 항목은 결과 반영이 끝나지 않은 건이다.
+        batchWriter.write(BulkTransferRepository.class, chunkItems, BulkTransferRepository::insertBulkTransferChunkItem);
+        return acceptedIndexes;
+    }
+
+    /**
+     * 묶음 하나를 Account Service에서 일괄 출금(출금 대기)하고 결과를 이체 이력에 반영한다.
+     * 출금 결과를 알 수 없으면 같은 키로 다시 요청하고, 그래도 모르면 대기 이력을 실패로 확정하되 묶음 항목은 남겨
+     * resolveStaleChunks가 나중에 결과를 받아 생긴 출금 대기 거래를 취소하게 한다.
+     */
+    private void processChunk(BulkTransfer bulkTransfer, String blkKey, List<Integer> indexes) throws Exception {
+        List<TransferHistory> transfers = new ArrayList<>(indexes.size());
+        for (int i : indexes)
+            transfers.add(bulkTransfer.getTransfers().get(i));
+
+        List<BulkTransactionResult> withdrawResults;
+        try {
+            withdrawResults = withdrawInBulk(transfers, blkKey);
+        } catch (BusinessException | HttpClientErrorException e) {
+            // Account Service가 요청을 거절했으므로 출금 대기 거래가 없다. 대기 이력을 실패로 확정하고 묶음을 해소한다.
+            logger.warn("Bulk withdrawal rejected: batchId=[" + bulkTransfer.getBatchId() + "], chunk=[" + blkKey + "], items=[" + indexes.size() + "]: " + e.getMessage());
+            failTransfers(bulkTransfer, blkKey, indexes, e.getMessage());
+            return;
+        } catch (Exception e) {
+            logger.error("Bulk withdrawal result is unknown: batchId=[" + bulkTransfer.getBatchId() + "], chunk=[" + blkKey + "], items=[" + indexes.size() + "]", e);
+            failTransfers(bulkTransfer, null, indexes, "Bulk withdrawal result is unknown. Any pending withdrawal will be cancelled.");
+            return;
+        }
+
+        List<TransferHistory> submittedTransfers = new ArrayList<>(transfers.size());
+        List<TransferHistory> failedTransfers = new ArrayList<>();
+        for (int n = 0; n < transfers.size(); n++) {
+            TransferHistory transfer = transfers.get(n);
+            BulkTransactionResult withdrawResult = withdrawResults.get(n);
+            if (withdrawResult.isSuccess()) {
+                transfer.setWthdAcntSeq(withdrawResult.getSeq());
+                submittedTransfers.add(transfer);
+            } else {
+                transfer.setStsCd(TransferService.B2B_TRANSFER_FAILED);
+                failedTransfers.add(transfer);
+            }
+        }
+
+        // 실패 건의 상태 갱신, B2BT Service와 CQRS로 보낼 이벤트의 Outbox 기록, 묶음 해소
+        if (!writeResults(blkKey, failedTransfers, submittedTransfers, transfers))
+            return;
+
+        // 커밋된 뒤에만 타행 전송 상태로 바꾼다. (기록이 실패하면 접수 상태로 남아 resolveStaleChunks가 반영한다)
+        for (int n = 0; n < transfers.size(); n++) {
+            BulkTransferItem item = bulkTransfer.getItems().get(indexes.get(n));
+            BulkTransactionResult withdrawResult = withdrawResults.get(n);
+            if (withdrawResult.isSuccess())
+                bulkTransferRegistry.markSubmitted(item);
+            else
+                item.update(BulkTransferItem.FAILED, withdrawResult.getMessage());
+        }
+    }
+
+    /**
+     * 출금 대기로 넘어가지 못한 건(접수/실패 상태)의 대기 이력을 실패(2)로 확정한다.
+     * blkKey가 있으면 묶음도 같은 트랜잭션에서 해소하고, 없으면(출금 결과를 모르면) 묶음 항목을 남긴다.
+     */
+    private void failTransfers(BulkTransfer bulkTransfer, String blkKey, List<Integer> indexes, String message) {
+        List<TransferHistory> failedTransfers = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            BulkTransferItem item = bulkTransfer.getItems().get(i);
+            if (!BulkTransferItem.RECEIVED.equals(item.getStatus()) && !BulkTransferItem.FAILED.equals(item.getStatus()))
+                continue;
+            TransferHistory transfer = bulkTransfer.getTransfers().get(i);
+            transfer.setStsCd(TransferService.B2B_TRANSFER_FAILED);
+            failedTransfers.add(transfer);
+            if (BulkTransferItem.RECEIVED.equals(item.getStatus()))
+                item.update(BulkTransferItem.FAILED, message);
+        }
+
+        try {
+            writeResults(blkKey, failedTransfers, List.of(), failedTransfers);
+        } catch (Exception e) {
+            // 이력은 대기 상태로, 묶음 항목은 그대로 남으므로 resolveStaleChunks가 같은 키로 결과를 받아 반영한다.
+            logger.error("Failed to mark [" + failedTransfers.size() + "] bulk transfers as failed: batchId=[" + bulkTransfer.getBatchId() + "]", e);
+        }
+    }
+
+    /**
+     * 결과 반영이 끝나지 않은 채 stale-seconds가 지난 묶음을 DB에서 찾아 반영한다.
+     * (처리 도중 인스턴스가 내려갔거나, 출금 결과를 몰랐거나, 결과 기록이 계속 실패한 묶음)
+     * 같은 Idempotency-Key로 일괄 출금을 다시 요청하므로, Account Service는 반영된 요청이면 저장된 결과를, 반영되지 않은 요청이면 새로 처리한 결과를 돌려준다.
+     * 여러 인스턴스가 함께 돌아도 묶음의 갱신 시각으로 선점하므로 stale-seconds 동안은 한 인스턴스만 같은 묶음을 다룬다.
+     */
+    @Scheduled(fixedDelayString = "${transfer.bulk.sweep.interval-ms:60000}")
+    public void resolveStaleChunks() {
+        List<String> blkKeys;
+        try {
+            blkKeys = bulkTransferRepository.selectStaleBulkTransferChunkList(sweepStaleSeconds, sweepBatchSize);
+        } catch (Exception e) {
+            logger.error("Failed to look up stale bulk transfer chunks", e);
+            return;
+        }
+
+        for (String blkKey : blkKeys) {
+            try {
+                resolveStaleChunk(blkKey);
+            } catch (Exception e) {
+                logger.error("Failed to resolve stale bulk transfer chunk: " + blkKey, e);
+            }
+        }
+    }
+
+    /**
+     * 이력 상태에 따라 다시 받은 출금 결과를 반영한다.
+     * - 대기(0): 출금 성공이면 타행 이체로 넘기고, 실패면 실패(2)로 확정한다.
+     * - 실패(2): 출금 결과를 모른 채 실패로 확정한 건이므로, 출금이 성공했으면 출금 대기 거래를 취소(2)한다.
+     * 취소는 B2B 결과 처리와 같은 Idempotency-Key를 쓰므로 한 번만 반영되고, 모두 취소된 뒤에 묶음을 해소한다.
+     */
+    private void resolveStaleChunk(String blkKey) throws Exception {
+        if (bulkTransferRepository.claimBulkTransferChunk(blkKey, sweepStaleSeconds) == 0)
+            return;
+
+        List<BulkTransferChunkItem> chunkItems = bulkTransferRepository.selectBulkTransferChunk(blkKey);
+        if (chunkItems.isEmpty())
+            return;
+        List<TransferHistory> transfers = new ArrayList<>(chunkItems.size());
+        for (BulkTransferChunkItem chunkItem : chunkItems)
+            transfers.add(chunkItem.getTransfer());
+
+        List<BulkTransactionResult> withdrawResults;
+        try {
+            withdrawResults = withdrawInBulk(transfers, blkKey);
+        } catch (BusinessException | HttpClientErrorException e) {
+            withdrawResults = null;
+            logger.warn("Bulk withdrawal rejected on replay: chunk=[" + blkKey + "]: " + e.getMessage());
+        }
+
+        List<TransferHistory> submittedTransfers = new ArrayList<>(transfers.size());
+        List<TransferHistory> failedTransfers = new ArrayList<>();
+        List<Boolean> submitted = new ArrayList<>(transfers.size());
+        for (int n = 0; n < transfers.size(); n++) {
+            TransferHistory transfer = transfers.get(n);
+            boolean pending = TransferService.B2B_TRANSFER_PENDING.equals(transfer.getStsCd());
+            boolean withdrawn = withdrawResults != null && withdrawResults.get(n).isSuccess();
+
+            if (withdrawn && pending) {
+                transfer.setWthdAcntSeq(withdrawResults.get(n).getSeq());
+                submittedTransfers.add(transfer);
+            } else if (withdrawn && TransferService.B2B_TRANSFER_FAILED.equals(transfer.getStsCd())) {
+                transferService.cancelWithdrawal(transfer.getWthdAcntNo(), withdrawResults.get(n).getSeq(), transfer.getTrnfAmt(), transfer.getSndMm());
+            } else if (pending) {
+                transfer.setStsCd(TransferService.B2B_TRANSFER_FAILED);
+                failedTransfers.add(transfer);
+            }
+            submitted.add(withdrawn && pending);
+        }
+
+        List<TransferHistory> changedTransfers = new ArrayList<>(submittedTransfers);
+        changedTransfers.addAll(failedTransfers);
+        if (!writeResults(blkKey, failedTransfers, submittedTransfers, changedTransfers))
+            return;
+        logger.info("Resolved stale bulk transfer chunk " + blkKey + ": items=[" + transfers.size() + "], submitted=[" + submittedTransfers.size() + "], failed=[" + failedTransfers.size() + "]");
+
+        // 배치가 아직 이 인스턴스에 있으면 항목 상태도 갱신한다.
+        BulkTransfer bulkTransfer = bulkTransferRegistry.find(batchId(blkKey));
+        if (bulkTransfer == null)
+            return;
+        for (int n = 0; n < chunkItems.size(); n++) {
+            BulkTransferItem item = bulkTransfer.getItems().get(chunkItems.get(n).getBlkIdx());
+            if (submitted.get(n))
+                bulkTransferRegistry.markSubmitted(item);
+            else if (BulkTransferItem.RECEIVED.equals(item.getStatus()))
+                item.update(BulkTransferItem.FAILED, withdrawResults == null ? "Bulk withdrawal rejected." : withdrawResults.get(n).getMessage());
+        }
+    }
+
+    /**
+     * 묶음을 일괄 출금(출금 대기)한다. 요청은 이체 이력만으로 만들어 처음 요청과 다시 요청이 같은 본문이 되게 한다.
+     * 결과를 알 수 없는 실패(타임아웃 등)는 같은 키로 withdraw-replay-attempts번까지 다시 요청한다.
+     * Account Service는 출금 거래와 키 완료를 한 트랜잭션으로 남기므로, 다시 요청해도 출금이 두 번 생기지 않는다.
+     */
+    private List<BulkTransactionResult> withdrawInBulk(List<TransferHistory> transfers, String blkKey) {
+        List<TransactionHistory> withdrawals = new ArrayList<>(transfers.size());
+        for (TransferHistory transfer : transfers) {
+            withdrawals.add(TransactionHistory.builder()
+                    .acntNo(transfer.getWthdAcntNo())
+                    .divCd("W")
+                    .stsCd(TransferService.B2B_TRANSFER_PENDING)
+                    .trnsAmt(transfer.getTrnfAmt())
+                    .trnsBrnch(transfer.getSndMm())
+                    .build());
+        }
+
+        List<BulkTransactionResult> withdrawResults;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                withdrawResults = accountComposite.withdrawInBulk(withdrawals, blkKey);
+                break;
+            } catch (BusinessException | HttpClientErrorException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (attempt > withdrawReplayAttempts)
+                    throw e;
+                logger.warn("Replaying bulk withdrawal " + blkKey + " (" + attempt + "/" + withdrawReplayAttempts + ") after: " + e.getMessage());
+            }
+        }
+
+        if (withdrawResults.size() != withdrawals.size())
+            throw new SystemException("Bulk withdrawal result count does not match the request.");
+        return withdrawResults;
+    }
+
+    /**
+     * 실패 건의 이력 상태 갱신, 이벤트 Outbox 기록, 묶음 해소를 한 트랜잭션으로 남긴다.
+     * 일시적인 DB 오류로 출금 결과를 잃지 않도록 write-attempts번까지 다시 시도하고, 끝내 실패하면 예외를 던진다. (묶음 항목은 남는다)
+     * @return 묶음이 이미 해소되어(다른 쪽이 먼저 반영) 아무 것도 기록하지 않았으면 false
+     */
+    private boolean writeResults(String blkKey, List<TransferHistory> failedTransfers, List<TransferHistory> submittedTransfers, List<TransferHistory> transfers) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Boolean resolved = transactionTemplate.execute(status -> {
+                    // 묶음 항목을 먼저 지워 같은 묶음을 동시에 반영하는 쪽이 행 잠금에서 기다렸다가 0건을 보게 한다.
+                    if (blkKey != null && deleteBulkTransferChunk(blkKey) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    writeResults(failedTransfers, submittedTransfers, transfers);
+                    return true;
+                });
+                if (!resolved)
+                    logger.warn("Bulk transfer chunk " + blkKey + " was already resolved.");
+                return resolved;
+            } catch (RuntimeException e) {
+                if (attempt >= writeAttempts)
+                    throw e;
+                logger.warn("Retrying to write bulk transfer results " + blkKey + " (" + attempt + "/" + writeAttempts + ") after: " + e.getMessage());
+                try {
+                    Thread.sleep(writeRetryBackoffMs * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void writeResults(List<TransferHistory> failedTransfers, List<TransferHistory> submittedTransfers, List<TransferHistory> transfers) {
+        try {
+            batchWriter.write(TransferRepository.class, failedTransfers, TransferRepository::insertTransferHistory);
+        } catch (Exception e) {
+            throw new SystemException(e.getMessage());
+        }
+        transferProducer.sendB2BTransferMessages(submittedTransfers);
+        transferProducer.sendCQRSTransferMessages(transfers);
+    }
+
+    private int deleteBulkTransferChunk(String blkKey) {
+        try {
+            return bulkTransferRepository.deleteBulkTransferChunk(blkKey);
+        } catch (Exception e) {
+            throw new SystemException(e.getMessage());
+        }
+    }
+
+    private int chunkStart(int index) {
+        return index / chunkSize * chunkSize;
+    }
+
+    // 묶음의 일괄 출금 Idempotency-Key (bulk:배치ID:묶음 시작 순서)
+    private static String chunkKey(String batchId, int chunkStart) {
+        return "bulk:" + batchId + ":" + chunkStart;
+    }
+
+    private static String batchId(String blkKey) {
+        return blkKey.substring("bulk:".length(), blkKey.lastIndexOf(':'));
+    }
+}
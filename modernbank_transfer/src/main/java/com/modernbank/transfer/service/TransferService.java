@@ -1,16 +1,27 @@
 package com.modernbank.transfer.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 
+import com.modernbank.transfer.archive.TransferHistoryArchiver;
+import com.modernbank.transfer.bulkhead.DownstreamBulkheads;
+import com.modernbank.transfer.datasource.DataSourceRoute;
+import com.modernbank.transfer.datasource.Route;
 import com.modernbank.transfer.domain.entity.TransferHistory;
 import com.modernbank.transfer.domain.entity.TransferLimit;
 import com.modernbank.transfer.domain.repository.TransferRepository;
 import com.modernbank.transfer.exception.BusinessException;
 import com.modernbank.transfer.exception.SystemException;
+import com.modernbank.transfer.idempotency.IdempotencyFilter;
 import com.modernbank.transfer.publisher.TransferProducer;
+import com.modernbank.transfer.rest.account.AccountComposite;
 import com.modernbank.transfer.rest.account.entity.Account;
 import com.modernbank.transfer.rest.account.entity.TransactionHistory;
 import com.modernbank.transfer.rest.account.entity.TransactionResult;
+import com.modernbank.transfer.velocity.TransferVelocityEngine;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +34,20 @@ import org.springframework.web.client.RestTemplate;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.Resource;
 
 @Service("transferService")
 public class TransferService {
     
     private static final Logger logger = LoggerFactory.getLogger(TransferService.class);
+
+    // 타행 이체 구분 코드 (당행 이체는 D)
+    static final String B2B_TRANSFER_DIV_CD = "E";
+
+    // 타행 이체 상태 코드 (0: 대기, 2: 실패, 3: 완료)
+    static final String B2B_TRANSFER_PENDING = "0";
+    static final String B2B_TRANSFER_FAILED = "2";
+    static final String B2B_TRANSFER_COMPLETED = "3";
 	
     @Autowired
     TransferRepository transferRepository;
@@ -37,9 +57,21 @@ public class TransferService {
     
     @Autowired
     RestTemplate restTemplate;
-    
-    @Value("${account.api.url}")
-    private String accountServiceUrl;
+
+    @Autowired
+    DownstreamBulkheads downstreamBulkheads;
+
+    @Resource(name = "accountComposite")
+    private AccountComposite accountComposite;
+
+    @Autowired
+    BulkTransferRegistry bulkTransferRegistry;
+
+    @Autowired
+    TransferHistoryArchiver transferHistoryArchiver;
+
+    @Autowired
+    TransferVelocityEngine transferVelocityEngine;
     
     @Value("${customer.api.url}")
     private String customerServiceUrl;
@@ -53,7 +85,7 @@ public class TransferService {
     public List<TransferHistory> retrieveTransferHistoryList(String cstmId) throws Exception {
         Boolean exists = null;
 
-        exists = restTemplate.getForObject(customerServiceUrl + "/{cstmId}/exists", Boolean.class, cstmId);
+        exists = downstreamBulkheads.execute("customerService", () -> restTemplate.getForObject(customerServiceUrl + "/{cstmId}/exists", Boolean.class, cstmId));
 
         if (exists == null || !exists) {
             throw new BusinessException("ID does not exist.");
@@ -61,8 +93,16 @@ public class TransferService {
         
         TransferHistory transferHistory = new TransferHistory();
         transferHistory.setCstmId(cstmId);
-        
-        return transferRepository.selectTransferHistoryList(transferHistory);
+
+        // 아카이브된 월의 이체내역과 운영 테이블의 이체내역을 순번 순으로 합친다.
+        // 아카이브 후 운영 테이블로 옮겨진 행(처리 중 이체, 마지막 순번)은 운영 테이블 쪽이 최신이다.
+        Map<Integer, TransferHistory> transferHistoryMap = new TreeMap<>();
+        for (TransferHistory archived : transferHistoryArchiver.findArchivedTransferHistoryList(cstmId))
+            transferHistoryMap.put(archived.getSeq(), archived);
+        for (TransferHistory current : transferRepository.selectTransferHistoryList(transferHistory))
+            transferHistoryMap.put(current.getSeq(), current);
+
+        return new ArrayList<>(transferHistoryMap.values());
     }
 
     public List<TransferHistory> fallbackRetrieveTransferHistoryList(String cstmId, Exception e) {
@@ -90,6 +130,8 @@ public class TransferService {
         return transferRepository.selectTotalTransferAmountPerDay(transferLimit);
     }
     
+    // 한도 검증은 방금 커밋된 다른 세션의 이체까지 반영해야 하므로 복제본이 아닌 primary에서 합산한다.
+    @DataSourceRoute(Route.PRIMARY)
 	public TransferLimit retrieveEnableTransferLimit(String cstmId) throws Exception {
 		TransferLimit transferLimit = retrieveTransferLimit(cstmId);
         if(transferLimit == null)
@@ -115,7 +157,10 @@ public class TransferService {
         String rcvMm = transferHistory.getRcvMm();
         String sndMm = transferHistory.getSndMm();
         String cstmId = transferHistory.getCstmId();
-        int seq = retrieveMaxSeq(cstmId) + 1;
+        int seq = reserveSeqs(cstmId, 1);
+
+        // 계좌 조회/원장 호출 전에 최근 이체 속도와 중복 이체를 메모리에서 검사한다. (TB_TRNF_HST 조회 없음)
+        transferVelocityEngine.acquire(cstmId, seq, wthdAcntNo, dpstAcntNo, trnfAmt);
         
         Account depositAccountInfo = retrieveAccountInfo(dpstAcntNo);
         rcvCstmNm = depositAccountInfo.getCstmNm();
@@ -127,9 +172,8 @@ public class TransferService {
         createTransferHistory(transferHistory);
         
         // 내부 이체의 경우 '0' 즉, 팬딩 처리 없이 바로 출금 성공 처리(1)를 한다.
-        performWithdrawal(wthdAcntNo, trnfAmt, sndMm,transferHistory.getDivCd(), transferHistory.getStsCd());
-
-        performDeposit(dpstAcntNo, trnfAmt, rcvMm);
+        // 출금과 입금을 Account Service에 한 번의 일괄 거래(atomic)로 요청한다.
+        performInternalTransferPosting(wthdAcntNo, dpstAcntNo, trnfAmt, sndMm, rcvMm, transferIdempotencyKey() + ":post");
 
         transferHistory.setStsCd("3");
         createTransferHistory(transferHistory);
@@ -146,48 +190,60 @@ public class TransferService {
         return transferResult;
     }
 
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackRetrieveAccountInfo")
-    @Retry(name = "accountService")
     private Account retrieveAccountInfo(String acntNo) {
-        return restTemplate.getForObject(accountServiceUrl + "/{acntNo}", Account.class, acntNo);
-    }
-
-    private Account fallbackRetrieveAccountInfo(String acntNo, Exception e) {
-        logger.error("Failed to retrieve account info for account number: " + acntNo, e);
-        throw new SystemException("The following issue occurred while Transfer Service was making a RESTful call to Account Service to retrieve account information.\n" + e.getMessage());
-    }
-
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackPerformWithdrawal")
-    @Retry(name = "accountService")
-    private void performWithdrawal(String acntNo, Long amount, String branch) {
-        performWithdrawal(acntNo, amount, branch, null, null);
-    }
-    
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackPerformWithdrawal")
-    @Retry(name = "accountService")
-    private TransactionResult performWithdrawal(String acntNo, Long amount, String branch, String divCd, String stsCd) {
-        // TODO
+        return accountComposite.retrieveAccount(acntNo);
     }
 
-    private void fallbackPerformWithdrawal(String acntNo, Long amount, String branch, Exception e) {
-        logger.error("Failed to perform withdrawal for account: " + acntNo, e);
-        throw new SystemException("The following issue occurred while Transfer Service was making a RESTful call to Account Service to perform withdrawal.\n" + e.getMessage());
+    private TransactionResult performWithdrawal(String acntNo, Long amount, String branch, String divCd, String stsCd, String idmpKey) {
+        TransactionHistory transaction = TransactionHistory.builder()
+            .acntNo(acntNo)
+            .divCd(divCd)
+            .stsCd(stsCd)
+            .trnsAmt(amount)
+            .trnsBrnch(branch)
+            .build();
+        return accountComposite.withdraw(transaction, idmpKey);
     }
 
-    @CircuitBreaker(name = "accountService", fallbackMethod = "fallbackPerformDeposit")
-    @Retry(name = "accountService")
-    private void performDeposit(String acntNo, Long amount, String branch) {
+    private Integer confirmWithdrawal(String acntNo, int seq, Long amount, String branch, String stsCd) {
         TransactionHistory transaction = TransactionHistory.builder()
             .acntNo(acntNo)
+            .seq(seq)
+            .divCd("W")
+            .stsCd(stsCd)
             .trnsAmt(amount)
             .trnsBrnch(branch)
             .build();
-        restTemplate.postForObject(accountServiceUrl + "/deposits/", transaction, TransactionResult.class);
+        // 같은 결과 메시지가 재전달되어도 확정/취소는 한 번만 반영되도록 출금 거래 단위로 키를 부여한다.
+        String idmpKey = "b2b:" + acntNo + ":" + seq + ":confirm";
+        return accountComposite.confirmWithdrawal(transaction, idmpKey);
+    }
+
+    /**
+     * 대량 이체에서 출금 결과를 모른 채 실패로 확정한 건의 출금 대기 거래를 취소한다.
+     * 타행 이체 결과 처리와 같은 키를 쓰므로 다시 호출해도 한 번만 반영된다.
+     */
+    void cancelWithdrawal(String acntNo, int seq, Long amount, String branch) {
+        confirmWithdrawal(acntNo, seq, amount, branch, "2");
     }
 
-    private void fallbackPerformDeposit(String acntNo, Long amount, String branch, Exception e) {
-        logger.error("Failed to perform deposit for account: " + acntNo, e);
-        throw new SystemException("The following issue occurred while Transfer Service was making a RESTful call to Account Service to perform deposit.\n" + e.getMessage());
+    private void performInternalTransferPosting(String wthdAcntNo, String dpstAcntNo, Long amount, String sndMm, String rcvMm, String idmpKey) {
+        List<TransactionHistory> transactions = List.of(
+            TransactionHistory.builder()
+                .acntNo(wthdAcntNo)
+                .divCd("W")
+                .stsCd("1")
+                .trnsAmt(amount)
+                .trnsBrnch(sndMm)
+                .build(),
+            TransactionHistory.builder()
+                .acntNo(dpstAcntNo)
+                .divCd("D")
+                .stsCd("1")
+                .trnsAmt(amount)
+                .trnsBrnch(rcvMm)
+                .build());
+        accountComposite.postTransactions(transactions, true, idmpKey);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -197,16 +253,22 @@ public class TransferService {
         String sndMm = transfer.getSndMm();
         transfer.setRcvCstmNm("Amazon Web Services");
         String cstmId = transfer.getCstmId();
-        int seq = retrieveMaxSeq(cstmId) + 1;
+        int seq = reserveSeqs(cstmId, 1);
+
+        transferVelocityEngine.acquire(cstmId, seq, wthdAcntNo, transfer.getDpstAcntNo(), trnfAmt);
         
         transfer.setSeq(seq);
+        if (transfer.getDivCd() == null)
+            transfer.setDivCd(B2B_TRANSFER_DIV_CD);
+        // 타행 이체는 타행 처리 결과를 받기 전까지 대기(0) 상태로 남긴다.
+        if (transfer.getStsCd() == null)
+            transfer.setStsCd(B2B_TRANSFER_PENDING);
         
         // TB_TRNF_HST 테이블에 이체 이력 남기기
         createTransferHistory(transfer);
         
-        // Account Service에 고객 계좌에서 타행 이체 금액 인출
-        // TransactionResult withdrawResult = performWithdrawalForBtob(wthdAcntNo, trnfAmt, sndMm, transfer.getDivCd(), transfer.getStsCd());
-        TransactionResult withdrawResult = performWithdrawal(wthdAcntNo, trnfAmt, sndMm, transfer.getDivCd(), transfer.getStsCd());
+        // Account Service에 고객 계좌에서 타행 이체 금액 인출 (출금 대기 상태로 기록되며, 타행 처리 결과 수신 후 확정/취소된다)
+        TransactionResult withdrawResult = performWithdrawal(wthdAcntNo, trnfAmt, sndMm, "W", transfer.getStsCd(), transferIdempotencyKey() + ":W");
         
         if (withdrawResult == null) {
             throw new SystemException("Failed to receive withdrawal result.");
@@ -221,9 +283,52 @@ public class TransferService {
         return true;
     }
 
-    private int retrieveMaxSeq(String cstmId) throws Exception {
-        TransferHistory transferHistory = new TransferHistory();
-        transferHistory.setCstmId(cstmId);
-        return transferRepository.selectMaxSeq(transferHistory);
+    /**
+     * B2BT Service가 발행한 타행 이체 처리 결과를 반영한다.
+     * 처리 결과(stsCd)에 따라 Account Service의 출금 대기 거래를 확정(1) 또는 취소(2)하고,
+     * 이체 이력 상태를 갱신한 뒤 CQRS로 전달한다.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void processB2BTransferResult(TransferHistory transferResult) throws Exception {
+        boolean completed = B2B_TRANSFER_COMPLETED.equals(transferResult.getStsCd());
+        String confirmStsCd = completed ? "1" : "2";
+
+        // 1) Account Service에 출금 대기 거래 확정/취소
+        confirmWithdrawal(transferResult.getWthdAcntNo(), transferResult.getWthdAcntSeq(), transferResult.getTrnfAmt(), transferResult.getSndMm(), confirmStsCd);
+
+        // 2) TB_TRNF_HST 이체 이력 상태 갱신
+        if (!completed)
+            transferResult.setStsCd(B2B_TRANSFER_FAILED);
+        createTransferHistory(transferResult);
+
+        // 3) CQRS에 이체 결과 전달
+        transferProducer.sendCQRSTransferMessage(transferResult);
+
+        // 4) 대량 이체로 접수된 건이면 항목 상태 갱신
+        bulkTransferRegistry.complete(transferResult.getCstmId(), transferResult.getSeq(), completed);
+    }
+
+    /**
+     * Account Service 호출에 사용할 Idempotency-Key.
+     * 클라이언트가 보낸 키가 있으면 이를 이어받아 클라이언트 재시도와 Retry 재호출이 모두 같은 키를 쓰게 하고,
+     * 없으면 이체 건마다 새 UUID로 키를 만든다. (이체 순번은 롤백되면 다시 쓰이므로 키로 쓰지 않는다)
+     */
+    private String transferIdempotencyKey() {
+        String inboundKey = IdempotencyFilter.currentIdempotencyKey();
+        if (inboundKey != null && !inboundKey.isBlank())
+            return "transfer:" + inboundKey;
+        return "transfer:" + UUID.randomUUID();
+    }
+
+    /**
+     * 고객의 이체 순번을 count개 예약하고 마지막 순번을 돌려준다. (예약한 순번: 반환값 - count + 1 ~ 반환값)
+     * TB_TRNF_SEQ의 고객 행을 갱신하므로 트랜잭션 안에서 호출하면 커밋/롤백까지 같은 고객의 다른 예약과 한도 검증이 기다린다. (고객별 잠금)
+     * count가 0이면 순번을 쓰지 않고 잠금만 잡는다.
+     */
+    int reserveSeqs(String cstmId, int count) throws Exception {
+        Integer lastSeq = transferRepository.updateLastSeq(cstmId, count);
+        if (lastSeq == null)
+            lastSeq = transferRepository.insertLastSeq(cstmId, count);
+        return lastSeq;
     }
 }
@@ -0,0 +1,53 @@
+package com.modernbank.transfer.singleflight;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+import com.modernbank.transfer.datasource.ReadYourWritesTracker;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @SingleFlight가 붙은 메소드의 동시 호출을 SingleFlightGroup으로 합친다.
+ * 트랜잭션 안의 조회는 같은 트랜잭션의 쓰기를 봐야 하고, 방금 쓰기를 한 세션은 자신의 쓰기 이후 값을 봐야 하므로 직접 실행한다.
+ */
+@Aspect
+@Component
+public class SingleFlightAspect {
+
+    @Autowired
+    private SingleFlightGroup singleFlightGroup;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || readYourWritesTracker.isPinned())
+            return joinPoint.proceed();
+
+        return singleFlightGroup.execute(singleFlight.value(), key(joinPoint.getArgs()), () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        });
+    }
+
+    private static String key(Object[] args) {
+        StringBuilder key = new StringBuilder();
+        for (Object arg : args) {
+            if (key.length() > 0)
+                key.append(':');
+            key.append(arg);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.modernbank.transfer.singleflight;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 키별 진행 중 호출(flight) 관리.
+ * 먼저 들어온 호출(leader)이 실행하고, 실행 중에 같은 키로 들어온 호출(follower)은 그 결과를 기다려 같이 받는다.
+ * 실행이 끝나면 flight를 지우므로 결과를 캐시하지 않는다. (끝난 뒤 들어온 호출은 새로 실행한다)
+ *
+ * 메트릭 (name = 호출 지점)
+ * - singleflight.calls{name, result=executed|collapsed}: 실제 실행 수와 합쳐진 호출 수
+ * - singleflight.collapsed{name}: flight 하나에 합쳐진 호출 수 분포
+ * - singleflight.in.flight: 실행 중인 키 수
+ * 키(계좌번호, 고객 ID)를 태그로 쓰면 시계열이 무한히 늘어나므로, 한 번에 hot-key-log-threshold건 이상 합쳐진 키는 로그로 남긴다.
+ */
+@Component
+public class SingleFlightGroup {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(SingleFlightGroup.class);
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final int hotKeyLogThreshold;
+
+    public SingleFlightGroup(MeterRegistry meterRegistry, @Value("${singleflight.hot-key-log-threshold:50}") int hotKeyLogThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.hotKeyLogThreshold = hotKeyLogThreshold;
+        Gauge.builder("singleflight.in.flight", flights, Map::size)
+                .description("Keys with a coalesced call in flight")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, String key, Callable<T> call) throws Exception {
+        String flightKey = name + ":" + key;
+        Flight flight = new Flight();
+        Flight leader = flights.putIfAbsent(flightKey, flight);
+
+        if (leader != null) {
+            leader.followers.incrementAndGet();
+            meterRegistry.counter("singleflight.calls", "name", name, "result", "collapsed").increment();
+            return (T) leader.await();
+        }
+
+        meterRegistry.counter("singleflight.calls", "name", name, "result", "executed").increment();
+        try {
+            T result = call.call();
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable t) {
+            flight.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            flights.remove(flightKey, flight);
+
+            int followers = flight.followers.get();
+            meterRegistry.summary("singleflight.collapsed", "name", name).record(followers);
+            if (followers >= hotKeyLogThreshold)
+                LOGGER.info("Collapsed [" + followers + "] concurrent calls into one for " + flightKey);
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+
+        // leader의 예외를 그대로 다시 던진다. (BusinessException 등 응답 처리가 leader와 같도록)
+        private Object await() throws Exception {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception exception)
+                    throw exception;
+                if (cause instanceof Error error)
+                    throw error;
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+}
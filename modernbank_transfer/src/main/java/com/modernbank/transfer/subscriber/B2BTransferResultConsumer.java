@@ -34,6 +34,10 @@ public class B2BTransferResultConsumer {
     
     @KafkaListener(topics = "${b2b.transfer.result.topic.name}", containerFactory = "b2bTransferResultKafkaListenerContainerFactory")
     public void b2bTransferResultListener(TransferHistory transferResult, Acknowledgment ack) throws Exception {
-        // TODO
+        LOGGER.info("<-- B2B transfer result received: cstmId=[" + transferResult.getCstmId() + "], seq=[" + transferResult.getSeq() + "], stsCd=[" + transferResult.getStsCd() + "]");
+
+        // 처리 중 예외가 발생하면 ack 하지 않고 에러 핸들러의 재시도에 맡긴다.
+        transferService.processB2BTransferResult(transferResult);
+        ack.acknowledge();
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.modernbank.transfer.subscriber;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.modernbank.transfer.domain.entity.TransferHistory;
+import com.modernbank.transfer.publisher.KafkaTopicRouter;
+import com.modernbank.transfer.velocity.TransferVelocityEngine;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+/**
+ * transfer 토픽의 이체를 TransferVelocityEngine에 채운다.
+ * 인스턴스마다 고유한 그룹으로 모든 파티션을 읽으며, 시작(할당)할 때 window-ms 전 시각으로 되감아 재시작 전과 다른 인스턴스의 최근 이체를 다시 쌓는다.
+ * 오프셋은 커밋하지 않는다.
+ * 이체가 처음 기록될 때의 이벤트(당행 완료 D/3, 타행 대기 E/0)만 센다. 타행 처리 결과(E/3, E/2)는 같은 이체이므로 건너뛴다.
+ */
+@Component
+public class TransferVelocityReplayConsumer implements ConsumerSeekAware {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(TransferVelocityReplayConsumer.class);
+
+    @Autowired
+    TransferVelocityEngine transferVelocityEngine;
+
+    @Value("${transfer.velocity.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${transfer.velocity.duplicate-window-ms:10000}")
+    private long duplicateWindowMs;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        long replayFrom = System.currentTimeMillis() - Math.max(windowMs, duplicateWindowMs);
+        callback.seekToTimestamp(assignments.keySet(), replayFrom);
+        LOGGER.info("Replaying transfers since [" + replayFrom + "] for velocity checks: " + assignments.keySet());
+    }
+
+    @KafkaListener(topics = "${transfer.topic.name}", containerFactory = "transferVelocityKafkaListenerContainerFactory",
+            autoStartup = "${transfer.velocity.enabled:true}")
+    public void transferListener(ConsumerRecord<String, TransferHistory> record) {
+        TransferHistory transfer = record.value();
+        if (transfer == null || !isInitialEvent(transfer))
+            return;
+
+        transferVelocityEngine.replay(transfer.getCstmId(), transfer.getSeq(), transfer.getWthdAcntNo(),
+                transfer.getDpstAcntNo(), transfer.getTrnfAmt(), committedAt(record));
+    }
+
+    private boolean isInitialEvent(TransferHistory transfer) {
+        return ("D".equals(transfer.getDivCd()) && "3".equals(transfer.getStsCd()))
+                || ("E".equals(transfer.getDivCd()) && "0".equals(transfer.getStsCd()));
+    }
+
+    // Outbox에 기록된 시각(committed-at 헤더), 없으면 레코드 시각
+    private long committedAt(ConsumerRecord<String, TransferHistory> record) {
+        Header header = record.headers().lastHeader(KafkaTopicRouter.COMMITTED_AT_HEADER);
+        if (header != null) {
+            try {
+                return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid committed-at header on " + record.topic() + "-" + record.partition() + "@" + record.offset());
+            }
+        }
+        return record.timestamp();
+    }
+}
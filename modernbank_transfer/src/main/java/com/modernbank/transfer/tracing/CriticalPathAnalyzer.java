@@ -0,0 +1,173 @@
+package com.modernbank.transfer.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 트레이스의 임계 경로(critical path)를 구한다.
+ * 루트 span의 끝에서 시작해 거꾸로 가며, 현재 시점(cursor) 이전에 시작한 자식 중 가장 늦게 끝난 자식을 따라 내려간다.
+ * 자식이 없는 구간은 부모 자신의 시간으로 잡으므로, 경로의 구간 합은 루트 span 시간과 같다.
+ * - 다른 자식과 병렬로 실행되어 응답 시간에 영향을 주지 않은 자식은 경로에서 빠진다.
+ * - 부모가 끝난 뒤 시작된 자식(outbox 릴레이, Kafka 수신 등)은 비동기 hop으로 따로 분석하고, 부모 종료부터의 대기 시간(lag)을 함께 보여준다.
+ * 서비스마다 시계가 조금씩 다를 수 있으므로 자식 구간은 부모 구간 안으로 잘라서 계산한다.
+ */
+@Component
+public class CriticalPathAnalyzer {
+
+    private static final Comparator<RecordedSpan> LATEST_END_FIRST = Comparator.comparingLong(RecordedSpan::getEndEpochNanos).reversed();
+
+    public TraceBreakdown analyze(String traceId, Collection<RecordedSpan> recordedSpans) {
+        // 메모리와 파일에 같은 span이 함께 있을 수 있다.
+        Map<String, RecordedSpan> spans = new LinkedHashMap<>();
+        for (RecordedSpan span : recordedSpans)
+            spans.putIfAbsent(span.getSpanId(), span);
+        if (spans.isEmpty())
+            return null;
+
+        RecordedSpan root = null;
+        Map<String, List<RecordedSpan>> children = new HashMap<>();
+        for (RecordedSpan span : spans.values()) {
+            RecordedSpan parent = span.getParentSpanId() == null ? null : spans.get(span.getParentSpanId());
+            if (parent != null)
+                children.computeIfAbsent(parent.getSpanId(), id -> new ArrayList<>()).add(span);
+            else if (root == null || span.getStartEpochNanos() < root.getStartEpochNanos())
+                root = span;
+        }
+        for (List<RecordedSpan> siblings : children.values())
+            siblings.sort(LATEST_END_FIRST);
+
+        long origin = root.getStartEpochNanos();
+        List<Piece> rootPieces = pieces(root, children);
+
+        Map<String, Long> serviceNanos = new HashMap<>();
+        for (Piece piece : rootPieces)
+            serviceNanos.merge(String.valueOf(piece.span.getService()), piece.to - piece.from, Long::sum);
+        Map<String, Double> byService = new LinkedHashMap<>();
+        serviceNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> byService.put(entry.getKey(), millis(entry.getValue())));
+
+        // 루트에 이어진 span만 본다. (부모 span을 받지 못한 조각은 제외)
+        List<TraceBreakdown.AsyncHop> asyncHops = new ArrayList<>();
+        long lastEnd = root.getEndEpochNanos();
+        int connected = 0;
+        Deque<RecordedSpan> pending = new ArrayDeque<>(List.of(root));
+        while (!pending.isEmpty()) {
+            RecordedSpan parent = pending.pop();
+            connected++;
+            lastEnd = Math.max(lastEnd, parent.getEndEpochNanos());
+            for (RecordedSpan child : children.getOrDefault(parent.getSpanId(), Collections.emptyList())) {
+                if (child.getStartEpochNanos() >= parent.getEndEpochNanos())
+                    asyncHops.add(asyncHop(child, parent, children, origin));
+                pending.push(child);
+            }
+        }
+        asyncHops.sort(Comparator.comparingDouble(TraceBreakdown.AsyncHop::getOffsetMs));
+
+        return TraceBreakdown.builder()
+                .traceId(traceId)
+                .rootService(root.getService())
+                .rootName(root.getName())
+                .spanCount(connected)
+                .durationMs(millis(root.durationNanos()))
+                .endToEndMs(millis(lastEnd - origin))
+                .criticalPath(segments(rootPieces, origin))
+                .byService(byService)
+                .asyncHops(asyncHops)
+                .build();
+    }
+
+    private TraceBreakdown.AsyncHop asyncHop(RecordedSpan span, RecordedSpan parent, Map<String, List<RecordedSpan>> children, long origin) {
+        return TraceBreakdown.AsyncHop.builder()
+                .service(span.getService())
+                .span(span.getName())
+                .parentService(parent.getService())
+                .parentSpan(parent.getName())
+                .offsetMs(millis(span.getStartEpochNanos() - origin))
+                .lagMs(millis(span.getStartEpochNanos() - parent.getEndEpochNanos()))
+                .durationMs(millis(span.durationNanos()))
+                .criticalPath(segments(pieces(span, children), origin))
+                .build();
+    }
+
+    private static List<TraceBreakdown.Segment> segments(List<Piece> pieces, long origin) {
+        List<TraceBreakdown.Segment> segments = new ArrayList<>(pieces.size());
+        for (Piece piece : pieces) {
+            segments.add(TraceBreakdown.Segment.builder()
+                    .service(piece.span.getService())
+                    .span(piece.span.getName())
+                    .offsetMs(millis(piece.from - origin))
+                    .durationMs(millis(piece.to - piece.from))
+                    .error(piece.span.isError())
+                    .build());
+        }
+        return segments;
+    }
+
+    // 시간 순으로 정렬하고, 같은 span의 붙어 있는 구간은 합친다.
+    private List<Piece> pieces(RecordedSpan top, Map<String, List<RecordedSpan>> children) {
+        List<Piece> reversed = new ArrayList<>();
+        walk(top, top.getStartEpochNanos(), top.getEndEpochNanos(), children, reversed);
+        Collections.reverse(reversed);
+
+        List<Piece> pieces = new ArrayList<>(reversed.size());
+        for (Piece piece : reversed) {
+            Piece last = pieces.isEmpty() ? null : pieces.get(pieces.size() - 1);
+            if (last != null && last.span == piece.span && last.to == piece.from)
+                pieces.set(pieces.size() - 1, new Piece(last.span, last.from, piece.to));
+            else
+                pieces.add(piece);
+        }
+        return pieces;
+    }
+
+    // [lower, upper] 구간을 뒤에서부터 채운다. reversed에는 늦은 구간부터 쌓인다.
+    private void walk(RecordedSpan span, long lower, long upper, Map<String, List<RecordedSpan>> children, List<Piece> reversed) {
+        long cursor = upper;
+        for (RecordedSpan child : children.getOrDefault(span.getSpanId(), Collections.emptyList())) {
+            if (cursor <= lower)
+                break;
+            // cursor 이후에 시작한 자식은 이미 지난 구간과 병렬로 실행되었거나 부모 종료 후에 시작된 비동기 span이다.
+            if (child.getStartEpochNanos() >= cursor)
+                continue;
+
+            long childEnd = Math.min(child.getEndEpochNanos(), cursor);
+            long childStart = Math.max(child.getStartEpochNanos(), lower);
+            if (childEnd <= childStart)
+                continue;
+
+            if (childEnd < cursor)
+                reversed.add(new Piece(span, childEnd, cursor));
+            walk(child, childStart, childEnd, children, reversed);
+            cursor = childStart;
+        }
+        if (cursor > lower)
+            reversed.add(new Piece(span, lower, cursor));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static final class Piece {
+        private final RecordedSpan span;
+        private final long from;
+        private final long to;
+
+        private Piece(RecordedSpan span, long from, long to) {
+            this.span = span;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.modernbank.transfer.tracing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * 최근 span을 고정 크기 링 버퍼(tracing.memory.capacity)에 보관하는 exporter.
+ * 수집기 없이도 /actuator/traces에서 이 인스턴스가 기록한 최근 이체의 트레이스를 바로 볼 수 있다.
+ * 가득 차면 가장 오래된 span부터 덮어쓴다.
+ */
+@Component
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final RecordedSpan[] ring;
+    private long written;
+
+    public InMemorySpanExporter(@Value("${tracing.memory.capacity:20000}") int capacity) {
+        this.ring = new RecordedSpan[capacity];
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans)
+            ring[(int) (written++ % ring.length)] = RecordedSpan.from(span);
+        return CompletableResultCode.ofSuccess();
+    }
+
+    public synchronized List<RecordedSpan> spansOf(String traceId) {
+        List<RecordedSpan> spans = new ArrayList<>();
+        for (RecordedSpan span : ring) {
+            if (span != null && traceId.equals(span.getTraceId()))
+                spans.add(span);
+        }
+        return spans;
+    }
+
+    /**
+     * 최근에 끝난 SERVER span(= 이 서비스가 받은 요청)을 최신 순으로 돌려준다.
+     */
+    public synchronized List<RecordedSpan> recentRequests(int limit) {
+        List<RecordedSpan> requests = new ArrayList<>(limit);
+        long oldest = Math.max(0, written - ring.length);
+        for (long i = written - 1; i >= oldest && requests.size() < limit; i--) {
+            RecordedSpan span = ring[(int) (i % ring.length)];
+            if ("SERVER".equals(span.getKind()))
+                requests.add(span);
+        }
+        return requests;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,91 @@
+package com.modernbank.transfer.tracing;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 한 트레이스의 임계 경로 분석 결과. (시간 단위는 ms, 기준 시각은 루트 span 시작)
+ */
+@NoArgsConstructor
+@Data
+public class TraceBreakdown {
+    private String traceId;
+    private String rootService;
+    private String rootName;
+    private int spanCount;
+    private double durationMs;               // Root span duration (synchronous response time)
+    private double endToEndMs;               // Root start to the last span end (including async hops)
+    private List<Segment> criticalPath;      // Synchronous critical path in time order
+    private Map<String, Double> byService;   // Critical path time per service, largest first
+    private List<AsyncHop> asyncHops;        // Spans started after their parent ended (outbox relay, Kafka consume)
+
+    @Builder
+    public TraceBreakdown(String traceId, String rootService, String rootName, int spanCount, double durationMs, double endToEndMs,
+                          List<Segment> criticalPath, Map<String, Double> byService, List<AsyncHop> asyncHops) {
+        this.traceId = traceId;
+        this.rootService = rootService;
+        this.rootName = rootName;
+        this.spanCount = spanCount;
+        this.durationMs = durationMs;
+        this.endToEndMs = endToEndMs;
+        this.criticalPath = criticalPath;
+        this.byService = byService;
+        this.asyncHops = asyncHops;
+    }
+
+    /**
+     * 임계 경로에서 해당 span이 자기 자신의 일(자식 호출 대기 제외)로 쓴 구간.
+     */
+    @NoArgsConstructor
+    @Data
+    public static class Segment {
+        private String service;
+        private String span;
+        private double offsetMs;
+        private double durationMs;
+        private boolean error;
+
+        @Builder
+        public Segment(String service, String span, double offsetMs, double durationMs, boolean error) {
+            this.service = service;
+            this.span = span;
+            this.offsetMs = offsetMs;
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 부모가 끝난 뒤 시작된(비동기) span과 그 하위의 임계 경로.
+     * lagMs는 부모 span 종료부터 이 span 시작까지의 대기 시간이다. (outbox 릴레이 대기, Kafka 적체 등)
+     */
+    @NoArgsConstructor
+    @Data
+    public static class AsyncHop {
+        private String service;
+        private String span;
+        private String parentService;
+        private String parentSpan;
+        private double offsetMs;
+        private double lagMs;
+        private double durationMs;
+        private List<Segment> criticalPath;
+
+        @Builder
+        public AsyncHop(String service, String span, String parentService, String parentSpan, double offsetMs, double lagMs,
+                        double durationMs, List<Segment> criticalPath) {
+            this.service = service;
+            this.span = span;
+            this.parentService = parentService;
+            this.parentSpan = parentSpan;
+            this.offsetMs = offsetMs;
+            this.lagMs = lagMs;
+            this.durationMs = durationMs;
+            this.criticalPath = criticalPath;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.modernbank.transfer.tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이체 트레이스 조회. (/actuator/traces)
+ * - GET /actuator/traces: 이 인스턴스가 최근 처리한 요청(traceId, 경로, 소요 시간)
+ * - GET /actuator/traces/{traceId}: 해당 트레이스의 임계 경로와 서비스별 소요 시간, 비동기 hop(outbox 릴레이, Kafka 수신)의 대기 시간
+ * traceId는 이체 응답의 X-Trace-Id 헤더로 받는다.
+ * span은 이 인스턴스의 메모리와 tracing.export.dir의 NDJSON 파일(다른 서비스 포함)에서 모은다.
+ * 파일 exporter를 쓰지 않으면 Transfer Service 구간만 분석된다.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TraceEndpoint {
+
+    private static final int RECENT_LIMIT = 50;
+
+    @Autowired
+    private InMemorySpanExporter inMemorySpanExporter;
+
+    @Autowired
+    private FileSpanExporter fileSpanExporter;
+
+    @Autowired
+    private CriticalPathAnalyzer criticalPathAnalyzer;
+
+    @ReadOperation
+    public List<Map<String, Object>> recentTraces() {
+        List<Map<String, Object>> traces = new ArrayList<>();
+        for (RecordedSpan span : inMemorySpanExporter.recentRequests(RECENT_LIMIT)) {
+            Map<String, Object> trace = new LinkedHashMap<>();
+            trace.put("traceId", span.getTraceId());
+            trace.put("name", span.getName());
+            trace.put("durationMs", span.durationNanos() / 1_000_000.0);
+            trace.put("error", span.isError());
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+    @ReadOperation
+    public TraceBreakdown trace(@Selector String traceId) {
+        List<RecordedSpan> spans = new ArrayList<>(inMemorySpanExporter.spansOf(traceId));
+        spans.addAll(fileSpanExporter.read(traceId));
+        return criticalPathAnalyzer.analyze(traceId, spans);
+    }
+}
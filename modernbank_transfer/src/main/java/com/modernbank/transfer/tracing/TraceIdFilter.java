@@ -0,0 +1,36 @@
+package com.modernbank.transfer.tracing;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 응답에 X-Trace-Id 헤더로 이 요청의 traceId를 넣는다.
+ * 느린 이체를 받은 쪽이 /actuator/traces/{traceId}로 바로 구간별 소요 시간을 조회할 수 있게 한다.
+ * 서버 요청 span이 열린 뒤에 실행되어야 하므로 ServerHttpObservationFilter 다음 순서로 등록한다. (TracingConfig)
+ */
+public class TraceIdFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TraceIdFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.currentSpan();
+        if (span != null)
+            response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,166 @@
+package com.modernbank.transfer.utils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * MyBatis 매핑 구문 단위 SQL 계측 (log4jdbc DriverSpy 대체).
+ * JDBC 호출마다 감싸고 로그를 남기는 대신 Executor 호출만 가로채 시간을 잰다.
+ * - mybatis.statement: 구문별 실행 시간 (statement=AccountRepository.selectCurrentAccountBalance, outcome=success|error)
+ * - mybatis.statement.rows: 구문별 조회/변경 행 수
+ * 느린 구문(slow-threshold-ms 이상)은 항상, 나머지는 sample-rate 비율로만 SQL을 로그에 남긴다.
+ * 요청이나 이벤트 처리 중(현재 span이 있을 때)이면 구문마다 DB client span(db AccountRepository.selectCurrentAccountBalance)도 남긴다.
+ * 커서 조회는 커서를 여는 시간만 잰다.
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+    @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+    @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }),
+    @Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class })
+})
+public class SqlTimingInterceptor implements Interceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlTimingInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public SqlTimingInterceptor(MeterRegistry meterRegistry, Tracer tracer,
+            @Value("${sql.instrumentation.slow-threshold-ms:200}") long slowThresholdMs,
+            @Value("${sql.instrumentation.sample-rate:0.0}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        Meters statementMeters = meters.computeIfAbsent(mappedStatement.getId(), this::register);
+        Span span = startSpan(statementMeters.name);
+        long start = System.nanoTime();
+        Object result = null;
+        boolean success = false;
+
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            (success ? statementMeters.success : statementMeters.error).record(elapsed, TimeUnit.NANOSECONDS);
+
+            long rows = rowCount(result);
+            if (rows >= 0)
+                statementMeters.rows.record(rows);
+
+            if (span != null) {
+                span.tag("outcome", success ? "success" : "error");
+                span.tag("db.rows", String.valueOf(rows));
+                span.end();
+            }
+
+            if (elapsed >= slowThresholdNanos) {
+                LOGGER.warn("Slow SQL [" + statementMeters.name + "] " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms, rows=" + rows
+                        + ", sql=" + sql(invocation, mappedStatement));
+            } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                LOGGER.info("SQL [" + statementMeters.name + "] " + TimeUnit.NANOSECONDS.toMicros(elapsed) + " us, rows=" + rows
+                        + ", sql=" + sql(invocation, mappedStatement));
+            }
+        }
+    }
+
+    // 상위 span이 없는 구문(스케줄러, 기동 시 조회 등)은 트레이스를 새로 만들지 않는다.
+    private Span startSpan(String name) {
+        Span parent = tracer.currentSpan();
+        if (parent == null)
+            return null;
+        return tracer.spanBuilder()
+                .setParent(parent.context())
+                .name("db " + name)
+                .kind(Span.Kind.CLIENT)
+                .remoteServiceName("postgresql")
+                .tag("db.system", "postgresql")
+                .start();
+    }
+
+    private Meters register(String statementId) {
+        // com.modernbank.account.domain.repository.AccountRepository.selectCurrentAccountBalance -> AccountRepository.selectCurrentAccountBalance
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        String name = statementId.substring(type + 1);
+
+        return new Meters(name,
+                timer(name, "success"),
+                timer(name, "error"),
+                DistributionSummary.builder("mybatis.statement.rows")
+                        .description("Rows returned or affected by a MyBatis mapped statement")
+                        .tag("statement", name)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String outcome) {
+        return Timer.builder("mybatis.statement")
+                .description("MyBatis mapped statement execution time")
+                .tag("statement", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Integer)
+            return (Integer) result;
+        if (result instanceof Collection)
+            return ((Collection<?>) result).size();
+        return -1; // Cursor 등 행 수를 알 수 없는 결과
+    }
+
+    private static String sql(Invocation invocation, MappedStatement mappedStatement) {
+        Object[] args = invocation.getArgs();
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : mappedStatement.getBoundSql(args[1]);
+        return boundSql.getSql().replaceAll("\\s+", " ").trim();
+    }
+
+    private static final class Meters {
+        private final String name;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        private Meters(String name, Timer success, Timer error, DistributionSummary rows) {
+            this.name = name;
+            this.success = success;
+            this.error = error;
+            this.rows = rows;
+        }
+    }
+}
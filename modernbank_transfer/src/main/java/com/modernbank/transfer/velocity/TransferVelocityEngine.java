@@ -0,0 +1,362 @@
+package com.modernbank.transfer.velocity;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.modernbank.transfer.exception.BusinessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 이체 속도(velocity)/중복 이체 검사. TB_TRNF_HST를 조회하지 않고 메모리의 최근 이체만으로 판정한다.
+ * - 속도: 고객(cstmId)별, 출금 계좌별로 최근 window-ms 동안의 이체 건수/금액이 max-count/max-amount를 넘으면 거절 (422)
+ * - 중복: 같은 출금 계좌에서 같은 입금 계좌로 같은 금액을 duplicate-window-ms 안에 다시 이체하면 거절 (409)
+ *
+ * 키마다 원시 타입 배열(시각, 금액, 지문, 순번) 하나를 두고 잠금 한 번으로 검사와 기록을 함께 한다.
+ * 새 이체는 되돌린 칸이나 보관 기간(window-ms와 duplicate-window-ms 중 긴 쪽)이 지난 칸에 쓰고, 그런 칸이 없으면 배열을 늘린다.
+ * 보관 기간 안의 이체는 덮어쓰지 않는다. 검사를 통과한 이체만 기록하므로 칸은 대개 max-count개 남짓이지만,
+ * 다른 인스턴스가 동시에 허용한 이체를 재생하면 그보다 많아질 수 있다. 대부분의 키는 이체가 한두 건이므로 배열은 작게 시작한다.
+ *
+ * - 검사를 통과한 이체는 바로 기록해 동시에 들어온 같은 이체도 중복으로 거절한다. 트랜잭션이 롤백되면 기록을 되돌린다.
+ * - 다른 인스턴스의 이체와 재시작 전의 이체는 transfer 토픽에서 다시 읽어 채운다. (TransferVelocityReplayConsumer)
+ * - 키는 max-keys개까지 만든다. window가 지난 키는 주기적으로 지우며(지워도 판정이 느슨해지지 않는다), 그래도 자리가 없으면 그 키는 검사하지 않는다.
+ * 메트릭: transfer.velocity.checks{result=allowed|velocity|duplicate|untracked}, transfer.velocity.windows
+ */
+@Component
+public class TransferVelocityEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransferVelocityEngine.class);
+
+    private static final String CUSTOMER_KEY_PREFIX = "C:";
+    private static final String ACCOUNT_KEY_PREFIX = "A:";
+
+    // 기록을 되돌린 칸의 시각. 어떤 window에도 들지 않는다.
+    private static final long RELEASED = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final long windowMs;
+    private final long duplicateWindowMs;
+    private final long retentionMs;
+    private final Limit customerLimit;
+    private final Limit accountLimit;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Counter allowed;
+    private final Counter velocityRejected;
+    private final Counter duplicateRejected;
+    private final Counter untracked;
+
+    public TransferVelocityEngine(MeterRegistry meterRegistry,
+                                  @Value("${transfer.velocity.enabled:true}") boolean enabled,
+                                  @Value("${transfer.velocity.window-ms:60000}") long windowMs,
+                                  @Value("${transfer.velocity.customer.max-count:10}") int customerMaxCount,
+                                  @Value("${transfer.velocity.customer.max-amount:50000000}") long customerMaxAmount,
+                                  @Value("${transfer.velocity.account.max-count:10}") int accountMaxCount,
+                                  @Value("${transfer.velocity.account.max-amount:50000000}") long accountMaxAmount,
+                                  @Value("${transfer.velocity.duplicate-window-ms:10000}") long duplicateWindowMs,
+                                  @Value("${transfer.velocity.max-keys:200000}") int maxKeys) {
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.duplicateWindowMs = duplicateWindowMs;
+        this.retentionMs = Math.max(windowMs, duplicateWindowMs);
+        this.customerLimit = new Limit(customerMaxCount, customerMaxAmount);
+        this.accountLimit = new Limit(accountMaxCount, accountMaxAmount);
+        this.maxKeys = maxKeys;
+
+        this.allowed = meterRegistry.counter("transfer.velocity.checks", "result", "allowed");
+        this.velocityRejected = meterRegistry.counter("transfer.velocity.checks", "result", "velocity");
+        this.duplicateRejected = meterRegistry.counter("transfer.velocity.checks", "result", "duplicate");
+        this.untracked = meterRegistry.counter("transfer.velocity.checks", "result", "untracked");
+        Gauge.builder("transfer.velocity.windows", windows, Map::size)
+                .description("Per-customer and per-account transfer velocity windows held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이체 하나를 검사하고, 통과하면 고객/출금 계좌 window에 기록한다. 한도를 넘거나 중복이면 BusinessException
+     * 트랜잭션 안에서 호출되면 롤백될 때 기록을 되돌린다.
+     */
+    public void acquire(String cstmId, int seq, String wthdAcntNo, String dpstAcntNo, Long trnfAmt) {
+        if (!enabled || cstmId == null || wthdAcntNo == null)
+            return;
+
+        long now = System.currentTimeMillis();
+        long amount = trnfAmt == null ? 0 : trnfAmt;
+        if (!acquire(cstmId, seq, wthdAcntNo, fingerprint(dpstAcntNo, amount), amount, now))
+            return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        release(cstmId, seq, wthdAcntNo, now);
+                }
+            });
+        }
+    }
+
+    // 기록했으면 true, 자리가 없어 검사하지 못했으면 false
+    boolean acquire(String cstmId, int seq, String wthdAcntNo, long fingerprint, long amount, long now) {
+        for (;;) {
+            Window customer = window(CUSTOMER_KEY_PREFIX + cstmId);
+            Window account = window(ACCOUNT_KEY_PREFIX + wthdAcntNo);
+            if (customer == null || account == null) {
+                untracked.increment();
+                return false;
+            }
+
+            // 잠금 순서는 항상 고객 -> 계좌 (재생은 키 하나씩만 잠근다)
+            synchronized (customer) {
+                synchronized (account) {
+                    // 정리된 window를 잡았으면 새 window로 다시 시도한다.
+                    if (customer.retired || account.retired)
+                        continue;
+
+                    if (account.containsDuplicate(fingerprint, now - duplicateWindowMs)) {
+                        duplicateRejected.increment();
+                        throw new BusinessException("The same transfer was requested within the last "
+                                + duplicateWindowMs / 1000 + " seconds.", HttpStatus.CONFLICT);
+                    }
+                    if (customer.exceeds(customerLimit, amount, now - windowMs) || account.exceeds(accountLimit, amount, now - windowMs)) {
+                        velocityRejected.increment();
+                        throw new BusinessException("Too many transfers or too large an amount in the last "
+                                + windowMs / 1000 + " seconds.", HttpStatus.UNPROCESSABLE_ENTITY);
+                    }
+
+                    customer.add(now, amount, fingerprint, seq, now - retentionMs);
+                    account.add(now, amount, fingerprint, seq, now - retentionMs);
+                    allowed.increment();
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * transfer 토픽에서 읽은 이체를 기록한다. 이 인스턴스가 이미 기록한 이체(같은 순번)와 window가 지난 이체는 건너뛴다.
+     */
+    public void replay(String cstmId, int seq, String wthdAcntNo, String dpstAcntNo, Long trnfAmt, long committedAt) {
+        if (!enabled || cstmId == null || wthdAcntNo == null)
+            return;
+
+        long amount = trnfAmt == null ? 0 : trnfAmt;
+        replay(cstmId, seq, wthdAcntNo, fingerprint(dpstAcntNo, amount), amount, committedAt, System.currentTimeMillis());
+    }
+
+    void replay(String cstmId, int seq, String wthdAcntNo, long fingerprint, long amount, long committedAt, long now) {
+        long retainedSince = now - retentionMs;
+        if (committedAt < retainedSince)
+            return;
+
+        recordIfAbsent(CUSTOMER_KEY_PREFIX + cstmId, seq, committedAt, amount, fingerprint, retainedSince);
+        recordIfAbsent(ACCOUNT_KEY_PREFIX + wthdAcntNo, seq, committedAt, amount, fingerprint, retainedSince);
+    }
+
+    // 한도 검사 없이 기록한다. (다른 인스턴스가 이미 허용한 이체)
+    private void recordIfAbsent(String key, int seq, long time, long amount, long fingerprint, long retainedSince) {
+        for (;;) {
+            Window window = window(key);
+            if (window == null)
+                return;
+
+            synchronized (window) {
+                if (window.retired)
+                    continue;
+                if (!window.containsSeq(seq, retainedSince))
+                    window.add(time, amount, fingerprint, seq, retainedSince);
+                return;
+            }
+        }
+    }
+
+    private void release(String cstmId, int seq, String wthdAcntNo, long time) {
+        for (String key : new String[] { CUSTOMER_KEY_PREFIX + cstmId, ACCOUNT_KEY_PREFIX + wthdAcntNo }) {
+            Window window = windows.get(key);
+            if (window != null) {
+                synchronized (window) {
+                    window.release(seq, time);
+                }
+            }
+        }
+    }
+
+    private Window window(String key) {
+        Window window = windows.get(key);
+        if (window != null)
+            return window;
+
+        if (windows.size() >= maxKeys) {
+            evictIdleWindows();
+            if (windows.size() >= maxKeys)
+                return null;
+        }
+        return windows.computeIfAbsent(key, k -> new Window());
+    }
+
+    // 마지막 이체가 window보다 오래된 키를 지운다. 정리 중인 다른 스레드가 있으면 기다리지 않는다.
+    @Scheduled(fixedDelayString = "${transfer.velocity.window-ms:60000}")
+    public void evictIdleWindows() {
+        if (!evictionLock.tryLock())
+            return;
+        try {
+            long retainedSince = System.currentTimeMillis() - retentionMs;
+            int evicted = 0;
+            for (Iterator<Map.Entry<String, Window>> it = windows.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Window> entry = it.next();
+                Window window = entry.getValue();
+                synchronized (window) {
+                    if (window.latest >= retainedSince)
+                        continue;
+                    window.retired = true;
+                }
+                if (windows.remove(entry.getKey(), window))
+                    evicted++;
+            }
+            if (evicted > 0)
+                LOGGER.debug("Evicted [" + evicted + "] idle transfer velocity windows, [" + windows.size() + "] remain");
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    int windowCount() {
+        return windows.size();
+    }
+
+    // 입금 계좌번호와 금액의 64비트 지문 (FNV-1a)
+    static long fingerprint(String dpstAcntNo, long amount) {
+        long hash = 0xcbf29ce484222325L;
+        if (dpstAcntNo != null) {
+            for (int i = 0; i < dpstAcntNo.length(); i++) {
+                hash ^= dpstAcntNo.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            hash ^= (amount >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Limit {
+        private final int maxCount;
+        private final long maxAmount;
+
+        private Limit(int maxCount, long maxAmount) {
+            this.maxCount = maxCount;
+            this.maxAmount = maxAmount;
+        }
+    }
+
+    /**
+     * 키 하나의 최근 이체. 칸 i(0 <= i < size)의 이체는 (times[i], amounts[i], fingerprints[i], seqs[i])이며 순서는 없다.
+     * 모든 접근은 window 잠금 안에서 한다.
+     */
+    private static final class Window {
+        private static final int INITIAL_LENGTH = 4;
+
+        private long[] times;
+        private long[] amounts;
+        private long[] fingerprints;
+        private int[] seqs;
+        private int size;
+        private long latest = Long.MIN_VALUE;
+        private boolean retired;
+
+        private Window() {
+            this.times = new long[INITIAL_LENGTH];
+            this.amounts = new long[INITIAL_LENGTH];
+            this.fingerprints = new long[INITIAL_LENGTH];
+            this.seqs = new int[INITIAL_LENGTH];
+        }
+
+        // 이 이체를 더하면 since 이후의 건수/금액이 한도를 넘는지
+        private boolean exceeds(Limit limit, long amount, long since) {
+            int count = 1;
+            long total = amount;
+            for (int i = 0; i < size; i++) {
+                if (times[i] >= since) {
+                    count++;
+                    total += amounts[i];
+                }
+            }
+            return count > limit.maxCount || total > limit.maxAmount;
+        }
+
+        private boolean containsDuplicate(long fingerprint, long since) {
+            for (int i = 0; i < size; i++) {
+                if (fingerprints[i] == fingerprint && times[i] >= since)
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean containsSeq(int seq, long since) {
+            for (int i = 0; i < size; i++) {
+                if (seqs[i] == seq && times[i] >= since)
+                    return true;
+            }
+            return false;
+        }
+
+        // 되돌린 칸이나 retainedSince보다 오래된 칸에 쓰고, 없으면 뒤에 붙인다. (보관 기간 안의 이체는 덮어쓰지 않는다)
+        private void add(long time, long amount, long fingerprint, int seq, long retainedSince) {
+            int slot = reusableSlot(retainedSince);
+            if (slot < 0) {
+                if (size == times.length)
+                    grow();
+                slot = size++;
+            }
+
+            times[slot] = time;
+            amounts[slot] = amount;
+            fingerprints[slot] = fingerprint;
+            seqs[slot] = seq;
+            latest = Math.max(latest, time);
+        }
+
+        // RELEASED(Long.MIN_VALUE)도 retainedSince보다 작다.
+        private int reusableSlot(long retainedSince) {
+            for (int i = 0; i < size; i++) {
+                if (times[i] < retainedSince)
+                    return i;
+            }
+            return -1;
+        }
+
+        private void release(int seq, long time) {
+            for (int i = 0; i < size; i++) {
+                if (seqs[i] == seq && times[i] == time)
+                    times[i] = RELEASED;
+            }
+        }
+
+        // 가득 찬 배열을 두 배로 늘린다.
+        private void grow() {
+            int length = times.length * 2;
+            times = Arrays.copyOf(times, length);
+            amounts = Arrays.copyOf(amounts, length);
+            fingerprints = Arrays.copyOf(fingerprints, length);
+            seqs = Arrays.copyOf(seqs, length);
+        }
+    }
+}
@@ -1,3 +1,9 @@
+DROP TABLE IF EXISTS TB_EVNT_OTBX;
+DROP TABLE IF EXISTS TB_EVNT_OTBX_RLY;
+DROP SEQUENCE IF EXISTS SEQ_EVENT_OUTBOX;
+DROP TABLE IF EXISTS TB_IDMP_KEY;
+DROP TABLE IF EXISTS TB_TRNF_SEQ;
+DROP TABLE IF EXISTS TB_BLK_TRNF_ITEM;
 DROP TABLE IF EXISTS TB_TRNF_HST;
 DROP TABLE IF EXISTS TB_TRNF_LMT;
                  
@@ -13,8 +19,9 @@ CREATE TABLE TB_TRNF_HST
   RCV_MM	VARCHAR(100) NOT NULL,
   RCV_CSTM_NM	VARCHAR(20) NOT NULL,
   TRNF_AMT	BIGINT DEFAULT 0,
-  TRNF_DTM	VARCHAR(20) NOT NULL
+  TRNF_DTM	TIMESTAMP(0) NOT NULL DEFAULT LOCALTIMESTAMP(0)
 )
+PARTITION BY RANGE (TRNF_DTM)
 ;
 COMMENT ON TABLE TB_TRNF_HST
   IS 'Transfer History';
@@ -41,7 +48,56 @@ COMMENT ON COLUMN TB_TRNF_HST.TRNF_AMT
 COMMENT ON COLUMN TB_TRNF_HST.TRNF_DTM
   IS 'Transfer Date and Time';
 ALTER TABLE TB_TRNF_HST
-  ADD CONSTRAINT TB_TRNF_HST_PK PRIMARY KEY (CSTM_ID, SEQ);
+  ADD CONSTRAINT TB_TRNF_HST_PK PRIMARY KEY (CSTM_ID, SEQ, TRNF_DTM);
+
+-- Monthly partitions (TB_TRNF_HST_YYYYMM) are created ahead of time by TransferHistoryArchiver.
+-- The default partition holds rows outside them: seed data and rows carried over from archived months.
+CREATE TABLE TB_TRNF_HST_DFLT PARTITION OF TB_TRNF_HST DEFAULT;
+-- A partitioned primary key must include the partition key, so (CSTM_ID, SEQ) is unique only within each partition:
+-- every partition gets a unique index on it, SEQ comes from per-customer sequences reserved in TB_TRNF_SEQ,
+-- and the archiver refuses to drop a month whose (CSTM_ID, SEQ) also exists in another partition.
+CREATE UNIQUE INDEX TB_TRNF_HST_DFLT_UK ON TB_TRNF_HST_DFLT (CSTM_ID, SEQ);
+COMMENT ON TABLE TB_TRNF_HST_DFLT
+  IS 'Transfer History (Default Partition)';
+
+CREATE TABLE TB_TRNF_SEQ
+(
+  CSTM_ID	VARCHAR(20) NOT NULL,
+  LAST_SEQ	INTEGER NOT NULL
+)
+;
+COMMENT ON TABLE TB_TRNF_SEQ
+  IS 'Transfer Sequence (last reserved transfer history sequence per customer)';
+COMMENT ON COLUMN TB_TRNF_SEQ.CSTM_ID
+  IS 'Customer ID';
+COMMENT ON COLUMN TB_TRNF_SEQ.LAST_SEQ
+  IS 'Last Reserved Sequence Number';
+ALTER TABLE TB_TRNF_SEQ
+  ADD CONSTRAINT TB_TRNF_SEQ_PK PRIMARY KEY (CSTM_ID);
+
+CREATE TABLE TB_BLK_TRNF_ITEM
+(
+  BLK_KEY	VARCHAR(100) NOT NULL,
+  BLK_IDX	INTEGER NOT NULL,
+  CSTM_ID	VARCHAR(20) NOT NULL,
+  SEQ		INTEGER NOT NULL,
+  UPD_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_BLK_TRNF_ITEM
+  IS 'Bulk Transfer Chunk Item (bulk transfers whose bulk withdrawal result is not yet reflected in TB_TRNF_HST)';
+COMMENT ON COLUMN TB_BLK_TRNF_ITEM.BLK_KEY
+  IS 'Bulk Withdrawal Idempotency Key (bulk:batch ID:chunk start index)';
+COMMENT ON COLUMN TB_BLK_TRNF_ITEM.BLK_IDX
+  IS 'Index in Bulk Transfer Batch';
+COMMENT ON COLUMN TB_BLK_TRNF_ITEM.CSTM_ID
+  IS 'Customer ID';
+COMMENT ON COLUMN TB_BLK_TRNF_ITEM.SEQ
+  IS 'Transfer History Sequence Number';
+COMMENT ON COLUMN TB_BLK_TRNF_ITEM.UPD_DTM
+  IS 'Update Date and Time (accepted, or last claimed by the stale chunk sweep)';
+ALTER TABLE TB_BLK_TRNF_ITEM
+  ADD CONSTRAINT TB_BLK_TRNF_ITEM_PK PRIMARY KEY (BLK_KEY, BLK_IDX);
 
 CREATE TABLE TB_TRNF_LMT
 (
@@ -59,4 +115,77 @@ COMMENT ON COLUMN TB_TRNF_LMT.ONE_TM_TRNF_LMT
 COMMENT ON COLUMN TB_TRNF_LMT.ONE_DY_TRNF_LMT
   IS 'One-Day Transfer Limit';
 ALTER TABLE TB_TRNF_LMT
-  ADD CONSTRAINT TB_TRNF_LMT_PK PRIMARY KEY (CSTM_ID);
\ No newline at end of file
+  ADD CONSTRAINT TB_TRNF_LMT_PK PRIMARY KEY (CSTM_ID);
+CREATE TABLE TB_IDMP_KEY
+(
+  IDMP_KEY	VARCHAR(200) NOT NULL,
+  STS_CD	VARCHAR(1) NOT NULL,
+  RQST_HASH	VARCHAR(70),
+  RSPN_STATUS	INTEGER,
+  RSPN_BODY	TEXT,
+  CRT_DTM	TIMESTAMP NOT NULL,
+  UPD_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_IDMP_KEY
+  IS 'Idempotency Key';
+COMMENT ON COLUMN TB_IDMP_KEY.IDMP_KEY
+  IS 'Request Path and Idempotency Key';
+COMMENT ON COLUMN TB_IDMP_KEY.STS_CD
+  IS 'Status Code';
+COMMENT ON COLUMN TB_IDMP_KEY.RQST_HASH
+  IS 'Request Hash';
+COMMENT ON COLUMN TB_IDMP_KEY.RSPN_STATUS
+  IS 'Response HTTP Status';
+COMMENT ON COLUMN TB_IDMP_KEY.RSPN_BODY
+  IS 'Response Body';
+COMMENT ON COLUMN TB_IDMP_KEY.CRT_DTM
+  IS 'Creation Date and Time';
+COMMENT ON COLUMN TB_IDMP_KEY.UPD_DTM
+  IS 'Update Date and Time';
+ALTER TABLE TB_IDMP_KEY
+  ADD CONSTRAINT TB_IDMP_KEY_PK PRIMARY KEY (IDMP_KEY);
+CREATE TABLE TB_EVNT_OTBX
+(
+  EVNT_SEQ	BIGINT NOT NULL,
+  TOPIC_NM	VARCHAR(100) NOT NULL,
+  EVNT_KEY	VARCHAR(100),
+  PAYLOAD	BYTEA NOT NULL,
+  TRC_CTX	VARCHAR(100),
+  CRT_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_EVNT_OTBX
+  IS 'Event Outbox';
+COMMENT ON COLUMN TB_EVNT_OTBX.EVNT_SEQ
+  IS 'Event Sequence Number';
+COMMENT ON COLUMN TB_EVNT_OTBX.TOPIC_NM
+  IS 'Topic Name';
+COMMENT ON COLUMN TB_EVNT_OTBX.EVNT_KEY
+  IS 'Event Key';
+COMMENT ON COLUMN TB_EVNT_OTBX.PAYLOAD
+  IS 'Event Payload';
+COMMENT ON COLUMN TB_EVNT_OTBX.TRC_CTX
+  IS 'Trace Context (W3C traceparent)';
+COMMENT ON COLUMN TB_EVNT_OTBX.CRT_DTM
+  IS 'Creation Date and Time';
+ALTER TABLE TB_EVNT_OTBX
+  ADD CONSTRAINT TB_EVNT_OTBX_PK PRIMARY KEY (EVNT_SEQ);
+CREATE SEQUENCE SEQ_EVENT_OUTBOX;
+CREATE TABLE TB_EVNT_OTBX_RLY
+(
+  LOCK_ID	BIGINT NOT NULL,
+  LAST_EVNT_SEQ	BIGINT NOT NULL,
+  UPD_DTM	TIMESTAMP NOT NULL
+)
+;
+COMMENT ON TABLE TB_EVNT_OTBX_RLY
+  IS 'Event Outbox Relay Position';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.LOCK_ID
+  IS 'Relay Lock ID';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.LAST_EVNT_SEQ
+  IS 'Last Relayed Event Sequence Number';
+COMMENT ON COLUMN TB_EVNT_OTBX_RLY.UPD_DTM
+  IS 'Update Date and Time';
+ALTER TABLE TB_EVNT_OTBX_RLY
+  ADD CONSTRAINT TB_EVNT_OTBX_RLY_PK PRIMARY KEY (LOCK_ID);
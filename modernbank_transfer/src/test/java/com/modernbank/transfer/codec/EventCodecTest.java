@@ -0,0 +1,146 @@
+package com.modernbank.transfer.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transfer.domain.entity.TransferHistory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+public class EventCodecTest {
+
+    private static final String TOPIC = "b2b-transfer";
+
+    @TempDir
+    Path registryDir;
+
+    private SchemaRegistry schemaRegistry;
+    private EventCodec eventCodec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        schemaRegistry = new SchemaRegistry(registryDir.toString());
+        eventCodec = new EventCodec(schemaRegistry);
+    }
+
+    @Test
+    void encode_thenDecode_ReturnSameTransferHistory() {
+        TransferHistory transfer = sampleTransfer(1);
+
+        byte[] encoded = eventCodec.encode(TOPIC, transfer);
+
+        assertTrue(EventCodec.isEncoded(encoded));
+        assertEquals(transfer, eventCodec.decode(encoded, TransferHistory.class));
+    }
+
+    @Test
+    void deserialize_withJsonOrBinary_ReturnSameTransferHistory() {
+        TransferHistory transfer = sampleTransfer(2);
+        EventDeserializer<TransferHistory> deserializer = new EventDeserializer<>(TransferHistory.class, eventCodec);
+
+        try (JsonSerializer<TransferHistory> jsonSerializer = new JsonSerializer<>()) {
+            assertEquals(transfer, deserializer.deserialize(TOPIC, jsonSerializer.serialize(TOPIC, transfer)));
+        }
+        assertEquals(transfer, deserializer.deserialize(TOPIC, new EventSerializer(eventCodec).serialize(TOPIC, transfer)));
+    }
+
+    @Test
+    void decode_withOtherReaderType_MatchFieldsByName() {
+        byte[] encoded = eventCodec.encode(TOPIC, sampleTransfer(3));
+
+        TransferSummary summary = eventCodec.decode(encoded, TransferSummary.class);
+
+        assertEquals("1111", summary.cstmId);
+        assertEquals(3L, summary.seq);  // int -> long
+        assertEquals(100000L, summary.trnfAmt);
+    }
+
+    @Test
+    void register_withChangedFieldType_ThrowException() {
+        eventCodec.encode(TOPIC, sampleTransfer(4));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> eventCodec.encode(TOPIC, new IncompatibleTransfer()));
+        assertTrue(e.getMessage().contains("trnfAmt"));
+    }
+
+    /**
+     * JSON 대비 메시지 크기와 역직렬화 시간을 측정한다.
+     *   ./gradlew test --tests '*EventCodecTest' -Dbenchmark.codec=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.codec", matches = ".+")
+    void benchmark_binaryVersusJson() throws Exception {
+        int count = 20000;
+        TransferHistory[] transfers = new TransferHistory[count];
+        for (int i = 0; i < count; i++)
+            transfers[i] = sampleTransfer(i);
+
+        ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+        byte[][] json = new byte[count][];
+        byte[][] binary = new byte[count][];
+        long jsonBytes = 0, binaryBytes = 0;
+        for (int i = 0; i < count; i++) {
+            json[i] = objectMapper.writeValueAsBytes(transfers[i]);
+            binary[i] = eventCodec.encode(TOPIC, transfers[i]);
+            jsonBytes += json[i].length;
+            binaryBytes += binary[i].length;
+        }
+
+        EventDeserializer<TransferHistory> deserializer = new EventDeserializer<>(TransferHistory.class, eventCodec);
+        // warm-up
+        for (int i = 0; i < count; i++) {
+            deserializer.deserialize(TOPIC, json[i]);
+            deserializer.deserialize(TOPIC, binary[i]);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+            deserializer.deserialize(TOPIC, json[i]);
+        long jsonNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+            deserializer.deserialize(TOPIC, binary[i]);
+        long binaryNanos = System.nanoTime() - start;
+
+        System.out.println("JSON   : " + (jsonBytes / count) + " bytes/message, " + (jsonNanos / count) + " ns/message to deserialize");
+        System.out.println("Binary : " + (binaryBytes / count) + " bytes/message, " + (binaryNanos / count) + " ns/message to deserialize");
+
+        assertTrue(binaryBytes * 2 < jsonBytes, "binary encoding should be less than half the size of JSON");
+    }
+
+    private TransferHistory sampleTransfer(int seq) {
+        return TransferHistory.builder()
+                .cstmId("1111")
+                .seq(seq)
+                .divCd("E")
+                .stsCd("0")
+                .dpstAcntNo("222201")
+                .wthdAcntNo("111101")
+                .wthdAcntSeq(seq)
+                .sndMm("급여")
+                .rcvMm("홍길동")
+                .rcvCstmNm("Amazon Web Services")
+                .trnfAmt(100000L)
+                .trnfDtm("2024-01-01 10:00:00")
+                .build();
+    }
+
+    static class TransferSummary {
+        String cstmId;
+        long seq;
+        Long trnfAmt;
+    }
+
+    static class IncompatibleTransfer {
+        String cstmId = "1111";
+        String trnfAmt = "100000";
+    }
+}
@@ -5,8 +5,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import java.util.Arrays;
 import java.util.List;
 
+import com.modernbank.transfer.domain.entity.BulkTransfer;
 import com.modernbank.transfer.domain.entity.TransferHistory;
 import com.modernbank.transfer.domain.entity.TransferLimit;
+import com.modernbank.transfer.service.BulkTransferService;
 import com.modernbank.transfer.service.TransferService;
 
 import org.hamcrest.Matchers;
@@ -26,6 +28,9 @@ public class TransferControllerTest {
     
 	@MockBean(name = "transferService")
 	private TransferService transferService;
+
+	@MockBean(name = "bulkTransferService")
+	private BulkTransferService bulkTransferService;
 	
 	@Test
     void transfer_withTransferHistory_ReturnTransferHistory() throws Exception {
@@ -122,6 +127,44 @@ public class TransferControllerTest {
 		// then (테스트 검증)
 		BDDMockito.verify(transferService).interBankTransfer(transferHistory);
 		
+    }
+	
+	@Test
+    void bulkBtobTransfer_withTransferHistoryList_ReturnAccepted() throws Exception {
+    	//given (테스트 준비사항)
+    	TransferHistory transferHistory = TransferHistory.builder()
+    			.cstmId("1111")
+    		    .dpstAcntNo("222201")
+    		    .wthdAcntNo("111101")
+    		    .sndMm("11")
+    		    .rcvMm("홍길동")
+    		    .trnfAmt(100L).build();
+    	
+    	BulkTransfer bulkTransfer = new BulkTransfer();
+    	bulkTransfer.setBatchId("batch-1");
+    	bulkTransfer.setTotalCount(1);
+    	bulkTransfer.setStatus(BulkTransfer.RECEIVED);
+    		
+    	// BDD -> transfer service 를 정의하기 위해서, stub
+    	BDDMockito.given(bulkTransferService.submitBulkTransfer(Arrays.asList(transferHistory))).willReturn(bulkTransfer);
+    	
+    	// when (테스트 수행)
+		mockMvc.perform(post("/external/bulk")
+    			.contentType(MediaType.APPLICATION_JSON)
+    			.content("[{\"cstmId\":\"1111\","
+    					+ "\"dpstAcntNo\":\"222201\","
+    					+ "\"wthdAcntNo\":\"111101\","
+    					+ "\"sndMm\":\"11\","
+    					+ "\"rcvMm\":\"홍길동\","
+    					+ "\"trnfAmt\":\"100\"}]"))
+    			.andExpect(MockMvcResultMatchers.status().isAccepted())
+    			.andExpect(MockMvcResultMatchers.jsonPath("$.batchId", Matchers.equalTo("batch-1")))
+    			.andExpect(MockMvcResultMatchers.jsonPath("$.totalCount", Matchers.equalTo(1)))
+    			.andExpect(MockMvcResultMatchers.jsonPath("$.status", Matchers.equalTo("RECEIVED")));
+				
+		// then (테스트 검증)
+		BDDMockito.verify(bulkTransferService).submitBulkTransfer(Arrays.asList(transferHistory));
+		
     }
 	
     @Test
@@ -0,0 +1,116 @@
+package com.modernbank.transfer.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 고객별 속도 제한 동작 확인과 경합 벤치마크.
+ *
+ * 1) 동작 확인 (항상 실행): burst 소진 후 거절, 대기 후 재허용, 등급 지정, 버킷 수 제한
+ *
+ * 2) 경합 벤치마크: 64 스레드가 한 고객(hot key)과 여러 고객(spread)에 동시에 요청할 때의 판정 시간과 처리량
+ *   ./gradlew test --tests '*CustomerRateLimiterBenchmark' -Dbenchmark.ratelimit=true [-Dbenchmark.threads=64 -Dbenchmark.calls=2000000 -Dbenchmark.customers=10000]
+ */
+public class CustomerRateLimiterBenchmark {
+
+    @Test
+    void rejectsBeyondBurstAndRefills() throws Exception {
+        CustomerRateLimiter limiter = new CustomerRateLimiter(new SimpleMeterRegistry(), true, "standard:10:5,premium:1000:100", "standard", "VIP:premium", 100, 60000);
+
+        for (int i = 0; i < 5; i++)
+            assertEquals(0, limiter.tryAcquire("C1"));
+        long waitNanos = limiter.tryAcquire("C1");
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(100), "wait: " + waitNanos);
+
+        // 다른 고객의 버킷은 영향을 받지 않는다.
+        assertEquals(0, limiter.tryAcquire("C2"));
+
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+        assertEquals(0, limiter.tryAcquire("C1"));
+
+        for (int i = 0; i < 100; i++)
+            assertEquals(0, limiter.tryAcquire("VIP"));
+    }
+
+    @Test
+    void boundsBucketCount() {
+        CustomerRateLimiter limiter = new CustomerRateLimiter(new SimpleMeterRegistry(), true, "standard:10:1", "standard", "", 2, 0);
+
+        assertEquals(0, limiter.tryAcquire("C1"));
+        assertEquals(0, limiter.tryAcquire("C2"));
+        // 자리가 없으면 유휴 버킷을 정리하고, 그래도 없으면 등급의 공용 버킷을 쓴다.
+        limiter.tryAcquire("C3");
+        assertTrue(limiter.bucketCount() <= 2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.ratelimit", matches = ".+")
+    void contention() throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 64);
+        int calls = Integer.getInteger("benchmark.calls", 2_000_000);
+        int customers = Integer.getInteger("benchmark.customers", 10_000);
+
+        String[] hotKey = { "HOT" };
+        String[] spread = new String[customers];
+        for (int i = 0; i < customers; i++)
+            spread[i] = "C" + i;
+
+        // JIT 워밍업
+        run("warm-up", threads, calls / 10, spread);
+
+        run("hot key", threads, calls, hotKey);
+        run("spread x" + customers, threads, calls, spread);
+    }
+
+    private static void run(String name, int threads, int calls, String[] keys) throws Exception {
+        CustomerRateLimiter limiter = new CustomerRateLimiter(new SimpleMeterRegistry(), true, "standard:100:200", "standard", "", 100_000, 60_000);
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long local = 0;
+                    for (int i = thread; i < calls; i += threads) {
+                        if (limiter.tryAcquire(keys[i % keys.length]) == 0)
+                            local++;
+                    }
+                    allowed.add(local);
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get();
+            long elapsed = System.nanoTime() - begin;
+
+            double seconds = elapsed / 1_000_000_000.0;
+            System.out.println(String.format("%-16s %3d threads %10d calls %12.0f calls/sec %8.1f ns/call (per thread) allowed %d",
+                    name, threads, calls, calls / seconds, (double) elapsed * threads / calls, allowed.sum()));
+
+            // 한 고객이 받을 수 있는 양: burst + 경과 시간 동안 채워진 토큰
+            long maxAllowedPerKey = 200 + (long) Math.ceil(seconds * 100) + 1;
+            assertTrue(allowed.sum() <= maxAllowedPerKey * keys.length, "allowed " + allowed.sum());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
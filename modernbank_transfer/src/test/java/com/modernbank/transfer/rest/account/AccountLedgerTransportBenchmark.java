@@ -0,0 +1,221 @@
+package com.modernbank.transfer.rest.account;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transfer.consistency.ConsistencyTokenTracker;
+import com.modernbank.transfer.rest.account.entity.BulkTransactionResult;
+import com.modernbank.transfer.rest.account.entity.TransactionHistory;
+import com.modernbank.transfer.rest.account.grpc.BulkTransactionReply;
+import com.modernbank.transfer.rest.account.grpc.BulkTransactionRequest;
+import com.modernbank.transfer.rest.account.grpc.Transaction;
+
+import io.micrometer.observation.ObservationRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Transfer -> Account 원장 호출의 REST(JSON/HTTP 1.1)와 gRPC(protobuf/HTTP 2) 비용 비교.
+ *
+ * 1) 직렬화 (서버 불필요): 일괄 출금 1건(요청 + 응답)을 인코딩/디코딩하는 시간과 크기
+ *   ./gradlew test --tests '*AccountLedgerTransportBenchmark' -Dbenchmark.ledger=true [-Dbenchmark.ledger.items=1000]
+ *
+ * 2) 호출 1회(hop) 지연: 실행 중인 Account Service(REST + gRPC)에 계좌 조회를 동시에 호출한 처리량과 p50/p99
+ *   ./gradlew test --tests '*AccountLedgerTransportBenchmark' -Dbenchmark.account.url=http://localhost:8081/modernbank/account
+ *   -Dbenchmark.account.acntNo=<존재하는 계좌번호> (선택) -Dbenchmark.account.grpc.target=localhost:9081 -Dbenchmark.calls=20000 -Dbenchmark.threads=16
+ */
+public class AccountLedgerTransportBenchmark {
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.ledger", matches = ".+")
+    void compareSerialization() throws Exception {
+        int items = Integer.getInteger("benchmark.ledger.items", 1000);
+        int iterations = Integer.getInteger("benchmark.ledger.iterations", 2000);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        List<TransactionHistory> withdrawals = withdrawals(items);
+        List<BulkTransactionResult> results = results(items);
+
+        // 요청 인코딩 -> 서버 디코딩 -> 응답 인코딩 -> 클라이언트 디코딩
+        SerializationRun json = () -> {
+            byte[] request = objectMapper.writeValueAsBytes(withdrawals);
+            objectMapper.readValue(request, TransactionHistory[].class);
+            byte[] reply = objectMapper.writeValueAsBytes(results);
+            objectMapper.readValue(reply, BulkTransactionResult[].class);
+            return request.length + reply.length;
+        };
+        SerializationRun protobuf = () -> {
+            byte[] request = toRequest(withdrawals).toByteArray();
+            BulkTransactionRequest.parseFrom(request);
+            byte[] reply = toReply(results).toByteArray();
+            BulkTransactionReply.parseFrom(reply);
+            return request.length + reply.length;
+        };
+
+        // JIT 워밍업
+        for (int i = 0; i < iterations; i++) {
+            json.run();
+            protobuf.run();
+        }
+
+        double jsonMicros = measureSerialization(json, iterations);
+        double protobufMicros = measureSerialization(protobuf, iterations);
+        int jsonBytes = json.run();
+        int protobufBytes = protobuf.run();
+
+        System.out.println(String.format("bulk withdrawal x%d  json     %10.1f us/call %10d bytes", items, jsonMicros, jsonBytes));
+        System.out.println(String.format("bulk withdrawal x%d  protobuf %10.1f us/call %10d bytes", items, protobufMicros, protobufBytes));
+        System.out.println(String.format("protobuf: x%.1f faster, %.0f%% of json size", jsonMicros / protobufMicros, 100.0 * protobufBytes / jsonBytes));
+        assertTrue(protobufBytes < jsonBytes);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.account.url", matches = ".+")
+    void compareHopLatency() throws Exception {
+        String acntNo = System.getProperty("benchmark.account.acntNo");
+        assertNotNull(acntNo, "-Dbenchmark.account.acntNo is required");
+        int calls = Integer.getInteger("benchmark.calls", 20000);
+        int threads = Integer.getInteger("benchmark.threads", 16);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(1000);
+        requestFactory.setReadTimeout(2000);
+        RestAccountLedgerClient rest = new RestAccountLedgerClient();
+        ReflectionTestUtils.setField(rest, "restTemplate", new RestTemplate(requestFactory));
+        ReflectionTestUtils.setField(rest, "accountServiceUrl", System.getProperty("benchmark.account.url"));
+
+        GrpcAccountLedgerClient grpc = new GrpcAccountLedgerClient(System.getProperty("benchmark.account.grpc.target", "localhost:9081"), 2000, 30000, 200, 16 * 1024 * 1024, 500, 5000, ObservationRegistry.NOOP, new ConsistencyTokenTracker());
+        try {
+            assertEquals(acntNo, rest.retrieveAccount(acntNo).getAcntNo());
+            assertEquals(acntNo, grpc.retrieveAccount(acntNo).getAcntNo());
+
+            // 커넥션/채널 수립과 JIT 워밍업
+            measureHop("warm-up rest", calls / 10, threads, i -> rest.retrieveAccount(acntNo));
+            measureHop("warm-up grpc", calls / 10, threads, i -> grpc.retrieveAccount(acntNo));
+
+            double restThroughput = measureHop("rest (json/http1.1)", calls, threads, i -> rest.retrieveAccount(acntNo));
+            double grpcThroughput = measureHop("grpc (protobuf/http2)", calls, threads, i -> grpc.retrieveAccount(acntNo));
+            System.out.println(String.format("account lookup hop: grpc x%.2f calls/sec vs rest", grpcThroughput / restThroughput));
+        } finally {
+            grpc.destroy();
+        }
+    }
+
+    private static double measureSerialization(SerializationRun run, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            run.run();
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static double measureHop(String name, int calls, int threads, Consumer<Integer> call) throws Exception {
+        long[] latencies = new long[calls];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = thread; i < calls; i += threads) {
+                        long callStart = System.nanoTime();
+                        call.accept(i);
+                        latencies[i] = System.nanoTime() - callStart;
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            Arrays.sort(latencies);
+            double throughput = calls / seconds;
+            System.out.println(String.format("%-24s %8d calls %10.0f calls/sec  p50 %7.2f ms  p99 %7.2f ms", name, calls, throughput,
+                    latencies[calls / 2] / 1_000_000.0, latencies[(int) (calls * 0.99)] / 1_000_000.0));
+            return throughput;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<TransactionHistory> withdrawals(int count) {
+        List<TransactionHistory> withdrawals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            withdrawals.add(TransactionHistory.builder()
+                    .acntNo("1000" + String.format("%06d", i))
+                    .divCd("W")
+                    .stsCd("0")
+                    .trnsAmt(10000L + i)
+                    .trnsBrnch("Payroll")
+                    .build());
+        }
+        return withdrawals;
+    }
+
+    private static List<BulkTransactionResult> results(int count) {
+        List<BulkTransactionResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BulkTransactionResult result = new BulkTransactionResult();
+            result.setIndex(i);
+            result.setAcntNo("1000" + String.format("%06d", i));
+            result.setSeq(100 + i);
+            result.setDivCd("W");
+            result.setStsCd("0");
+            result.setFormerBlnc(1_000_000L);
+            result.setTrnsAmt(10000L + i);
+            result.setAcntBlnc(990_000L - i);
+            result.setSuccess(true);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static BulkTransactionRequest toRequest(List<TransactionHistory> withdrawals) {
+        BulkTransactionRequest.Builder request = BulkTransactionRequest.newBuilder()
+                .setOperation(BulkTransactionRequest.Operation.WITHDRAW)
+                .setIdempotencyKey("bulk:benchmark:0");
+        for (TransactionHistory withdrawal : withdrawals) {
+            request.addTransactions(Transaction.newBuilder()
+                    .setAcntNo(withdrawal.getAcntNo())
+                    .setDivCd(withdrawal.getDivCd())
+                    .setStsCd(withdrawal.getStsCd())
+                    .setTrnsAmt(withdrawal.getTrnsAmt())
+                    .setTrnsBrnch(withdrawal.getTrnsBrnch()));
+        }
+        return request.build();
+    }
+
+    private static BulkTransactionReply toReply(List<BulkTransactionResult> results) {
+        BulkTransactionReply.Builder reply = BulkTransactionReply.newBuilder();
+        for (BulkTransactionResult result : results) {
+            reply.addResults(com.modernbank.transfer.rest.account.grpc.BulkTransactionResult.newBuilder()
+                    .setIndex(result.getIndex())
+                    .setAcntNo(result.getAcntNo())
+                    .setSeq(result.getSeq())
+                    .setDivCd(result.getDivCd())
+                    .setStsCd(result.getStsCd())
+                    .setFormerBlnc(result.getFormerBlnc())
+                    .setTrnsAmt(result.getTrnsAmt())
+                    .setAcntBlnc(result.getAcntBlnc())
+                    .setSuccess(result.isSuccess()));
+        }
+        return reply.build();
+    }
+
+    @FunctionalInterface
+    private interface SerializationRun {
+        int run() throws Exception;
+    }
+}
@@ -0,0 +1,85 @@
+package com.modernbank.transfer.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class CriticalPathAnalyzerTest {
+
+    private final CriticalPathAnalyzer analyzer = new CriticalPathAnalyzer();
+
+    @Test
+    void followsLatestFinishingChildAndSeparatesAsyncHops() {
+        List<RecordedSpan> spans = List.of(
+                span("c1", null, "customer", "http post /customers", 0, 100),
+                span("c2", "c1", "customer", "http post transfer", 10, 90),
+                span("t1", "c2", "transfer", "http post /transfers", 12, 88),
+                span("t2", "t1", "transfer", "db TransferRepository.selectLimit", 15, 20),
+                span("t3", "t1", "transfer", "grpc withdraw", 25, 60),
+                span("a1", "t3", "account", "grpc withdraw", 27, 58),
+                span("a2", "a1", "account", "db AccountRepository.updateBalance", 30, 50),
+                span("t4", "t1", "transfer", "db TransferRepository.insertHistory", 60, 62),
+                // 커밋 후 outbox 릴레이 -> Kafka -> CQRS 프로젝션
+                span("t5", "t1", "transfer", "outbox relay transfer", 150, 152),
+                span("t6", "t5", "transfer", "transfer send", 150, 152),
+                span("q1", "t6", "cqrs", "transfer receive", 170, 180),
+                // 루트와 이어지지 않은 조각은 무시한다.
+                span("x1", "missing", "b2bt", "b2b-transfer receive", 5, 500));
+
+        TraceBreakdown breakdown = analyzer.analyze("trace-1", spans);
+
+        assertEquals("customer", breakdown.getRootService());
+        assertEquals(11, breakdown.getSpanCount());
+        assertEquals(100.0, breakdown.getDurationMs());
+        assertEquals(180.0, breakdown.getEndToEndMs());
+        assertEquals(List.of("customer:0.0", "customer:10.0", "transfer:12.0", "transfer:15.0", "transfer:20.0", "transfer:25.0",
+                        "account:27.0", "account:30.0", "account:50.0", "transfer:58.0", "transfer:60.0", "transfer:62.0",
+                        "customer:88.0", "customer:90.0"),
+                breakdown.getCriticalPath().stream().map(segment -> segment.getService() + ":" + segment.getOffsetMs()).collect(Collectors.toList()));
+        assertEquals(100.0, breakdown.getCriticalPath().stream().mapToDouble(TraceBreakdown.Segment::getDurationMs).sum(), 1e-9);
+        assertEquals(24.0, breakdown.getByService().get("customer"));
+        assertEquals(45.0, breakdown.getByService().get("transfer"));
+        assertEquals(31.0, breakdown.getByService().get("account"));
+
+        assertEquals(2, breakdown.getAsyncHops().size());
+        TraceBreakdown.AsyncHop relay = breakdown.getAsyncHops().get(0);
+        assertEquals("outbox relay transfer", relay.getSpan());
+        assertEquals(62.0, relay.getLagMs());
+        TraceBreakdown.AsyncHop projection = breakdown.getAsyncHops().get(1);
+        assertEquals("cqrs", projection.getService());
+        assertEquals("transfer send", projection.getParentSpan());
+        assertEquals(18.0, projection.getLagMs());
+        assertEquals(10.0, projection.getDurationMs());
+    }
+
+    @Test
+    void overlappingChildrenAreCutAtTheLaterChildStart() {
+        List<RecordedSpan> spans = List.of(
+                span("p", null, "transfer", "http get /limits", 0, 100),
+                span("a", "p", "transfer", "http get account", 10, 50),
+                span("b", "p", "transfer", "http get account (hedge)", 20, 80),
+                span("c", "p", "transfer", "db selectLimit", 30, 40));
+
+        TraceBreakdown breakdown = analyzer.analyze("trace-2", spans);
+
+        assertEquals(List.of("http get /limits:10.0", "http get account:10.0", "http get account (hedge):60.0", "http get /limits:20.0"),
+                breakdown.getCriticalPath().stream().map(segment -> segment.getSpan() + ":" + segment.getDurationMs()).collect(Collectors.toList()));
+        assertTrue(breakdown.getAsyncHops().isEmpty());
+    }
+
+    private static RecordedSpan span(String spanId, String parentSpanId, String service, String name, long startMs, long endMs) {
+        RecordedSpan span = new RecordedSpan();
+        span.setTraceId("trace");
+        span.setSpanId(spanId);
+        span.setParentSpanId(parentSpanId);
+        span.setService(service);
+        span.setName(name);
+        span.setKind("INTERNAL");
+        span.setStartEpochNanos(1_000_000_000_000L + startMs * 1_000_000);
+        span.setEndEpochNanos(1_000_000_000_000L + endMs * 1_000_000);
+        return span;
+    }
+}
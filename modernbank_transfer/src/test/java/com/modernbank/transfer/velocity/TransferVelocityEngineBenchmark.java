@@ -0,0 +1,95 @@
+package com.modernbank.transfer.velocity;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.modernbank.transfer.exception.BusinessException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 이체 속도/중복 검사 벤치마크. 여러 스레드가 여러 고객(spread)과 한 고객(hot key)의 이체를 동시에 검사할 때의 처리량과 검사 한 번의 시간
+ * (동작 확인은 TransferVelocityEngineTest)
+ *   ./gradlew test --tests '*TransferVelocityEngineBenchmark' -Dbenchmark.velocity=true [-Dbenchmark.threads=64 -Dbenchmark.calls=2000000 -Dbenchmark.customers=100000]
+ */
+public class TransferVelocityEngineBenchmark {
+
+    private static TransferVelocityEngine engine(int maxCount, long maxAmount, int maxKeys) {
+        return new TransferVelocityEngine(new SimpleMeterRegistry(), true, 60_000, maxCount, maxAmount, maxCount, maxAmount, 10_000, maxKeys);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.velocity", matches = ".+")
+    void throughput() throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 64);
+        int calls = Integer.getInteger("benchmark.calls", 2_000_000);
+        int customers = Integer.getInteger("benchmark.customers", 100_000);
+
+        // JIT 워밍업
+        run("warm-up", threads, calls / 10, customers);
+
+        run("hot key", threads, calls, 1);
+        run("spread x" + customers, threads, calls, customers);
+    }
+
+    private static void run(String name, int threads, int calls, int customers) throws Exception {
+        TransferVelocityEngine engine = engine(10, 50_000_000, 2 * customers + 1);
+        String[] cstmIds = new String[customers];
+        String[] acntNos = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            cstmIds[i] = "C" + i;
+            acntNos[i] = "A" + i;
+        }
+
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long local = 0;
+                    for (int i = thread; i < calls; i += threads) {
+                        int key = i % customers;
+                        try {
+                            engine.acquire(cstmIds[key], i, acntNos[key], "D" + (i & 1023), 10_000L + i);
+                            local++;
+                        } catch (BusinessException e) {
+                            // 한도 초과
+                        }
+                    }
+                    allowed.add(local);
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get();
+            long elapsed = System.nanoTime() - begin;
+
+            double seconds = elapsed / 1_000_000_000.0;
+            System.out.println(String.format("velocity %-14s %9d checks on %3d threads: %11.0f checks/sec, %6.0f ns/check, %d allowed, %d rejected",
+                    name, calls, threads, calls / seconds, (double) elapsed * threads / calls, allowed.sum(), calls - allowed.sum()));
+
+            // 한 고객이 window 안에 받을 수 있는 이체는 max-count 건
+            long windows = (long) Math.ceil(seconds / 60) + 1;
+            assertTrue(allowed.sum() <= 10L * windows * customers, "allowed " + allowed.sum());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
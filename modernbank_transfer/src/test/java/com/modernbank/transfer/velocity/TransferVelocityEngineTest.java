@@ -0,0 +1,134 @@
+package com.modernbank.transfer.velocity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.modernbank.transfer.exception.BusinessException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 건수/금액 한도, 중복 이체, window 경과 후 재허용, 토픽 재생, 롤백된 이체, 키 수 제한
+ */
+public class TransferVelocityEngineTest {
+
+    private static TransferVelocityEngine engine(int maxCount, long maxAmount, int maxKeys) {
+        return new TransferVelocityEngine(new SimpleMeterRegistry(), true, 60_000, maxCount, maxAmount, maxCount, maxAmount, 10_000, maxKeys);
+    }
+
+    private static long fp(String dpstAcntNo, long amount) {
+        return TransferVelocityEngine.fingerprint(dpstAcntNo, amount);
+    }
+
+    @Test
+    void rejectsBeyondCountAndAmountWithinWindow() {
+        TransferVelocityEngine engine = engine(3, 1_000, 100);
+        long now = 1_000_000;
+
+        for (int seq = 1; seq <= 3; seq++)
+            assertTrue(engine.acquire("C1", seq, "A1", fp("D" + seq, 100), 100, now + seq));
+        BusinessException count = assertThrows(BusinessException.class, () -> engine.acquire("C1", 4, "A1", fp("D4", 100), 100, now + 4));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, count.getHttpStatus());
+
+        // window가 지나면 다시 허용한다.
+        assertTrue(engine.acquire("C1", 4, "A1", fp("D4", 100), 100, now + 60_010));
+
+        BusinessException amount = assertThrows(BusinessException.class, () -> engine.acquire("C2", 1, "A2", fp("D1", 1_001), 1_001, now));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, amount.getHttpStatus());
+    }
+
+    @Test
+    void rejectsDuplicateWithinDuplicateWindow() {
+        TransferVelocityEngine engine = engine(10, 1_000_000, 100);
+        long now = 1_000_000;
+
+        assertTrue(engine.acquire("C1", 1, "A1", fp("D1", 500), 500, now));
+        BusinessException duplicate = assertThrows(BusinessException.class, () -> engine.acquire("C1", 2, "A1", fp("D1", 500), 500, now + 9_999));
+        assertEquals(HttpStatus.CONFLICT, duplicate.getHttpStatus());
+
+        // 금액이나 입금 계좌가 다르면 중복이 아니다.
+        assertTrue(engine.acquire("C1", 2, "A1", fp("D1", 501), 501, now + 1));
+        assertTrue(engine.acquire("C1", 3, "A1", fp("D2", 500), 500, now + 2));
+        assertTrue(engine.acquire("C1", 4, "A1", fp("D1", 500), 500, now + 10_001));
+    }
+
+    @Test
+    void replayCountsOtherTransfersOnce() {
+        TransferVelocityEngine engine = engine(2, 1_000_000, 100);
+        long now = 1_000_000;
+
+        assertTrue(engine.acquire("C1", 1, "A1", fp("D1", 100), 100, now));
+        // 이 인스턴스가 기록한 이체가 토픽에서 다시 와도 한 번만 센다.
+        engine.replay("C1", 1, "A1", fp("D1", 100), 100, now + 50, now + 100);
+        // window가 지난 이체는 기록하지 않는다.
+        engine.replay("C1", 7, "A1", fp("D7", 100), 100, now - 70_000, now + 100);
+        assertTrue(engine.acquire("C1", 2, "A1", fp("D2", 100), 100, now + 200));
+
+        // 다른 인스턴스가 처리한 이체는 센다.
+        TransferVelocityEngine other = engine(2, 1_000_000, 100);
+        other.replay("C1", 1, "A1", fp("D1", 100), 100, now, now + 100);
+        other.replay("C1", 2, "A1", fp("D2", 100), 100, now + 200, now + 300);
+        assertThrows(BusinessException.class, () -> other.acquire("C1", 3, "A1", fp("D3", 100), 100, now + 400));
+    }
+
+    @Test
+    void replayBeyondMaxCountKeepsEveryTransferInWindow() {
+        TransferVelocityEngine engine = engine(2, 1_000_000, 100);
+        long now = 1_000_000;
+
+        // 두 인스턴스가 동시에 2건씩 허용한 이체. 가장 먼저 기록한 이체도 밀려나지 않아야 한다.
+        for (int seq = 1; seq <= 4; seq++)
+            engine.replay("C1", seq, "A1", fp("D" + seq, 100), 100, now + seq, now + 10);
+
+        BusinessException duplicate = assertThrows(BusinessException.class, () -> engine.acquire("C1", 5, "A1", fp("D1", 100), 100, now + 20));
+        assertEquals(HttpStatus.CONFLICT, duplicate.getHttpStatus());
+        BusinessException count = assertThrows(BusinessException.class, () -> engine.acquire("C1", 5, "A1", fp("D5", 100), 100, now + 20));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, count.getHttpStatus());
+
+        // window가 지난 칸은 다시 쓴다.
+        assertTrue(engine.acquire("C1", 5, "A1", fp("D5", 100), 100, now + 60_010));
+    }
+
+    @Test
+    void rolledBackTransfersDoNotEvictCommittedOnes() {
+        TransferVelocityEngine engine = engine(2, 1_000_000, 100);
+
+        acquireRolledBack(engine, 1);
+        engine.acquire("C1", 2, "A1", "D2", 100L);
+        acquireRolledBack(engine, 3);
+        acquireRolledBack(engine, 4);
+        engine.acquire("C1", 5, "A1", "D5", 100L);
+
+        // 롤백으로 비운 칸만 다시 쓰므로 2, 5번 이체가 모두 남아 있다.
+        BusinessException count = assertThrows(BusinessException.class, () -> engine.acquire("C1", 6, "A1", "D6", 100L));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, count.getHttpStatus());
+    }
+
+    @Test
+    void boundsKeyCount() {
+        TransferVelocityEngine engine = engine(10, 1_000_000, 4);
+        long now = System.currentTimeMillis();
+
+        assertTrue(engine.acquire("C1", 1, "A1", fp("D1", 100), 100, now));
+        assertTrue(engine.acquire("C2", 1, "A2", fp("D1", 100), 100, now));
+        // 자리가 없으면 유휴 키를 정리하고, 그래도 없으면 검사하지 않는다.
+        assertFalse(engine.acquire("C3", 1, "A3", fp("D1", 100), 100, now));
+        assertTrue(engine.windowCount() <= 4);
+    }
+
+    // 트랜잭션 안에서 검사를 통과한 뒤 롤백된 이체
+    private static void acquireRolledBack(TransferVelocityEngine engine, int seq) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.acquire("C1", seq, "A1", "D" + seq, 100L);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
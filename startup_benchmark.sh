@@ -0,0 +1,148 @@
+#!/bin/bash
+
+# startup_benchmark.sh
+# 서비스별 기동 시간(프로세스 시작 ~ 첫 번째 성공 요청까지)을 기본 실행과 빠른 기동 실행으로 측정한다.
+#
+#   ./startup_benchmark.sh [-m default|fast|both] [-n 반복횟수] [서비스 ...]
+#   예) ./startup_benchmark.sh -m both -n 3 account transfer
+#
+# - default : java -jar build/libs/<서비스>-0.0.1-SNAPSHOT.jar  (./gradlew build)
+# - fast    : Dockerfile.faststartup과 같은 방식  (./gradlew build -PfastStartup)
+#             jar를 build/fast-startup에 풀고 AppCDS 학습 실행 후 -XX:SharedArchiveFile, -Dspring.aot.enabled=true, STARTUP_LAZY_INIT=true로 실행
+# 첫 번째 성공 요청은 /actuator/health가 HTTP 200을 반환한 시점이다. (DB, Kafka가 떠 있어야 한다)
+# 결과는 표로 출력하고 build/startup-benchmark.csv에 누적한다.
+
+BASE_DIR=$(cd "$(dirname "$0")" && pwd)
+MODE="both"
+RUNS=3
+TIMEOUT_SEC=180
+RESULT_FILE="${BASE_DIR}/build/startup-benchmark.csv"
+
+# 서비스명 포트 컨텍스트경로
+SERVICES=(
+    "account 8081 /modernbank/account"
+    "b2bt 8082 /modernbank"
+    "customer 8083 /modernbank/customer"
+    "cqrs 8084 /modernbank/cqrs"
+    "transfer 8085 /modernbank/transfer"
+    "product 8086 /modernbank/product"
+)
+
+while getopts "m:n:" opt; do
+    case $opt in
+        m) MODE=$OPTARG ;;
+        n) RUNS=$OPTARG ;;
+        *) echo "Usage: $0 [-m default|fast|both] [-n runs] [service ...]"; exit 1 ;;
+    esac
+done
+shift $((OPTIND - 1))
+SELECTED=("$@")
+
+case $MODE in
+    default) MODES=(default) ;;
+    fast) MODES=(fast) ;;
+    both) MODES=(default fast) ;;
+    *) echo "Unknown mode: $MODE"; exit 1 ;;
+esac
+
+now_ms() {
+    date +%s%3N
+}
+
+# 빠른 기동용 jar 압축 해제 + CDS 아카이브 생성 (jar가 바뀌었을 때만)
+prepare_fast() {
+    local service_dir=$1
+    local jar=$2
+    local fast_dir="${service_dir}/build/fast-startup"
+
+    if [ -f "${fast_dir}/application.jsa" ] && [ "${fast_dir}/application.jsa" -nt "${jar}" ]; then
+        return 0
+    fi
+
+    rm -rf "${fast_dir}"
+    java -Djarmode=tools -jar "${jar}" extract --destination "${fast_dir}" > /dev/null || return 1
+    mv "${fast_dir}/$(basename "${jar}")" "${fast_dir}/application.jar"
+    (cd "${fast_dir}" && java -XX:ArchiveClassesAtExit=application.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar application.jar > training.log 2>&1) || return 1
+}
+
+# 한 번 기동하고 첫 번째 성공 요청까지의 시간(ms)을 출력한다. 실패하면 빈 값.
+measure_once() {
+    local service_dir=$1
+    local jar=$2
+    local port=$3
+    local context_path=$4
+    local mode=$5
+    local health_url="http://localhost:${port}${context_path}/actuator/health"
+    local start pid elapsed=""
+
+    if lsof -ti:"${port}" > /dev/null 2>&1; then
+        echo "port ${port} is already in use" >&2
+        return 1
+    fi
+
+    start=$(now_ms)
+    if [ "${mode}" = "fast" ]; then
+        (cd "${service_dir}/build/fast-startup" && STARTUP_LAZY_INIT=true exec java -XX:SharedArchiveFile=application.jsa \
+            -Dspring.aot.enabled=true -jar application.jar > "${service_dir}/build/startup-benchmark.log" 2>&1) &
+    else
+        java -jar "${jar}" > "${service_dir}/build/startup-benchmark.log" 2>&1 &
+    fi
+    pid=$!
+
+    while [ $(( $(now_ms) - start )) -lt $(( TIMEOUT_SEC * 1000 )) ]; do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "${health_url}")" = "200" ]; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        kill -0 "${pid}" 2> /dev/null || break
+        sleep 0.05
+    done
+
+    kill "${pid}" 2> /dev/null
+    wait "${pid}" 2> /dev/null
+    echo "${elapsed}"
+}
+
+mkdir -p "$(dirname "${RESULT_FILE}")"
+[ -f "${RESULT_FILE}" ] || echo "date,service,mode,run,ms" > "${RESULT_FILE}"
+
+printf "%-10s %-8s %-5s %10s\n" "SERVICE" "MODE" "RUN" "MS"
+echo "-------------------------------------"
+
+for entry in "${SERVICES[@]}"; do
+    read -r name port context_path <<< "${entry}"
+    if [ ${#SELECTED[@]} -gt 0 ] && [[ ! " ${SELECTED[*]} " =~ " ${name} " ]]; then
+        continue
+    fi
+
+    service_dir="${BASE_DIR}/modernbank_${name}"
+    jar="${service_dir}/build/libs/modernbank_${name}-0.0.1-SNAPSHOT.jar"
+    if [ ! -f "${jar}" ]; then
+        echo "${jar} not found. build first." >&2
+        continue
+    fi
+
+    for mode in "${MODES[@]}"; do
+        if [ "${mode}" = "fast" ] && ! prepare_fast "${service_dir}" "${jar}"; then
+            echo "modernbank_${name}: fast-startup preparation failed (see build/fast-startup/training.log)" >&2
+            continue
+        fi
+
+        total=0
+        succeeded=0
+        for run in $(seq 1 "${RUNS}"); do
+            ms=$(measure_once "${service_dir}" "${jar}" "${port}" "${context_path}" "${mode}")
+            printf "%-10s %-8s %-5s %10s\n" "${name}" "${mode}" "${run}" "${ms:-FAIL}"
+            echo "$(date '+%Y-%m-%dT%H:%M:%S'),${name},${mode},${run},${ms}" >> "${RESULT_FILE}"
+            if [ -n "${ms}" ]; then
+                total=$(( total + ms ))
+                succeeded=$(( succeeded + 1 ))
+            fi
+        done
+        [ ${succeeded} -gt 0 ] && printf "%-10s %-8s %-5s %10s\n" "${name}" "${mode}" "avg" "$(( total / succeeded ))"
+    done
+done
+
+echo "-------------------------------------"
+echo "Results appended to ${RESULT_FILE}"